@@ -227,6 +227,9 @@ public final class Constants {
     public static final String TASK_ERROR_MESSAGE     = encodePropertyKey(TASK_PREFIX + "errorMessage");
     public static final String TASK_START_TIME        = encodePropertyKey(TASK_PREFIX + "startTime");
     public static final String TASK_END_TIME          = encodePropertyKey(TASK_PREFIX + "endTime");
+    public static final String TASK_PAYLOAD           = encodePropertyKey(TASK_PREFIX + "payload");
+    public static final String TASK_PAYLOAD_NAME      = encodePropertyKey(TASK_PREFIX + "payloadName");
+    public static final String TASK_PAYLOAD_LABEL     = TASK_PREFIX + "payload";
 
     /**
      * Index Recovery vertex property keys.
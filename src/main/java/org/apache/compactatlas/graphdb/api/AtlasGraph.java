@@ -26,6 +26,7 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -56,6 +57,15 @@ public interface AtlasGraph<V, E> {
      */
     AtlasEdge<V, E> getEdgeBetweenVertices(AtlasVertex fromVertex, AtlasVertex toVertex, String relationshipLabel);
 
+    /**
+     * Fetch active edges from a vertex to any of the given vertices using relationshipLabel, in a single traversal
+     * @param fromVertex
+     * @param toVertices
+     * @param relationshipLabel
+     * @return id of the to-vertex -> edge, for to-vertices having such an edge
+     */
+    Map<Object, AtlasEdge<V, E>> getEdgesBetweenVertices(AtlasVertex fromVertex, Collection<AtlasVertex> toVertices, String relationshipLabel);
+
         /**
          * Adds a vertex to the graph.
          *
@@ -145,6 +155,14 @@ public interface AtlasGraph<V, E> {
      */
     Iterable<AtlasVertex<V, E>> getVertices(String key, Object value);
 
+    /**
+     * Loads the properties of the given vertices from the storage backend in a single batch, so that
+     * properties read later in the current transaction don't need a backend call per vertex.
+     *
+     * @param vertices
+     */
+    void prefetchProperties(Collection<? extends AtlasVertex> vertices);
+
     /**
      * Creates a graph query.
      *
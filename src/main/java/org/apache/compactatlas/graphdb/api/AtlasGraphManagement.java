@@ -178,6 +178,26 @@ public interface AtlasGraphManagement {
      */
     void updateSchemaStatus();
 
+    /**
+     * Populates the given vertex-centric index from existing edges and enables it. Vertex-centric indexes created on
+     * an edge label that already has edges are not used by queries until this is done.
+     * @param label: edge label of the index
+     * @param indexName: name of the vertex-centric index
+     * @return true if the index is enabled
+     * @throws Exception
+     */
+    boolean reindexEdgeIndex(String label, String indexName) throws Exception;
+
+    /**
+     * Enables the given vertex-centric index without populating it from existing edges; only for edge labels that have
+     * no edges yet, as existing edges would be missing from the index.
+     * @param label: edge label of the index
+     * @param indexName: name of the vertex-centric index
+     * @return true if the index is enabled
+     * @throws Exception
+     */
+    boolean enableEdgeIndex(String label, String indexName) throws Exception;
+
     /***
      * Re-index elements.
      * @param indexName: Name of the index that needs to be operated on.
@@ -22,6 +22,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSo
 import org.apache.tinkerpop.gremlin.structure.Graph;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -52,6 +53,12 @@ public abstract class AtlasGraphTraversal<V extends AtlasVertex, E extends Atlas
 
     public abstract Set<V> getAtlasVertexSet();
 
+    /**
+     * Vertices of the traversal as they are reached, without collecting them first; for results too large to be held
+     * in memory. Must be consumed in the thread, and transaction, that started the traversal.
+     */
+    public abstract Iterator<V> getAtlasVertexIterator();
+
     public abstract Map<String, Collection<V>> getAtlasVertexMap();
 
     public abstract Set<E> getAtlasEdgeSet();
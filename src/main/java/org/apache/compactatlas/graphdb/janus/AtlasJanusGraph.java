@@ -161,6 +161,33 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
                 : null;
     }
 
+    @Override
+    public Map<Object, AtlasEdge<AtlasJanusVertex, AtlasJanusEdge>> getEdgesBetweenVertices(AtlasVertex fromVertex, Collection<AtlasVertex> toVertices, String edgeLabel) {
+        Map<Object, AtlasEdge<AtlasJanusVertex, AtlasJanusEdge>> ret = new HashMap<>();
+
+        if (toVertices.isEmpty()) {
+            return ret;
+        }
+
+        Object[] toVertexIds = new Object[toVertices.size()];
+        int      idx         = 0;
+
+        for (AtlasVertex toVertex : toVertices) {
+            toVertexIds[idx++] = toVertex.getId();
+        }
+
+        GraphTraversal gt = V(fromVertex.getId()).outE(edgeLabel).has(STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.toString())
+                                                 .where(__.otherV().hasId(P.within(toVertexIds)));
+
+        while (gt.hasNext()) {
+            Edge gremlinEdge = (Edge) gt.next();
+
+            ret.putIfAbsent(gremlinEdge.inVertex().id(), GraphDbObjectFactory.createEdge(this, gremlinEdge));
+        }
+
+        return ret;
+    }
+
     @Override
     public AtlasEdge<AtlasJanusVertex, AtlasJanusEdge> getEdge(String edgeId) {
         Iterator<Edge> it = getGraph().edges(edgeId);
@@ -305,6 +332,28 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
         return query.vertices();
     }
 
+    @Override
+    public void prefetchProperties(Collection<? extends AtlasVertex> vertices) {
+        if (vertices == null || vertices.size() < 2) {
+            return;
+        }
+
+        List<JanusGraphVertex> janusVertices = new ArrayList<>(vertices.size());
+
+        for (AtlasVertex vertex : vertices) {
+            Object wrappedVertex = vertex.getWrappedElement();
+
+            if (wrappedVertex instanceof JanusGraphVertex) {
+                janusVertices.add((JanusGraphVertex) wrappedVertex);
+            }
+        }
+
+        if (!janusVertices.isEmpty()) {
+            // loads the property slice of all vertices, which JanusGraph caches in each vertex for the transaction
+            getGraph().multiQuery(janusVertices).properties();
+        }
+    }
+
     @Override
     public GremlinVersion getSupportedGremlinVersion() {
         return GremlinVersion.THREE;
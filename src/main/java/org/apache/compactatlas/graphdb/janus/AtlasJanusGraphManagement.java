@@ -35,6 +35,7 @@ import org.janusgraph.graphdb.database.IndexSerializer;
 import org.janusgraph.graphdb.database.StandardJanusGraph;
 import org.janusgraph.graphdb.database.management.GraphIndexStatusReport;
 import org.janusgraph.graphdb.database.management.ManagementSystem;
+import org.janusgraph.graphdb.database.management.RelationIndexStatusReport;
 import org.janusgraph.graphdb.internal.Token;
 import org.janusgraph.graphdb.log.StandardTransactionLogProcessor;
 import org.janusgraph.graphdb.transaction.StandardJanusGraphTx;
@@ -298,6 +299,69 @@ public class AtlasJanusGraphManagement implements AtlasGraphManagement {
         updateSchemaStatus(this.management, this.graph.getGraph(), Edge.class);
     }
 
+    @Override
+    public boolean reindexEdgeIndex(String label, String indexName) throws Exception {
+        return enableRelationIndex(label, indexName, SchemaAction.REINDEX);
+    }
+
+    @Override
+    public boolean enableEdgeIndex(String label, String indexName) throws Exception {
+        return enableRelationIndex(label, indexName, SchemaAction.ENABLE_INDEX);
+    }
+
+    private boolean enableRelationIndex(String label, String indexName, SchemaAction enableAction) throws Exception {
+        JanusGraph   janusGraph = this.graph.getGraph();
+        SchemaStatus status     = getRelationIndexStatus(janusGraph, label, indexName);
+
+        if (status == null) {
+            LOG.warn("enableRelationIndex(): vertex-centric index {} not found for edge label {}", indexName, label);
+
+            return false;
+        } else if (status == ENABLED) {
+            return true;
+        }
+
+        if (status == INSTALLED) {
+            updateRelationIndex(janusGraph, label, indexName, SchemaAction.REGISTER_INDEX);
+        }
+
+        ManagementSystem.awaitRelationIndexStatus(janusGraph, indexName, label).status(REGISTERED).call();
+
+        updateRelationIndex(janusGraph, label, indexName, enableAction);
+
+        RelationIndexStatusReport report = ManagementSystem.awaitRelationIndexStatus(janusGraph, indexName, label).status(ENABLED).call();
+
+        LOG.info("enableRelationIndex(label={}, index={}, action={}): status={}", label, indexName, enableAction, report.getActualStatus());
+
+        return report.getSucceeded();
+    }
+
+    private static SchemaStatus getRelationIndexStatus(JanusGraph janusGraph, String label, String indexName) {
+        JanusGraphManagement mgmt = janusGraph.openManagement();
+
+        try {
+            EdgeLabel         edgeLabel = mgmt.getEdgeLabel(label);
+            RelationTypeIndex index     = edgeLabel != null ? mgmt.getRelationIndex(edgeLabel, indexName) : null;
+
+            return index != null ? index.getIndexStatus() : null;
+        } finally {
+            mgmt.rollback();
+        }
+    }
+
+    private static void updateRelationIndex(JanusGraph janusGraph, String label, String indexName, SchemaAction action) throws Exception {
+        JanusGraphManagement mgmt = janusGraph.openManagement();
+
+        try {
+            mgmt.updateIndex(mgmt.getRelationIndex(mgmt.getEdgeLabel(label), indexName), action).get();
+            mgmt.commit();
+        } catch (Exception e) {
+            mgmt.rollback();
+
+            throw e;
+        }
+    }
+
     public static void updateSchemaStatus(JanusGraphManagement mgmt, JanusGraph graph, Class<? extends Element> elementType) {
         LOG.info("updating SchemaStatus for {}: Starting...", elementType.getSimpleName());
         int count = 0;
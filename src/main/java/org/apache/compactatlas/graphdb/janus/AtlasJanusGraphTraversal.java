@@ -97,6 +97,39 @@ public class AtlasJanusGraphTraversal extends AtlasGraphTraversal<AtlasJanusVert
         return ret;
     }
 
+    @Override
+    public Iterator<AtlasJanusVertex> getAtlasVertexIterator() {
+        return new Iterator<AtlasJanusVertex>() {
+            private AtlasJanusVertex next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && AtlasJanusGraphTraversal.this.hasNext()) {
+                    Object o = AtlasJanusGraphTraversal.this.next();
+
+                    if (o instanceof Vertex) {
+                        next = GraphDbObjectFactory.createVertex((AtlasJanusGraph) atlasGraph, (Vertex) o);
+                    }
+                }
+
+                return next != null;
+            }
+
+            @Override
+            public AtlasJanusVertex next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                AtlasJanusVertex ret = next;
+
+                next = null;
+
+                return ret;
+            }
+        };
+    }
+
     @Override
     public Map<String, Collection<AtlasJanusVertex>> getAtlasVertexMap() {
         List                                      list = getResultList();
@@ -62,6 +62,15 @@ public enum AtlasConfiguration {
     //search configuration
     SEARCH_MAX_LIMIT("atlas.search.maxlimit", 10000),
     SEARCH_DEFAULT_LIMIT("atlas.search.defaultlimit", 100),
+    SEARCH_PREFETCH_PROPERTIES_ENABLED("atlas.search.prefetch.properties.enabled", true),
+    SEARCH_COUNT_SAMPLE_SIZE("atlas.search.count.sample.size", 1000),
+    SEARCH_PREFETCH_PAGES_MAX("atlas.search.prefetch.pages.max", 4),
+    SEARCH_PREFETCH_THREADS("atlas.search.prefetch.threads", 8),
+    SEARCH_FANOUT_ENABLED("atlas.search.fanout.enabled", true),
+    SEARCH_FANOUT_THREADS("atlas.search.fanout.threads", 8),
+    SEARCH_RESULT_CACHE_ENABLED("atlas.search.result.cache.enabled", true),
+    SEARCH_RESULT_CACHE_MAX_VERTICES("atlas.search.result.cache.max.vertices", 100000),
+    SEARCH_RESULT_CACHE_TTL_SECONDS("atlas.search.result.cache.ttl.seconds", 60),
 
     CUSTOM_ATTRIBUTE_KEY_MAX_LENGTH("atlas.custom.attribute.key.max.length", 50),
     CUSTOM_ATTRIBUTE_VALUE_MAX_LENGTH("atlas.custom.attribute.value.max.length", 500),
@@ -79,10 +88,40 @@ public enum AtlasConfiguration {
     STORE_DIFFERENTIAL_AUDITS("atlas.entity.audit.differential", false),
     DSL_EXECUTOR_TRAVERSAL("atlas.dsl.executor.traversal", true),
     DSL_CACHED_TRANSLATOR("atlas.dsl.cached.translator", true),
+    DSL_NATIVE_AGGREGATION_ENABLED("atlas.dsl.native.aggregation.enabled", true),
+    DSL_CURSOR_MAX_OPEN("atlas.dsl.cursor.max.open", 20),
+    DSL_CURSOR_IDLE_TIMEOUT_SECONDS("atlas.dsl.cursor.idle.timeout.seconds", 120),
+    DSL_CURSOR_MAX_LIFETIME_SECONDS("atlas.dsl.cursor.max.lifetime.seconds", 1800),
     DEBUG_METRICS_ENABLED("atlas.debug.metrics.enabled", false),
     TASKS_USE_ENABLED("atlas.tasks.enabled", true),
     SESSION_TIMEOUT_SECS("atlas.session.timeout.secs", -1),
     UPDATE_COMPOSITE_INDEX_STATUS("atlas.update.composite.index.status", true),
+    RELATIONSHIP_SUPERNODE_EDGE_THRESHOLD("atlas.relationship.supernode.edge.threshold", 10000),
+    TYPESYSTEM_SNAPSHOT_ENABLED("atlas.typesystem.snapshot.enabled", true),
+    TYPESYSTEM_SNAPSHOT_FILE("atlas.typesystem.snapshot.file", ""),
+    BULK_LOAD_BATCH_SIZE("atlas.bulk.load.batch.size", 100),
+    BULK_LOAD_PARSER_THREADS("atlas.bulk.load.parser.threads", 4),
+    BULK_LOAD_IMPORT_DIRECTORY("atlas.bulk.load.import.directory", "./initModelsData/quickstart_files"),
+    FULLTEXT_DEFERRED_ENABLED("atlas.search.fulltext.deferred.enabled", false),
+    FULLTEXT_DEFERRED_BATCH_SIZE("atlas.search.fulltext.deferred.batch.size", 100),
+    FULLTEXT_DEFERRED_MAX_LAG_MS("atlas.search.fulltext.deferred.max.lag.ms", 60000),
+    FULLTEXT_DEFERRED_JOURNAL_FILE("atlas.search.fulltext.deferred.journal.file", ""),
+    FULLTEXT_DEFERRED_MAX_ATTEMPTS("atlas.search.fulltext.deferred.max.attempts", 3),
+    INDEX_VERIFY_MAX_VERTICES_PER_SEC("atlas.index.verify.max.vertices.per.second", 1000),
+    INDEX_VERIFY_CHECKPOINT_INTERVAL("atlas.index.verify.checkpoint.interval", 10000),
+    CLASSIFICATION_BULK_CHUNK_SIZE("atlas.classification.bulk.chunk.size", 500),
+    DELETE_BULK_CHUNK_SIZE("atlas.delete.bulk.chunk.size", 1000),
+    DELETE_BULK_WORKERS("atlas.delete.bulk.workers", 4),
+    COMPACTION_ENABLED("atlas.compaction.enabled", false),
+    COMPACTION_RETENTION_DAYS("atlas.compaction.retention.days", 30),
+    COMPACTION_START_TIME("atlas.compaction.start.time", "02:00"),
+    COMPACTION_INTERVAL_MINUTES("atlas.compaction.interval.minutes", 1440),
+    COMPACTION_BATCH_SIZE("atlas.compaction.batch.size", 100),
+    COMPACTION_MAX_ENTITIES_PER_SEC("atlas.compaction.max.entities.per.second", 100),
+    COMPACTION_MAX_ENTITIES_PER_RUN("atlas.compaction.max.entities.per.run", 100000),
+    ENTITY_BULK_FETCH_THREADS("atlas.entity.bulk.fetch.threads", 8),
+    ENTITY_BULK_FETCH_BATCH_SIZE("atlas.entity.bulk.fetch.batch.size", 100),
+    RELATIONSHIP_BULK_CHUNK_SIZE("atlas.relationship.bulk.chunk.size", 1000),
     METRICS_TIME_TO_LIVE_HOURS( "atlas.metrics.ttl.hours", 336); // 14 days default
 
     private static final Configuration APPLICATION_PROPERTIES;
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.intg.model.discovery;
+
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * How a basic search is executed: for each search processor, in the order they run, the index query it sends and
+ * which filters are evaluated by the index and which remain to be evaluated in-memory on the fetched vertices.
+ */
+@JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AtlasSearchPlan {
+    private List<ProcessorPlan> processors = new ArrayList<>();
+
+    public AtlasSearchPlan() {
+    }
+
+    public List<ProcessorPlan> getProcessors() {
+        return processors;
+    }
+
+    public void setProcessors(List<ProcessorPlan> processors) {
+        this.processors = processors;
+    }
+
+    public void addProcessor(ProcessorPlan processor) {
+        processors.add(processor);
+    }
+
+    @JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ProcessorPlan {
+        private String       processor;
+        private String       indexQuery;
+        private List<String> indexFilters    = new ArrayList<>();
+        private List<String> inMemoryFilters = new ArrayList<>();
+
+        public ProcessorPlan() {
+        }
+
+        public ProcessorPlan(String processor, String indexQuery) {
+            this.processor  = processor;
+            this.indexQuery = indexQuery;
+        }
+
+        public String getProcessor() {
+            return processor;
+        }
+
+        public void setProcessor(String processor) {
+            this.processor = processor;
+        }
+
+        public String getIndexQuery() {
+            return indexQuery;
+        }
+
+        public void setIndexQuery(String indexQuery) {
+            this.indexQuery = indexQuery;
+        }
+
+        public List<String> getIndexFilters() {
+            return indexFilters;
+        }
+
+        public void setIndexFilters(List<String> indexFilters) {
+            this.indexFilters = indexFilters;
+        }
+
+        public List<String> getInMemoryFilters() {
+            return inMemoryFilters;
+        }
+
+        public void setInMemoryFilters(List<String> inMemoryFilters) {
+            this.inMemoryFilters = inMemoryFilters;
+        }
+    }
+}
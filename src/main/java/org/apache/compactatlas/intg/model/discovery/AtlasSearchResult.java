@@ -48,6 +48,7 @@ public class AtlasSearchResult implements Serializable {
     private List<AtlasFullTextResult>      fullTextResult;
     private Map<String, AtlasEntityHeader> referredEntities;
     private long                           approximateCount = -1;
+    private boolean                        isApproximate;
     private String                         nextMarker;
 
     public AtlasSearchResult() {}
@@ -127,6 +128,13 @@ public class AtlasSearchResult implements Serializable {
 
     public void setApproximateCount(long approximateCount) { this.approximateCount = approximateCount; }
 
+    /**
+     * @return true if approximateCount is an estimate, rather than the exact number of matching entities
+     */
+    public boolean getIsApproximate() { return isApproximate; }
+
+    public void setIsApproximate(boolean isApproximate) { this.isApproximate = isApproximate; }
+
     public String getNextMarker() { return nextMarker; }
 
     public void setNextMarker(String nextMarker) { this.nextMarker = nextMarker; }
@@ -191,6 +199,7 @@ public class AtlasSearchResult implements Serializable {
                 ", fullTextResult=" + fullTextResult +
                 ", referredEntities=" + referredEntities +
                 ", approximateCount=" + approximateCount +
+                ", isApproximate=" + isApproximate +
                 ", nextMarker=" + nextMarker +
                 '}';
     }
@@ -46,6 +46,7 @@ public class SearchParameters implements Serializable {
     private boolean includeClassificationAttributes;
     private boolean includeSubTypes                 = true;
     private boolean includeSubClassifications       = true;
+    private boolean exactCount;
     private int     limit;
     private int     offset;
     private String  marker;
@@ -183,6 +184,22 @@ public class SearchParameters implements Serializable {
         this.includeSubClassifications = includeSubClassifications;
     }
 
+    /**
+     * @return True iff the exact number of matching entities is to be computed, rather than an estimate
+     */
+    public boolean getExactCount() {
+        return exactCount;
+    }
+
+    /**
+     * Compute the exact number of matching entities; this can take long when filters are evaluated in-memory on
+     * a large number of entities
+     * @param exactCount boolean flag
+     */
+    public void setExactCount(boolean exactCount) {
+        this.exactCount = exactCount;
+    }
+
     /**
      * @return Max number of results to be returned
      */
@@ -303,6 +320,7 @@ public class SearchParameters implements Serializable {
                 includeClassificationAttributes == that.includeClassificationAttributes &&
                 includeSubTypes == that.includeSubTypes &&
                 includeSubClassifications == that.includeSubClassifications &&
+                exactCount == that.exactCount &&
                 limit == that.limit &&
                 offset == that.offset &&
                 Objects.equals(query, that.query) &&
@@ -319,8 +337,8 @@ public class SearchParameters implements Serializable {
     @Override
     public int hashCode() {
         return Objects.hash(query, typeName, classification, termName, includeSubTypes, includeSubClassifications,
-                            excludeDeletedEntities, includeClassificationAttributes, limit, offset, entityFilters,
-                            tagFilters, attributes, sortBy, sortOrder);
+                            excludeDeletedEntities, includeClassificationAttributes, exactCount, limit, offset,
+                            entityFilters, tagFilters, attributes, sortBy, sortOrder);
     }
 
     public StringBuilder toString(StringBuilder sb) {
@@ -337,6 +355,7 @@ public class SearchParameters implements Serializable {
         sb.append(", includeSubClassifications='").append(includeSubClassifications).append('\'');
         sb.append(", excludeDeletedEntities=").append(excludeDeletedEntities);
         sb.append(", includeClassificationAttributes=").append(includeClassificationAttributes);
+        sb.append(", exactCount=").append(exactCount);
         sb.append(", limit=").append(limit);
         sb.append(", offset=").append(offset);
         sb.append(", entityFilters=").append(entityFilters);
@@ -89,6 +89,7 @@ public class AtlasEntity extends AtlasStruct implements Serializable {
     private Map<String, Map<String, Object>> businessAttributes;
     private Set<String>                      labels;
     private Set<String>                      pendingTasks; // read-only field i.e. value provided is ignored during entity create/update
+    private Map<String, Long>                relationshipAttributeCounts; // read-only: total count of relationship attributes whose value was truncated
 
     @JsonIgnore
     private static AtomicLong s_nextId = new AtomicLong(System.nanoTime());
@@ -396,6 +397,26 @@ public class AtlasEntity extends AtlasStruct implements Serializable {
         this.pendingTasks = pendingTasks;
     }
 
+    public Map<String, Long> getRelationshipAttributeCounts() {
+        return relationshipAttributeCounts;
+    }
+
+    public void setRelationshipAttributeCounts(Map<String, Long> relationshipAttributeCounts) {
+        this.relationshipAttributeCounts = relationshipAttributeCounts;
+    }
+
+    public void setRelationshipAttributeCount(String name, long count) {
+        Map<String, Long> r = this.relationshipAttributeCounts;
+
+        if (r == null) {
+            r = new HashMap<>();
+
+            this.relationshipAttributeCounts = r;
+        }
+
+        r.put(name, count);
+    }
+
     public List<AtlasClassification> getClassifications() { return classifications; }
 
     public void setClassifications(List<AtlasClassification> classifications) { this.classifications = classifications; }
@@ -493,6 +514,9 @@ public class AtlasEntity extends AtlasStruct implements Serializable {
         sb.append(", pendingTasks=[");
         dumpObjects(pendingTasks, sb);
         sb.append("]");
+        sb.append(", relationshipAttributeCounts=[");
+        dumpObjects(relationshipAttributeCounts, sb);
+        sb.append("]");
         sb.append('}');
 
         return sb;
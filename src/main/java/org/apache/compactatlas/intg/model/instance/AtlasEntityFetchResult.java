@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.intg.model.instance;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * Result of fetching one entity of a bulk fetch: the entity, or the error that prevented its fetch, such as
+ * ATLAS-404-00-005 for a guid that does not exist.
+ */
+@JsonAutoDetect(getterVisibility=PUBLIC_ONLY, setterVisibility=PUBLIC_ONLY, fieldVisibility=NONE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown=true)
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.PROPERTY)
+public class AtlasEntityFetchResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String                 guid;
+    private AtlasEntityWithExtInfo entity;
+    private String                 errorCode;
+    private String                 errorMessage;
+
+    public AtlasEntityFetchResult() {
+    }
+
+    public AtlasEntityFetchResult(String guid, AtlasEntityWithExtInfo entity) {
+        this.guid   = guid;
+        this.entity = entity;
+    }
+
+    public AtlasEntityFetchResult(String guid, String errorCode, String errorMessage) {
+        this.guid         = guid;
+        this.errorCode    = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    public String getGuid() { return guid; }
+
+    public void setGuid(String guid) { this.guid = guid; }
+
+    public AtlasEntityWithExtInfo getEntity() { return entity; }
+
+    public void setEntity(AtlasEntityWithExtInfo entity) { this.entity = entity; }
+
+    public String getErrorCode() { return errorCode; }
+
+    public void setErrorCode(String errorCode) { this.errorCode = errorCode; }
+
+    public String getErrorMessage() { return errorMessage; }
+
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public StringBuilder toString(StringBuilder sb) {
+        if (sb == null) {
+            sb = new StringBuilder();
+        }
+
+        sb.append("AtlasEntityFetchResult{");
+        sb.append("guid=").append(guid);
+        sb.append(", entity=").append(entity);
+        sb.append(", errorCode=").append(errorCode);
+        sb.append(", errorMessage=").append(errorMessage);
+        sb.append('}');
+
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(new StringBuilder()).toString();
+    }
+}
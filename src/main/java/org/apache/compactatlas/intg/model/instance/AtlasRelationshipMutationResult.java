@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.intg.model.instance;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * Result of one relationship of a bulk create, update or delete: the relationship as stored, or the error that
+ * prevented its mutation, such as ATLAS-404-00-005 for an end entity that does not exist.
+ */
+@JsonAutoDetect(getterVisibility=PUBLIC_ONLY, setterVisibility=PUBLIC_ONLY, fieldVisibility=NONE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown=true)
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.PROPERTY)
+public class AtlasRelationshipMutationResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String            guid;
+    private AtlasRelationship relationship;
+    private String            errorCode;
+    private String            errorMessage;
+
+    public AtlasRelationshipMutationResult() {
+    }
+
+    public AtlasRelationshipMutationResult(AtlasRelationship relationship) {
+        this.guid         = relationship.getGuid();
+        this.relationship = relationship;
+    }
+
+    public AtlasRelationshipMutationResult(String guid, String errorCode, String errorMessage) {
+        this.guid         = guid;
+        this.errorCode    = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    public String getGuid() { return guid; }
+
+    public void setGuid(String guid) { this.guid = guid; }
+
+    public AtlasRelationship getRelationship() { return relationship; }
+
+    public void setRelationship(AtlasRelationship relationship) { this.relationship = relationship; }
+
+    public String getErrorCode() { return errorCode; }
+
+    public void setErrorCode(String errorCode) { this.errorCode = errorCode; }
+
+    public String getErrorMessage() { return errorMessage; }
+
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public StringBuilder toString(StringBuilder sb) {
+        if (sb == null) {
+            sb = new StringBuilder();
+        }
+
+        sb.append("AtlasRelationshipMutationResult{");
+        sb.append("guid=").append(guid);
+        sb.append(", relationship=").append(relationship);
+        sb.append(", errorCode=").append(errorCode);
+        sb.append(", errorMessage=").append(errorMessage);
+        sb.append('}');
+
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(new StringBuilder()).toString();
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.compactatlas.intg.model.instance;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters;
 import org.apache.compactatlas.intg.model.typedef.AtlasBaseTypeDef;
 import org.apache.commons.collections.CollectionUtils;
 
@@ -44,6 +45,7 @@ public class ClassificationAssociateRequest {
     private List<String>                entityGuids;
     private List<Map<String, Object>>   entitiesUniqueAttributes;
     private String                      entityTypeName;
+    private SearchParameters            searchParameters;
 
     public ClassificationAssociateRequest() {
         this(null, null);
@@ -91,6 +93,13 @@ public class ClassificationAssociateRequest {
 
     public void setEntityGuids(List<String> entityGuids) { this.entityGuids = entityGuids; }
 
+    /**
+     * @return search whose results are to be classified, as an alternative to listing the entities
+     */
+    public SearchParameters getSearchParameters() { return searchParameters; }
+
+    public void setSearchParameters(SearchParameters searchParameters) { this.searchParameters = searchParameters; }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -99,12 +108,13 @@ public class ClassificationAssociateRequest {
 
         org.apache.compactatlas.intg.model.instance.ClassificationAssociateRequest that = (org.apache.compactatlas.intg.model.instance.ClassificationAssociateRequest) o;
 
-        return Objects.equals(classification, that.classification) && Objects.equals(entityGuids, that.entityGuids) && CollectionUtils.isEqualCollection(entitiesUniqueAttributes, that.entitiesUniqueAttributes);
+        return Objects.equals(classification, that.classification) && Objects.equals(entityGuids, that.entityGuids) && CollectionUtils.isEqualCollection(entitiesUniqueAttributes, that.entitiesUniqueAttributes) &&
+               Objects.equals(searchParameters, that.searchParameters);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(classification, entityGuids, entitiesUniqueAttributes);
+        return Objects.hash(classification, entityGuids, entitiesUniqueAttributes, searchParameters);
     }
 
     public StringBuilder toString(StringBuilder sb) {
@@ -128,6 +138,7 @@ public class ClassificationAssociateRequest {
         sb.append(", entitiesUniqueAttributes=[");
         AtlasBaseTypeDef.dumpObjects(entitiesUniqueAttributes, sb);
         sb.append("]");
+        sb.append(", searchParameters=").append(searchParameters);
         sb.append('}');
 
         return sb;
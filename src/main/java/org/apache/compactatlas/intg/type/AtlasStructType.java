@@ -50,6 +50,8 @@ public class AtlasStructType extends AtlasType {
     protected Map<String, AtlasAttribute> allAttributes  = Collections.emptyMap();
     protected Map<String, AtlasAttribute> uniqAttributes = Collections.emptyMap();
 
+    private volatile AttributePlan attributePlan = null;
+
     public AtlasStructType(AtlasStructDef structDef) {
         super(structDef);
 
@@ -219,6 +221,16 @@ public class AtlasStructType extends AtlasType {
         return uniqAttributes;
     }
 
+    /**
+     * Returns all attributes of this type (including those from supertypes) as an array, with a stable ordinal for
+     * each attribute. Intended for hot paths that visit every attribute of an instance, like mapping to/from graph.
+     * The returned array is shared and must not be modified by callers.
+     * @return all attributes of this type
+     */
+    public AtlasAttribute[] getAttributePlan() {
+        return getCompiledAttributePlan().attributes;
+    }
+
     public AtlasAttribute getAttribute(String attributeName) {
         AtlasAttribute ret = allAttributes.get(attributeName);
 
@@ -247,16 +259,16 @@ public class AtlasStructType extends AtlasType {
             if (obj instanceof AtlasStruct) {
                 AtlasStruct structObj = (AtlasStruct) obj;
 
-                for (AtlasAttributeDef attributeDef : structDef.getAttributeDefs()) {
-                    if (!isAssignableValue(structObj.getAttribute(attributeDef.getName()), attributeDef)) {
+                for (LocalAttributeSlot slot : getCompiledAttributePlan().localAttributes) {
+                    if (!isAssignableValue(structObj.getAttribute(slot.name), slot)) {
                         return false;
                     }
                 }
             } else if (obj instanceof Map) {
                 Map map = AtlasTypeUtil.toStructAttributes((Map) obj);
 
-                for (AtlasAttributeDef attributeDef : structDef.getAttributeDefs()) {
-                    if (!isAssignableValue(map.get(attributeDef.getName()), attributeDef)) {
+                for (LocalAttributeSlot slot : getCompiledAttributePlan().localAttributes) {
+                    if (!isAssignableValue(map.get(slot.name), slot)) {
                         return false; // no value for non-optinal attribute
                     }
                 }
@@ -289,7 +301,7 @@ public class AtlasStructType extends AtlasType {
                 } else if (!StringUtils.equalsIgnoreCase(structVal1.getTypeName(), structVal2.getTypeName())) {
                     ret = false;
                 } else {
-                    for (AtlasAttribute attribute : getAllAttributes().values()) {
+                    for (AtlasAttribute attribute : getAttributePlan()) {
                         Object attrValue1 = structVal1.getAttribute(attribute.getName());
                         Object attrValue2 = structVal2.getAttribute(attribute.getName());
 
@@ -388,18 +400,17 @@ public class AtlasStructType extends AtlasType {
             if (obj instanceof AtlasStruct) {
                 AtlasStruct structObj = (AtlasStruct) obj;
 
-                for (AtlasAttributeDef attributeDef : structDef.getAttributeDefs()) {
-                    String         attrName  = attributeDef.getName();
-                    AtlasAttribute attribute = allAttributes.get(attributeDef.getName());
+                for (LocalAttributeSlot slot : getCompiledAttributePlan().localAttributes) {
+                    String attrName = slot.name;
 
-                    if (attribute != null) {
-                        AtlasType dataType  = attribute.getAttributeType();
-                        Object    value     = structObj.getAttribute(attrName);
-                        String    fieldName = objName + "." + attrName;
+                    if (slot.attributeType != null) {
+                        Object value = structObj.getAttribute(attrName);
 
                         if (value != null) {
-                            ret = dataType.validateValue(value, fieldName, messages) && ret;
-                        } else if (!attributeDef.getIsOptional()) {
+                            ret = slot.attributeType.validateValue(value, objName + slot.fieldNameSuffix, messages) && ret;
+                        } else if (!slot.isOptional) {
+                            String fieldName = objName + slot.fieldNameSuffix;
+
                             // if required attribute is null, check if attribute value specified in relationship
                             if (structObj instanceof AtlasEntity) {
                                 AtlasEntity entityObj = (AtlasEntity) structObj;
@@ -419,18 +430,17 @@ public class AtlasStructType extends AtlasType {
                 Map attributes             = AtlasTypeUtil.toStructAttributes((Map)obj);
                 Map relationshipAttributes = AtlasTypeUtil.toRelationshipAttributes((Map)obj);
 
-                for (AtlasAttributeDef attributeDef : structDef.getAttributeDefs()) {
-                    String             attrName  = attributeDef.getName();
-                    AtlasAttribute     attribute = allAttributes.get(attributeDef.getName());
+                for (LocalAttributeSlot slot : getCompiledAttributePlan().localAttributes) {
+                    String attrName = slot.name;
 
-                    if (attribute != null) {
-                        AtlasType dataType  = attribute.getAttributeType();
-                        Object    value     = attributes.get(attrName);
-                        String    fieldName = objName + "." + attrName;
+                    if (slot.attributeType != null) {
+                        Object value = attributes.get(attrName);
 
                         if (value != null) {
-                            ret = dataType.validateValue(value, fieldName, messages) && ret;
-                        } else if (!attributeDef.getIsOptional()) {
+                            ret = slot.attributeType.validateValue(value, objName + slot.fieldNameSuffix, messages) && ret;
+                        } else if (!slot.isOptional) {
+                            String fieldName = objName + slot.fieldNameSuffix;
+
                             // if required attribute is null, check if attribute value specified in relationship
                             if (MapUtils.isEmpty(relationshipAttributes) || !relationshipAttributes.containsKey(attrName)) {
                                 ret = false;
@@ -491,15 +501,15 @@ public class AtlasStructType extends AtlasType {
 
     public void normalizeAttributeValues(AtlasStruct obj) {
         if (obj != null) {
-            for (AtlasAttributeDef attributeDef : structDef.getAttributeDefs()) {
-                String attributeName = attributeDef.getName();
+            for (LocalAttributeSlot slot : getCompiledAttributePlan().localAttributes) {
+                String attributeName = slot.name;
 
                 if (obj.hasAttribute(attributeName)) {
-                    Object attributeValue = getNormalizedValue(obj.getAttribute(attributeName), attributeDef);
+                    Object attributeValue = getNormalizedValue(obj.getAttribute(attributeName), slot);
 
                     obj.setAttribute(attributeName, attributeValue);
-                } else if (!attributeDef.getIsOptional()) {
-                    obj.setAttribute(attributeName, createDefaultValue(attributeDef));
+                } else if (!slot.isOptional) {
+                    obj.setAttribute(attributeName, createDefaultValue(slot));
                 }
             }
         }
@@ -507,11 +517,11 @@ public class AtlasStructType extends AtlasType {
 
     public void normalizeAttributeValuesForUpdate(AtlasStruct obj) {
         if (obj != null) {
-            for (AtlasAttributeDef attributeDef : structDef.getAttributeDefs()) {
-                String attributeName = attributeDef.getName();
+            for (LocalAttributeSlot slot : getCompiledAttributePlan().localAttributes) {
+                String attributeName = slot.name;
 
                 if (obj.hasAttribute(attributeName)) {
-                    Object attributeValue = getNormalizedValueForUpdate(obj.getAttribute(attributeName), attributeDef);
+                    Object attributeValue = getNormalizedValueForUpdate(obj.getAttribute(attributeName), slot);
                     obj.setAttribute(attributeName, attributeValue);
                 }
             }
@@ -520,15 +530,15 @@ public class AtlasStructType extends AtlasType {
 
     public void normalizeAttributeValues(Map<String, Object> obj) {
         if (obj != null) {
-            for (AtlasAttributeDef attributeDef : structDef.getAttributeDefs()) {
-                String attributeName = attributeDef.getName();
+            for (LocalAttributeSlot slot : getCompiledAttributePlan().localAttributes) {
+                String attributeName = slot.name;
 
                 if (obj.containsKey(attributeName)) {
-                    Object attributeValue = getNormalizedValue(obj.get(attributeName), attributeDef);
+                    Object attributeValue = getNormalizedValue(obj.get(attributeName), slot);
 
                     obj.put(attributeName, attributeValue);
-                } else if (!attributeDef.getIsOptional()) {
-                    obj.put(attributeName, createDefaultValue(attributeDef));
+                } else if (!slot.isOptional) {
+                    obj.put(attributeName, createDefaultValue(slot));
                 }
             }
         }
@@ -536,12 +546,12 @@ public class AtlasStructType extends AtlasType {
 
     public void normalizeAttributeValuesForUpdate(Map<String, Object> obj) {
         if (obj != null) {
-            for (AtlasAttributeDef attrDef : structDef.getAttributeDefs()) {
-                String attrName  = attrDef.getName();
-                Object attrValue = obj.get(attrName);
+            for (LocalAttributeSlot slot : getCompiledAttributePlan().localAttributes) {
+                String attrName = slot.name;
 
                 if (obj.containsKey(attrName)) {
-                    attrValue = getNormalizedValueForUpdate(attrValue, attrDef);
+                    Object attrValue = getNormalizedValueForUpdate(obj.get(attrName), slot);
+
                     obj.put(attrName, attrValue);
                 }
             }
@@ -556,9 +566,9 @@ public class AtlasStructType extends AtlasType {
                 attributes = new HashMap<>();
             }
 
-            for (AtlasAttributeDef attributeDef : structDef.getAttributeDefs()) {
-                if (!attributeDef.getIsOptional()) {
-                    attributes.put(attributeDef.getName(), createDefaultValue(attributeDef));
+            for (LocalAttributeSlot slot : getCompiledAttributePlan().localAttributes) {
+                if (!slot.isOptional) {
+                    attributes.put(slot.name, createDefaultValue(slot));
                 }
             }
 
@@ -566,36 +576,18 @@ public class AtlasStructType extends AtlasType {
         }
     }
 
-    private Object createDefaultValue(AtlasAttributeDef attributeDef) {
-        Object ret = null;
-
-        if (attributeDef != null) {
-            AtlasAttribute attribute = allAttributes.get(attributeDef.getName());
-
-            if (attribute != null) {
-                AtlasType dataType = attribute.getAttributeType();
-
-                ret = dataType.createDefaultValue(attributeDef.getDefaultValue());
-            }
-        }
-
-        return ret;
+    private Object createDefaultValue(LocalAttributeSlot slot) {
+        return slot.attributeType != null ? slot.attributeType.createDefaultValue(slot.attributeDef.getDefaultValue()) : null;
     }
 
-    private boolean isAssignableValue(Object value, AtlasAttributeDef attributeDef) {
+    private boolean isAssignableValue(Object value, LocalAttributeSlot slot) {
         boolean ret = true;
 
         if (value != null) {
-            AtlasAttribute attribute = allAttributes.get(attributeDef.getName());
-
-            if (attribute != null) {
-                AtlasType attrType = attribute.getAttributeType();
-
-                    if (!attrType.isValidValue(value)) {
-                        ret = false; // invalid value
-                    }
+            if (slot.attributeType != null && !slot.attributeType.isValidValue(value)) {
+                ret = false; // invalid value
             }
-        } else if (!attributeDef.getIsOptional()) {
+        } else if (!slot.isOptional) {
             ret = false; // mandatory attribute not present
         }
 
@@ -620,14 +612,12 @@ public class AtlasStructType extends AtlasType {
         return ret;
     }
 
-    private Object getNormalizedValue(Object value, AtlasAttributeDef attributeDef) {
-        AtlasAttribute attribute = allAttributes.get(attributeDef.getName());
-
-        if (attribute != null) {
-            AtlasType attrType = attribute.getAttributeType();
+    private Object getNormalizedValue(Object value, LocalAttributeSlot slot) {
+        AtlasType attrType = slot.attributeType;
 
+        if (attrType != null) {
             if (value == null) {
-                if (!attributeDef.getIsOptional()) {
+                if (!slot.isOptional) {
                     return attrType.createDefaultValue();
                 }
             } else {
@@ -638,15 +628,11 @@ public class AtlasStructType extends AtlasType {
         return null;
     }
 
-    private Object getNormalizedValueForUpdate(Object value, AtlasAttributeDef attributeDef) {
-        AtlasAttribute attribute = allAttributes.get(attributeDef.getName());
+    private Object getNormalizedValueForUpdate(Object value, LocalAttributeSlot slot) {
+        AtlasType attrType = slot.attributeType;
 
-        if (attribute != null) {
-            AtlasType attrType = attribute.getAttributeType();
-
-            if (value != null) {
-                return attrType.getNormalizedValueForUpdate(value);
-            }
+        if (attrType != null && value != null) {
+            return attrType.getNormalizedValueForUpdate(value);
         }
 
         return null;
@@ -718,6 +704,62 @@ public class AtlasStructType extends AtlasType {
         return ret;
     }
 
+    /*
+     * the plan is derived from allAttributes, which subtypes (entity/classification/business-metadata) replace
+     * during resolveReferences(); hence it is (re)compiled on first use after allAttributes changes
+     */
+    private AttributePlan getCompiledAttributePlan() {
+        AttributePlan ret = attributePlan;
+
+        if (ret == null || ret.source != allAttributes) {
+            ret = new AttributePlan(structDef, allAttributes);
+
+            attributePlan = ret;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Attributes of a struct-type, resolved once into arrays so that validation, normalization and graph mapping
+     * can visit them without per-instance map lookups.
+     */
+    private static final class AttributePlan {
+        final Map<String, AtlasAttribute> source;
+        final AtlasAttribute[]            attributes;      // all attributes, including the ones from supertypes
+        final LocalAttributeSlot[]        localAttributes; // attributes declared in this type's structDef, in declaration order
+
+        AttributePlan(AtlasStructDef structDef, Map<String, AtlasAttribute> allAttributes) {
+            List<AtlasAttributeDef> attributeDefs = structDef.getAttributeDefs();
+
+            this.source          = allAttributes;
+            this.attributes      = allAttributes.values().toArray(new AtlasAttribute[0]);
+            this.localAttributes = new LocalAttributeSlot[attributeDefs == null ? 0 : attributeDefs.size()];
+
+            for (int i = 0; i < localAttributes.length; i++) {
+                AtlasAttributeDef attributeDef = attributeDefs.get(i);
+
+                localAttributes[i] = new LocalAttributeSlot(attributeDef, allAttributes.get(attributeDef.getName()));
+            }
+        }
+    }
+
+    private static final class LocalAttributeSlot {
+        final String            name;
+        final String            fieldNameSuffix;
+        final AtlasAttributeDef attributeDef;
+        final AtlasType         attributeType; // null if the attribute is not resolved in this type
+        final boolean           isOptional;
+
+        LocalAttributeSlot(AtlasAttributeDef attributeDef, AtlasAttribute attribute) {
+            this.name            = attributeDef.getName();
+            this.fieldNameSuffix = "." + attributeDef.getName();
+            this.attributeDef    = attributeDef;
+            this.attributeType   = attribute != null ? attribute.getAttributeType() : null;
+            this.isOptional      = attributeDef.getIsOptional();
+        }
+    }
+
     protected void ensureNoAttributeOverride(List<? extends org.apache.compactatlas.intg.type.AtlasStructType> superTypes) throws AtlasBaseException {
         for (org.apache.compactatlas.intg.type.AtlasStructType superType : superTypes) {
             for (AtlasAttributeDef attributeDef : this.structDef.getAttributeDefs()) {
@@ -43,22 +43,34 @@ import static org.apache.compactatlas.intg.model.typedef.AtlasBaseTypeDef.*;
 
 /**
  * registry for all types defined in Atlas.
+ *
+ * Types are served from a snapshot (RegistryData) that is published through a single volatile reference; updates
+ * are prepared in an AtlasTransientTypeRegistry and swapped in on commit. The types of a published snapshot are not
+ * added, removed or replaced; only the index field names of their attributes are filled in afterwards, by the
+ * search indexer. Each snapshot carries a version number, which callers can use to key caches derived from the
+ * type system.
+ *
+ * Updates are not structurally shared: only enum types are carried over from the current snapshot. Every other type
+ * is re-created and resolved again on each update, as resolveReferences() links types to each other (supertypes and
+ * subtypes, attribute types, relationship and business attributes), and a type kept from the previous snapshot
+ * would still point to the previous instances of the types it links to. The cost of an update grows with the
+ * number of types, not with the number of types changed.
  */
 @Component
 public class AtlasTypeRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasTypeRegistry.class);
     private static final int DEFAULT_LOCK_MAX_WAIT_TIME_IN_SECONDS = 15;
 
-    protected RegistryData registryData;
+    protected volatile RegistryData registryData;
     private final TypeRegistryUpdateSynchronizer updateSynchronizer;
     private final Set<String> missingRelationshipDefs;
     private final Map<String, String> commonIndexFieldNameCache;
 
     public AtlasTypeRegistry() {
-        registryData = new RegistryData();
+        registryData = new RegistryData(0L);
         updateSynchronizer = new TypeRegistryUpdateSynchronizer(this);
-        missingRelationshipDefs = new HashSet<>();
-        commonIndexFieldNameCache = new LinkedHashMap<>();
+        missingRelationshipDefs = ConcurrentHashMap.newKeySet();
+        commonIndexFieldNameCache = new ConcurrentHashMap<>();
 
         resolveReferencesForRootTypes();
         resolveIndexFieldNamesForRootTypes();
@@ -66,7 +78,7 @@ public class AtlasTypeRegistry {
 
     // used only by AtlasTransientTypeRegistry
     protected AtlasTypeRegistry(AtlasTypeRegistry other) {
-        registryData = new RegistryData();
+        registryData = new RegistryData(other.registryData.version + 1);
         updateSynchronizer = other.updateSynchronizer;
         missingRelationshipDefs = other.missingRelationshipDefs;
         commonIndexFieldNameCache = other.commonIndexFieldNameCache;
@@ -75,6 +87,13 @@ public class AtlasTypeRegistry {
         resolveIndexFieldNamesForRootTypes();
     }
 
+    /**
+     * @return version of the currently published type-system snapshot; changes every time a type update is committed.
+     */
+    public long getTypeRegistryVersion() {
+        return registryData.version;
+    }
+
     public Collection<String> getAllTypeNames() {
         return registryData.allTypes.getAllTypeNames();
     }
@@ -99,7 +118,9 @@ public class AtlasTypeRegistry {
         AtlasType ret = registryData.allTypes.getTypeByName(typeName);
 
         if (ret == null) {
-            if (typeName.startsWith(ATLAS_TYPE_ARRAY_PREFIX) && typeName.endsWith(ATLAS_TYPE_ARRAY_SUFFIX)) {
+            if (typeName == null) {
+                throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_NOT_FOUND, typeName);
+            } else if (typeName.startsWith(ATLAS_TYPE_ARRAY_PREFIX) && typeName.endsWith(ATLAS_TYPE_ARRAY_SUFFIX)) {
                 int startIdx = ATLAS_TYPE_ARRAY_PREFIX.length();
                 int endIdx = typeName.length() - ATLAS_TYPE_ARRAY_SUFFIX.length();
                 String elementTypeName = typeName.substring(startIdx, endIdx);
@@ -306,15 +327,15 @@ public class AtlasTypeRegistry {
     public void reportMissingRelationshipDef(String entityType1, String entityType2, String attributeName) {
         String key = entityType1 + "->" + entityType2 + ":" + attributeName;
 
-        if (!missingRelationshipDefs.contains(key)) {
+        if (missingRelationshipDefs.add(key)) {
             LOG.warn("No RelationshipDef defined between {} and {} on attribute: {}.{}", entityType1, entityType2, entityType1, attributeName);
-
-            missingRelationshipDefs.add(key);
         }
     }
 
     public void addIndexFieldName(String propertyName, String indexFieldName) {
-        commonIndexFieldNameCache.put(propertyName, indexFieldName);
+        if (propertyName != null && indexFieldName != null) {
+            commonIndexFieldNameCache.put(propertyName, indexFieldName);
+        }
     }
 
     private void resolveReferencesForRootTypes() {
@@ -349,10 +370,11 @@ public class AtlasTypeRegistry {
      * @return the index name for the common field passed in.
      */
     public String getIndexFieldName(String propertyName) {
-        return commonIndexFieldNameCache.get(propertyName);
+        return propertyName != null ? commonIndexFieldNameCache.get(propertyName) : null;
     }
 
     static class RegistryData {
+        final long version;
         final TypeCache allTypes;
         final TypeDefCache<AtlasEnumDef, AtlasEnumType> enumDefs;
         final TypeDefCache<AtlasStructDef, AtlasStructType> structDefs;
@@ -362,7 +384,8 @@ public class AtlasTypeRegistry {
         final TypeDefCache<AtlasBusinessMetadataDef, AtlasBusinessMetadataType> businessMetadataDefs;
         final TypeDefCache<? extends AtlasBaseTypeDef, ? extends AtlasType>[] allDefCaches;
 
-        RegistryData() {
+        RegistryData(long version) {
+            this.version = version;
             allTypes = new TypeCache();
             enumDefs = new TypeDefCache<>(allTypes);
             structDefs = new TypeDefCache<>(allTypes);
@@ -471,12 +494,15 @@ public class AtlasTypeRegistry {
         private List<AtlasBaseTypeDef> addedTypes = new ArrayList<>();
         private List<AtlasBaseTypeDef> updatedTypes = new ArrayList<>();
         private List<AtlasBaseTypeDef> deletedTypes = new ArrayList<>();
+        private boolean isModified = false;
 
 
         private AtlasTransientTypeRegistry(AtlasTypeRegistry parent) throws AtlasBaseException {
             super(parent);
 
-            addTypesWithNoRefResolve(parent.getAllEnumDefs());
+            // enum types hold no references to other types, hence the instances in parent are shared as-is;
+            // all other types are re-created, as resolveReferences() links them to each other
+            addEnumTypesFromParent(parent);
             addTypesWithNoRefResolve(parent.getAllStructDefs());
             addTypesWithNoRefResolve(parent.getAllClassificationDefs());
             addTypesWithNoRefResolve(parent.getAllEntityDefs());
@@ -486,6 +512,25 @@ public class AtlasTypeRegistry {
             addedTypes.clear();
             updatedTypes.clear();
             deletedTypes.clear();
+            isModified = false;
+        }
+
+        private void addEnumTypesFromParent(AtlasTypeRegistry parent) {
+            RegistryData parentData = parent.registryData;
+
+            for (AtlasEnumDef enumDef : parentData.enumDefs.getAll()) {
+                AtlasEnumType enumType = parentData.enumDefs.getTypeByName(enumDef.getName());
+
+                if (enumType != null && enumType.getEnumDef() == enumDef) {
+                    registryData.enumDefs.addType(enumDef, enumType);
+                } else {
+                    registryData.enumDefs.addType(enumDef, new AtlasEnumType(enumDef));
+                }
+            }
+        }
+
+        boolean hasChanges() {
+            return isModified || !addedTypes.isEmpty() || !updatedTypes.isEmpty() || !deletedTypes.isEmpty();
         }
 
         private void resolveReferences() throws AtlasBaseException {
@@ -504,6 +549,8 @@ public class AtlasTypeRegistry {
 
         public void clear() {
             registryData.clear();
+
+            isModified = true;
         }
 
         public void addType(AtlasBaseTypeDef typeDef) throws AtlasBaseException {
@@ -529,6 +576,8 @@ public class AtlasTypeRegistry {
 
             registryData.updateGuid(typeName, guid);
 
+            isModified = true;
+
             if (LOG.isDebugEnabled()) {
                 LOG.debug("<== AtlasTypeRegistry.updateGuid({}, {})", typeName, guid);
             }
@@ -1050,11 +1099,18 @@ public class AtlasTypeRegistry {
                                 new Exception().fillInStackTrace());
                     } else if (typeRegistryUpdateLock.getHoldCount() == 1) {
                         if (ttr != null && commitUpdates) {
-                            // copy indexName for attributes from current typeRegistry to new one
-                            copyIndexNameFromCurrent(ttr.getAllEntityTypes());
-                            copyIndexNameFromCurrent(ttr.getAllBusinessMetadataTypes());
-
-                            typeRegistry.registryData = ttr.registryData;
+                            if (ttr.hasChanges()) {
+                                // copy indexName for attributes from current typeRegistry to new one
+                                copyIndexNameFromCurrent(ttr.getAllEntityTypes());
+                                copyIndexNameFromCurrent(ttr.getAllBusinessMetadataTypes());
+
+                                // single volatile write: readers see either the old or the new snapshot, never a mix
+                                typeRegistry.registryData = ttr.registryData;
+
+                                LOG.info("releaseTypeRegistryForUpdate(): published type-registry version {}", ttr.registryData.version);
+                            } else if (LOG.isDebugEnabled()) {
+                                LOG.debug("releaseTypeRegistryForUpdate(): no type changes; retaining type-registry version {}", typeRegistry.registryData.version);
+                            }
                         }
                     }
 
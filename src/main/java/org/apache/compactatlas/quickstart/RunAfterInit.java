@@ -1,8 +1,8 @@
 package org.apache.compactatlas.quickstart;
 
-import org.apache.compactatlas.quickstart.hive.AddClassification;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.quickstart.hive.BulkCatalogLoader;
 import org.apache.compactatlas.quickstart.hive.ImportHiveTable;
-import org.apache.compactatlas.quickstart.hive.SetGlossary;
 import org.apache.compactatlas.quickstart.hive.SetLineage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,13 +16,7 @@ import org.springframework.stereotype.Component;
 public class RunAfterInit {
     private static final Logger LOG = LoggerFactory.getLogger(RunAfterInit.class);
     @Autowired
-    ImportHiveTable importHiveTable;
-    @Autowired
-    AddClassification addClassification;
-    @Autowired
-    SetGlossary setGlossary;
-    @Autowired
-    SetLineage setLineage;
+    BulkCatalogLoader bulkCatalogLoader;
 
     @Value("${add.demo.data.after.init}")
     private boolean runInit;
@@ -30,11 +24,13 @@ public class RunAfterInit {
     @EventListener(ApplicationReadyEvent.class)
     public void doAfterStartup() {
         if (runInit) {
-            importHiveTable.importAHiveDbToAtlas();
-            addClassification.addClassificationForHiveTables();
-            setGlossary.setGlossaryForHiveTables();
-            setLineage.setLineageForHiveTables();
-            LOG.info("add demo data finished.");
+            try {
+                bulkCatalogLoader.loadFromFiles(BulkCatalogLoader.DEFAULT_DB_NAME, BulkCatalogLoader.DEFAULT_NAMESPACE,
+                                                ImportHiveTable.TableInfoPath, SetLineage.DepInfoPath);
+                LOG.info("add demo data finished.");
+            } catch (AtlasBaseException e) {
+                LOG.error("add demo data failed", e);
+            }
         }
     }
 }
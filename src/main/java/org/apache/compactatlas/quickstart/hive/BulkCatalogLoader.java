@@ -0,0 +1,452 @@
+package org.apache.compactatlas.quickstart.hive;
+
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.SortOrder;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.glossary.AtlasGlossary;
+import org.apache.compactatlas.intg.model.glossary.AtlasGlossaryTerm;
+import org.apache.compactatlas.intg.model.glossary.relations.AtlasGlossaryHeader;
+import org.apache.compactatlas.intg.model.instance.AtlasClassification;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
+import org.apache.compactatlas.intg.model.instance.AtlasRelatedObjectId;
+import org.apache.compactatlas.intg.model.instance.EntityMutationResponse;
+import org.apache.compactatlas.intg.model.typedef.AtlasClassificationDef;
+import org.apache.compactatlas.intg.model.typedef.AtlasTypesDef;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.intg.type.AtlasTypeUtil;
+import org.apache.compactatlas.quickstart.model.GlossaryBusinessType;
+import org.apache.compactatlas.quickstart.model.HiveDataTypes;
+import org.apache.compactatlas.quickstart.model.ProductClassification;
+import org.apache.compactatlas.quickstart.utils.AtlasEntityUtils;
+import org.apache.compactatlas.quickstart.utils.LineageUtils;
+import org.apache.compactatlas.quickstart.utils.ParseAirflowDependency;
+import org.apache.compactatlas.repository.glossary.GlossaryService;
+import org.apache.compactatlas.repository.repository.store.graph.AtlasEntityStore;
+import org.apache.compactatlas.repository.repository.store.graph.v2.AtlasEntityStream;
+import org.apache.compactatlas.repository.store.AtlasTypeDefStore;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.apache.compactatlas.quickstart.hook.events.BaseHiveEvent.ATTRIBUTE_NAME;
+
+/**
+ * Loads a hive database, its tables, classifications, glossary terms and lineage into the entity store in-process.
+ *
+ * Input files are parsed in parallel; entities are then written in batches through AtlasEntityStore.createOrUpdate(),
+ * one transaction per batch, instead of one REST call per entity. Tables can also be passed in directly, which lets
+ * the same loader be used to seed large synthetic catalogues.
+ */
+@Component
+public class BulkCatalogLoader {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkCatalogLoader.class);
+
+    public static final String DEFAULT_DB_NAME   = "poke";
+    public static final String DEFAULT_NAMESPACE = "maens";
+
+    private final AtlasEntityStore  entityStore;
+    private final AtlasTypeDefStore typeDefStore;
+    private final AtlasTypeRegistry typeRegistry;
+    private final GlossaryService   glossaryService;
+    private final int               batchSize;
+    private final int               parserThreads;
+
+    @Autowired
+    public BulkCatalogLoader(AtlasEntityStore entityStore, AtlasTypeDefStore typeDefStore, AtlasTypeRegistry typeRegistry, GlossaryService glossaryService) {
+        this.entityStore     = entityStore;
+        this.typeDefStore    = typeDefStore;
+        this.typeRegistry    = typeRegistry;
+        this.glossaryService = glossaryService;
+        this.batchSize       = Math.max(1, AtlasConfiguration.BULK_LOAD_BATCH_SIZE.getInt());
+        this.parserThreads   = Math.max(1, AtlasConfiguration.BULK_LOAD_PARSER_THREADS.getInt());
+    }
+
+    /**
+     * Parses table definitions under tableInfoPath and the airflow dependencies in depInfoPath, and loads them.
+     *
+     * @param depInfoPath airflow dag config; lineage is not loaded when null or missing
+     */
+    public LoadResult loadFromFiles(String dbName, String nameSpace, String tableInfoPath, String depInfoPath) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> BulkCatalogLoader.loadFromFiles({}, {}, {}, {})", dbName, nameSpace, tableInfoPath, depInfoPath);
+        }
+
+        List<String>    tableNames = HiveTableUtils.getAllTables(dbName, tableInfoPath);
+        ExecutorService executor   = Executors.newFixedThreadPool(parserThreads);
+
+        try {
+            Future<Map<String, Set<String>>>       depInfo = null;
+            List<Future<HiveTableUtils.TableInfo>> tables  = new ArrayList<>(tableNames.size());
+
+            if (depInfoPath != null && new File(depInfoPath).isFile()) {
+                depInfo = executor.submit(() -> ParseAirflowDependency.getDepinfoFromAirflowConfigFile(depInfoPath));
+            }
+
+            for (String tableName : tableNames) {
+                tables.add(executor.submit(() -> HiveTableUtils.getHiveTableInfo(dbName, tableName, tableInfoPath)));
+            }
+
+            List<HiveTableUtils.TableInfo> tableInfos = new ArrayList<>(tables.size());
+
+            for (Future<HiveTableUtils.TableInfo> table : tables) {
+                tableInfos.add(table.get());
+            }
+
+            LoadResult ret = load(dbName, nameSpace, tableInfos, depInfo != null ? depInfo.get() : null);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("<== BulkCatalogLoader.loadFromFiles({}, {}, {}, {}): {}", dbName, nameSpace, tableInfoPath, depInfoPath, ret);
+            }
+
+            return ret;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException("interrupted while parsing catalogue files", e);
+        } catch (ExecutionException e) {
+            throw new AtlasBaseException("failed to parse catalogue files under " + tableInfoPath, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads the given database and tables, then lineage between them.
+     *
+     * @param dependencies output table name to names of its input tables; may be null
+     */
+    public LoadResult load(String dbName, String nameSpace, List<HiveTableUtils.TableInfo> tableInfos, Map<String, Set<String>> dependencies) throws AtlasBaseException {
+        long       startTime = System.currentTimeMillis();
+        LoadResult ret       = new LoadResult();
+
+        LOG.info("bulk loading {} tables of database {} in namespace {}", tableInfos.size(), dbName, nameSpace);
+
+        createClassificationTypes();
+
+        AtlasEntity dbEntity = createDatabase(dbName, nameSpace);
+
+        ret.setDbGuid(dbEntity.getGuid());
+
+        Map<String, AtlasEntity> tables = createTables(dbEntity, nameSpace, tableInfos, ret);
+
+        assignGlossaryTerms(tables.values());
+
+        if (MapUtils.isNotEmpty(dependencies)) {
+            createLineage(tables, dependencies, ret);
+        }
+
+        ret.setTimeTakenMs(System.currentTimeMillis() - startTime);
+
+        LOG.info("bulk load of database {} completed: {}", dbName, ret);
+
+        return ret;
+    }
+
+    private void createClassificationTypes() throws AtlasBaseException {
+        List<AtlasClassificationDef> toCreate = new ArrayList<>();
+
+        for (AtlasClassificationDef classificationDef : ProductClassification.getProductDefinitions().getClassificationDefs()) {
+            if (typeRegistry.getClassificationDefByName(classificationDef.getName()) == null) {
+                toCreate.add(classificationDef);
+            }
+        }
+
+        if (!toCreate.isEmpty()) {
+            AtlasTypesDef typesDef = new AtlasTypesDef();
+
+            typesDef.setClassificationDefs(toCreate);
+
+            typeDefStore.createTypesDef(typesDef);
+        }
+    }
+
+    private AtlasEntity createDatabase(String dbName, String nameSpace) throws AtlasBaseException {
+        AtlasEntity            ret      = AtlasEntityUtils.toDbEntity(dbName, null, nameSpace);
+        EntityMutationResponse response = entityStore.createOrUpdate(new AtlasEntityStream(new AtlasEntityWithExtInfo(ret)), false);
+        AtlasEntityHeader      header   = response.getFirstEntityCreated();
+
+        if (header == null) {
+            header = response.getFirstEntityUpdated();
+        }
+
+        if (header == null) {
+            header = response.getFirstEntityPartialUpdated();
+        }
+
+        if (header != null) {
+            ret.setGuid(header.getGuid());
+        } else {
+            ret.setGuid(response.getGuidAssignments().get(ret.getGuid()));
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return table name to table entity, with guid assigned by the store, for tables that were loaded
+     */
+    private Map<String, AtlasEntity> createTables(AtlasEntity dbEntity, String nameSpace, List<HiveTableUtils.TableInfo> tableInfos, LoadResult result) {
+        Map<String, AtlasEntity> ret         = new HashMap<>();
+        Map<String, AtlasEntity> batchTables = new LinkedHashMap<>();
+        AtlasEntitiesWithExtInfo batch       = new AtlasEntitiesWithExtInfo();
+
+        for (HiveTableUtils.TableInfo tableInfo : tableInfos) {
+            AtlasEntityWithExtInfo tableEntity = AtlasEntityUtils.toTableEntity(dbEntity, tableInfo, nameSpace);
+            AtlasEntity            table       = tableEntity.getEntity();
+            AtlasClassification    layer       = ProductClassification.toProductLayer(AtlasEntityUtils.getEntityTableName(table));
+
+            // the database already exists; don't send it again with every table
+            tableEntity.removeReferredEntity(dbEntity.getGuid());
+
+            if (layer != null) {
+                table.setClassifications(Collections.singletonList(layer));
+            }
+
+            batch.addEntity(table);
+
+            for (AtlasEntity referredEntity : tableEntity.getReferredEntities().values()) {
+                batch.addReferredEntity(referredEntity);
+            }
+
+            batchTables.put(tableInfo.getTableName().toLowerCase(), table);
+
+            if (batchTables.size() >= batchSize) {
+                flushTables(batch, batchTables, ret, result);
+
+                batch = new AtlasEntitiesWithExtInfo();
+            }
+        }
+
+        if (!batchTables.isEmpty()) {
+            flushTables(batch, batchTables, ret, result);
+        }
+
+        return ret;
+    }
+
+    private void flushTables(AtlasEntitiesWithExtInfo batch, Map<String, AtlasEntity> batchTables, Map<String, AtlasEntity> loadedTables, LoadResult result) {
+        try {
+            EntityMutationResponse response        = entityStore.createOrUpdate(new AtlasEntityStream(batch), false);
+            Map<String, String>    guidAssignments = response.getGuidAssignments();
+
+            for (Map.Entry<String, AtlasEntity> entry : batchTables.entrySet()) {
+                AtlasEntity table = entry.getValue();
+                String      guid  = guidAssignments != null ? guidAssignments.get(table.getGuid()) : null;
+
+                if (guid != null) {
+                    table.setGuid(guid);
+                }
+
+                loadedTables.put(entry.getKey(), table);
+            }
+
+            result.incrTablesLoaded(batchTables.size());
+            result.incrEntitiesLoaded(batch.getEntities().size() + (batch.getReferredEntities() != null ? batch.getReferredEntities().size() : 0));
+        } catch (AtlasBaseException e) {
+            LOG.error("failed to load batch of {} tables", batchTables.size(), e);
+
+            result.addFailedTables(batchTables.keySet());
+        }
+
+        batchTables.clear();
+    }
+
+    /**
+     * assigns each business-type term to all matching tables with a single call per term
+     */
+    private void assignGlossaryTerms(Collection<AtlasEntity> tables) {
+        Map<String, List<AtlasRelatedObjectId>> termEntities = new HashMap<>();
+
+        for (AtlasEntity table : tables) {
+            String  tableName = (String) table.getAttribute(ATTRIBUTE_NAME);
+            boolean haveTerm  = false;
+
+            for (String term : GlossaryBusinessType.GloTerms) {
+                if (tableName.contains(term)) {
+                    termEntities.computeIfAbsent(term, k -> new ArrayList<>()).add(AtlasTypeUtil.toAtlasRelatedObjectId(table));
+
+                    haveTerm = true;
+                }
+            }
+
+            if (!haveTerm) {
+                termEntities.computeIfAbsent(GlossaryBusinessType.TermOther, k -> new ArrayList<>()).add(AtlasTypeUtil.toAtlasRelatedObjectId(table));
+            }
+        }
+
+        if (termEntities.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, String> termGuids = getOrCreateTerms(GlossaryBusinessType.GloName, termEntities.keySet());
+
+            for (Map.Entry<String, List<AtlasRelatedObjectId>> entry : termEntities.entrySet()) {
+                glossaryService.assignTermToEntities(termGuids.get(entry.getKey()), entry.getValue());
+            }
+        } catch (AtlasBaseException e) {
+            LOG.error("failed to assign glossary terms", e);
+        }
+    }
+
+    private Map<String, String> getOrCreateTerms(String glossaryName, Set<String> termNames) throws AtlasBaseException {
+        Map<String, String> ret      = new HashMap<>();
+        AtlasGlossary       glossary = null;
+
+        for (AtlasGlossary existing : glossaryService.getGlossaries(-1, 0, SortOrder.ASCENDING)) {
+            if (glossaryName.equals(existing.getName())) {
+                glossary = existing;
+
+                break;
+            }
+        }
+
+        if (glossary == null) {
+            glossary = new AtlasGlossary();
+
+            glossary.setName(glossaryName);
+            glossary.setLanguage("English");
+            glossary.setShortDescription(glossaryName + " description");
+
+            glossary = glossaryService.createGlossary(glossary);
+        } else {
+            for (AtlasGlossaryTerm term : glossaryService.getGlossaryTerms(glossary.getGuid(), 0, -1, SortOrder.ASCENDING)) {
+                ret.put(term.getName(), term.getGuid());
+            }
+        }
+
+        for (String termName : termNames) {
+            if (!ret.containsKey(termName)) {
+                AtlasGlossaryTerm   term   = new AtlasGlossaryTerm();
+                AtlasGlossaryHeader anchor = new AtlasGlossaryHeader();
+
+                anchor.setGlossaryGuid(glossary.getGuid());
+                anchor.setDisplayText(glossary.getName());
+                term.setAnchor(anchor);
+                term.setName(termName);
+
+                ret.put(termName, glossaryService.createTerm(term).getGuid());
+            }
+        }
+
+        return ret;
+    }
+
+    private void createLineage(Map<String, AtlasEntity> tables, Map<String, Set<String>> dependencies, LoadResult result) {
+        AtlasEntitiesWithExtInfo batch = new AtlasEntitiesWithExtInfo();
+
+        for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+            AtlasEntity output = tables.get(entry.getKey().toLowerCase());
+
+            if (output == null) {
+                LOG.warn("can not find the output table entity:" + entry.getKey());
+
+                continue;
+            }
+
+            List<AtlasEntity> inputs = new ArrayList<>();
+
+            for (String input : entry.getValue()) {
+                AtlasEntity inputTable = tables.get(input.toLowerCase());
+
+                if (inputTable == null) {
+                    LOG.warn("can not find the input table entity:" + input);
+                } else {
+                    inputs.add(inputTable);
+                }
+            }
+
+            if (inputs.isEmpty()) {
+                continue;
+            }
+
+            try {
+                batch.addEntity(LineageUtils.getHiveProcessEntity(inputs, Collections.singletonList(output), "select b from a"));
+            } catch (Exception e) {
+                LOG.warn("failed to build lineage for table {}", entry.getKey(), e);
+
+                continue;
+            }
+
+            if (batch.getEntities().size() >= batchSize) {
+                flushProcesses(batch, result);
+
+                batch = new AtlasEntitiesWithExtInfo();
+            }
+        }
+
+        if (CollectionUtils.isNotEmpty(batch.getEntities())) {
+            flushProcesses(batch, result);
+        }
+    }
+
+    private void flushProcesses(AtlasEntitiesWithExtInfo batch, LoadResult result) {
+        try {
+            entityStore.createOrUpdate(new AtlasEntityStream(batch), false);
+
+            result.incrProcessesLoaded(batch.getEntities().size());
+            result.incrEntitiesLoaded(batch.getEntities().size());
+        } catch (AtlasBaseException e) {
+            LOG.error("failed to load batch of {} {} entities", batch.getEntities().size(), HiveDataTypes.HIVE_PROCESS.getName(), e);
+        }
+    }
+
+    public static class LoadResult {
+        private String       dbGuid;
+        private int          tablesLoaded;
+        private int          processesLoaded;
+        private int          entitiesLoaded;
+        private List<String> failedTables = new ArrayList<>();
+        private long         timeTakenMs;
+
+        public String getDbGuid() { return dbGuid; }
+
+        public void setDbGuid(String dbGuid) { this.dbGuid = dbGuid; }
+
+        public int getTablesLoaded() { return tablesLoaded; }
+
+        public void incrTablesLoaded(int count) { tablesLoaded += count; }
+
+        public int getProcessesLoaded() { return processesLoaded; }
+
+        public void incrProcessesLoaded(int count) { processesLoaded += count; }
+
+        public int getEntitiesLoaded() { return entitiesLoaded; }
+
+        public void incrEntitiesLoaded(int count) { entitiesLoaded += count; }
+
+        public List<String> getFailedTables() { return failedTables; }
+
+        public void addFailedTables(Collection<String> tableNames) { failedTables.addAll(tableNames); }
+
+        public long getTimeTakenMs() { return timeTakenMs; }
+
+        public void setTimeTakenMs(long timeTakenMs) { this.timeTakenMs = timeTakenMs; }
+
+        @Override
+        public String toString() {
+            return "LoadResult{dbGuid=" + dbGuid + ", tablesLoaded=" + tablesLoaded + ", processesLoaded=" + processesLoaded +
+                    ", entitiesLoaded=" + entitiesLoaded + ", failedTables=" + failedTables + ", timeTakenMs=" + timeTakenMs + "}";
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package org.apache.compactatlas.quickstart.synthetic;
+
+import org.apache.compactatlas.client.AtlasClientV2;
+import org.apache.compactatlas.intg.model.discovery.AtlasSearchResult;
+import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
+import org.apache.compactatlas.intg.model.lineage.AtlasLineageInfo.LineageDirection;
+import org.apache.compactatlas.quickstart.model.GlossaryBusinessType;
+import org.apache.compactatlas.quickstart.model.HiveDataTypes;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.GnuParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.compactatlas.quickstart.hook.events.BaseHiveEvent.ATTRIBUTE_COMMENT;
+
+/**
+ * Replays a mix of entity reads, entity writes, basic searches and lineage queries against the REST layer of a
+ * running server, typically one seeded by SyntheticCatalogGenerator, and reports throughput and latency percentiles
+ * for each operation.
+ *
+ * Usage: LoadTestDriver -url http://localhost:21000 [-user admin -password admin] [-threads 8] [-duration 60]
+ *                       [-mix read=50,write=10,search=30,lineage=10] [-lineageDepth 3]
+ */
+public class LoadTestDriver {
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTestDriver.class);
+
+    public static final String OP_READ    = "read";
+    public static final String OP_WRITE   = "write";
+    public static final String OP_SEARCH  = "search";
+    public static final String OP_LINEAGE = "lineage";
+
+    private static final int GUID_SAMPLE_SIZE = 1000;
+
+    private static final String DEFAULT_MIX = "read=50,write=10,search=30,lineage=10";
+
+    private static final Options OPTIONS       = new Options();
+    private static final Option  URL           = new Option("url", true, "Comma-separated atlas server urls");
+    private static final Option  USER          = new Option("user", true, "Atlas user");
+    private static final Option  PASSWORD      = new Option("password", true, "Atlas user password");
+    private static final Option  THREADS       = new Option("threads", true, "Number of client threads (default 8)");
+    private static final Option  DURATION      = new Option("duration", true, "Test duration in seconds (default 60)");
+    private static final Option  MIX           = new Option("mix", true, "Operation weights (default " + DEFAULT_MIX + ")");
+    private static final Option  LINEAGE_DEPTH = new Option("lineageDepth", true, "Depth of lineage queries (default 3)");
+
+    private static final int SUCCESS_STATUS         = 0;
+    private static final int INVALID_OPTIONS_STATUS = 1;
+    private static final int PROGRAM_ERROR_STATUS   = -1;
+
+    static {
+        OPTIONS.addOption(URL);
+        OPTIONS.addOption(USER);
+        OPTIONS.addOption(PASSWORD);
+        OPTIONS.addOption(THREADS);
+        OPTIONS.addOption(DURATION);
+        OPTIONS.addOption(MIX);
+        OPTIONS.addOption(LINEAGE_DEPTH);
+    }
+
+    private final String[]                     urls;
+    private final String[]                     credentials;
+    private final int                          threads;
+    private final int                          durationSecs;
+    private final int                          lineageDepth;
+    private final Map<String, Integer>         mix;
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final List<String>                 tableGuids = new ArrayList<>();
+
+    public LoadTestDriver(String[] urls, String[] credentials, int threads, int durationSecs, int lineageDepth, Map<String, Integer> mix) {
+        this.urls         = urls;
+        this.credentials  = credentials;
+        this.threads      = threads;
+        this.durationSecs = durationSecs;
+        this.lineageDepth = lineageDepth;
+        this.mix          = mix;
+
+        for (String op : mix.keySet()) {
+            recorders.put(op, new LatencyRecorder());
+        }
+    }
+
+    public static void main(String[] args) {
+        System.exit(runDriver(args));
+    }
+
+    static int runDriver(String[] args) {
+        CommandLine commandLine;
+
+        try {
+            commandLine = new GnuParser().parse(OPTIONS, args);
+        } catch (ParseException e) {
+            LOG.error("Could not parse command line options. {}", e.getMessage());
+
+            return printUsage();
+        }
+
+        if (!commandLine.hasOption(URL.getOpt())) {
+            return printUsage();
+        }
+
+        try {
+            String[]       credentials = commandLine.hasOption(USER.getOpt()) ? new String[] { commandLine.getOptionValue(USER.getOpt()), commandLine.getOptionValue(PASSWORD.getOpt()) } : null;
+            LoadTestDriver driver      = new LoadTestDriver(commandLine.getOptionValue(URL.getOpt()).split(","), credentials,
+                                                            Integer.parseInt(commandLine.getOptionValue(THREADS.getOpt(), "8")),
+                                                            Integer.parseInt(commandLine.getOptionValue(DURATION.getOpt(), "60")),
+                                                            Integer.parseInt(commandLine.getOptionValue(LINEAGE_DEPTH.getOpt(), "3")),
+                                                            parseMix(commandLine.getOptionValue(MIX.getOpt(), DEFAULT_MIX)));
+
+            LOG.info("load test report:{}{}", System.lineSeparator(), driver.run());
+
+            return SUCCESS_STATUS;
+        } catch (Exception e) {
+            LOG.error("load test failed", e);
+
+            return PROGRAM_ERROR_STATUS;
+        }
+    }
+
+    private static int printUsage() {
+        StringWriter usage = new StringWriter();
+
+        try (PrintWriter writer = new PrintWriter(usage)) {
+            HelpFormatter helpFormatter = new HelpFormatter();
+
+            helpFormatter.printHelp(writer, helpFormatter.getWidth(), "LoadTestDriver", null, OPTIONS,
+                                    helpFormatter.getLeftPadding(), helpFormatter.getDescPadding(), null, true);
+        }
+
+        LOG.error("{}{}", System.lineSeparator(), usage);
+
+        return INVALID_OPTIONS_STATUS;
+    }
+
+    public String run() throws Exception {
+        loadTableGuids();
+
+        if (tableGuids.isEmpty()) {
+            throw new IllegalStateException("no " + HiveDataTypes.HIVE_TABLE.getName() + " entities found; seed the catalogue first");
+        }
+
+        LOG.info("running load test: threads={}, duration={}s, mix={}, tables={}", threads, durationSecs, mix, tableGuids.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long            endTime  = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSecs);
+        long            start    = System.nanoTime();
+
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> runWorker(endTime));
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(durationSecs + 60L, TimeUnit.SECONDS);
+
+        return report(System.nanoTime() - start);
+    }
+
+    private void loadTableGuids() throws Exception {
+        AtlasSearchResult result = newClient().basicSearch(HiveDataTypes.HIVE_TABLE.getName(), null, null, true, GUID_SAMPLE_SIZE, 0);
+
+        if (result != null && result.getEntities() != null) {
+            for (AtlasEntityHeader header : result.getEntities()) {
+                tableGuids.add(header.getGuid());
+            }
+        }
+    }
+
+    private void runWorker(long endTime) {
+        AtlasClientV2 client;
+
+        try {
+            client = newClient();
+        } catch (Exception e) {
+            LOG.error("failed to create client", e);
+
+            return;
+        }
+
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        while (System.nanoTime() < endTime) {
+            String  op        = pickOperation(totalWeight);
+            long    opStart   = System.nanoTime();
+            boolean succeeded = true;
+
+            try {
+                execute(client, op);
+            } catch (Exception e) {
+                succeeded = false;
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{} failed", op, e);
+                }
+            }
+
+            recorders.get(op).record(System.nanoTime() - opStart, succeeded);
+        }
+    }
+
+    private void execute(AtlasClientV2 client, String op) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String            guid   = tableGuids.get(random.nextInt(tableGuids.size()));
+
+        switch (op) {
+            case OP_READ:
+                client.getEntityByGuid(guid);
+                break;
+
+            case OP_WRITE:
+                client.partialUpdateEntityByGuid(guid, "load test " + System.currentTimeMillis(), ATTRIBUTE_COMMENT);
+                break;
+
+            case OP_SEARCH:
+                String term = GlossaryBusinessType.GloTerms.get(random.nextInt(GlossaryBusinessType.GloTerms.size()));
+
+                client.basicSearch(HiveDataTypes.HIVE_TABLE.getName(), null, term, true, 25, 0);
+                break;
+
+            case OP_LINEAGE:
+                client.getLineageInfo(guid, LineageDirection.BOTH, lineageDepth);
+                break;
+
+            default:
+                throw new IllegalArgumentException("unknown operation " + op);
+        }
+    }
+
+    private String pickOperation(int totalWeight) {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+
+        return mix.keySet().iterator().next();
+    }
+
+    private AtlasClientV2 newClient() throws Exception {
+        return credentials != null ? new AtlasClientV2(urls, credentials) : new AtlasClientV2(urls);
+    }
+
+    private String report(long elapsedNanos) {
+        double        elapsedSecs = elapsedNanos / 1e9;
+        StringBuilder sb          = new StringBuilder();
+
+        sb.append(String.format("%-10s %10s %8s %10s %10s %10s %10s %10s%n", "operation", "count", "errors", "ops/sec", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)"));
+
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder recorder  = entry.getValue();
+            long[]          latencies = recorder.getSortedLatencies();
+
+            sb.append(String.format("%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", entry.getKey(), latencies.length, recorder.getErrors(),
+                                    latencies.length / elapsedSecs, percentileMs(latencies, 50), percentileMs(latencies, 90),
+                                    percentileMs(latencies, 99), percentileMs(latencies, 100)));
+        }
+
+        return sb.toString();
+    }
+
+    static Map<String, Integer> parseMix(String mixStr) {
+        Map<String, Integer> ret = new LinkedHashMap<>();
+
+        for (String entry : mixStr.split(",")) {
+            String[] parts = entry.split("=");
+
+            if (parts.length == 2 && Integer.parseInt(parts[1].trim()) > 0) {
+                ret.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            }
+        }
+
+        if (ret.isEmpty() || !Arrays.asList(OP_READ, OP_WRITE, OP_SEARCH, OP_LINEAGE).containsAll(ret.keySet())) {
+            throw new IllegalArgumentException("invalid mix: " + mixStr);
+        }
+
+        return ret;
+    }
+
+    static double percentileMs(long[] sortedLatencies, int percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+
+        int idx = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+
+        return sortedLatencies[Math.max(0, Math.min(idx, sortedLatencies.length - 1))] / 1e6;
+    }
+
+    static class LatencyRecorder {
+        private final AtomicLong errors    = new AtomicLong();
+        private long[]           latencies = new long[1024];
+        private int              count     = 0;
+
+        void record(long latencyNanos, boolean succeeded) {
+            if (!succeeded) {
+                errors.incrementAndGet();
+            }
+
+            synchronized (this) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+
+                latencies[count++] = latencyNanos;
+            }
+        }
+
+        long getErrors() { return errors.get(); }
+
+        synchronized long[] getSortedLatencies() {
+            long[] ret = Arrays.copyOf(latencies, count);
+
+            Arrays.sort(ret);
+
+            return ret;
+        }
+    }
+}
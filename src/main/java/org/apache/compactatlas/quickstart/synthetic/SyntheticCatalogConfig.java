@@ -0,0 +1,94 @@
+package org.apache.compactatlas.quickstart.synthetic;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.apache.compactatlas.intg.type.AtlasType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * Shape of a synthetic catalogue: databases x tables x columns, lineage chains between tables of a database, and the
+ * share of tables tagged with the poke product classification. Read from a JSON file; missing fields keep defaults.
+ */
+@JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SyntheticCatalogConfig {
+    private String dbNamePrefix        = "synthetic_db_";
+    private String nameSpace           = "synthetic";
+    private int    databases           = 1;
+    private int    tablesPerDatabase   = 100;
+    private int    columnsPerTable     = 20;
+    private int    partitionKeys       = 1;
+    private int    lineageDepth        = 3;
+    private int    lineageFanOut       = 2;
+    private double productTableRatio   = 0.1;
+    private long   seed                = 42;
+
+    public static SyntheticCatalogConfig load(String fileName) throws IOException {
+        String json = new String(Files.readAllBytes(Paths.get(fileName)), StandardCharsets.UTF_8);
+
+        return AtlasType.fromJson(json, SyntheticCatalogConfig.class);
+    }
+
+    public String getDbNamePrefix() { return dbNamePrefix; }
+
+    public void setDbNamePrefix(String dbNamePrefix) { this.dbNamePrefix = dbNamePrefix; }
+
+    public String getNameSpace() { return nameSpace; }
+
+    public void setNameSpace(String nameSpace) { this.nameSpace = nameSpace; }
+
+    public int getDatabases() { return databases; }
+
+    public void setDatabases(int databases) { this.databases = databases; }
+
+    public int getTablesPerDatabase() { return tablesPerDatabase; }
+
+    public void setTablesPerDatabase(int tablesPerDatabase) { this.tablesPerDatabase = tablesPerDatabase; }
+
+    public int getColumnsPerTable() { return columnsPerTable; }
+
+    public void setColumnsPerTable(int columnsPerTable) { this.columnsPerTable = columnsPerTable; }
+
+    public int getPartitionKeys() { return partitionKeys; }
+
+    public void setPartitionKeys(int partitionKeys) { this.partitionKeys = partitionKeys; }
+
+    /**
+     * @return number of processes between a source table and the farthest table fed by it; 0 for no lineage
+     */
+    public int getLineageDepth() { return lineageDepth; }
+
+    public void setLineageDepth(int lineageDepth) { this.lineageDepth = lineageDepth; }
+
+    /**
+     * @return number of input tables of each process
+     */
+    public int getLineageFanOut() { return lineageFanOut; }
+
+    public void setLineageFanOut(int lineageFanOut) { this.lineageFanOut = lineageFanOut; }
+
+    public double getProductTableRatio() { return productTableRatio; }
+
+    public void setProductTableRatio(double productTableRatio) { this.productTableRatio = productTableRatio; }
+
+    public long getSeed() { return seed; }
+
+    public void setSeed(long seed) { this.seed = seed; }
+
+    @Override
+    public String toString() {
+        return "SyntheticCatalogConfig{dbNamePrefix=" + dbNamePrefix + ", nameSpace=" + nameSpace + ", databases=" + databases +
+                ", tablesPerDatabase=" + tablesPerDatabase + ", columnsPerTable=" + columnsPerTable + ", partitionKeys=" + partitionKeys +
+                ", lineageDepth=" + lineageDepth + ", lineageFanOut=" + lineageFanOut + ", productTableRatio=" + productTableRatio +
+                ", seed=" + seed + "}";
+    }
+}
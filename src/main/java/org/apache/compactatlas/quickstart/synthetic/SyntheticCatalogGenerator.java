@@ -0,0 +1,138 @@
+package org.apache.compactatlas.quickstart.synthetic;
+
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.quickstart.hive.BulkCatalogLoader;
+import org.apache.compactatlas.quickstart.hive.HiveTableUtils;
+import org.apache.compactatlas.quickstart.model.GlossaryBusinessType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates hive databases, tables and columns of the types in initModelsData/models, with lineage chains between
+ * tables, and loads them with BulkCatalogLoader.
+ *
+ * Table names embed glossary business-type terms, and a configured share of them embed "poke", so that tables get a
+ * spread of glossary terms and product classifications; classifications then propagate along the generated lineage.
+ * Table names include the database name, as process names are derived from output table names alone. Generation is
+ * deterministic for a given seed.
+ */
+@Component
+public class SyntheticCatalogGenerator {
+    private static final Logger LOG = LoggerFactory.getLogger(SyntheticCatalogGenerator.class);
+
+    private static final String[] COLUMN_TYPES = { "string", "bigint", "int", "double", "boolean", "timestamp", "decimal(18,2)" };
+    private static final String[] OWNERS       = { "etl", "analyst", "data_eng", "bi", "ml" };
+
+    private final BulkCatalogLoader catalogLoader;
+
+    @Autowired
+    public SyntheticCatalogGenerator(BulkCatalogLoader catalogLoader) {
+        this.catalogLoader = catalogLoader;
+    }
+
+    public List<BulkCatalogLoader.LoadResult> generate(SyntheticCatalogConfig config) throws AtlasBaseException {
+        LOG.info("==> SyntheticCatalogGenerator.generate({})", config);
+
+        List<BulkCatalogLoader.LoadResult> ret    = new ArrayList<>(config.getDatabases());
+        Random                             random = new Random(config.getSeed());
+
+        for (int i = 0; i < config.getDatabases(); i++) {
+            String                         dbName = config.getDbNamePrefix() + i;
+            List<HiveTableUtils.TableInfo> tables = generateTables(dbName, config, random);
+
+            ret.add(catalogLoader.load(dbName, config.getNameSpace(), tables, generateLineage(tables, config, random)));
+        }
+
+        LOG.info("<== SyntheticCatalogGenerator.generate({}): {}", config, ret);
+
+        return ret;
+    }
+
+    List<HiveTableUtils.TableInfo> generateTables(String dbName, SyntheticCatalogConfig config, Random random) {
+        List<HiveTableUtils.TableInfo> ret = new ArrayList<>(config.getTablesPerDatabase());
+        long                           now = System.currentTimeMillis();
+
+        for (int i = 0; i < config.getTablesPerDatabase(); i++) {
+            HiveTableUtils.TableInfo table   = new HiveTableUtils.TableInfo();
+            int                      termIdx = random.nextInt(GlossaryBusinessType.GloTerms.size() + 1);
+            String                   term    = termIdx < GlossaryBusinessType.GloTerms.size() ? GlossaryBusinessType.GloTerms.get(termIdx) : "tbl"; // "tbl" gets the 'other' term
+            String                   name    = (random.nextDouble() < config.getProductTableRatio() ? "poke_" : "") + term + "_" + dbName + "_t" + i;
+
+            table.setDbName(dbName);
+            table.setTableName(name);
+            table.setType("MANAGED_TABLE");
+            table.setOwner(OWNERS[random.nextInt(OWNERS.length)]);
+            table.setCreateTime(now - (long) random.nextInt(365) * 24 * 3600 * 1000);
+            table.setLastAccessTime(now);
+            table.setComment("synthetic table " + name);
+            table.setLocation("hdfs://synthetic/" + dbName + "/" + name);
+            table.setColumns(generateColumns("c", config.getColumnsPerTable(), random));
+            table.setPartitionKeys(generateColumns("p", config.getPartitionKeys(), random));
+
+            ret.add(table);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Splits tables into lineageDepth + 1 levels; each table above the first level is the output of a process that
+     * reads lineageFanOut tables of the level below it.
+     *
+     * @return output table name to names of its input tables
+     */
+    Map<String, Set<String>> generateLineage(List<HiveTableUtils.TableInfo> tables, SyntheticCatalogConfig config, Random random) {
+        Map<String, Set<String>> ret    = new HashMap<>();
+        int                      levels = config.getLineageDepth() + 1;
+
+        if (config.getLineageDepth() <= 0 || config.getLineageFanOut() <= 0 || tables.size() < levels) {
+            return ret;
+        }
+
+        int levelSize = tables.size() / levels;
+
+        for (int level = 1; level < levels; level++) {
+            List<HiveTableUtils.TableInfo> inputs  = tables.subList((level - 1) * levelSize, level * levelSize);
+            List<HiveTableUtils.TableInfo> outputs = tables.subList(level * levelSize, level == levels - 1 ? tables.size() : (level + 1) * levelSize);
+
+            for (HiveTableUtils.TableInfo output : outputs) {
+                Set<String> inputNames = new LinkedHashSet<>();
+                int         fanOut     = Math.min(config.getLineageFanOut(), inputs.size());
+
+                while (inputNames.size() < fanOut) {
+                    inputNames.add(inputs.get(random.nextInt(inputs.size())).getTableName());
+                }
+
+                ret.put(output.getTableName(), inputNames);
+            }
+        }
+
+        return ret;
+    }
+
+    private List<HiveTableUtils.ColumnInfo> generateColumns(String prefix, int count, Random random) {
+        List<HiveTableUtils.ColumnInfo> ret = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            HiveTableUtils.ColumnInfo column = new HiveTableUtils.ColumnInfo();
+
+            column.setColumnName(prefix + i);
+            column.setType(COLUMN_TYPES[random.nextInt(COLUMN_TYPES.length)]);
+            column.setComment("synthetic column " + prefix + i);
+
+            ret.add(column);
+        }
+
+        return ret;
+    }
+}
@@ -44,6 +44,28 @@ public interface AtlasDiscoveryService {
      */
     String getDslQueryUsingTypeNameClassification(String query, String typeName, String classification);
 
+    /**
+     * Opens a cursor to read all entities matching a DSL query in chunks, each fetch resuming where the previous one
+     * stopped. Queries with select or groupby clauses are not supported.
+     * @param query search query in DSL format.
+     * @return AtlasSearchResult with the id of the cursor as nextMarker
+     */
+    AtlasSearchResult openDslCursor(String query) throws AtlasBaseException;
+
+    /**
+     *
+     * @param cursorId id of a cursor opened by the current user
+     * @param limit number of entities to read. [ limit > 0 ] and [ limit < maxlimit ]. -1 maps to atlas.search.defaultlimit property.
+     * @return AtlasSearchResult with the next entities; nextMarker is the cursor id while there are more entities, null at the end
+     */
+    AtlasSearchResult fetchDslCursor(String cursorId, int limit) throws AtlasBaseException;
+
+    /**
+     *
+     * @param cursorId id of a cursor opened by the current user
+     */
+    void closeDslCursor(String cursorId) throws AtlasBaseException;
+
     /**
      *
      * @param query search query.
@@ -77,6 +99,14 @@ public interface AtlasDiscoveryService {
      */
     AtlasSearchResult searchWithParameters(SearchParameters searchParameters) throws AtlasBaseException;
 
+    /**
+     * Describes how a search with the given criteria would be executed, without executing it
+     * @param searchParameters Search criteria
+     * @return Search plan: index queries and the filters left to be evaluated in-memory
+     * @throws AtlasBaseException
+     */
+    AtlasSearchPlan explainSearchWithParameters(SearchParameters searchParameters) throws AtlasBaseException;
+
     /**
      *
      * @param guid unique ID of the entity.
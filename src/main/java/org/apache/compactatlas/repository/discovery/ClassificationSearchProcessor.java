@@ -87,15 +87,15 @@ public class ClassificationSearchProcessor extends SearchProcessor {
                                                 !context.hasAttributeFilter(filterCriteria)  &&
                                                 (typeAndSubTypesQryStr.length() <= MAX_QUERY_STR_LENGTH_TAGS);
 
-        /* If classification's attributes can be applied index filter, we can use direct index
-         * to query classification index as well.
+        /* If any of classification's attributes can be applied index filter, we can use direct index
+         * to query classification index as well. Criteria not in the index query (including ORs having
+         * a non-indexed attribute) are then evaluated in-memory, by the predicate built for graph search.
          */
         final boolean useIndexSearchForClassification = (CollectionUtils.isNotEmpty(classificationTypes) &&
                                                          classificationTypes.iterator().next() != SearchContext.MATCH_ALL_NOT_CLASSIFIED &&
                                                           !isWildcardSearch) &&
                                                         (typeAndSubTypesQryStr.length() <= MAX_QUERY_STR_LENGTH_TAGS) &&
-                                                        CollectionUtils.isNotEmpty(indexAttributes) &&
-                                                        canApplyIndexFilter(classificationTypes, filterCriteria, false);
+                                                        CollectionUtils.isNotEmpty(indexAttributes);
 
         final boolean useGraphSearchForClassification = (CollectionUtils.isNotEmpty(classificationTypes) &&
                                                         classificationTypes.iterator().next() != SearchContext.MATCH_ALL_NOT_CLASSIFIED &&
@@ -141,6 +141,7 @@ public class ClassificationSearchProcessor extends SearchProcessor {
             indexQueryString        = STRAY_OR_PATTERN.matcher(indexQueryString).replaceAll(")");
             indexQueryString        = STRAY_ELIPSIS_PATTERN.matcher(indexQueryString).replaceAll("");
             indexQuery              = graph.indexQuery(Constants.VERTEX_INDEX, indexQueryString);
+            this.indexQueryString   = indexQueryString;
 
             LOG.debug("Using query string  '{}'.", indexQuery);
         } else {
@@ -162,6 +163,7 @@ public class ClassificationSearchProcessor extends SearchProcessor {
             indexQueryString = STRAY_ELIPSIS_PATTERN.matcher(indexQueryString).replaceAll("");
 
             this.classificationIndexQuery = graph.indexQuery(Constants.VERTEX_INDEX, indexQueryString);
+            this.indexQueryString         = indexQueryString;
 
             typeNamePredicate  = isClassificationRootType() ? null :
                                  SearchPredicateUtil.getINPredicateGenerator().generatePredicate(Constants.TYPE_NAME_PROPERTY_KEY, typeAndSubTypes, String.class);
@@ -190,6 +192,8 @@ public class ClassificationSearchProcessor extends SearchProcessor {
             tagGraphQueryWithAttributes = null;
         }
 
+        explainFilters(classificationTypes, filterCriteria, useIndexSearchForClassification ? indexAttributes : Collections.emptySet());
+
         if (typeNamePredicate != null) {
             inMemoryPredicate = inMemoryPredicate == null ? typeNamePredicate : PredicateUtils.andPredicate(inMemoryPredicate, typeNamePredicate);
         }
@@ -274,6 +278,8 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
                         isLastResultPage = classificationVertices.size() < limit;
 
+                        prefetchProperties(classificationVertices);
+
                         CollectionUtils.filter(classificationVertices, inMemoryPredicate);
                     } else if (tagGraphQueryWithAttributes != null) {
 
@@ -283,6 +289,8 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
                         isLastResultPage = classificationVertices.size() < limit;
 
+                        prefetchProperties(classificationVertices);
+
                         CollectionUtils.filter(classificationVertices, inMemoryPredicate);
                     }
                 }
@@ -405,6 +413,17 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
     @Override
     public long getResultCount() {
-        return (indexQuery != null) ? indexQuery.vertexTotals() : -1;
+        if (indexQuery != null) {
+            resultCountApproximate = !inMemoryFilters.isEmpty();
+
+            return indexQuery.vertexTotals();
+        } else if (classificationIndexQuery != null) {
+            // counts classification vertices; an entity can have more than one matching classification
+            resultCountApproximate = true;
+
+            return classificationIndexQuery.vertexTotals();
+        } else {
+            return -1;
+        }
     }
 }
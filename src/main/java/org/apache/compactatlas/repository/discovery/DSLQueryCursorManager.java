@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.discovery;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.compactatlas.authorize.AtlasAuthorizationUtils;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.repository.query.GremlinQuery;
+import org.apache.compactatlas.repository.query.executors.DSLQueryCursor;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.compactatlas.repository.util.SearchTracker;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open DSL cursors, each owned by the user who opened it. The number of open cursors is limited, as each holds a
+ * thread and a transaction. A cursor is closed when it is read to its end, when it is not fetched from for
+ * atlas.dsl.cursor.idle.timeout.seconds, and in any case after atlas.dsl.cursor.max.lifetime.seconds. Open cursors are
+ * listed, and can be terminated, with the active searches of SearchTracker.
+ */
+@Component
+public class DSLQueryCursorManager {
+    private static final Logger LOG = LoggerFactory.getLogger(DSLQueryCursorManager.class);
+
+    private static final String REAPER_NAME_FORMAT = "atlas-dsl-cursor-reaper-%d";
+
+    private final AtlasTypeRegistry           typeRegistry;
+    private final AtlasGraph                  graph;
+    private final EntityGraphRetriever        entityRetriever;
+    private final SearchTracker               searchTracker;
+    private final int                         maxOpenCursors;
+    private final long                        idleTimeoutMs;
+    private final long                        maxLifetimeMs;
+    private final Map<String, DSLQueryCursor> cursors = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService    reaper;
+
+    @Inject
+    public DSLQueryCursorManager(AtlasTypeRegistry typeRegistry, AtlasGraph graph, SearchTracker searchTracker) {
+        this.typeRegistry    = typeRegistry;
+        this.graph           = graph;
+        this.entityRetriever = new EntityGraphRetriever(graph, typeRegistry);
+        this.searchTracker   = searchTracker;
+        this.maxOpenCursors  = AtlasConfiguration.DSL_CURSOR_MAX_OPEN.getInt();
+        this.idleTimeoutMs   = TimeUnit.SECONDS.toMillis(AtlasConfiguration.DSL_CURSOR_IDLE_TIMEOUT_SECONDS.getLong());
+        this.maxLifetimeMs   = TimeUnit.SECONDS.toMillis(AtlasConfiguration.DSL_CURSOR_MAX_LIFETIME_SECONDS.getLong());
+        this.reaper          = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat(REAPER_NAME_FORMAT).build());
+
+        long reapIntervalMs = Math.max(1000L, Math.min(idleTimeoutMs, maxLifetimeMs) / 2);
+
+        reaper.scheduleWithFixedDelay(this::closeExpiredCursors, reapIntervalMs, reapIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reaper.shutdownNow();
+
+        for (DSLQueryCursor cursor : cursors.values()) {
+            close(cursor);
+        }
+    }
+
+    /**
+     * Opens a cursor over the entities matching the query, for the current user. The query is translated and
+     * validated here; the traversal starts with the first fetch.
+     */
+    public DSLQueryCursor open(String query) throws AtlasBaseException {
+        GremlinQuery   gremlinQuery = DSLQueryCursor.translate(typeRegistry, query);
+        String         cursorId     = UUID.randomUUID().toString();
+        DSLQueryCursor ret;
+
+        // check and add under the lock, so that concurrent opens don't exceed the limit
+        synchronized (cursors) {
+            if (cursors.size() >= maxOpenCursors) {
+                throw new AtlasBaseException(AtlasErrorCode.DSL_CURSOR_LIMIT_REACHED, String.valueOf(maxOpenCursors));
+            }
+
+            ret = new DSLQueryCursor(cursorId, query, gremlinQuery, graph, entityRetriever,
+                                     RequestContext.getCurrentUser(), AtlasAuthorizationUtils.getCurrentUserGroups());
+
+            cursors.put(cursorId, ret);
+        }
+
+        searchTracker.addCursor(ret);
+
+        LOG.info("Opened DSL cursor: id={}, user={}, query={}", cursorId, ret.getUser(), query);
+
+        return ret;
+    }
+
+    /**
+     * @return open cursor with the given id, if owned by the current user
+     * @throws AtlasBaseException if there is no such cursor
+     */
+    public DSLQueryCursor get(String cursorId) throws AtlasBaseException {
+        DSLQueryCursor ret = cursorId != null ? cursors.get(cursorId) : null;
+
+        if (ret != null && ret.isClosed()) {
+            close(ret);
+
+            ret = null;
+        }
+
+        if (ret == null || !StringUtils.equals(ret.getUser(), RequestContext.getCurrentUser())) {
+            throw new AtlasBaseException(AtlasErrorCode.DSL_CURSOR_NOT_FOUND, cursorId);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Closes the cursor with the given id, whichever user owns it; used to terminate active searches.
+     * @return true if the cursor was open
+     */
+    public boolean terminate(String cursorId) {
+        DSLQueryCursor cursor = cursorId != null ? cursors.get(cursorId) : null;
+
+        if (cursor != null) {
+            LOG.info("Terminating DSL cursor: id={}, user={}", cursorId, cursor.getUser());
+
+            close(cursor);
+        }
+
+        return cursor != null;
+    }
+
+    public void close(DSLQueryCursor cursor) {
+        cursors.remove(cursor.getId());
+        searchTracker.removeCursor(cursor.getId());
+
+        cursor.close();
+    }
+
+    private void closeExpiredCursors() {
+        long now = System.currentTimeMillis();
+
+        for (DSLQueryCursor cursor : cursors.values()) {
+            boolean isIdle    = !cursor.isFetchInProgress() && now - cursor.getLastAccessTime() > idleTimeoutMs;
+            boolean isExpired = now - cursor.getCreateTime() > maxLifetimeMs;
+
+            if (cursor.isClosed() || isIdle || isExpired) {
+                if (!cursor.isClosed()) {
+                    LOG.info("Closing DSL cursor: id={}, user={}, idle={}, expired={}", cursor.getId(), cursor.getUser(), isIdle, isExpired);
+                }
+
+                try {
+                    close(cursor);
+                } catch (Exception e) {
+                    LOG.warn("Failed to close DSL cursor: id={}", cursor.getId(), e);
+                }
+            }
+        }
+    }
+}
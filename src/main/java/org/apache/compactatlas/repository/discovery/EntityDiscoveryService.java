@@ -29,6 +29,7 @@ import org.apache.compactatlas.authorize.AtlasSearchResultScrubRequest;
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
 import org.apache.compactatlas.intg.model.discovery.AtlasAggregationEntry;
 import org.apache.compactatlas.intg.model.discovery.AtlasQuickSearchResult;
+import org.apache.compactatlas.intg.model.discovery.AtlasSearchPlan;
 import org.apache.compactatlas.intg.model.discovery.AtlasSearchResult;
 import org.apache.compactatlas.intg.model.discovery.AtlasSearchResult.AtlasFullTextResult;
 import org.apache.compactatlas.intg.model.discovery.AtlasSearchResult.AtlasQueryType;
@@ -40,6 +41,7 @@ import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
 import org.apache.compactatlas.intg.model.instance.AtlasObjectId;
 import org.apache.compactatlas.intg.model.profile.AtlasUserSavedSearch;
 import org.apache.compactatlas.repository.query.QueryParams;
+import org.apache.compactatlas.repository.query.executors.DSLQueryCursor;
 import org.apache.compactatlas.repository.query.executors.DSLQueryExecutor;
 import org.apache.compactatlas.repository.query.executors.ScriptEngineBasedExecutor;
 import org.apache.compactatlas.repository.query.executors.TraversalBasedExecutor;
@@ -69,9 +71,7 @@ import org.apache.compactatlas.repository.util.SearchPredicateUtil;
 import org.apache.compactatlas.repository.util.SearchTracker;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Predicate;
-import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.slf4j.Logger;
@@ -84,11 +84,13 @@ import javax.script.ScriptException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import static org.apache.compactatlas.intg.AtlasErrorCode.*;
@@ -104,6 +106,7 @@ import static org.apache.compactatlas.repository.util.AtlasGremlinQueryProvider.
 public class EntityDiscoveryService implements AtlasDiscoveryService {
     private static final Logger LOG = LoggerFactory.getLogger(EntityDiscoveryService.class);
     private static final String DEFAULT_SORT_ATTRIBUTE_NAME = "name";
+    private static final int    RELATED_ENTITIES_BATCH_SIZE = 500;
 
     private final AtlasGraph graph;
     private final EntityGraphRetriever entityRetriever;
@@ -118,13 +121,17 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
     private final UserProfileService userProfileService;
     private final SuggestionsProvider suggestionsProvider;
     private final DSLQueryExecutor dslQueryExecutor;
+    private final SearchResultCache searchResultCache;
+    private final DSLQueryCursorManager dslQueryCursorManager;
 
     @Autowired
     EntityDiscoveryService(AtlasTypeRegistry typeRegistry,
                            AtlasGraph graph,
                            GraphBackedSearchIndexer indexer,
                            SearchTracker searchTracker,
-                           UserProfileService userProfileService) throws AtlasException {
+                           UserProfileService userProfileService,
+                           SearchResultCache searchResultCache,
+                           DSLQueryCursorManager dslQueryCursorManager) throws AtlasException {
         this.graph = graph;
         this.entityRetriever = new EntityGraphRetriever(this.graph, typeRegistry);
         this.indexer = indexer;
@@ -136,6 +143,8 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         this.maxTagsLengthInIdxQuery = ApplicationProperties.get().getInt(Constants.INDEX_SEARCH_TAGS_MAX_QUERY_STR_LENGTH, 512);
         this.indexSearchPrefix = AtlasGraphUtilsV2.getIndexSearchPrefix();
         this.userProfileService = userProfileService;
+        this.searchResultCache = searchResultCache;
+        this.dslQueryCursorManager = dslQueryCursorManager;
         this.suggestionsProvider = new SuggestionsProviderImpl(graph, typeRegistry);
         this.dslQueryExecutor = AtlasConfiguration.DSL_EXECUTOR_TRAVERSAL.getBoolean()
                 ? new TraversalBasedExecutor(typeRegistry, graph, entityRetriever)
@@ -153,6 +162,40 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         return ret;
     }
 
+    @Override
+    public AtlasSearchResult openDslCursor(String dslQuery) throws AtlasBaseException {
+        DSLQueryCursor    cursor = dslQueryCursorManager.open(dslQuery);
+        AtlasSearchResult ret    = new AtlasSearchResult(dslQuery, AtlasQueryType.DSL);
+
+        ret.setNextMarker(cursor.getId());
+
+        return ret;
+    }
+
+    @Override
+    public AtlasSearchResult fetchDslCursor(String cursorId, int limit) throws AtlasBaseException {
+        DSLQueryCursor    cursor = dslQueryCursorManager.get(cursorId);
+        AtlasSearchResult ret    = new AtlasSearchResult(cursor.getQuery(), AtlasQueryType.DSL);
+
+        ret.setEntities(cursor.fetch(QueryParams.getNormalizedParams(limit, 0).limit()));
+
+        if (cursor.hasMore()) {
+            ret.setNextMarker(cursorId);
+        } else {
+            dslQueryCursorManager.close(cursor);
+        }
+
+        // entities the user may not read are removed after the fetch, so a chunk can have fewer entities than the limit
+        scrubSearchResults(ret);
+
+        return ret;
+    }
+
+    @Override
+    public void closeDslCursor(String cursorId) throws AtlasBaseException {
+        dslQueryCursorManager.close(dslQueryCursorManager.get(cursorId));
+    }
+
     @Override
     @GraphTransaction
     public AtlasSearchResult searchUsingFullTextQuery(String fullTextQuery, boolean excludeDeletedEntities, int limit, int offset)
@@ -447,6 +490,14 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         return searchWithSearchContext(new SearchContext(searchParameters, typeRegistry, graph, indexer.getVertexIndexKeys()));
     }
 
+    @Override
+    @GraphTransaction
+    public AtlasSearchPlan explainSearchWithParameters(SearchParameters searchParameters) throws AtlasBaseException {
+        SearchContext searchContext = new SearchContext(searchParameters, typeRegistry, graph, indexer.getVertexIndexKeys());
+
+        return searchContext.getSearchProcessor().explain(new AtlasSearchPlan());
+    }
+
     private AtlasSearchResult searchWithSearchContext(SearchContext searchContext) throws AtlasBaseException {
         SearchParameters searchParameters = searchContext.getSearchParameters();
         AtlasSearchResult ret = new AtlasSearchResult(searchParameters);
@@ -457,13 +508,35 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         searchParameters.setOffset(params.offset());
 
         try {
-            List<AtlasVertex> resultList = searchContext.getSearchProcessor().execute();
+            SearchResultCache.CachedPage cachedPage = searchResultCache.isEnabled() ? searchResultCache.get(searchContext) : null;
+            List<AtlasVertex>            resultList;
+
+            if (cachedPage != null) {
+                resultList = cachedPage.getVertices(graph);
+
+                ret.setApproximateCount(cachedPage.getApproximateCount());
+                ret.setIsApproximate(cachedPage.isApproximate());
+
+                if (StringUtils.isNotEmpty(cachedPage.getNextMarker())) {
+                    ret.setNextMarker(cachedPage.getNextMarker());
+                }
+            } else {
+                long startEpoch = searchResultCache.getWriteEpoch();
 
-            ret.setApproximateCount(searchContext.getSearchProcessor().getResultCount());
+                resultList = searchContext.getSearchProcessor().execute();
 
-            String nextMarker = searchContext.getSearchProcessor().getNextMarker();
-            if (StringUtils.isNotEmpty(nextMarker)) {
-                ret.setNextMarker(nextMarker);
+                ret.setApproximateCount(searchContext.getSearchProcessor().getResultCount());
+                ret.setIsApproximate(searchContext.getSearchProcessor().isResultCountApproximate());
+
+                String nextMarker = searchContext.getSearchProcessor().getNextMarker();
+                if (StringUtils.isNotEmpty(nextMarker)) {
+                    ret.setNextMarker(nextMarker);
+                }
+
+                // results of a terminated search are partial
+                if (searchResultCache.isEnabled() && !searchContext.terminateSearch()) {
+                    searchResultCache.put(searchContext, startEpoch, resultList, ret.getApproximateCount(), ret.getIsApproximate(), nextMarker);
+                }
             }
 
             // By default any attribute that shows up in the search parameter should be sent back in the response
@@ -505,6 +578,10 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
                 }
             }
 
+            if (SearchProcessor.PREFETCH_PROPERTIES) {
+                graph.prefetchProperties(resultList);
+            }
+
             for (AtlasVertex atlasVertex : resultList) {
                 AtlasEntityHeader entity = entityRetriever.toAtlasEntityHeader(atlasVertex, resultAttributes);
 
@@ -639,29 +716,30 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         }
 
         //get relationship(end vertices) vertices
-        GraphTraversal gt = graph.V(entityVertex.getId()).bothE(relation).otherV();
+        //state of the edge and endVertex will be same: deleted entities are excluded by the state of the edges,
+        //which is in the vertex-centric index of relationship edges
+        GraphTraversal edges = graph.V(entityVertex.getId()).bothE(relation);
 
         if (searchParameters.getExcludeDeletedEntities()) {
-            gt.has(Constants.STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.name());
+            edges.has(Constants.STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.name());
         }
 
+        List<AtlasVertex> endVertices;
+
         if (sortOrder != null) {
-            if (sortOrder == ASCENDING) {
-                gt.order().by(sortByAttributeName, Order.asc);
-            } else {
-                gt.order().by(sortByAttributeName, Order.desc);
-            }
+            endVertices = getSortedEndVertices(edges.otherV(), sortByAttributeName, sortOrder, offset, limit);
+        } else {
+            endVertices = getEndVertices(edges.range(offset, offset + limit).otherV(), Integer.MAX_VALUE);
         }
 
-        gt.range(offset, offset + limit);
+        if (SearchProcessor.PREFETCH_PROPERTIES) {
+            graph.prefetchProperties(endVertices);
+        }
 
-        List<AtlasEntityHeader> resultList = new ArrayList<>();
-        while (gt.hasNext()) {
-            Vertex v = (Vertex) gt.next();
+        List<AtlasEntityHeader> resultList = new ArrayList<>(endVertices.size());
 
-            if (v != null && v.property(Constants.GUID_PROPERTY_KEY).isPresent()) {
-                String endVertexGuid = v.property(Constants.GUID_PROPERTY_KEY).value().toString();
-                AtlasVertex vertex = entityRetriever.getEntityVertex(endVertexGuid);
+        for (AtlasVertex vertex : endVertices) {
+            if (GraphHelper.getGuid(vertex) != null) {
                 AtlasEntityHeader entity = entityRetriever.toAtlasEntityHeader(vertex, searchParameters.getAttributes());
 
                 if (searchParameters.getIncludeClassificationAttributes()) {
@@ -680,21 +758,32 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         //set approximate count
         //state of the edge and endVertex will be same
         if (getApproximateCount) {
-            Iterator<AtlasEdge> edges = GraphHelper.getAdjacentEdgesByLabel(entityVertex, AtlasEdgeDirection.BOTH, relation);
-
-            if (searchParameters.getExcludeDeletedEntities()) {
-                List<AtlasEdge> edgeList = new ArrayList<>();
-                edges.forEachRemaining(edgeList::add);
+            // counting edges in the graph traversal doesn't read edge properties
+            long edgeCount = ((Number) graph.V(entityVertex.getId()).bothE(relation).count().next()).longValue();
 
-                Predicate activePredicate = SearchPredicateUtil.getEQPredicateGenerator().generatePredicate
+            if (searchParameters.getExcludeDeletedEntities() && edgeCount > 0) {
+                Iterator<AtlasEdge> edges           = GraphHelper.getAdjacentEdgesByLabel(entityVertex, AtlasEdgeDirection.BOTH, relation);
+                Predicate           activePredicate = SearchPredicateUtil.getEQPredicateGenerator().generatePredicate
                         (Constants.STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.name(), String.class);
+                int                 sampleSize      = searchParameters.getExactCount() ? Integer.MAX_VALUE : SearchProcessor.COUNT_SAMPLE_SIZE;
+                int                 edgesRead       = 0;
+                int                 activeCount     = 0;
 
-                CollectionUtils.filter(edgeList, activePredicate);
-                ret.setApproximateCount(edgeList.size());
+                for (; edgesRead < sampleSize && edges.hasNext(); edgesRead++) {
+                    if (activePredicate.evaluate(edges.next())) {
+                        activeCount++;
+                    }
+                }
 
+                if (edges.hasNext()) {
+                    // scale the active fraction of the edges read to all edges
+                    ret.setApproximateCount(Math.round((double) edgeCount * activeCount / edgesRead));
+                    ret.setIsApproximate(true);
+                } else {
+                    ret.setApproximateCount(activeCount);
+                }
             } else {
-                ret.setApproximateCount(IteratorUtils.size(edges));
-
+                ret.setApproximateCount(edgeCount);
             }
         }
 
@@ -703,6 +792,78 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         return ret;
     }
 
+    // reads up to maxCount vertices from the traversal
+    private List<AtlasVertex> getEndVertices(GraphTraversal traversal, int maxCount) {
+        List<AtlasVertex> ret = new ArrayList<>();
+
+        while (ret.size() < maxCount && traversal.hasNext()) {
+            AtlasVertex vertex = graph.getVertex(((Vertex) traversal.next()).id().toString());
+
+            if (vertex != null) {
+                ret.add(vertex);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Vertices in [offset, offset + limit) of the vertices of the traversal ordered by the given property. Only the
+     * first offset + limit vertices are kept while the traversal is read, and the property is read for a batch of
+     * vertices at a time.
+     */
+    private List<AtlasVertex> getSortedEndVertices(GraphTraversal traversal, String sortBy, SortOrder sortOrder, int offset, int limit) {
+        final Comparator<SortedEntry> comparator = (e1, e2) -> {
+            int ret = SearchProcessor.compareSortValues(e1.sortValue, e2.sortValue, sortOrder == ASCENDING);
+
+            return ret != 0 ? ret : Integer.compare(e1.seq, e2.seq);
+        };
+
+        final int                        maxCount = offset + limit;
+        final PriorityQueue<SortedEntry> top      = new PriorityQueue<>(comparator.reversed()); // head is the last in order
+        int                              seq      = 0;
+
+        while (traversal.hasNext()) {
+            List<AtlasVertex> batch = getEndVertices(traversal, RELATED_ENTITIES_BATCH_SIZE);
+
+            if (SearchProcessor.PREFETCH_PROPERTIES) {
+                graph.prefetchProperties(batch);
+            }
+
+            for (AtlasVertex vertex : batch) {
+                top.add(new SortedEntry(vertex, vertex.getProperty(sortBy, Object.class), seq++));
+
+                if (top.size() > maxCount) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<SortedEntry> sorted = new ArrayList<>(top);
+
+        sorted.sort(comparator);
+
+        List<AtlasVertex> ret = new ArrayList<>(limit);
+
+        for (int i = offset; i < sorted.size(); i++) {
+            ret.add(sorted.get(i).vertex);
+        }
+
+        return ret;
+    }
+
+    private static class SortedEntry {
+        final AtlasVertex vertex;
+        final Object      sortValue;
+        final int         seq;
+
+        SortedEntry(AtlasVertex vertex, Object sortValue, int seq) {
+            this.vertex    = vertex;
+            this.sortValue = sortValue;
+            this.seq       = seq;
+        }
+    }
+
     public int getMaxResultSetSize() {
         return maxResultSetSize;
     }
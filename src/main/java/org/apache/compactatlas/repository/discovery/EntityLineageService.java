@@ -39,6 +39,7 @@ import org.apache.compactatlas.graphdb.api.AtlasGraph;
 import org.apache.compactatlas.graphdb.api.AtlasVertex;
 import org.apache.compactatlas.repository.repository.store.graph.v2.AtlasGraphUtilsV2;
 import org.apache.compactatlas.repository.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityProjection;
 import org.apache.compactatlas.intg.type.AtlasEntityType;
 import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
 import org.apache.compactatlas.intg.type.AtlasTypeUtil;
@@ -55,6 +56,7 @@ import javax.inject.Inject;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -80,10 +82,11 @@ import static org.apache.compactatlas.repository.util.AtlasGremlinQueryProvider.
 public class EntityLineageService implements AtlasLineageService {
     private static final Logger LOG = LoggerFactory.getLogger(EntityLineageService.class);
 
-    private static final String  PROCESS_INPUTS_EDGE   = "__Process.inputs";
-    private static final String  PROCESS_OUTPUTS_EDGE  = "__Process.outputs";
-    private static final String  COLUMNS               = "columns";
-    private static final boolean LINEAGE_USING_GREMLIN = AtlasConfiguration.LINEAGE_USING_GREMLIN.getBoolean();
+    private static final String           PROCESS_INPUTS_EDGE   = "__Process.inputs";
+    private static final String           PROCESS_OUTPUTS_EDGE  = "__Process.outputs";
+    private static final String           COLUMNS               = "columns";
+    private static final boolean          LINEAGE_USING_GREMLIN = AtlasConfiguration.LINEAGE_USING_GREMLIN.getBoolean();
+    private static final EntityProjection SCHEMA_PROJECTION     = new EntityProjection(null, Collections.singletonList(COLUMNS), true, false, false);
 
     private final AtlasGraph                graph;
     private final AtlasGremlinQueryProvider gremlinQueryProvider;
@@ -92,9 +95,13 @@ public class EntityLineageService implements AtlasLineageService {
 
     @Inject
     EntityLineageService(AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph) {
+        this(typeRegistry, atlasGraph, AtlasGremlinQueryProvider.INSTANCE, new EntityGraphRetriever(atlasGraph, typeRegistry));
+    }
+
+    EntityLineageService(AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph, AtlasGremlinQueryProvider gremlinQueryProvider, EntityGraphRetriever entityRetriever) {
         this.graph = atlasGraph;
-        this.gremlinQueryProvider = AtlasGremlinQueryProvider.INSTANCE;
-        this.entityRetriever = new EntityGraphRetriever(atlasGraph, typeRegistry);
+        this.gremlinQueryProvider = gremlinQueryProvider;
+        this.entityRetriever = entityRetriever;
         this.atlasTypeRegistry = typeRegistry;
     }
 
@@ -160,7 +167,8 @@ public class EntityLineageService implements AtlasLineageService {
 
         ret.setDataType(AtlasTypeUtil.toClassTypeDefinition(hive_column));
 
-        AtlasEntityWithExtInfo entityWithExtInfo = entityRetriever.toAtlasEntityWithExtInfo(guid);
+        // only the columns attribute is used: skip the other relationship attributes, which for a table include its lineage edges
+        AtlasEntityWithExtInfo entityWithExtInfo = entityRetriever.toAtlasEntityWithExtInfo(guid, SCHEMA_PROJECTION);
         AtlasEntity            entity            = entityWithExtInfo.getEntity();
 
         AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(atlasTypeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(entity)),
@@ -52,6 +52,7 @@ public class EntitySearchProcessor extends SearchProcessor {
     private final AtlasGraphQuery graphQuery;
     private       Predicate       graphQueryPredicate;
     private       Predicate       filterGraphQueryPredicate;
+    private       boolean         filtersOnTypeAndStateOnly;
 
     public EntitySearchProcessor(SearchContext context) {
         super(context);
@@ -90,39 +91,68 @@ public class EntitySearchProcessor extends SearchProcessor {
 
         processSearchAttributes(entityTypes, filterCriteria, indexAttributes, graphAttributes, allAttributes);
 
-        final boolean typeSearchByIndex = !filterClassification && typeAndSubTypesQryStr.length() <= MAX_QUERY_STR_LENGTH_TYPES;
-        final boolean attrSearchByIndex = !filterClassification && CollectionUtils.isNotEmpty(indexAttributes) && canApplyIndexFilter(entityTypes, filterCriteria, false);
+        filtersOnTypeAndStateOnly = !filterClassification && CollectionUtils.isEmpty(allAttributes);
+
+        // type filters too long for a single index query are split across index queries run in parallel
+        final boolean typeSearchByFanOut  = !filterClassification && typeAndSubTypesQryStr.length() > MAX_QUERY_STR_LENGTH_TYPES && !isEntityRootType() && FanOutIndexQuery.isEnabled();
+        final boolean typeSearchByIndex   = !filterClassification && (typeAndSubTypesQryStr.length() <= MAX_QUERY_STR_LENGTH_TYPES || typeSearchByFanOut);
+        final boolean canApplyIndexFilter = canApplyIndexFilter(entityTypes, filterCriteria, false);
+
+        // when a non-indexed attribute is inside an OR, the index query can still narrow the results by the
+        // remaining criteria, as long as the type filter keeps the index query from being empty
+        final boolean attrSearchByIndex = !filterClassification && CollectionUtils.isNotEmpty(indexAttributes) && (canApplyIndexFilter || typeSearchByIndex);
 
         StringBuilder indexQuery = new StringBuilder();
 
         // TypeName check to be done in-memory as well to address ATLAS-2121 (case sensitivity)
         inMemoryPredicate = typeNamePredicate;
 
-        if (typeSearchByIndex) {
+        if (typeSearchByIndex && !typeSearchByFanOut) {
             graphIndexQueryBuilder.addTypeAndSubTypesQueryFilter(indexQuery, typeAndSubTypesQryStr);
         }
 
         if (attrSearchByIndex) {
             constructFilterQuery(indexQuery, entityTypes, filterCriteria, indexAttributes);
 
-            Predicate attributePredicate = constructInMemoryPredicate(entityTypes, filterCriteria, indexAttributes);
+            // the index query doesn't cover ORs having non-indexed attributes; such filters are evaluated in-memory as a whole
+            Predicate attributePredicate = constructInMemoryPredicate(entityTypes, filterCriteria, canApplyIndexFilter ? indexAttributes : allAttributes);
             if (attributePredicate != null) {
                 inMemoryPredicate = PredicateUtils.andPredicate(inMemoryPredicate, attributePredicate);
             }
+
+            if (!canApplyIndexFilter) {
+                graphAttributes.clear();
+            }
+
+            explainFilters(entityTypes, filterCriteria, indexAttributes);
         } else {
             graphAttributes.addAll(indexAttributes);
+
+            explainFilters(entityTypes, filterCriteria, Collections.emptySet());
         }
 
-        if (indexQuery.length() > 0) {
+        if (typeSearchByFanOut) {
+            List<String> indexQueryStrings = new ArrayList<>();
+
+            for (String typeNamesQryStr : getTypeNamesQryStrs(typeAndSubTypes)) {
+                StringBuilder typeIndexQuery = new StringBuilder();
 
-            graphIndexQueryBuilder.addActiveStateQueryFilter(indexQuery);
+                graphIndexQueryBuilder.addTypeAndSubTypesQueryFilter(typeIndexQuery, typeNamesQryStr);
+
+                if (indexQuery.length() > 0) {
+                    typeIndexQuery.append(AND_STR).append(indexQuery);
+                }
 
-            String indexQueryString = STRAY_AND_PATTERN.matcher(indexQuery).replaceAll(")");
+                indexQueryStrings.add(toIndexQueryString(typeIndexQuery));
+            }
 
-            indexQueryString = STRAY_OR_PATTERN.matcher(indexQueryString).replaceAll(")");
-            indexQueryString = STRAY_ELIPSIS_PATTERN.matcher(indexQueryString).replaceAll("");
+            this.indexQueryString = String.join(" | ", indexQueryStrings);
+            this.indexQuery       = new FanOutIndexQuery(context.getGraph(), indexQueryStrings);
+        } else if (indexQuery.length() > 0) {
+            String indexQueryString = toIndexQueryString(indexQuery);
 
-            this.indexQuery = context.getGraph().indexQuery(Constants.VERTEX_INDEX, indexQueryString);
+            this.indexQueryString = indexQueryString;
+            this.indexQuery       = context.getGraph().indexQuery(Constants.VERTEX_INDEX, indexQueryString);
         } else {
             this.indexQuery = null;
         }
@@ -224,6 +254,17 @@ public class EntitySearchProcessor extends SearchProcessor {
 
     }
 
+    private String toIndexQueryString(StringBuilder indexQuery) {
+        graphIndexQueryBuilder.addActiveStateQueryFilter(indexQuery);
+
+        String ret = STRAY_AND_PATTERN.matcher(indexQuery).replaceAll(")");
+
+        ret = STRAY_OR_PATTERN.matcher(ret).replaceAll(")");
+        ret = STRAY_ELIPSIS_PATTERN.matcher(ret).replaceAll("");
+
+        return ret;
+    }
+
     @Override
     public List<AtlasVertex> execute() {
         if (LOG.isDebugEnabled()) {
@@ -232,7 +273,8 @@ public class EntitySearchProcessor extends SearchProcessor {
 
         List<AtlasVertex> ret = new ArrayList<>();
 
-        AtlasPerfTracer perf = null;
+        AtlasPerfTracer          perf           = null;
+        IndexQueryPagePrefetcher pagePrefetcher = null;
 
         if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
             perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntitySearchProcessor.execute(" + context +  ")");
@@ -268,16 +310,20 @@ public class EntitySearchProcessor extends SearchProcessor {
 
                 final boolean isLastResultPage;
 
-                if (indexQuery != null) {
+                if (pagePrefetcher != null) {
+                    isLastResultPage = pagePrefetcher.nextPage(qryOffset, offsetEntityVertexMap) < limit;
+                } else if (indexQuery != null) {
                     Iterator<AtlasIndexQuery.Result> idxQueryResult = executeIndexQuery(context, indexQuery, qryOffset, limit);
                     offsetEntityVertexMap = getVerticesFromIndexQueryResult(idxQueryResult, offsetEntityVertexMap, qryOffset);
 
+                    isLastResultPage = offsetEntityVertexMap.size() < limit;
                 } else {
                     Iterator<AtlasVertex> queryResult = graphQuery.vertices(qryOffset, limit).iterator();
                     offsetEntityVertexMap = getVertices(queryResult, offsetEntityVertexMap, qryOffset);
+
+                    isLastResultPage = offsetEntityVertexMap.size() < limit;
                 }
 
-                isLastResultPage = offsetEntityVertexMap.size() < limit;
                 // Do in-memory filtering
                 offsetEntityVertexMap = super.filter(offsetEntityVertexMap, inMemoryPredicate);
 
@@ -294,6 +340,15 @@ public class EntitySearchProcessor extends SearchProcessor {
                     resultIdx = MarkerUtil.MARKER_END - 1;
                     break;
                 }
+
+                // more pages are needed: fetch the following pages while this one's results are used
+                if (indexQuery != null && !(indexQuery instanceof FanOutIndexQuery) && ret.size() < limit && IndexQueryPagePrefetcher.isEnabled()) {
+                    if (pagePrefetcher == null) {
+                        pagePrefetcher = new IndexQueryPagePrefetcher(context, indexQueryString, limit, qryOffset + limit);
+                    }
+
+                    pagePrefetcher.pageConsumed(offsetEntityVertexMap.size(), limit - ret.size());
+                }
             }
 
             if (marker != null) {
@@ -301,6 +356,10 @@ public class EntitySearchProcessor extends SearchProcessor {
             }
 
         } finally {
+            if (pagePrefetcher != null) {
+                pagePrefetcher.close();
+            }
+
             AtlasPerfTracer.log(perf);
         }
 
@@ -333,14 +392,112 @@ public class EntitySearchProcessor extends SearchProcessor {
         return offsetEntityVertexMap;
     }
 
+    /**
+     * Counts matching entities without reading all of them, unless the exact count is requested: from the hit totals
+     * of the index query when there is one; from the number of vertices of the searched types when filtering only on
+     * type and state; otherwise estimated from the fraction of a sample of vertices of the searched types that match
+     * the filters.
+     */
     @Override
     public long getResultCount() {
         if (indexQuery != null) {
+            // filters not in the index query are evaluated in-memory, on the vertices fetched
+            boolean hasRemainingFilters = graphQuery != null || !inMemoryFilters.isEmpty();
+
+            if (hasRemainingFilters && context.getSearchParameters().getExactCount()) {
+                resultCountApproximate = false;
+
+                return countIndexQueryMatches();
+            }
+
+            resultCountApproximate = hasRemainingFilters;
+
             return indexQuery.vertexTotals();
         } else if (graphQuery != null) {
-            return StreamSupport.stream(graphQuery.vertexIds().spliterator(), false).count();
+            if (context.getSearchParameters().getExactCount()) {
+                resultCountApproximate = false;
+
+                return StreamSupport.stream(graphQuery.vertexIds().spliterator(), false).count();
+            }
+
+            return estimateResultCount();
         } else {
             return -1L;
         }
     }
+
+    // reads all index query hits, a page at a time, and counts those that pass the filters evaluated in-memory
+    private long countIndexQueryMatches() {
+        LinkedHashMap<Integer, AtlasVertex> offsetEntityVertexMap = new LinkedHashMap<>();
+        long                                ret                   = 0;
+
+        for (int qryOffset = 0; ; qryOffset += MAX_RESULT_SIZE) {
+            if (context.terminateSearch()) {
+                LOG.warn("count terminated: {}", context.getSearchParameters());
+
+                break;
+            }
+
+            offsetEntityVertexMap.clear();
+
+            offsetEntityVertexMap = getVerticesFromIndexQueryResult(indexQuery.vertices(qryOffset, MAX_RESULT_SIZE), offsetEntityVertexMap, qryOffset);
+
+            final boolean isLastResultPage = offsetEntityVertexMap.size() < MAX_RESULT_SIZE;
+
+            offsetEntityVertexMap = super.filter(offsetEntityVertexMap, inMemoryPredicate);
+
+            if (graphQueryPredicate != null) {
+                offsetEntityVertexMap = super.filter(offsetEntityVertexMap, graphQueryPredicate);
+            }
+
+            ret += offsetEntityVertexMap.size();
+
+            if (isLastResultPage) {
+                break;
+            }
+        }
+
+        return ret;
+    }
+
+    private long estimateResultCount() {
+        final Collection<String> typeNames = isEntityRootType() ? context.getTypeRegistry().getAllEntityDefNames() : context.getEntityTypeNames();
+
+        if (filtersOnTypeAndStateOnly) {
+            resultCountApproximate = false;
+
+            return getTypeAndStateCount(typeNames);
+        }
+
+        AtlasGraphQuery sampleQuery = context.getGraph().query().in(TYPE_NAME_PROPERTY_KEY, typeNames);
+
+        if (context.getSearchParameters().getExcludeDeletedEntities()) {
+            sampleQuery.has(Constants.STATE_PROPERTY_KEY, "ACTIVE");
+        }
+
+        List<AtlasVertex> sample = new ArrayList<>(COUNT_SAMPLE_SIZE);
+
+        getVertices(sampleQuery.vertices(0, COUNT_SAMPLE_SIZE).iterator(), sample);
+
+        prefetchProperties(sample);
+
+        final int matchCount = CollectionUtils.countMatches(sample, filterGraphQueryPredicate);
+
+        // all vertices of the types were read: the count is exact
+        if (sample.size() < COUNT_SAMPLE_SIZE) {
+            resultCountApproximate = false;
+
+            return matchCount;
+        }
+
+        final long typeCount = getTypeAndStateCount(typeNames);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("EntitySearchProcessor.estimateResultCount(): typeCount={}, sampleSize={}, matchCount={}", typeCount, sample.size(), matchCount);
+        }
+
+        resultCountApproximate = true;
+
+        return Math.round((double) typeCount * matchCount / sample.size());
+    }
 }
@@ -0,0 +1,358 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.discovery;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.compactatlas.common.repository.Constants;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasIndexQuery;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * An index query over the union of the results of several index queries that match disjoint sets of vertices, such
+ * as the same filters on disjoint sets of types. Used in place of a single query whose type filter would be longer
+ * than the index accepts.
+ *
+ * The queries are run in parallel, each in a pool thread and its own transaction. When sorted, their results are
+ * merged by the sort property, ties going to the query listed first, in the order a single query would return them.
+ * Unsorted results are returned query by query, each in its own order: scores of different queries are not
+ * comparable, so the ranking differs from that of a single query, but the order is deterministic and pages neither
+ * repeat nor skip results. Results are fetched from each query a page at a time as the merge consumes them; the merge
+ * state is kept between calls, so reading consecutive pages does not re-read the pages before them.
+ */
+class FanOutIndexQuery implements AtlasIndexQuery {
+    private static final Logger LOG = LoggerFactory.getLogger(FanOutIndexQuery.class);
+
+    private static final String          WORKER_NAME_FORMAT = "atlas-search-fanout-%d";
+    private static final boolean         IS_ENABLED         = AtlasConfiguration.SEARCH_FANOUT_ENABLED.getBoolean();
+    private static final ExecutorService EXECUTOR_SERVICE   = IS_ENABLED ? Executors.newFixedThreadPool(Math.max(1, AtlasConfiguration.SEARCH_FANOUT_THREADS.getInt()),
+                                                                                   new ThreadFactoryBuilder().setDaemon(true).setNameFormat(WORKER_NAME_FORMAT).build()) : null;
+
+    private final AtlasGraph     graph;
+    private final List<String>   queryStrings;
+    private       List<SubQuery> subQueries;
+    private       String         sortBy;
+    private       Order          sortOrder;
+    private       int            pageSize;
+    private       int            position;
+
+    FanOutIndexQuery(AtlasGraph graph, List<String> queryStrings) {
+        this.graph        = graph;
+        this.queryStrings = queryStrings;
+    }
+
+    static boolean isEnabled() {
+        return IS_ENABLED;
+    }
+
+    @Override
+    public Iterator<Result> vertices() {
+        reset(null, null, SearchProcessor.MAX_RESULT_SIZE);
+
+        return new Iterator<Result>() {
+            private Hit next = nextHit();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Result next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+
+                Hit ret = next;
+
+                next = nextHit();
+
+                return ret;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Result> vertices(int offset, int limit, String sortBy, Order sortOrder) {
+        return merge(offset, limit, sortBy, sortOrder);
+    }
+
+    @Override
+    public Iterator<Result> vertices(int offset, int limit) {
+        return merge(offset, limit, null, null);
+    }
+
+    @Override
+    public Long vertexTotals() {
+        List<Callable<Long>> tasks = new ArrayList<>(queryStrings.size());
+
+        for (String queryString : queryStrings) {
+            tasks.add(() -> {
+                try {
+                    Long ret = graph.indexQuery(Constants.VERTEX_INDEX, queryString).vertexTotals();
+
+                    return ret != null ? ret : 0L;
+                } finally {
+                    graph.rollback();
+                }
+            });
+        }
+
+        long ret = 0;
+
+        for (Long count : invokeAll(tasks)) {
+            ret += count;
+        }
+
+        return ret;
+    }
+
+    private Iterator<Result> merge(int offset, int limit, String sortBy, Order sortOrder) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> FanOutIndexQuery.merge(queries={}, offset={}, limit={}, sortBy={}, sortOrder={})", queryStrings.size(), offset, limit, sortBy, sortOrder);
+        }
+
+        // continue the current merge when reading the next page; restart it otherwise
+        if (subQueries == null || offset < position || !Objects.equals(this.sortBy, sortBy) || this.sortOrder != sortOrder) {
+            reset(sortBy, sortOrder, limit);
+        }
+
+        pageSize = Math.max(1, limit);
+
+        while (position < offset && nextHit() != null) {
+            // skip results before offset
+        }
+
+        List<Result> ret = new ArrayList<>(limit);
+
+        while (ret.size() < limit) {
+            Hit hit = nextHit();
+
+            if (hit == null) {
+                break;
+            }
+
+            ret.add(hit);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== FanOutIndexQuery.merge(queries={}, offset={}, limit={}): ret.size()={}", queryStrings.size(), offset, limit, ret.size());
+        }
+
+        return ret.iterator();
+    }
+
+    private void reset(String sortBy, Order sortOrder, int pageSize) {
+        this.subQueries = new ArrayList<>(queryStrings.size());
+        this.sortBy     = sortBy;
+        this.sortOrder  = sortOrder;
+        this.pageSize   = Math.max(1, pageSize);
+        this.position   = 0;
+
+        for (String queryString : queryStrings) {
+            subQueries.add(new SubQuery(queryString));
+        }
+    }
+
+    private Hit nextHit() {
+        while (fetchNextPages()) {
+            // a page can have no results left, when all its vertices were deleted after being indexed
+        }
+
+        SubQuery next = null;
+
+        for (SubQuery subQuery : subQueries) {
+            if (subQuery.hasNext() && (next == null || compare(subQuery.peek(), next.peek()) < 0)) {
+                next = subQuery;
+            }
+        }
+
+        if (next == null) {
+            return null;
+        }
+
+        position++;
+
+        return next.next();
+    }
+
+    // fetches, in parallel, the next page of each query whose fetched results are all merged; returns false if none needed a fetch
+    private boolean fetchNextPages() {
+        List<SubQuery>                 toFetch = new ArrayList<>();
+        List<Callable<List<Object[]>>> tasks   = new ArrayList<>();
+
+        for (SubQuery subQuery : subQueries) {
+            if (!subQuery.hasNext() && !subQuery.isExhausted) {
+                final String queryString = subQuery.queryString;
+                final int    offset      = subQuery.fetchedCount;
+                final int    limit       = pageSize;
+                final String sortBy      = this.sortBy;
+                final Order  sortOrder   = this.sortOrder;
+
+                toFetch.add(subQuery);
+                tasks.add(() -> fetchPage(queryString, offset, limit, sortBy, sortOrder));
+            }
+        }
+
+        if (tasks.isEmpty()) {
+            return false;
+        }
+
+        List<List<Object[]>> pages    = invokeAll(tasks);
+        List<AtlasVertex>    vertices = new ArrayList<>();
+
+        for (int i = 0; i < toFetch.size(); i++) {
+            SubQuery       subQuery = toFetch.get(i);
+            List<Object[]> page     = pages.get(i);
+
+            subQuery.hits.clear();
+            subQuery.nextIdx       = 0;
+            subQuery.fetchedCount += page.size();
+            subQuery.isExhausted   = page.size() < pageSize;
+
+            for (Object[] idAndScore : page) {
+                AtlasVertex vertex = graph.getVertex((String) idAndScore[0]);
+
+                if (vertex != null) {
+                    subQuery.hits.add(new Hit(vertex, (Double) idAndScore[1]));
+                    vertices.add(vertex);
+                }
+            }
+        }
+
+        if (sortBy != null) {
+            if (SearchProcessor.PREFETCH_PROPERTIES) {
+                graph.prefetchProperties(vertices);
+            }
+
+            for (SubQuery subQuery : toFetch) {
+                for (Hit hit : subQuery.hits) {
+                    hit.sortKey = hit.vertex.getProperty(sortBy, Object.class);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // vertex id and score of the results in a page of the query
+    private List<Object[]> fetchPage(String queryString, int offset, int limit, String sortBy, Order sortOrder) {
+        try {
+            AtlasIndexQuery                  query   = graph.indexQuery(Constants.VERTEX_INDEX, queryString);
+            Iterator<AtlasIndexQuery.Result> results = sortBy != null ? query.vertices(offset, limit, sortBy, sortOrder) : query.vertices(offset, limit);
+            List<Object[]>                   ret     = new ArrayList<>(limit);
+
+            while (results.hasNext()) {
+                AtlasIndexQuery.Result result = results.next();
+
+                ret.add(new Object[] { result.getVertex().getId().toString(), result.getScore() });
+            }
+
+            return ret;
+        } finally {
+            graph.rollback();
+        }
+    }
+
+    private int compare(Hit hit1, Hit hit2) {
+        // scores are relative to the query that computed them; keep the order of the queries instead
+        if (sortBy == null) {
+            return 0;
+        }
+
+        return SearchProcessor.compareSortValues(hit1.sortKey, hit2.sortKey, sortOrder != Order.desc);
+    }
+
+    private static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        try {
+            List<T> ret = new ArrayList<>(tasks.size());
+
+            for (Future<T> future : EXECUTOR_SERVICE.invokeAll(tasks)) {
+                ret.add(future.get());
+            }
+
+            return ret;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("interrupted while running index queries", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("failed to run index query", e.getCause());
+        }
+    }
+
+    private static class SubQuery {
+        final String    queryString;
+        final List<Hit> hits = new ArrayList<>();
+        int             nextIdx;
+        int             fetchedCount;
+        boolean         isExhausted;
+
+        SubQuery(String queryString) {
+            this.queryString = queryString;
+        }
+
+        boolean hasNext() {
+            return nextIdx < hits.size();
+        }
+
+        Hit peek() {
+            return hits.get(nextIdx);
+        }
+
+        Hit next() {
+            return hits.get(nextIdx++);
+        }
+    }
+
+    private static class Hit implements Result {
+        final AtlasVertex vertex;
+        final double      score;
+        Object            sortKey;
+
+        Hit(AtlasVertex vertex, double score) {
+            this.vertex = vertex;
+            this.score  = score;
+        }
+
+        @Override
+        public AtlasVertex getVertex() {
+            return vertex;
+        }
+
+        @Override
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.discovery;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.compactatlas.common.repository.Constants;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasIndexQuery;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches the pages of an index query that follow the page being filtered, in parallel, for searches whose in-memory
+ * filters drop most of the index hits and would otherwise take many sequential index round trips to fill a page of
+ * results.
+ *
+ * The number of pages fetched ahead follows the fraction of index hits that passed the filters so far: just enough
+ * pages to collect the remaining results, up to atlas.search.prefetch.pages.max. Each page is fetched with its own
+ * index query, in a pool thread and its own transaction, as vertex ids; the vertices are read in the search thread.
+ */
+class IndexQueryPagePrefetcher implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(IndexQueryPagePrefetcher.class);
+
+    private static final String          WORKER_NAME_FORMAT = "atlas-search-prefetch-%d";
+    private static final int             MAX_PAGES_AHEAD    = AtlasConfiguration.SEARCH_PREFETCH_PAGES_MAX.getInt();
+    private static final ExecutorService EXECUTOR_SERVICE   = MAX_PAGES_AHEAD > 0 ? Executors.newFixedThreadPool(Math.max(1, AtlasConfiguration.SEARCH_PREFETCH_THREADS.getInt()),
+                                                                                        new ThreadFactoryBuilder().setDaemon(true).setNameFormat(WORKER_NAME_FORMAT).build()) : null;
+
+    private final SearchContext      context;
+    private final String             indexQueryString;
+    private final int                pageSize;
+    private final Deque<PendingPage> pendingPages = new ArrayDeque<>();
+    private final AtomicInteger      endOffset    = new AtomicInteger(Integer.MAX_VALUE);
+    private       int                nextOffset;
+    private       int                pagesConsumed;
+    private       long               matchCount;
+
+    IndexQueryPagePrefetcher(SearchContext context, String indexQueryString, int pageSize, int nextOffset) {
+        this.context          = context;
+        this.indexQueryString = indexQueryString;
+        this.pageSize         = pageSize;
+        this.nextOffset       = nextOffset;
+    }
+
+    static boolean isEnabled() {
+        return EXECUTOR_SERVICE != null;
+    }
+
+    /**
+     * Records how many vertices of the last page consumed passed the filters, and submits fetches for the pages
+     * expected to be needed to collect the remaining results. The page following the last one consumed is always
+     * submitted.
+     */
+    void pageConsumed(int pageMatchCount, int remainingCount) {
+        pagesConsumed++;
+        matchCount += pageMatchCount;
+
+        final int pagesAhead;
+
+        if (matchCount == 0) {
+            pagesAhead = MAX_PAGES_AHEAD;
+        } else {
+            double matchesPerPage = (double) matchCount / pagesConsumed;
+
+            pagesAhead = (int) Math.min(MAX_PAGES_AHEAD, Math.max(1, Math.ceil(remainingCount / matchesPerPage)));
+        }
+
+        while (pendingPages.size() < pagesAhead && nextOffset < endOffset.get()) {
+            final int offset = nextOffset;
+
+            pendingPages.add(new PendingPage(offset, EXECUTOR_SERVICE.submit(() -> fetchVertexIds(offset))));
+
+            nextOffset += pageSize;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("IndexQueryPagePrefetcher.pageConsumed(pageMatchCount={}, remainingCount={}): pagesAhead={}, pendingPages={}", pageMatchCount, remainingCount, pagesAhead, pendingPages.size());
+        }
+    }
+
+    /**
+     * Adds the vertices of the page at the given offset, which must be the page following the last one consumed,
+     * to offsetEntityVertexMap. Vertices that no longer exist are skipped.
+     *
+     * @return number of index hits in the page; less than the page size for the last page
+     */
+    int nextPage(int qryOffset, LinkedHashMap<Integer, AtlasVertex> offsetEntityVertexMap) {
+        PendingPage page = pendingPages.poll();
+
+        if (page == null || page.offset != qryOffset) {
+            throw new IllegalStateException("no fetch pending for offset " + qryOffset);
+        }
+
+        List<String> vertexIds;
+
+        try {
+            vertexIds = page.vertexIds.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("interrupted while fetching index query results", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("failed to fetch index query results", e.getCause());
+        }
+
+        AtlasGraph graph = context.getGraph();
+
+        for (String vertexId : vertexIds) {
+            AtlasVertex vertex = graph.getVertex(vertexId);
+
+            if (vertex != null) {
+                offsetEntityVertexMap.put(qryOffset, vertex);
+            }
+
+            qryOffset++;
+        }
+
+        return vertexIds.size();
+    }
+
+    /**
+     * Cancels the fetches still pending; called once enough results are collected or the search is terminated.
+     */
+    @Override
+    public void close() {
+        for (PendingPage page : pendingPages) {
+            page.vertexIds.cancel(true);
+        }
+
+        pendingPages.clear();
+    }
+
+    private List<String> fetchVertexIds(int offset) {
+        if (context.terminateSearch() || offset >= endOffset.get()) {
+            return Collections.emptyList();
+        }
+
+        AtlasGraph graph = context.getGraph();
+
+        try {
+            AtlasIndexQuery                  indexQuery = graph.indexQuery(Constants.VERTEX_INDEX, indexQueryString);
+            Iterator<AtlasIndexQuery.Result> results    = SearchProcessor.executeIndexQuery(context, indexQuery, offset, pageSize);
+            List<String>                     ret        = new ArrayList<>(pageSize);
+
+            while (results.hasNext()) {
+                ret.add(results.next().getVertex().getId().toString());
+            }
+
+            if (ret.size() < pageSize) {
+                endOffset.accumulateAndGet(offset + ret.size(), Math::min);
+            }
+
+            return ret;
+        } finally {
+            graph.rollback();
+        }
+    }
+
+    private static class PendingPage {
+        final int                  offset;
+        final Future<List<String>> vertexIds;
+
+        PendingPage(int offset, Future<List<String>> vertexIds) {
+            this.offset    = offset;
+            this.vertexIds = vertexIds;
+        }
+    }
+}
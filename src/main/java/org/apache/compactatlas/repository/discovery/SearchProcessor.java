@@ -19,9 +19,12 @@ package org.apache.compactatlas.repository.discovery;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.compactatlas.intg.ApplicationProperties;
+import org.apache.compactatlas.intg.AtlasConfiguration;
 import org.apache.compactatlas.intg.AtlasException;
 import org.apache.compactatlas.intg.SortOrder;
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.discovery.AtlasSearchPlan;
+import org.apache.compactatlas.intg.model.discovery.AtlasSearchPlan.ProcessorPlan;
 import org.apache.compactatlas.intg.model.discovery.SearchParameters;
 import org.apache.compactatlas.intg.model.discovery.SearchParameters.FilterCriteria;
 import org.apache.compactatlas.intg.model.discovery.SearchParameters.FilterCriteria.Condition;
@@ -79,6 +82,8 @@ public abstract class SearchProcessor {
     public static final char    CUSTOM_ATTR_SEPARATOR      = '=';
     public static final String  CUSTOM_ATTR_SEARCH_FORMAT  = "\"\\\"%s\\\":\\\"%s\\\"\"";
     public static final String  CUSTOM_ATTR_SEARCH_FORMAT_GRAPH = "\"%s\":\"%s\"";
+    public static final boolean PREFETCH_PROPERTIES        = AtlasConfiguration.SEARCH_PREFETCH_PROPERTIES_ENABLED.getBoolean();
+    public static final int     COUNT_SAMPLE_SIZE          = Math.max(1, AtlasConfiguration.SEARCH_COUNT_SAMPLE_SIZE.getInt());
     private static final Map<SearchParameters.Operator, String>                            OPERATOR_MAP           = new HashMap<>();
     private static final Map<SearchParameters.Operator, ElementAttributePredicateGenerator> OPERATOR_PREDICATE_MAP = new HashMap<>();
 
@@ -117,9 +122,14 @@ public abstract class SearchProcessor {
         OPERATOR_MAP.put(SearchParameters.Operator.CONTAINS, INDEX_SEARCH_PREFIX + "\"%s\": (*%s*)");
         OPERATOR_PREDICATE_MAP.put(SearchParameters.Operator.CONTAINS, getContainsPredicateGenerator());
 
+        OPERATOR_MAP.put(SearchParameters.Operator.NOT_CONTAINS, "(*:* -" + INDEX_SEARCH_PREFIX + "\"%s\": (*%s*))");
         OPERATOR_PREDICATE_MAP.put(SearchParameters.Operator.NOT_CONTAINS, getNotContainsPredicateGenerator());
 
-        // TODO: Add contains any, contains all mappings here
+        OPERATOR_MAP.put(SearchParameters.Operator.CONTAINS_ANY, INDEX_SEARCH_PREFIX + "\"%s\": (%s)"); // values joined by OR
+        OPERATOR_PREDICATE_MAP.put(SearchParameters.Operator.CONTAINS_ANY, getContainsAnyPredicateGenerator());
+
+        OPERATOR_MAP.put(SearchParameters.Operator.CONTAINS_ALL, INDEX_SEARCH_PREFIX + "\"%s\": (%s)"); // values joined by AND
+        OPERATOR_PREDICATE_MAP.put(SearchParameters.Operator.CONTAINS_ALL, getContainsAllPredicateGenerator());
 
         OPERATOR_MAP.put(SearchParameters.Operator.IS_NULL, "(*:* NOT " + INDEX_SEARCH_PREFIX + "\"%s\":[* TO *])");
         OPERATOR_PREDICATE_MAP.put(SearchParameters.Operator.IS_NULL, getIsNullPredicateGenerator());
@@ -139,6 +149,10 @@ public abstract class SearchProcessor {
     protected       Predicate              inMemoryPredicate;
     protected       GraphIndexQueryBuilder graphIndexQueryBuilder;
     protected       Integer                nextOffset;
+    protected       String                 indexQueryString;
+    protected final List<String>           indexFilters    = new ArrayList<>();
+    protected final List<String>           inMemoryFilters = new ArrayList<>();
+    protected       boolean                resultCountApproximate;
 
     protected SearchProcessor(SearchContext context) {
         this.context = context;
@@ -160,6 +174,32 @@ public abstract class SearchProcessor {
     public abstract List<AtlasVertex> execute();
     public abstract long getResultCount();
 
+    /**
+     * @return true if the value last returned by getResultCount() is an estimate rather than the exact count
+     */
+    public boolean isResultCountApproximate() {
+        return resultCountApproximate;
+    }
+
+    /**
+     * Adds the plan of this processor, and of the processors after it, to the given plan. Filters listed as index
+     * filters narrow the index query; all filters are still evaluated in-memory on the vertices fetched.
+     */
+    public AtlasSearchPlan explain(AtlasSearchPlan plan) {
+        ProcessorPlan processorPlan = new ProcessorPlan(getClass().getSimpleName(), indexQueryString);
+
+        processorPlan.getIndexFilters().addAll(indexFilters);
+        processorPlan.getInMemoryFilters().addAll(inMemoryFilters);
+
+        plan.addProcessor(processorPlan);
+
+        if (nextProcessor != null) {
+            nextProcessor.explain(plan);
+        }
+
+        return plan;
+    }
+
     protected boolean isEntityRootType() {
         //always size will be one if in case of _ALL_ENTITY_TYPES
         if (CollectionUtils.isNotEmpty(context.getEntityTypes())) {
@@ -216,6 +256,8 @@ public abstract class SearchProcessor {
 
     public LinkedHashMap<Integer, AtlasVertex> filter(LinkedHashMap<Integer, AtlasVertex> offsetEntityVertexMap, Predicate predicate) {
         if (predicate != null) {
+            prefetchProperties(offsetEntityVertexMap.values());
+
             offsetEntityVertexMap = offsetEntityVertexMap.entrySet()
                     .stream()
                     .filter(x -> predicate.evaluate(x.getValue()))
@@ -224,6 +266,13 @@ public abstract class SearchProcessor {
         return offsetEntityVertexMap;
     }
 
+    // loads properties of all vertices in the page in one batch, instead of one backend call per vertex as predicates read them
+    protected void prefetchProperties(Collection<AtlasVertex> vertices) {
+        if (PREFETCH_PROPERTIES) {
+            context.getGraph().prefetchProperties(vertices);
+        }
+    }
+
     protected Predicate buildTraitPredict(Set<AtlasClassificationType> classificationTypes) {
         Predicate traitPredicate;
         AtlasClassificationType classificationType = null;
@@ -380,6 +429,62 @@ public abstract class SearchProcessor {
         return ret;
     }
 
+    // records each attribute filter in indexFilters or inMemoryFilters, for explain()
+    protected void explainFilters(Set<? extends AtlasStructType> structTypes, FilterCriteria filterCriteria, Set<String> indexAttributes) {
+        explainFilters(structTypes, filterCriteria, indexAttributes, false);
+    }
+
+    private void explainFilters(Set<? extends AtlasStructType> structTypes, FilterCriteria filterCriteria, Set<String> indexAttributes, boolean isInMemory) {
+        if (CollectionUtils.isEmpty(structTypes) || filterCriteria == null) {
+            return;
+        }
+
+        Condition            filterCondition = filterCriteria.getCondition();
+        List<FilterCriteria> criterion       = filterCriteria.getCriterion();
+
+        if (filterCondition != null && CollectionUtils.isNotEmpty(criterion)) {
+            // an OR with any filter not in the index query is left out of the index query altogether
+            isInMemory = isInMemory || (filterCondition == Condition.OR && !isIndexFilter(structTypes, filterCriteria, indexAttributes));
+
+            for (FilterCriteria criteria : criterion) {
+                explainFilters(structTypes, criteria, indexAttributes, isInMemory);
+            }
+        } else if (StringUtils.isNotEmpty(filterCriteria.getAttributeName())) {
+            String filter = filterCriteria.getAttributeName() + SPACE_STRING + filterCriteria.getOperator() + SPACE_STRING + filterCriteria.getAttributeValue();
+
+            if (!isInMemory && isIndexFilter(structTypes, filterCriteria, indexAttributes)) {
+                indexFilters.add(filter);
+            } else {
+                inMemoryFilters.add(filter);
+            }
+        }
+    }
+
+    private boolean isIndexFilter(Set<? extends AtlasStructType> structTypes, FilterCriteria filterCriteria, Set<String> indexAttributes) {
+        Condition            filterCondition = filterCriteria.getCondition();
+        List<FilterCriteria> criterion       = filterCriteria.getCriterion();
+
+        if (filterCondition != null && CollectionUtils.isNotEmpty(criterion)) {
+            for (FilterCriteria criteria : criterion) {
+                if (!isIndexFilter(structTypes, criteria, indexAttributes)) {
+                    return false;
+                }
+            }
+        } else if (StringUtils.isNotEmpty(filterCriteria.getAttributeName())) {
+            try {
+                for (AtlasStructType structType : structTypes) {
+                    if (!indexAttributes.contains(structType.getVertexPropertyName(filterCriteria.getAttributeName()))) {
+                        return false;
+                    }
+                }
+            } catch (AtlasBaseException e) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     protected LinkedHashMap<Integer,AtlasVertex> filterWhiteSpaceClassification(LinkedHashMap<Integer,AtlasVertex> offsetEntityVertexMap) {
         if (offsetEntityVertexMap != null) {
             final Iterator<Map.Entry<Integer, AtlasVertex>> it = offsetEntityVertexMap.entrySet().iterator();
@@ -496,10 +601,10 @@ public abstract class SearchProcessor {
 
         if (ret) { // index exists
             // for string type attributes, don't use index query in the following cases:
-            //   - operation is NEQ, as it might return fewer entries due to tokenization of vertex property value
+            //   - operation is NEQ or NOT_CONTAINS on a tokenized (TEXT) field, as it might return fewer entries due to tokenization of vertex property value
             //   - value-to-compare has special characters
             if (AtlasBaseTypeDef.ATLAS_TYPE_STRING.equals(typeName)) {
-                if (operator == SearchParameters.Operator.NEQ || operator == SearchParameters.Operator.NOT_CONTAINS) {
+                if ((operator == SearchParameters.Operator.NEQ || operator == SearchParameters.Operator.NOT_CONTAINS) && indexType != AtlasStructDef.AtlasAttributeDef.IndexType.STRING) {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("{} operator found for string attribute {}, deferring to in-memory or graph query (might cause poor performance)", operator, qualifiedName);
                     }
@@ -544,6 +649,9 @@ public abstract class SearchProcessor {
                         nestedExpression.append(SPACE_STRING).append(condition).append(SPACE_STRING);
                     }
                     nestedExpression.append(nestedQuery);
+                } else if (condition == Condition.OR) {
+                    // a criterion not in the index query can match any vertex, so can the OR; leave it to the in-memory filter
+                    return EMPTY_STRING;
                 }
             }
 
@@ -816,6 +924,18 @@ public abstract class SearchProcessor {
                         String rangeEndIndexQueryValue = AtlasAttribute.escapeIndexQueryValue(rangeEnd);
                         ret = String.format(OPERATOR_MAP.get(op), qualifiedName, rangeStartIndexQueryValue, rangeEndIndexQueryValue);
                     }
+                } else if (op == SearchParameters.Operator.CONTAINS_ANY || op == SearchParameters.Operator.CONTAINS_ALL) {
+                    List<String> values = new ArrayList<>();
+
+                    for (String value : toValueList(attrVal)) {
+                        values.add(AtlasAttribute.escapeIndexQueryValue(value));
+                    }
+
+                    if (!values.isEmpty()) {
+                        String valueSeparator = op == SearchParameters.Operator.CONTAINS_ANY ? " OR " : AND_STR;
+
+                        ret = String.format(OPERATOR_MAP.get(op), qualifiedName, StringUtils.join(values, valueSeparator));
+                    }
                 } else {
                     String escapeIndexQueryValue;
                     boolean replaceWildcardChar = false;
@@ -825,7 +945,7 @@ public abstract class SearchProcessor {
                     //when wildcard search -> escape special Char, don't quote
                     //      when  tokenized characters + index field Type TEXT -> remove wildcard '*' from query
                     if (!isPipeSeparatedSystemAttribute(attrName)
-                            && (op == SearchParameters.Operator.CONTAINS || op == SearchParameters.Operator.STARTS_WITH || op == SearchParameters.Operator.ENDS_WITH)
+                            && (op == SearchParameters.Operator.CONTAINS || op == SearchParameters.Operator.NOT_CONTAINS || op == SearchParameters.Operator.STARTS_WITH || op == SearchParameters.Operator.ENDS_WITH)
                             && def.getTypeName().equalsIgnoreCase(AtlasBaseTypeDef.ATLAS_TYPE_STRING)) {
 
                         if (def.getIndexType() == null && AtlasAttribute.hastokenizeChar(attrVal)) {
@@ -956,7 +1076,18 @@ public abstract class SearchProcessor {
                         attrClass = Object.class;
                     }
 
-                    attrValue = attrVal;
+                    if (attrType instanceof AtlasArrayType && (op == SearchParameters.Operator.CONTAINS_ANY || op == SearchParameters.Operator.CONTAINS_ALL)) {
+                        AtlasType    elementType = ((AtlasArrayType) attrType).getElementType();
+                        List<Object> values      = new ArrayList<>();
+
+                        for (String value : toValueList(attrVal)) {
+                            values.add(elementType.getNormalizedValue(value));
+                        }
+
+                        attrValue = values;
+                    } else {
+                        attrValue = attrVal;
+                    }
                     break;
             }
 
@@ -1140,6 +1271,21 @@ public abstract class SearchProcessor {
         }
     }
 
+    // values of CONTAINS_ANY and CONTAINS_ALL filters are separated by ATTRIBUTE_VALUE_DELIMITER
+    private static List<String> toValueList(String attrVal) {
+        List<String> ret = new ArrayList<>();
+
+        if (StringUtils.isNotEmpty(attrVal)) {
+            for (String value : attrVal.split(ATTRIBUTE_VALUE_DELIMITER)) {
+                if (StringUtils.isNotBlank(value)) {
+                    ret.add(value.trim());
+                }
+            }
+        }
+
+        return ret;
+    }
+
     private static String getContainsRegex(String attributeValue) {
         return ".*" + escapeRegExChars(attributeValue) + ".*";
     }
@@ -1237,6 +1383,81 @@ public abstract class SearchProcessor {
         return offsetEntityVertexMap;
     }
 
+    /**
+     * Number of vertices of the given types, and in ACTIVE state when deleted entities are excluded, from the hit
+     * totals of index queries.
+     */
+    protected long getTypeAndStateCount(Collection<String> typeNames) {
+        long ret = 0;
+
+        for (String typeNamesQryStr : getTypeNamesQryStrs(typeNames)) {
+            StringBuilder indexQuery = new StringBuilder();
+
+            graphIndexQueryBuilder.addTypeAndSubTypesQueryFilter(indexQuery, typeNamesQryStr);
+            graphIndexQueryBuilder.addActiveStateQueryFilter(indexQuery);
+
+            Long count = context.getGraph().indexQuery(Constants.VERTEX_INDEX, indexQuery.toString()).vertexTotals();
+
+            ret += count != null ? count : 0L;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Index query values for the given type names, split into as many values as needed to keep each within
+     * MAX_QUERY_STR_LENGTH_TYPES.
+     */
+    public static List<String> getTypeNamesQryStrs(Collection<String> typeNames) {
+        List<String> ret         = new ArrayList<>();
+        List<String> batch       = new ArrayList<>();
+        int          batchLength = 0;
+
+        for (String typeName : typeNames) {
+            int length = typeName.length() + 3; // quotes and separator
+
+            if (!batch.isEmpty() && batchLength + length > MAX_QUERY_STR_LENGTH_TYPES) {
+                ret.add(AtlasAttribute.escapeIndexQueryValue(batch, true));
+
+                batch.clear();
+
+                batchLength = 0;
+            }
+
+            batch.add(typeName);
+
+            batchLength += length;
+        }
+
+        if (!batch.isEmpty()) {
+            ret.add(AtlasAttribute.escapeIndexQueryValue(batch, true));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Compares values of a sort property: numbers by value, values of the same comparable type by their natural
+     * order, others by their string form. Missing values come last, in either order.
+     */
+    public static int compareSortValues(Object value1, Object value2, boolean isAscending) {
+        if (value1 == null || value2 == null) {
+            return value1 == null ? (value2 == null ? 0 : 1) : -1;
+        }
+
+        final int ret;
+
+        if (value1 instanceof Number && value2 instanceof Number) {
+            ret = Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+        } else if (value1 instanceof Comparable && value1.getClass() == value2.getClass()) {
+            ret = ((Comparable) value1).compareTo(value2);
+        } else {
+            ret = value1.toString().compareTo(value2.toString());
+        }
+
+        return isAscending ? ret : -ret;
+    }
+
     protected Collection<AtlasVertex> getVertices(Iterator<AtlasVertex> iterator, Collection<AtlasVertex> vertices) {
         if (iterator != null) {
             while (iterator.hasNext()) {
@@ -0,0 +1,419 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.discovery;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.apache.compactatlas.authorize.AtlasAuthorizationUtils;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.model.glossary.AtlasGlossaryTerm;
+import org.apache.compactatlas.intg.model.instance.AtlasClassification;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity;
+import org.apache.compactatlas.intg.model.instance.AtlasObjectId;
+import org.apache.compactatlas.intg.model.instance.AtlasRelatedObjectId;
+import org.apache.compactatlas.intg.model.instance.AtlasRelationship;
+import org.apache.compactatlas.intg.type.AtlasType;
+import org.apache.compactatlas.repository.GraphTransactionInterceptor;
+import org.apache.compactatlas.repository.listener.EntityChangeListenerV2;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the results of basic searches, for the searches the UI and dashboards run repeatedly: saved searches and
+ * type browse pages.
+ *
+ * Only the vertex ids of the page of results, the result count and the next marker are cached; entity headers are
+ * built, and scrubbed for the user, on each search. Entries are keyed by the search parameters, in their JSON form,
+ * and by the user and the user's groups.
+ *
+ * Each change to entities advances a write epoch and records it against the types of the entities, and of the
+ * classifications, changed. An entry is used only if none of the types it searched on changed since the search
+ * started; entries of searches that are not restricted to entity types are dropped on any change. Changes are
+ * recorded when notified, and again after their transaction completes, so that searches running in between are not
+ * cached as current. Changes made on other servers are not notified: atlas.search.result.cache.ttl.seconds bounds
+ * how long an entry can be used.
+ */
+@Component
+public class SearchResultCache implements EntityChangeListenerV2 {
+    private static final Logger LOG = LoggerFactory.getLogger(SearchResultCache.class);
+
+    private final    boolean                   isEnabled;
+    private final    Cache<String, CachedPage> cache;
+    private final    AtomicLong                writeEpoch       = new AtomicLong();
+    private final    Map<String, Long>         typeChangeEpochs = new ConcurrentHashMap<>();
+    private final    AtomicLong                staleCount       = new AtomicLong();
+    private volatile long                      lastChangeEpoch;
+
+    public SearchResultCache() {
+        this.isEnabled = AtlasConfiguration.SEARCH_RESULT_CACHE_ENABLED.getBoolean();
+        this.cache     = CacheBuilder.newBuilder()
+                                     .maximumWeight(Math.max(1, AtlasConfiguration.SEARCH_RESULT_CACHE_MAX_VERTICES.getInt()))
+                                     .weigher((String key, CachedPage page) -> page.vertexIds.size() + 1)
+                                     .expireAfterWrite(AtlasConfiguration.SEARCH_RESULT_CACHE_TTL_SECONDS.getInt(), TimeUnit.SECONDS)
+                                     .recordStats()
+                                     .build();
+
+        LOG.info("search result cache: enabled={}", isEnabled);
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * @return epoch to pass to put() for a search starting now
+     */
+    public long getWriteEpoch() {
+        return writeEpoch.get();
+    }
+
+    /**
+     * @return the cached page of results of the search, or null if none is cached or the cached one is stale
+     */
+    public CachedPage get(SearchContext context) {
+        String     key = getKey(context);
+        CachedPage ret = cache.getIfPresent(key);
+
+        if (ret != null && !isCurrent(ret)) {
+            cache.invalidate(key);
+
+            staleCount.incrementAndGet();
+
+            ret = null;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("SearchResultCache.get({}): hit={}", key, ret != null);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Caches a page of results of the search.
+     *
+     * @param context    the search
+     * @param startEpoch value of getWriteEpoch() when the search started
+     */
+    public void put(SearchContext context, long startEpoch, List<AtlasVertex> vertices, long approximateCount, boolean isApproximate, String nextMarker) {
+        List<String> vertexIds = new ArrayList<>(vertices.size());
+
+        for (AtlasVertex vertex : vertices) {
+            vertexIds.add(vertex.getId().toString());
+        }
+
+        Set<String> typeNames = null;
+
+        if (CollectionUtils.isNotEmpty(context.getEntityTypeNames())) {
+            typeNames = new HashSet<>(context.getEntityTypeNames());
+
+            if (CollectionUtils.isNotEmpty(context.getClassificationTypeNames())) {
+                typeNames.addAll(context.getClassificationTypeNames());
+            }
+        }
+
+        CachedPage page = new CachedPage(startEpoch, typeNames, vertexIds, approximateCount, isApproximate, nextMarker);
+
+        // a change could have been recorded while the search ran
+        if (isCurrent(page)) {
+            cache.put(getKey(context), page);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats          stats = cache.stats();
+        Map<String, Object> ret   = new LinkedHashMap<>();
+
+        ret.put("enabled", isEnabled);
+        ret.put("size", cache.size());
+        ret.put("hitCount", stats.hitCount());
+        ret.put("missCount", stats.missCount());
+        ret.put("staleCount", staleCount.get());
+        ret.put("evictionCount", stats.evictionCount());
+        ret.put("hitRate", stats.hitRate());
+        ret.put("writeEpoch", writeEpoch.get());
+
+        return ret;
+    }
+
+    @Override
+    public void onEntitiesAdded(List<AtlasEntity> entities, boolean isImport) {
+        onEntitiesChanged(entities);
+    }
+
+    @Override
+    public void onEntitiesUpdated(List<AtlasEntity> entities, boolean isImport) {
+        onEntitiesChanged(entities);
+    }
+
+    @Override
+    public void onEntitiesDeleted(List<AtlasEntity> entities, boolean isImport) {
+        onEntitiesChanged(entities);
+    }
+
+    @Override
+    public void onEntitiesPurged(List<AtlasEntity> entities) {
+        onEntitiesChanged(entities);
+    }
+
+    @Override
+    public void onClassificationsAdded(AtlasEntity entity, List<AtlasClassification> classifications) {
+        onClassificationsChanged(Collections.singletonList(entity), classifications);
+    }
+
+    @Override
+    public void onClassificationsAdded(List<AtlasEntity> entities, List<AtlasClassification> classifications) {
+        onClassificationsChanged(entities, classifications);
+    }
+
+    @Override
+    public void onClassificationsUpdated(AtlasEntity entity, List<AtlasClassification> classifications) {
+        onClassificationsChanged(Collections.singletonList(entity), classifications);
+    }
+
+    @Override
+    public void onClassificationsDeleted(AtlasEntity entity, List<AtlasClassification> classifications) {
+        onClassificationsChanged(Collections.singletonList(entity), classifications);
+    }
+
+    @Override
+    public void onClassificationsDeleted(List<AtlasEntity> entities, List<AtlasClassification> classifications) {
+        onClassificationsChanged(entities, classifications);
+    }
+
+    @Override
+    public void onTermAdded(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) {
+        onObjectsChanged(entities);
+    }
+
+    @Override
+    public void onTermDeleted(AtlasGlossaryTerm term, List<AtlasRelatedObjectId> entities) {
+        onObjectsChanged(entities);
+    }
+
+    @Override
+    public void onRelationshipsAdded(List<AtlasRelationship> relationships, boolean isImport) {
+        onRelationshipsChanged(relationships);
+    }
+
+    @Override
+    public void onRelationshipsUpdated(List<AtlasRelationship> relationships, boolean isImport) {
+        onRelationshipsChanged(relationships);
+    }
+
+    @Override
+    public void onRelationshipsDeleted(List<AtlasRelationship> relationships, boolean isImport) {
+        onRelationshipsChanged(relationships);
+    }
+
+    @Override
+    public void onRelationshipsPurged(List<AtlasRelationship> relationships) {
+        onRelationshipsChanged(relationships);
+    }
+
+    @Override
+    public void onLabelsAdded(AtlasEntity entity, Set<String> labels) {
+        onEntitiesChanged(Collections.singletonList(entity));
+    }
+
+    @Override
+    public void onLabelsDeleted(AtlasEntity entity, Set<String> labels) {
+        onEntitiesChanged(Collections.singletonList(entity));
+    }
+
+    @Override
+    public void onBusinessAttributesUpdated(AtlasEntity entity, Map<String, Map<String, Object>> updatedBusinessAttributes) {
+        onEntitiesChanged(Collections.singletonList(entity));
+    }
+
+    private void onEntitiesChanged(Collection<AtlasEntity> entities) {
+        onClassificationsChanged(entities, null);
+    }
+
+    private void onClassificationsChanged(Collection<AtlasEntity> entities, Collection<AtlasClassification> classifications) {
+        Set<String> typeNames = new HashSet<>();
+
+        if (entities != null) {
+            for (AtlasEntity entity : entities) {
+                if (entity != null) {
+                    typeNames.add(entity.getTypeName());
+
+                    if (entity.getClassifications() != null) {
+                        for (AtlasClassification classification : entity.getClassifications()) {
+                            typeNames.add(classification.getTypeName());
+                        }
+                    }
+                }
+            }
+        }
+
+        if (classifications != null) {
+            for (AtlasClassification classification : classifications) {
+                if (classification != null) {
+                    typeNames.add(classification.getTypeName());
+                }
+            }
+        }
+
+        onTypesChanged(typeNames);
+    }
+
+    private void onObjectsChanged(Collection<? extends AtlasObjectId> objectIds) {
+        Set<String> typeNames = new HashSet<>();
+
+        if (objectIds != null) {
+            for (AtlasObjectId objectId : objectIds) {
+                if (objectId != null) {
+                    typeNames.add(objectId.getTypeName());
+                }
+            }
+        }
+
+        onTypesChanged(typeNames);
+    }
+
+    private void onRelationshipsChanged(Collection<AtlasRelationship> relationships) {
+        List<AtlasObjectId> ends = new ArrayList<>();
+
+        if (relationships != null) {
+            for (AtlasRelationship relationship : relationships) {
+                if (relationship != null) {
+                    ends.add(relationship.getEnd1());
+                    ends.add(relationship.getEnd2());
+                }
+            }
+        }
+
+        onObjectsChanged(ends);
+    }
+
+    private void onTypesChanged(Set<String> typeNames) {
+        if (!isEnabled) {
+            return;
+        }
+
+        typeNames.remove(null);
+
+        recordChange(typeNames);
+
+        // searches that start before the change is committed must not be cached as current
+        new GraphTransactionInterceptor.PostTransactionHook() {
+            @Override
+            public void onComplete(boolean isSuccess) {
+                recordChange(typeNames);
+            }
+        };
+    }
+
+    private void recordChange(Set<String> typeNames) {
+        long epoch = writeEpoch.incrementAndGet();
+
+        for (String typeName : typeNames) {
+            typeChangeEpochs.put(typeName, epoch);
+        }
+
+        lastChangeEpoch = epoch;
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("SearchResultCache.recordChange({}): epoch={}", typeNames, epoch);
+        }
+    }
+
+    private boolean isCurrent(CachedPage page) {
+        if (page.typeNames == null) {
+            return lastChangeEpoch <= page.epoch;
+        }
+
+        for (String typeName : page.typeNames) {
+            Long changeEpoch = typeChangeEpochs.get(typeName);
+
+            if (changeEpoch != null && changeEpoch > page.epoch) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private String getKey(SearchContext context) {
+        return RequestContext.getCurrentUser() + ":" + new TreeSet<>(AtlasAuthorizationUtils.getCurrentUserGroups()) + ":" + AtlasType.toJson(context.getSearchParameters());
+    }
+
+    /**
+     * A page of results of a search, as vertex ids.
+     */
+    public static class CachedPage {
+        private final long         epoch;
+        private final Set<String>  typeNames; // null: any type
+        private final List<String> vertexIds;
+        private final long         approximateCount;
+        private final boolean      isApproximate;
+        private final String       nextMarker;
+
+        CachedPage(long epoch, Set<String> typeNames, List<String> vertexIds, long approximateCount, boolean isApproximate, String nextMarker) {
+            this.epoch            = epoch;
+            this.typeNames        = typeNames;
+            this.vertexIds        = vertexIds;
+            this.approximateCount = approximateCount;
+            this.isApproximate    = isApproximate;
+            this.nextMarker       = nextMarker;
+        }
+
+        /**
+         * @return vertices of the results that still exist
+         */
+        public List<AtlasVertex> getVertices(AtlasGraph graph) {
+            List<AtlasVertex> ret = new ArrayList<>(vertexIds.size());
+
+            for (String vertexId : vertexIds) {
+                AtlasVertex vertex = graph.getVertex(vertexId);
+
+                if (vertex != null) {
+                    ret.add(vertex);
+                }
+            }
+
+            return ret;
+        }
+
+        public long getApproximateCount() { return approximateCount; }
+
+        public boolean isApproximate() { return isApproximate; }
+
+        public String getNextMarker() { return nextMarker; }
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.query.executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasGraphTraversal;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.repository.query.AtlasDSL;
+import org.apache.compactatlas.repository.query.GremlinClause;
+import org.apache.compactatlas.repository.query.GremlinQuery;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Cursor over the entities matching a DSL query, for clients that read all of a large result: the traversal is
+ * started once, and each fetch resumes it where the previous fetch stopped instead of re-running the query with a
+ * larger offset.
+ *
+ * Graph transactions are bound to threads, so the traversal runs on a thread owned by the cursor, in a read
+ * transaction that stays open until the cursor is closed. Entities are read from the graph only as chunks are
+ * fetched; a slow client holds back the traversal rather than having results pile up on the server.
+ */
+public class DSLQueryCursor implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(DSLQueryCursor.class);
+
+    private static final String WORKER_NAME_PREFIX = "atlas-dsl-cursor-";
+
+    private final String               id;
+    private final String               query;
+    private final String               user;
+    private final Set<String>          userGroups;
+    private final GremlinQuery         gremlinQuery;
+    private final AtlasGraph           graph;
+    private final EntityGraphRetriever entityRetriever;
+    private final ExecutorService      executorService;
+    private final long                 createTime;
+    private volatile long              lastAccessTime;
+    private volatile boolean           isClosed;
+    private volatile boolean           isFetchInProgress;
+    private Iterator<AtlasVertex>      vertices; // accessed only from the cursor thread
+    private boolean                    hasMore = true;
+    private long                       position;
+
+    public DSLQueryCursor(String id, String query, GremlinQuery gremlinQuery, AtlasGraph graph, EntityGraphRetriever entityRetriever,
+                          String user, Set<String> userGroups) {
+        this.id              = id;
+        this.query           = query;
+        this.gremlinQuery    = gremlinQuery;
+        this.graph           = graph;
+        this.entityRetriever = entityRetriever;
+        this.user            = user;
+        this.userGroups      = userGroups;
+        this.executorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat(WORKER_NAME_PREFIX + id).build());
+        this.createTime      = System.currentTimeMillis();
+        this.lastAccessTime  = createTime;
+    }
+
+    /**
+     * Translates the query for a cursor: with no limit other than one given in the query itself. Queries with select
+     * or groupby clauses return projections rather than entities, and are not supported.
+     */
+    public static GremlinQuery translate(AtlasTypeRegistry typeRegistry, String query) throws AtlasBaseException {
+        GremlinQuery ret = new AtlasDSL.Translator(query, typeRegistry, 0, Integer.MAX_VALUE).translate();
+
+        if (ret.hasSelectList() || ret.getQueryMetadata().hasGroupBy()) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_DSL_QUERY, query, "select and groupby clauses are not supported by cursors");
+        }
+
+        return ret;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    public boolean isFetchInProgress() {
+        return isFetchInProgress;
+    }
+
+    /**
+     * @return number of entities fetched so far
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return false once the last entity has been fetched
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Fetches the next entities of the query; fewer than the limit only at the end of the results.
+     *
+     * @param limit maximum number of entities to return
+     * @return entities following those of the previous fetch
+     * @throws AtlasBaseException if the cursor has been closed, or the traversal failed
+     */
+    public List<AtlasEntityHeader> fetch(int limit) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> DSLQueryCursor.fetch(id={}, limit={}, position={})", id, limit, position);
+        }
+
+        lastAccessTime    = System.currentTimeMillis();
+        isFetchInProgress = true;
+
+        List<AtlasEntityHeader> ret;
+
+        try {
+            Callable<List<AtlasEntityHeader>> task = () -> readChunk(limit);
+
+            ret = executorService.submit(new DelegatingSecurityContextCallable<>(task, SecurityContextHolder.getContext())).get();
+        } catch (RejectedExecutionException e) {
+            throw new AtlasBaseException(AtlasErrorCode.DSL_CURSOR_NOT_FOUND, id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, e, "interrupted while fetching from DSL cursor");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            throw cause instanceof AtlasBaseException ? (AtlasBaseException) cause : new AtlasBaseException(AtlasErrorCode.DISCOVERY_QUERY_FAILED, cause, query);
+        } finally {
+            lastAccessTime    = System.currentTimeMillis();
+            isFetchInProgress = false;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== DSLQueryCursor.fetch(id={}, limit={}): ret={}, position={}, hasMore={}", id, limit, ret.size(), position, hasMore);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Ends the traversal and its transaction. A fetch in progress stops at the next entity.
+     */
+    @Override
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+
+        isClosed = true;
+
+        try {
+            executorService.submit(this::rollback);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("DSLQueryCursor.close(id={}): already shutdown", id);
+        }
+
+        executorService.shutdown();
+
+        LOG.info("Closed DSL cursor: id={}, user={}, fetched={}, durationMs={}", id, user, position, System.currentTimeMillis() - createTime);
+    }
+
+    private List<AtlasEntityHeader> readChunk(int limit) throws AtlasBaseException {
+        if (isClosed) {
+            throw new AtlasBaseException(AtlasErrorCode.DSL_CURSOR_NOT_FOUND, id);
+        }
+
+        if (!hasMore) {
+            return Collections.emptyList();
+        }
+
+        List<AtlasEntityHeader> ret = new ArrayList<>(limit);
+
+        try {
+            RequestContext.clear();
+            RequestContext.get().setUser(user, userGroups);
+
+            if (vertices == null) {
+                vertices = startTraversal();
+            }
+
+            while (ret.size() < limit && !isClosed && vertices.hasNext()) {
+                AtlasVertex vertex = vertices.next();
+
+                if (vertex != null) {
+                    ret.add(entityRetriever.toAtlasEntityHeaderWithClassifications(vertex));
+                }
+            }
+
+            position += ret.size();
+            hasMore   = !isClosed && vertices.hasNext();
+        } finally {
+            RequestContext.clear();
+        }
+
+        return ret;
+    }
+
+    private Iterator<AtlasVertex> startTraversal() {
+        Set<GremlinClause> excludedClauses = EnumSet.of(GremlinClause.TO_LIST);
+
+        // dedup() keeps every vertex seen; skip it when the traversal cannot repeat vertices
+        if (!GremlinClauseToTraversalTranslator.canRepeatVertices(gremlinQuery.getClauses())) {
+            excludedClauses.add(GremlinClause.DEDUP);
+        }
+
+        AtlasGraphTraversal traversal = GremlinClauseToTraversalTranslator.run(graph, gremlinQuery.getClauses(), excludedClauses);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("DSLQueryCursor(id={}): query={}, traversal={}", id, query, traversal);
+        }
+
+        return traversal.getAtlasVertexIterator();
+    }
+
+    private void rollback() {
+        vertices = null;
+
+        try {
+            graph.rollback();
+        } catch (Exception e) {
+            LOG.warn("DSLQueryCursor(id={}): failed to rollback transaction", id, e);
+        }
+    }
+}
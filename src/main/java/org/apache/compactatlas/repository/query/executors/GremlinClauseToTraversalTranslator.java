@@ -33,14 +33,41 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Stack;
 
 public class GremlinClauseToTraversalTranslator {
     private static final Logger LOG = LoggerFactory.getLogger(GremlinClauseToTraversalTranslator.class);
 
+    private static final Set<GremlinClause> VERTEX_REPEATING_CLAUSES = EnumSet.of(GremlinClause.IN, GremlinClause.OUT, GremlinClause.TRAIT);
+
     public static AtlasGraphTraversal run(AtlasGraph graph, GremlinClauseList clauseList) {
-        return new ClauseTranslator(graph).process(clauseList);
+        return run(graph, clauseList, Collections.emptySet());
+    }
+
+    /**
+     * Translates the clauses, skipping the given ones; used to get the filtering part of a query, to which different
+     * terminal steps are then added.
+     */
+    public static AtlasGraphTraversal run(AtlasGraph graph, GremlinClauseList clauseList, Set<GremlinClause> excludedClauses) {
+        return new ClauseTranslator(graph, excludedClauses).process(clauseList);
+    }
+
+    /**
+     * Whether the traversal of the clauses can reach a vertex more than once, so that dedup() is needed for distinct
+     * results; filters on V() alone cannot.
+     */
+    public static boolean canRepeatVertices(GremlinClauseList clauseList) {
+        for (GremlinQueryComposer.GremlinClauseValue value : clauseList.getList()) {
+            if (VERTEX_REPEATING_CLAUSES.contains(value.getClause())) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     private static class ClauseTranslator {
@@ -51,10 +78,12 @@ public class GremlinClauseToTraversalTranslator {
         private static final String[] STR_TOKEN_SEARCH               = new String[]{"[", "]", "'", "\""};
         private static final String[] STR_TOKEN_REPLACE              = new String[]{"", "", "", ""};
 
-        private final AtlasGraph graph;
+        private final AtlasGraph         graph;
+        private final Set<GremlinClause> excludedClauses;
 
-        public ClauseTranslator(AtlasGraph graph) {
-            this.graph = graph;
+        public ClauseTranslator(AtlasGraph graph, Set<GremlinClause> excludedClauses) {
+            this.graph           = graph;
+            this.excludedClauses = excludedClauses;
         }
 
         public AtlasGraphTraversal process(GremlinClauseList clauseList) {
@@ -78,6 +107,10 @@ public class GremlinClauseToTraversalTranslator {
             int size = clauseList.getList().size();
 
             for (int index = 0; index < size; index++) {
+                if (excludedClauses.contains(clauseList.get(index).getClause())) {
+                    continue;
+                }
+
                 if (clauseList.hasSubClause(index)) {
                     List<GremlinClauseList> subClauses = clauseList.getSubClauses(index);
 
@@ -0,0 +1,344 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.query.executors;
+
+import org.apache.compactatlas.common.repository.Constants;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasGraphTraversal;
+import org.apache.compactatlas.intg.model.discovery.AtlasSearchResult;
+import org.apache.compactatlas.intg.model.discovery.AtlasSearchResult.AttributeSearchResult;
+import org.apache.compactatlas.repository.discovery.SearchProcessor;
+import org.apache.compactatlas.repository.query.GremlinClause;
+import org.apache.compactatlas.repository.query.GremlinClauseList;
+import org.apache.compactatlas.repository.query.GremlinQuery;
+import org.apache.compactatlas.repository.query.IdentifierHelper;
+import org.apache.compactatlas.repository.query.SelectClauseComposer;
+import org.apache.commons.lang.StringUtils;
+import org.apache.tinkerpop.gremlin.process.traversal.Scope;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes select clauses made only of aggregators (count, sum, min, max), with or without groupby, with native
+ * traversal steps instead of mapping the matching vertices to entities and aggregating them in memory. The filter
+ * traversal runs once: each aggregator is reduced by its own group() side-effect, which keeps only the value
+ * aggregated so far for each group, so that memory does not grow with the number of matching vertices. Queries
+ * without groupby are computed as a single group.
+ *
+ * As with the vertices fetched by other select clauses, aggregators without groupby cover the page of matching
+ * entities selected by the LIMIT/RANGE of the query; with groupby, the page selects the groups returned.
+ *
+ * A count of the entities of a type, with no other filters, is read from the hit totals of the index.
+ */
+public class SelectClauseAggregations {
+    private static final Logger LOG = LoggerFactory.getLogger(SelectClauseAggregations.class);
+
+    // clauses not part of the filtering, replaced by the aggregation steps
+    private static final Set<GremlinClause> NON_FILTER_CLAUSES = EnumSet.of(GremlinClause.DEDUP, GremlinClause.LIMIT, GremlinClause.RANGE, GremlinClause.GROUP_BY,
+                                                                            GremlinClause.TO_LIST, GremlinClause.SELECT_ONLY_AGG_FN, GremlinClause.SELECT_ONLY_AGG_GRP_FN,
+                                                                            GremlinClause.INLINE_TRANSFORM_CALL);
+    // clauses that may accompany the type in a query whose count is read from the index
+    private static final Set<GremlinClause> TYPE_COUNT_CLAUSES = EnumSet.of(GremlinClause.G, GremlinClause.V, GremlinClause.AS, GremlinClause.DEDUP, GremlinClause.TO_LIST,
+                                                                            GremlinClause.LIMIT, GremlinClause.RANGE, GremlinClause.SELECT_ONLY_AGG_FN,
+                                                                            GremlinClause.INLINE_TRANSFORM_CALL);
+    // keys of the group() side-effects: the number of vertices and the value of each aggregator
+    private static final String COUNT_KEY       = "count";
+    private static final String ITEM_KEY_PREFIX = "item";
+    // key of the single group of queries without groupby
+    private static final String ALL_KEY         = "all";
+
+    public static boolean isApplicable(final GremlinQuery gremlinQuery) {
+        if (!gremlinQuery.hasValidSelectClause() || !gremlinQuery.getSelectComposer().onlyAggregators()) {
+            return false;
+        }
+
+        GremlinClauseList clauses = gremlinQuery.getClauses();
+
+        if (gremlinQuery.getQueryMetadata().hasGroupBy()) {
+            return clauses.contains(GremlinClause.SELECT_ONLY_AGG_GRP_FN) != -1 && clauses.contains(GremlinClause.GROUP_BY) != -1;
+        }
+
+        return clauses.contains(GremlinClause.SELECT_ONLY_AGG_FN) != -1;
+    }
+
+    /**
+     * @return result with the aggregated values; null when no entity matches the query
+     */
+    public static AtlasSearchResult usingTraversal(final AtlasGraph graph, final GremlinQuery gremlinQuery) {
+        SelectClauseComposer scc = gremlinQuery.getSelectComposer();
+        List<List<Object>>   values;
+
+        if (gremlinQuery.getQueryMetadata().hasGroupBy()) {
+            List<List<Object>> groupRows = getGroupRows(graph, gremlinQuery, scc);
+
+            values = groupRows.isEmpty() ? null : SelectClauseProjections.getSublistForGroupBy(gremlinQuery, groupRows);
+        } else {
+            List<Object> row = getRow(graph, gremlinQuery, scc);
+
+            values = row == null ? null : Collections.singletonList(row);
+        }
+
+        if (values == null) {
+            return null;
+        }
+
+        AtlasSearchResult     ret                   = new AtlasSearchResult();
+        AttributeSearchResult attributeSearchResult = new AttributeSearchResult();
+
+        attributeSearchResult.setName(Arrays.asList(scc.getLabels()));
+        attributeSearchResult.setValues(values);
+
+        ret.setAttributes(attributeSearchResult);
+
+        return ret;
+    }
+
+    private static List<Object> getRow(final AtlasGraph graph, final GremlinQuery gremlinQuery, final SelectClauseComposer scc) {
+        GremlinClauseList clauses    = gremlinQuery.getClauses();
+        Object[]          row        = new Object[scc.getLabels().length];
+        Long              indexCount = hasOnlyCounts(scc) ? getTypeCountFromIndex(graph, clauses) : null;
+        long              count;
+
+        if (indexCount != null) {
+            long[] page = getPage(clauses);
+
+            count = page != null ? Math.max(0, Math.min(indexCount - page[0], page[1] - page[0])) : indexCount;
+
+            Arrays.fill(row, count);
+        } else {
+            AtlasGraphTraversal traversal = getFilterTraversal(graph, gremlinQuery);
+            long[]              page      = getPage(clauses);
+
+            if (page != null) {
+                traversal.range(Scope.global, page[0], page[1]);
+            }
+
+            Iterator<Object[]> groups = aggregateGroups(traversal, null, scc).values().iterator();
+            Object[]           values = groups.hasNext() ? groups.next() : null;
+
+            count = values != null ? ((Number) values[0]).longValue() : 0;
+
+            for (int idx = 0; idx < row.length; idx++) {
+                row[idx] = toResultValue(scc, idx, values != null ? values[idx + 1] : null);
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("SelectClauseAggregations.getRow(): items={}, row={}, count={}", scc.getItemsString(), Arrays.toString(row), count);
+        }
+
+        return count == 0 ? null : Arrays.asList(row);
+    }
+
+    private static List<List<Object>> getGroupRows(final AtlasGraph graph, final GremlinQuery gremlinQuery, final SelectClauseComposer scc) {
+        GremlinClauseList   clauses    = gremlinQuery.getClauses();
+        String              groupByKey = clauses.get(clauses.contains(GremlinClause.GROUP_BY)).getValues()[0];
+        AtlasGraphTraversal traversal  = getFilterTraversal(graph, gremlinQuery);
+
+        traversal.has(groupByKey);
+
+        Map<Object, Object[]> groups = aggregateGroups(traversal, groupByKey, scc);
+        List<List<Object>>    ret    = new ArrayList<>(groups.size());
+
+        for (Object[] values : groups.values()) {
+            Object[] row = new Object[scc.getLabels().length];
+
+            for (int idx = 0; idx < row.length; idx++) {
+                row[idx] = toResultValue(scc, idx, values[idx + 1]);
+            }
+
+            ret.add(Arrays.asList(row));
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("SelectClauseAggregations.getGroupRows(): groupBy={}, items={}, groups={}", groupByKey, scc.getItemsString(), ret.size());
+        }
+
+        return ret;
+    }
+
+    private static AtlasGraphTraversal getFilterTraversal(final AtlasGraph graph, final GremlinQuery gremlinQuery) {
+        AtlasGraphTraversal ret = GremlinClauseToTraversalTranslator.run(graph, gremlinQuery.getClauses(), NON_FILTER_CLAUSES);
+
+        if (GremlinClauseToTraversalTranslator.canRepeatVertices(gremlinQuery.getClauses())) {
+            ret.dedup();
+        }
+
+        return ret;
+    }
+
+    private static GraphTraversal aggregate(final GraphTraversal traversal, final SelectClauseComposer scc, final int idx) {
+        if (scc.isCountIdx(idx)) {
+            return traversal.count();
+        }
+
+        String propertyName = scc.getAttribute(idx);
+
+        if (scc.isSumIdx(idx)) {
+            return traversal.values(propertyName).sum();
+        } else if (scc.isMaxIdx(idx)) {
+            return traversal.values(propertyName).max();
+        } else {
+            return traversal.values(propertyName).min();
+        }
+    }
+
+    /**
+     * Reduces the vertices of the given traversal by group, in one pass: the count and each aggregator are computed by
+     * a group() side-effect of their own, whose by() step is a reducing barrier that keeps one value per group.
+     *
+     * @param groupByKey property to group the vertices by; null to aggregate all vertices as a single group
+     * @return for each group, the number of vertices followed by the value of each aggregator
+     */
+    static Map<Object, Object[]> aggregateGroups(final AtlasGraphTraversal traversal, final String groupByKey, final SelectClauseComposer scc) {
+        String[] itemKeys = new String[scc.getLabels().length];
+
+        group(traversal, COUNT_KEY, groupByKey).by(traversal.startAnonymousTraversal().count());
+
+        for (int idx = 0; idx < itemKeys.length; idx++) {
+            itemKeys[idx] = ITEM_KEY_PREFIX + idx;
+
+            group(traversal, itemKeys[idx], groupByKey).by(aggregate(traversal.startAnonymousTraversal(), scc, idx));
+        }
+
+        Map<?, ?>             sideEffects = (Map<?, ?>) traversal.cap(COUNT_KEY, itemKeys).tryNext().orElse(Collections.emptyMap());
+        Map<?, ?>             counts      = (Map<?, ?>) sideEffects.get(COUNT_KEY);
+        Map<Object, Object[]> ret         = new LinkedHashMap<>();
+
+        if (counts != null) {
+            for (Map.Entry<?, ?> entry : counts.entrySet()) {
+                Object[] values = new Object[itemKeys.length + 1];
+
+                values[0] = entry.getValue();
+
+                for (int idx = 0; idx < itemKeys.length; idx++) {
+                    Map<?, ?> itemValues = (Map<?, ?>) sideEffects.get(itemKeys[idx]);
+
+                    // a group may have no entry when sum(), min() or max() found no values in it
+                    values[idx + 1] = itemValues != null ? itemValues.get(entry.getKey()) : null;
+                }
+
+                ret.put(entry.getKey(), values);
+            }
+        }
+
+        return ret;
+    }
+
+    private static GraphTraversal group(final AtlasGraphTraversal traversal, final String sideEffectKey, final String groupByKey) {
+        GraphTraversal ret = traversal.group(sideEffectKey);
+
+        return groupByKey != null ? ret.by(groupByKey) : ret.by(traversal.startAnonymousTraversal().constant(ALL_KEY));
+    }
+
+    private static boolean hasOnlyCounts(final SelectClauseComposer scc) {
+        for (int idx = 0; idx < scc.getLabels().length; idx++) {
+            if (!scc.isCountIdx(idx)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return start and end index of the entities selected by the LIMIT or RANGE clause of the query; null if it has none
+     */
+    private static long[] getPage(final GremlinClauseList clauses) {
+        int limitIdx = clauses.contains(GremlinClause.LIMIT);
+        int rangeIdx = clauses.contains(GremlinClause.RANGE);
+
+        if (rangeIdx != -1) {
+            String[] values = clauses.get(rangeIdx).getValues();
+            long     low    = Long.parseLong(values[1]);
+
+            return new long[] { low, low + Long.parseLong(values[2]) };
+        } else if (limitIdx != -1) {
+            return new long[] { 0, Long.parseLong(clauses.get(limitIdx).getValues()[0]) };
+        }
+
+        return null;
+    }
+
+    // same value types as computed by SelectClauseProjections: sum as double, 0 for a sum or count of no values
+    private static Object toResultValue(final SelectClauseComposer scc, final int idx, final Object value) {
+        if (scc.isSumIdx(idx)) {
+            return value instanceof Number ? ((Number) value).doubleValue() : 0d;
+        } else if (scc.isCountIdx(idx)) {
+            return value != null ? value : 0L;
+        }
+
+        return value;
+    }
+
+    /**
+     * Number of vertices of the type, from the hit totals of index queries, when the type is the only filter of the
+     * query; null otherwise.
+     */
+    private static Long getTypeCountFromIndex(final AtlasGraph graph, final GremlinClauseList clauses) {
+        String[] typeNames = null;
+
+        for (int i = 0; i < clauses.size(); i++) {
+            GremlinClause clause = clauses.get(i).getClause();
+
+            if (clauses.hasSubClause(i)) {
+                return null;
+            } else if (clause == GremlinClause.HAS_TYPE && typeNames == null) {
+                typeNames = new String[] { clauses.get(i).getValues()[0] };
+            } else if (clause == GremlinClause.HAS_TYPE_WITHIN && typeNames == null) {
+                typeNames = StringUtils.split(IdentifierHelper.removeQuotes(clauses.get(i).getValues()[0]), ',');
+            } else if (!TYPE_COUNT_CLAUSES.contains(clause)) {
+                return null;
+            }
+        }
+
+        if (typeNames == null || typeNames.length == 0) {
+            return null;
+        }
+
+        long ret = 0;
+
+        for (String typeNamesQryStr : SearchProcessor.getTypeNamesQryStrs(Arrays.asList(StringUtils.stripAll(typeNames)))) {
+            String indexQuery = SearchProcessor.INDEX_SEARCH_PREFIX + "\"" + Constants.TYPE_NAME_PROPERTY_KEY + "\":" + typeNamesQryStr;
+            Long   count      = graph.indexQuery(Constants.VERTEX_INDEX, indexQuery).vertexTotals();
+
+            if (count == null || count < 0) {
+                return null;
+            }
+
+            ret += count;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("SelectClauseAggregations.getTypeCountFromIndex(typeNames={}): {}", Arrays.toString(typeNames), ret);
+        }
+
+        return ret;
+    }
+}
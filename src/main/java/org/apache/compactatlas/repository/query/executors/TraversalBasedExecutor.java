@@ -47,6 +47,7 @@ public class TraversalBasedExecutor implements DSLQueryExecutor {
     private static final String CLAUSE_OFFSET_ZERO            = " offset 0";
 
     private static final Translator translator;
+    private static final boolean    isNativeAggregationEnabled = AtlasConfiguration.DSL_NATIVE_AGGREGATION_ENABLED.getBoolean();
 
     private final AtlasTypeRegistry     typeRegistry;
     private final AtlasGraph            graph;
@@ -74,6 +75,12 @@ public class TraversalBasedExecutor implements DSLQueryExecutor {
             LOG.debug("Executing DSL: query={}, gremlinQuery={}", dslQuery, graphTraversal.toString());
         }
 
+        if (isNativeAggregationEnabled && SelectClauseAggregations.isApplicable(gremlinQuery)) {
+            AtlasSearchResult aggregations = SelectClauseAggregations.usingTraversal(graph, gremlinQuery);
+
+            return aggregations != null ? aggregations : ret;
+        }
+
         List<AtlasVertex> resultList = graphTraversal.getAtlasVertexList();
 
         return (CollectionUtils.isNotEmpty(resultList))
@@ -49,6 +49,7 @@ import javax.inject.Inject;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -194,11 +195,18 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             MetricRecorder metric = RequestContext.get().startMetricRecord("entityAudit");
             FixedBufferList<EntityAuditEventV2> events = getAuditEventsList();
 
+            // when classifications added to many entities are notified together, each entity is audited only for its own classification
+            Set<String> directClassifications = new HashSet<>();
+
+            for (AtlasClassification classification : classifications) {
+                directClassifications.add(classification.getTypeName() + ":" + classification.getEntityGuid());
+            }
+
             for (AtlasClassification classification : classifications) {
                 for (AtlasEntity entity : entities) {
                     if (entity.getGuid().equals(classification.getEntityGuid())) {
                         createEvent(events.next(), entity, CLASSIFICATION_ADD, "Added classification: " + AtlasType.toJson(classification));
-                    } else {
+                    } else if (!directClassifications.contains(classification.getTypeName() + ":" + entity.getGuid())) {
                         createEvent(events.next(), entity, PROPAGATED_CLASSIFICATION_ADD, "Added propagated classification: " + AtlasType.toJson(classification));
                     }
                 }
@@ -0,0 +1,464 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.graph;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.repository.GraphTransactionInterceptor;
+import org.apache.compactatlas.repository.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.apache.compactatlas.common.repository.Constants.ENTITY_TEXT_PROPERTY_KEY;
+
+/**
+ * Asynchronous updates to the full-text index: builds full text of entities after the transaction that updated them
+ * commits, instead of within it.
+ *
+ * Guids queued by a transaction are added to the queue only when the transaction succeeds; a guid queued again before
+ * it is processed is processed once. A single worker builds full text of queued entities in batches, one transaction
+ * per batch. Queued guids are appended to a local journal, and synced to disk, before the transaction that queues them
+ * commits; they are replayed on restart until their batch commits. Entities of a failed batch are queued again and
+ * retried one at a time, up to the configured number of attempts; entities that still fail are kept in the journal, to
+ * be retried on restart.
+ *
+ * Staleness is bounded: when the oldest queued entity has waited longer than the configured lag, isBackedUp() returns
+ * true and callers map full text within their own transaction until the worker catches up.
+ *
+ * Only full text is deferred. Other mixed-index properties are attributes of the vertex itself and are indexed by the
+ * graph as part of the commit that writes them.
+ */
+@Component
+public class FullTextIndexQueue {
+    private static final Logger LOG = LoggerFactory.getLogger(FullTextIndexQueue.class);
+
+    private static final String WORKER_NAME_FORMAT        = "atlas-fulltext-indexer-%d";
+    private static final String DEFAULT_JOURNAL_FILE_NAME = "atlas-fulltext-index.journal";
+    private static final int    MIN_JOURNAL_COMPACT_LINES = 10000;
+
+    public static final String STAT_PENDING_COUNT   = "pendingCount";
+    public static final String STAT_LAG_MS          = "lagMs";
+    public static final String STAT_PROCESSED_COUNT = "processedCount";
+    public static final String STAT_FAILED_COUNT    = "failedCount";
+    public static final String STAT_LAST_DRAIN_TIME = "lastDrainTime";
+
+    private final AtlasGraph           graph;
+    private final FullTextMapperV2     fullTextMapper;
+    private final boolean              isEnabled;
+    private final int                  batchSize;
+    private final long                 maxLagMs;
+    private final int                  maxAttempts;
+    private final File                 journalFile;
+    private final Map<String, Long>    pendingGuids     = new LinkedHashMap<>(); // guid -> time first queued
+    private final Set<String>          inFlightGuids    = new HashSet<>();
+    private final Map<String, Integer> uncommittedGuids = new HashMap<>(); // guid -> number of open transactions that queued it
+    private final Map<String, Integer> failedAttempts   = new HashMap<>();
+    private final Set<String>          failedGuids      = new LinkedHashSet<>(); // out of attempts; kept in the journal
+    private final ExecutorService      executorService;
+    private       FileChannel          journal;
+    private       long                 journalLines     = 0;
+    private       boolean              isDrainScheduled = false;
+    private       long                 processedCount   = 0;
+    private       long                 failedCount      = 0;
+    private       long                 lastDrainTime    = 0;
+
+    @Inject
+    public FullTextIndexQueue(AtlasGraph graph, FullTextMapperV2 fullTextMapper) {
+        this.graph           = graph;
+        this.fullTextMapper  = fullTextMapper;
+        this.isEnabled       = AtlasConfiguration.FULLTEXT_DEFERRED_ENABLED.getBoolean();
+        this.batchSize       = Math.max(1, AtlasConfiguration.FULLTEXT_DEFERRED_BATCH_SIZE.getInt());
+        this.maxLagMs        = AtlasConfiguration.FULLTEXT_DEFERRED_MAX_LAG_MS.getLong();
+        this.maxAttempts     = Math.max(1, AtlasConfiguration.FULLTEXT_DEFERRED_MAX_ATTEMPTS.getInt());
+        this.journalFile     = getJournalFile();
+        this.executorService = isEnabled ? Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat(WORKER_NAME_FORMAT).build()) : null;
+
+        if (isEnabled) {
+            replayJournal();
+        }
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * @return true if the oldest queued entity has waited longer than the allowed lag
+     */
+    public synchronized boolean isBackedUp() {
+        return maxLagMs > 0 && getLagMs() > maxLagMs;
+    }
+
+    /**
+     * queues the given entities for full text mapping once the current transaction commits
+     */
+    public void enqueue(Collection<String> guids) {
+        if (!isEnabled || CollectionUtils.isEmpty(guids)) {
+            return;
+        }
+
+        final List<String> toQueue = new ArrayList<>(guids);
+
+        // journaled before the transaction commits, so that the entities are replayed should the server stop right after the commit
+        beforeCommit(toQueue);
+
+        new GraphTransactionInterceptor.PostTransactionHook() {
+            @Override
+            public void onComplete(boolean isSuccess) {
+                afterCommit(toQueue, isSuccess);
+            }
+        };
+    }
+
+    public synchronized int getPendingCount() {
+        return pendingGuids.size() + inFlightGuids.size();
+    }
+
+    /**
+     * @return time, in milliseconds, the oldest queued entity has been waiting; 0 if the queue is empty
+     */
+    public synchronized long getLagMs() {
+        Iterator<Long> iter = pendingGuids.values().iterator();
+
+        return iter.hasNext() ? System.currentTimeMillis() - iter.next() : 0;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> ret = new HashMap<>();
+
+        ret.put(STAT_PENDING_COUNT, getPendingCount());
+        ret.put(STAT_LAG_MS, getLagMs());
+        ret.put(STAT_PROCESSED_COUNT, processedCount);
+        ret.put(STAT_FAILED_COUNT, failedCount);
+        ret.put(STAT_LAST_DRAIN_TIME, lastDrainTime);
+
+        return ret;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+
+        synchronized (this) {
+            closeJournal();
+        }
+    }
+
+    private synchronized void beforeCommit(Collection<String> guids) {
+        for (String guid : guids) {
+            uncommittedGuids.merge(guid, 1, Integer::sum);
+        }
+
+        appendToJournal(guids);
+    }
+
+    private synchronized void afterCommit(Collection<String> guids, boolean isSuccess) {
+        for (String guid : guids) {
+            uncommittedGuids.computeIfPresent(guid, (k, count) -> count > 1 ? count - 1 : null);
+        }
+
+        if (isSuccess) {
+            add(guids);
+        } else if (isJournalEmpty()) {
+            truncateJournal();
+        }
+    }
+
+    private synchronized void add(Collection<String> guids) {
+        long now = System.currentTimeMillis();
+
+        for (String guid : guids) {
+            pendingGuids.putIfAbsent(guid, now);
+
+            // queued again by an update: retry from scratch
+            failedGuids.remove(guid);
+            failedAttempts.remove(guid);
+        }
+
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!isDrainScheduled && !pendingGuids.isEmpty()) {
+            isDrainScheduled = true;
+
+            executorService.submit(this::drain);
+        }
+    }
+
+    private synchronized List<String> nextBatch() {
+        List<String>     ret  = new ArrayList<>(Math.min(batchSize, pendingGuids.size()));
+        Iterator<String> iter = pendingGuids.keySet().iterator();
+
+        while (iter.hasNext() && ret.size() < batchSize) {
+            String guid = iter.next();
+
+            // an entity of a failed batch is retried alone, so that one failing entity doesn't fail the others
+            if (failedAttempts.containsKey(guid)) {
+                if (ret.isEmpty()) {
+                    ret.add(guid);
+
+                    iter.remove();
+                }
+
+                break;
+            }
+
+            ret.add(guid);
+
+            iter.remove();
+        }
+
+        inFlightGuids.addAll(ret);
+
+        if (ret.isEmpty()) {
+            isDrainScheduled = false;
+        }
+
+        return ret;
+    }
+
+    private synchronized void batchCompleted(List<String> batch, boolean isSuccess) {
+        long now = System.currentTimeMillis();
+
+        inFlightGuids.removeAll(batch);
+
+        if (isSuccess) {
+            processedCount += batch.size();
+
+            for (String guid : batch) {
+                failedAttempts.remove(guid);
+            }
+        } else {
+            for (String guid : batch) {
+                int attempts = failedAttempts.merge(guid, 1, Integer::sum);
+
+                if (attempts < maxAttempts) {
+                    pendingGuids.putIfAbsent(guid, now);
+                } else {
+                    LOG.warn("FullTextIndexQueue: full text mapping of entity {} failed {} times; will be retried after restart", guid, attempts);
+
+                    failedAttempts.remove(guid);
+                    failedGuids.add(guid);
+
+                    failedCount++;
+                }
+            }
+        }
+
+        lastDrainTime = now;
+
+        if (isJournalEmpty()) {
+            truncateJournal();
+        } else if (journalLines > Math.max(MIN_JOURNAL_COMPACT_LINES, 4L * getJournaledGuids().size())) {
+            compactJournal();
+        }
+    }
+
+    private void drain() {
+        for (List<String> batch = nextBatch(); !batch.isEmpty(); batch = nextBatch()) {
+            boolean isSuccess = false;
+
+            try {
+                Map<String, String> fullTexts = fullTextMapper.getIndexTextForEntities(batch);
+
+                for (Map.Entry<String, String> entry : fullTexts.entrySet()) {
+                    AtlasVertex vertex = AtlasGraphUtilsV2.findByGuid(entry.getKey());
+
+                    if (vertex != null) {
+                        AtlasGraphUtilsV2.setEncodedProperty(vertex, ENTITY_TEXT_PROPERTY_KEY, entry.getValue());
+                    }
+                }
+
+                graph.commit();
+
+                isSuccess = true;
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("FullTextIndexQueue: mapped full text of {} entities", fullTexts.size());
+                }
+            } catch (Throwable t) {
+                LOG.error("FullTextIndexQueue: full text mapping failed for entities {}", batch, t);
+
+                graph.rollback();
+            } finally {
+                RequestContext.clear();
+
+                batchCompleted(batch, isSuccess);
+            }
+        }
+    }
+
+    private synchronized void replayJournal() {
+        if (journalFile.isFile()) {
+            try {
+                long now = System.currentTimeMillis();
+
+                for (String guid : Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8)) {
+                    if (StringUtils.isNotBlank(guid)) {
+                        pendingGuids.putIfAbsent(guid.trim(), now);
+                    }
+                }
+            } catch (IOException e) {
+                LOG.warn("FullTextIndexQueue: failed to read journal {}", journalFile, e);
+            }
+        }
+
+        if (!pendingGuids.isEmpty()) {
+            LOG.info("FullTextIndexQueue: replaying {} entities from journal {}", pendingGuids.size(), journalFile);
+
+            compactJournal();
+
+            scheduleDrain();
+        }
+    }
+
+    private void appendToJournal(Collection<String> guids) {
+        try {
+            if (journal == null) {
+                journal = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+
+            writeLines(journal, guids);
+
+            journal.force(false);
+
+            journalLines += guids.size();
+        } catch (IOException e) {
+            LOG.warn("FullTextIndexQueue: failed to write journal {}; queued entities won't be replayed after restart", journalFile, e);
+        }
+    }
+
+    private boolean isJournalEmpty() {
+        return pendingGuids.isEmpty() && inFlightGuids.isEmpty() && uncommittedGuids.isEmpty() && failedGuids.isEmpty();
+    }
+
+    // entities to keep in the journal: queued, being processed, queued by transactions yet to complete, or out of attempts
+    private Collection<String> getJournaledGuids() {
+        if (isJournalEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> ret = new LinkedHashSet<>(inFlightGuids);
+
+        ret.addAll(pendingGuids.keySet());
+        ret.addAll(uncommittedGuids.keySet());
+        ret.addAll(failedGuids);
+
+        return ret;
+    }
+
+    private void truncateJournal() {
+        closeJournal();
+
+        try {
+            Files.deleteIfExists(journalFile.toPath());
+        } catch (IOException e) {
+            LOG.warn("FullTextIndexQueue: failed to delete journal {}", journalFile, e);
+        }
+
+        journalLines = 0;
+    }
+
+    // rewrites the journal with only the entities that are yet to be committed
+    private void compactJournal() {
+        closeJournal();
+
+        Collection<String> guids = getJournaledGuids();
+
+        try {
+            File tmpFile = new File(journalFile.getPath() + ".tmp");
+
+            try (FileChannel channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeLines(channel, guids);
+
+                channel.force(false);
+            }
+
+            Files.move(tmpFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            journalLines = guids.size();
+        } catch (IOException e) {
+            LOG.warn("FullTextIndexQueue: failed to compact journal {}", journalFile, e);
+        }
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOG.warn("FullTextIndexQueue: failed to close journal {}", journalFile, e);
+            }
+
+            journal = null;
+        }
+    }
+
+    private static void writeLines(FileChannel channel, Collection<String> lines) throws IOException {
+        StringBuilder sb = new StringBuilder();
+
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static File getJournalFile() {
+        String fileName = AtlasConfiguration.FULLTEXT_DEFERRED_JOURNAL_FILE.getString();
+
+        return StringUtils.isNotEmpty(fileName) ? new File(fileName) : new File(System.getProperty("java.io.tmpdir"), DEFAULT_JOURNAL_FILE_NAME);
+    }
+}
@@ -21,6 +21,7 @@ import org.apache.compactatlas.serverapi.RequestContext;
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
 import org.apache.compactatlas.intg.model.instance.AtlasClassification;
 import org.apache.compactatlas.intg.model.instance.AtlasEntity;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
 import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntityExtInfo;
 import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.compactatlas.intg.model.instance.AtlasObjectId;
@@ -44,7 +45,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -63,7 +66,7 @@ public class FullTextMapperV2 implements IFullTextMapper {
 
     private final AtlasTypeRegistry        typeRegistry;
     private final Configuration            configuration;
-    private final EntityGraphRetriever entityGraphRetriever;
+    private final EntityGraphRetriever     entityGraphRetriever;
     private final boolean                  followReferences;
     private final Map<String, Set<String>> excludeAttributesCache = new HashMap<>();
 
@@ -154,6 +157,69 @@ public class FullTextMapperV2 implements IFullTextMapper {
         return ret;
     }
 
+    /**
+     * Full text of entities of a mutation batch. Entities not yet in the request cache are read together, so that
+     * references shared by entities of the batch are read once.
+     * @param guids Entity guids
+     * @return Full text string for each entity found, keyed by guid
+     * @throws AtlasBaseException
+     */
+    public Map<String, String> getIndexTextForEntities(Collection<String> guids) throws AtlasBaseException {
+        Map<String, String> ret = new HashMap<>();
+
+        if (followReferences) {
+            prefetchEntitiesWithExtInfo(guids);
+        }
+
+        for (String guid : guids) {
+            try {
+                String text = getIndexTextForEntity(guid);
+
+                if (text != null) {
+                    ret.put(guid, text);
+                }
+            } catch (AtlasBaseException e) {
+                LOG.warn("FullTextMapperV2.getIndexTextForEntities(): failed for entity {}", guid, e);
+            }
+        }
+
+        return ret;
+    }
+
+    private void prefetchEntitiesWithExtInfo(Collection<String> guids) {
+        RequestContext context = RequestContext.get();
+        List<String>   toFetch = new ArrayList<>();
+
+        for (String guid : guids) {
+            if (context.getEntityWithExtInfo(guid) == null) {
+                toFetch.add(guid);
+            }
+        }
+
+        if (toFetch.size() < 2) {
+            return;
+        }
+
+        try {
+            AtlasEntitiesWithExtInfo entities = entityGraphRetriever.toAtlasEntitiesWithExtInfo(toFetch, false);
+            AtlasEntityExtInfo       extInfo  = new AtlasEntityExtInfo(entities.getReferredEntities() != null ? entities.getReferredEntities() : new HashMap<>());
+
+            // entities of the batch can refer to each other
+            for (AtlasEntity entity : entities.getEntities()) {
+                extInfo.addReferredEntity(entity);
+            }
+
+            for (AtlasEntity entity : entities.getEntities()) {
+                context.cache(new AtlasEntityWithExtInfo(entity, extInfo));
+            }
+        } catch (AtlasBaseException e) {
+            // an entity of the batch may no longer exist; entities will be read one at a time
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("FullTextMapperV2.prefetchEntitiesWithExtInfo(): batch read failed", e);
+            }
+        }
+    }
+
     @Override
     public String getClassificationTextForEntity(AtlasEntity entity) throws AtlasBaseException {
         String                   ret    = null;
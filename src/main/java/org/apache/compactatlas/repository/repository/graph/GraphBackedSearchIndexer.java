@@ -80,6 +80,10 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
 
     private static final String VERTEX_ID_IN_IMPORT_KEY = "__vIdInImport";
     private static final String EDGE_ID_IN_IMPORT_KEY   = "__eIdInImport";
+
+    // edge properties covered by vertex-centric indexes created for each relationship edge label: adjacency reads filter
+    // on state only - edges of a label share the relationship type, and relationship guid lookups use the graph-wide edge index
+    private static final List<String> RELATIONSHIP_EDGE_INDEX_KEYS = Collections.singletonList(STATE_PROPERTY_KEY);
     private static final List<Class> INDEX_EXCLUSION_CLASSES = new ArrayList() {
         {
             add(Boolean.class);
@@ -169,7 +173,8 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
             LOG.debug("Processing changed typedefs {}", changedTypeDefs);
         }
 
-        AtlasGraphManagement management = null;
+        AtlasGraphManagement      management         = null;
+        Map<String, List<String>> edgeIndexesToBuild = new LinkedHashMap<>();
 
         try {
             management = provider.get().getManagementSystem();
@@ -198,11 +203,13 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
             //resolve index fields names for the new entity attributes.
             resolveIndexFieldNames(management, changedTypeDefs);
 
-            createEdgeLabels(management, changedTypeDefs.getCreatedTypeDefs());
-            createEdgeLabels(management, changedTypeDefs.getUpdatedTypeDefs());
+            createEdgeLabels(management, changedTypeDefs.getCreatedTypeDefs(), edgeIndexesToBuild);
+            createEdgeLabels(management, changedTypeDefs.getUpdatedTypeDefs(), edgeIndexesToBuild);
 
             //Commit indexes
             commit(management);
+
+            enableEdgeIndexes(provider.get(), edgeIndexesToBuild);
         } catch (RepositoryException | IndexException e) {
             LOG.error("Failed to update indexes for changed typedefs", e);
             attemptRollback(changedTypeDefs, management);
@@ -368,6 +375,7 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
             createVertexCentricIndex(management, CLASSIFICATION_LABEL, AtlasEdgeDirection.BOTH, CLASSIFICATION_EDGE_NAME_PROPERTY_KEY, String.class, SINGLE);
             createVertexCentricIndex(management, CLASSIFICATION_LABEL, AtlasEdgeDirection.BOTH, CLASSIFICATION_EDGE_IS_PROPAGATED_PROPERTY_KEY, Boolean.class, SINGLE);
             createVertexCentricIndex(management, CLASSIFICATION_LABEL, AtlasEdgeDirection.BOTH, Arrays.asList(CLASSIFICATION_EDGE_NAME_PROPERTY_KEY, CLASSIFICATION_EDGE_IS_PROPAGATED_PROPERTY_KEY));
+            createClassificationEdgeStateIndex(management);
 
             // create edge indexes
             createEdgeIndex(management, RELATIONSHIP_GUID_PROPERTY_KEY, String.class, SINGLE, true);
@@ -837,6 +845,38 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
     }
 
 
+    /**
+     * Creates vertex-centric index on state of edges with the given label, so that lookups of active relationship edges on
+     * vertices with a large number of edges don't scan all adjacent edges. Indexes added to a label that already exists
+     * are not used by queries until enabled, after the management transaction is committed, with enableEdgeIndexes().
+     * @return names of the vertex-centric indexes for the label
+     */
+    public List<String> createRelationshipEdgeIndexes(AtlasGraphManagement management, String relationshipLabel) {
+        List<String> ret = new ArrayList<>();
+
+        if (StringUtils.isEmpty(relationshipLabel)) {
+            return ret;
+        }
+
+        for (String propertyName : RELATIONSHIP_EDGE_INDEX_KEYS) {
+            createVertexCentricIndex(management, relationshipLabel, AtlasEdgeDirection.BOTH, propertyName, String.class, SINGLE);
+
+            ret.add(relationshipLabel + propertyName);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Creates vertex-centric index on is-propagated and state of classification edges, used to find active propagated classifications
+     * @return name of the vertex-centric index
+     */
+    public String createClassificationEdgeStateIndex(AtlasGraphManagement management) {
+        createVertexCentricIndex(management, CLASSIFICATION_LABEL, AtlasEdgeDirection.BOTH, Arrays.asList(CLASSIFICATION_EDGE_IS_PROPAGATED_PROPERTY_KEY, CLASSIFICATION_EDGE_STATE_PROPERTY_KEY));
+
+        return CLASSIFICATION_LABEL + CLASSIFICATION_EDGE_IS_PROPAGATED_PROPERTY_KEY + CLASSIFICATION_EDGE_STATE_PROPERTY_KEY;
+    }
+
     private void createEdgeIndex(AtlasGraphManagement management, String propertyName, Class propertyClass,
                                  AtlasCardinality cardinality, boolean createCompositeIndex) {
         if (propertyName != null) {
@@ -1039,7 +1079,7 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
     }
 
 
-    private void createEdgeLabels(AtlasGraphManagement management, List<? extends AtlasBaseTypeDef> typeDefs) {
+    private void createEdgeLabels(AtlasGraphManagement management, List<? extends AtlasBaseTypeDef> typeDefs, Map<String, List<String>> edgeIndexesToBuild) {
         if (CollectionUtils.isEmpty(typeDefs)) {
             return;
         }
@@ -1049,11 +1089,78 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
                 AtlasEntityDef entityDef = (AtlasEntityDef) typeDef;
                 createEdgeLabelsForStruct(management, entityDef);
             } else if (typeDef instanceof AtlasRelationshipDef) {
-                createEdgeLabels(management, (AtlasRelationshipDef) typeDef);
+                createEdgeLabels(management, (AtlasRelationshipDef) typeDef, edgeIndexesToBuild);
             }
         }
     }
 
+    /**
+     * Enables vertex-centric indexes that were added to edge labels already in the graph. JanusGraph enables an index
+     * right away only when its edge label is created in the same transaction; on an existing label the index stays
+     * REGISTERED, and unused by queries, until enabled. Indexes of labels that may have edges are populated with a
+     * reindex, which scans the graph once per index; those of relationship labels that can't have edges yet, as an
+     * end of the relationship type has no entities, are enabled without it.
+     * @return number of indexes that could not be enabled
+     */
+    public int enableEdgeIndexes(AtlasGraph graph, Map<String, List<String>> indexesByLabel) {
+        int         ret                = 0;
+        Set<String> labelsWithoutEdges = getLabelsWithoutEdges(graph, indexesByLabel.keySet());
+
+        for (Map.Entry<String, List<String>> entry : indexesByLabel.entrySet()) {
+            String  label     = entry.getKey();
+            boolean isReindex = !labelsWithoutEdges.contains(label);
+
+            for (String indexName : entry.getValue()) {
+                try {
+                    AtlasGraphManagement management = graph.getManagementSystem();
+                    boolean              isEnabled  = isReindex ? management.reindexEdgeIndex(label, indexName) : management.enableEdgeIndex(label, indexName);
+
+                    if (!isEnabled) {
+                        LOG.warn("Vertex-centric index {} for edge label {} is not enabled; it will be used by queries once reindexed", indexName, label);
+
+                        ret++;
+                    }
+                } catch (Exception e) {
+                    LOG.error("Failed to enable vertex-centric index {} for edge label {}", indexName, label, e);
+
+                    ret++;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    // relationship labels with no edges for sure: an end of each relationship type of the label has no entities
+    private Set<String> getLabelsWithoutEdges(AtlasGraph graph, Set<String> labels) {
+        Set<String> ret                = new HashSet<>();
+        Set<String> labelsWithEntities = new HashSet<>();
+
+        for (AtlasRelationshipType relationshipType : typeRegistry.getAllRelationshipTypes()) {
+            String label = relationshipType.getRelationshipLabel();
+
+            if (!labels.contains(label)) {
+                continue;
+            }
+
+            if (hasEntities(graph, relationshipType.getEnd1Type()) && hasEntities(graph, relationshipType.getEnd2Type())) {
+                labelsWithEntities.add(label);
+            } else {
+                ret.add(label);
+            }
+        }
+
+        graph.commit();
+
+        ret.removeAll(labelsWithEntities);
+
+        return ret;
+    }
+
+    private static boolean hasEntities(AtlasGraph graph, AtlasEntityType entityType) {
+        return entityType != null && graph.query().in(ENTITY_TYPE_PROPERTY_KEY, entityType.getTypeAndAllSubTypes()).vertexIds(1).iterator().hasNext();
+    }
+
     private void createEdgeLabelsForStruct(AtlasGraphManagement management, AtlasEntityDef entityDef) {
         try {
             AtlasType type = typeRegistry.getType(entityDef.getName());
@@ -1074,11 +1181,30 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
         }
     }
 
-    private void createEdgeLabels(AtlasGraphManagement management, AtlasRelationshipDef relationshipDef) {
+    private void createEdgeLabels(AtlasGraphManagement management, AtlasRelationshipDef relationshipDef, Map<String, List<String>> edgeIndexesToBuild) {
         String relationshipTypeName = relationshipDef.getName();
         AtlasRelationshipType relationshipType = typeRegistry.getRelationshipTypeByName(relationshipTypeName);
         String relationshipLabel = relationshipType.getRelationshipLabel();
 
+        // indexes added to a label that already exists must be enabled after commit, as the label may already have edges
+        boolean      isExistingLabel = StringUtils.isNotEmpty(relationshipLabel) && management.getEdgeLabel(relationshipLabel) != null;
+        List<String> newIndexes      = new ArrayList<>();
+
+        if (isExistingLabel) {
+            for (String propertyName : RELATIONSHIP_EDGE_INDEX_KEYS) {
+                String indexName = relationshipLabel + propertyName;
+
+                if (!management.edgeIndexExist(relationshipLabel, indexName)) {
+                    newIndexes.add(indexName);
+                }
+            }
+        }
+
         createEdgeLabelUsingLabelName(management, relationshipLabel);
+        createRelationshipEdgeIndexes(management, relationshipLabel);
+
+        if (!newIndexes.isEmpty()) {
+            edgeIndexesToBuild.computeIfAbsent(relationshipLabel, k -> new ArrayList<>()).addAll(newIndexes);
+        }
     }
 }
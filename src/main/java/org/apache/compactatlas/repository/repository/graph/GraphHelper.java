@@ -391,10 +391,18 @@ public final class GraphHelper {
     }
 
     public static List<AtlasEdge> getPropagatedEdges(AtlasVertex classificationVertex) {
-        List<AtlasEdge> ret   = new ArrayList<>();
-        Iterable        edges = classificationVertex.query().direction(AtlasEdgeDirection.IN).label(CLASSIFICATION_LABEL)
-                                                    .has(CLASSIFICATION_EDGE_IS_PROPAGATED_PROPERTY_KEY, true)
-                                                    .has(CLASSIFICATION_EDGE_NAME_PROPERTY_KEY, getTypeName(classificationVertex)).edges();
+        return getPropagatedEdges(classificationVertex, -1);
+    }
+
+    /**
+     * @param limit maximum number of edges to return; -1 for all edges
+     */
+    public static List<AtlasEdge> getPropagatedEdges(AtlasVertex classificationVertex, int limit) {
+        List<AtlasEdge>  ret   = new ArrayList<>();
+        AtlasVertexQuery query = classificationVertex.query().direction(AtlasEdgeDirection.IN).label(CLASSIFICATION_LABEL)
+                                                     .has(CLASSIFICATION_EDGE_IS_PROPAGATED_PROPERTY_KEY, true)
+                                                     .has(CLASSIFICATION_EDGE_NAME_PROPERTY_KEY, getTypeName(classificationVertex));
+        Iterable         edges = limit > 0 ? query.edges(limit) : query.edges();
         if (edges != null) {
             Iterator<AtlasEdge> iterator = edges.iterator();
 
@@ -485,6 +493,44 @@ public final class GraphHelper {
         return ret;
     }
 
+    /**
+     * Returns the ACTIVE edges for the given edge label, through the vertex-centric index on edge state
+     */
+    public static Iterator<AtlasEdge> getActiveEdgesForLabel(AtlasVertex vertex, String edgeLabel, AtlasRelationshipEdgeDirection edgeDirection) {
+        Iterable<AtlasEdge> edges = vertex.query().direction(toAtlasEdgeDirection(edgeDirection)).label(edgeLabel)
+                                          .has(STATE_PROPERTY_KEY, ACTIVE.name()).edges();
+
+        return edges != null ? edges.iterator() : Collections.emptyIterator();
+    }
+
+    /**
+     * Returns at most limit ACTIVE edges for the given edge label, without reading all edges of the vertex
+     */
+    public static Iterator<AtlasEdge> getActiveEdgesForLabel(AtlasVertex vertex, String edgeLabel, AtlasRelationshipEdgeDirection edgeDirection, int limit) {
+        Iterable<AtlasEdge> edges = vertex.query().direction(toAtlasEdgeDirection(edgeDirection)).label(edgeLabel)
+                                          .has(STATE_PROPERTY_KEY, ACTIVE.name()).edges(limit);
+
+        return edges != null ? edges.iterator() : Collections.emptyIterator();
+    }
+
+    public static long getActiveEdgesCountForLabel(AtlasVertex vertex, String edgeLabel, AtlasRelationshipEdgeDirection edgeDirection) {
+        return vertex.query().direction(toAtlasEdgeDirection(edgeDirection)).label(edgeLabel)
+                     .has(STATE_PROPERTY_KEY, ACTIVE.name()).count();
+    }
+
+    private static AtlasEdgeDirection toAtlasEdgeDirection(AtlasRelationshipEdgeDirection edgeDirection) {
+        switch (edgeDirection) {
+            case IN:
+                return AtlasEdgeDirection.IN;
+
+            case OUT:
+                return AtlasEdgeDirection.OUT;
+
+            default:
+                return AtlasEdgeDirection.BOTH;
+        }
+    }
+
     /**
      * Returns the active edge for the given edge label.
      * If the vertex is deleted and there is no active edge, it returns the latest deleted edge
@@ -497,7 +543,34 @@ public final class GraphHelper {
     }
 
     public AtlasEdge getEdgeForLabel(AtlasVertex vertex, String edgeLabel, AtlasEdgeDirection edgeDirection) {
-        Iterator<AtlasEdge> iterator = getAdjacentEdgesByLabel(vertex, edgeDirection, edgeLabel);
+        AtlasEdge ret = getActiveEdgeForLabel(vertex, edgeLabel, edgeDirection);
+
+        if (ret == null) {
+            ret = getActiveOrLatestDeletedEdge(getAdjacentEdgesByLabel(vertex, edgeDirection, edgeLabel));
+        }
+
+        return ret;
+    }
+
+    /**
+     * looks up an active edge through the vertex-centric index on edge state, to avoid scanning all edges of a supernode
+     */
+    private static AtlasEdge getActiveEdgeForLabel(AtlasVertex vertex, String edgeLabel, AtlasEdgeDirection edgeDirection) {
+        if (vertex == null || edgeLabel == null) {
+            return null;
+        }
+
+        Iterable<AtlasEdge> edges = vertex.query().direction(edgeDirection).label(edgeLabel)
+                                          .has(STATE_PROPERTY_KEY, ACTIVE.name()).edges(1);
+        Iterator<AtlasEdge> iter  = edges != null ? edges.iterator() : null;
+
+        return iter != null && iter.hasNext() ? iter.next() : null;
+    }
+
+    /**
+     * returns the first active edge from the given edges; if there is no active edge, returns the most recently deleted one
+     */
+    public static AtlasEdge getActiveOrLatestDeletedEdge(Iterator<AtlasEdge> iterator) {
         AtlasEdge latestDeletedEdge = null;
         long latestDeletedEdgeTime = Long.MIN_VALUE;
 
@@ -651,6 +724,36 @@ public final class GraphHelper {
         return getVerticesForPropertyValues(Constants.GUID_PROPERTY_KEY, guids);
     }
 
+    /**
+     * Finds the relationship edges that correspond to the given GUIDs, in a single query.  GUIDs
+     * that are not found in the graph will not be in the map.
+     *
+     *  @return GUID to AtlasEdge map with the result.
+     */
+    public Map<String, AtlasEdge> getEdgesForGUIDs(List<String> guids) {
+        if (guids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Collection<String> nonNullGuids = new HashSet<>(guids.size());
+
+        for (String guid : guids) {
+            if (guid != null) {
+                nonNullGuids.add(guid);
+            }
+        }
+
+        Map<String, AtlasEdge> ret = new HashMap<>(guids.size());
+
+        for (Object result : graph.query().in(Constants.RELATIONSHIP_GUID_PROPERTY_KEY, nonNullGuids).edges()) {
+            AtlasEdge edge = (AtlasEdge) result;
+
+            ret.putIfAbsent(edge.getProperty(Constants.RELATIONSHIP_GUID_PROPERTY_KEY, String.class), edge);
+        }
+
+        return ret;
+    }
+
     public static void updateModificationMetadata(AtlasVertex vertex) {
         AtlasGraphUtilsV2.setEncodedProperty(vertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY, RequestContext.get().getRequestTime());
         AtlasGraphUtilsV2.setEncodedProperty(vertex, MODIFIED_BY_KEY, RequestContext.get().getUser());
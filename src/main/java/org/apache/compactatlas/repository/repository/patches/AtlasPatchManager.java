@@ -95,6 +95,7 @@ public class AtlasPatchManager {
         handlers.add(new ReIndexPatch(context));
         handlers.add(new ProcessNamePatch(context));
         handlers.add(new UpdateCompositeIndexStatusPatch(context));
+        handlers.add(new RelationshipEdgeIndexPatch(context));
 
         LOG.info("<== AtlasPatchManager.init()");
     }
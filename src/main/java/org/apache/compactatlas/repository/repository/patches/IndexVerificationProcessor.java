@@ -0,0 +1,338 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.patches;
+
+import com.google.common.util.concurrent.RateLimiter;
+import org.apache.compactatlas.common.pc.WorkItemManager;
+import org.apache.compactatlas.common.repository.Constants;
+import org.apache.compactatlas.graphdb.api.AtlasElement;
+import org.apache.compactatlas.graphdb.api.AtlasIndexQuery;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.type.AtlasBuiltInTypes.AtlasStringType;
+import org.apache.compactatlas.intg.type.AtlasEntityType;
+import org.apache.compactatlas.intg.type.AtlasEnumType;
+import org.apache.compactatlas.intg.type.AtlasStructType.AtlasAttribute;
+import org.apache.compactatlas.repository.repository.graph.GraphHelper;
+import org.apache.compactatlas.repository.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the vertex_index documents of the entities of one type with their graph properties and, depending on the
+ * mode, reindexes entities whose document is missing or stale.
+ *
+ * An entity is consistent when an index query on its guid, type, state and the current values of its indexed string
+ * and enum attributes finds it. The ids of the vertices of the type after a checkpoint are read and processed in
+ * ascending order, a stable order across runs unlike that of the graph query; every sampleStep-th vertex is submitted,
+ * at most maxVerticesPerSec per second. Every checkpointInterval vertices the listener is given a checkpoint, the vertex
+ * id up to which all submitted vertices have been processed and, when drifted, reindexed, so that an interrupted run
+ * can resume after it.
+ */
+public class IndexVerificationProcessor extends ConcurrentPatchProcessor {
+    private static final Logger LOG = LoggerFactory.getLogger(IndexVerificationProcessor.class);
+
+    private static final String   INDEX_SEARCH_PREFIX = AtlasGraphUtilsV2.getIndexSearchPrefix();
+    private static final String[] VERTEX_INDEX_NAMES  = new String[] { Constants.VERTEX_INDEX, Constants.FULLTEXT_INDEX };
+
+    public enum Mode { VERIFY, REPAIR, REINDEX }
+
+    public interface ProgressListener {
+        void onProgress(IndexVerificationProcessor processor);
+    }
+
+    private final String                  typeName;
+    private final Mode                    mode;
+    private final int                     sampleStep;
+    private final long                    startCheckpoint;
+    private final int                     checkpointInterval;
+    private final RateLimiter             rateLimiter;
+    private final ProgressListener        listener;
+    private final List<AtlasAttribute>    checkedAttributes = new ArrayList<>();
+    private final Map<Long, AtlasElement> pendingReindex    = new LinkedHashMap<>();
+    private final NavigableSet<Long>      unrepairedIds     = new ConcurrentSkipListSet<>(); // pending, or in a batch being reindexed
+    private final AtomicLong              scannedCount      = new AtomicLong();
+    private final AtomicLong              verifiedCount     = new AtomicLong();
+    private final AtomicLong              driftedCount      = new AtomicLong();
+    private final AtomicLong              reindexedCount    = new AtomicLong();
+    private final AtomicLong              failedCount       = new AtomicLong();
+    private volatile long                 checkpoint;
+    private volatile long                 endCheckpoint;
+
+    public IndexVerificationProcessor(PatchContext context, String typeName, Mode mode, int sampleStep, long startCheckpoint,
+                                      int checkpointInterval, int maxVerticesPerSec, ProgressListener listener) {
+        super(context);
+
+        this.typeName           = typeName;
+        this.mode               = mode;
+        this.sampleStep         = Math.max(1, sampleStep);
+        this.startCheckpoint    = startCheckpoint;
+        this.checkpointInterval = Math.max(BATCH_SIZE, checkpointInterval);
+        this.rateLimiter        = maxVerticesPerSec > 0 ? RateLimiter.create(maxVerticesPerSec) : null;
+        this.listener           = listener;
+        this.checkpoint         = startCheckpoint;
+        this.endCheckpoint      = startCheckpoint;
+    }
+
+    @Override
+    public void apply() throws AtlasBaseException {
+        LOG.info("==> IndexVerificationProcessor.apply(typeName={}, mode={}, sampleStep={}, startCheckpoint={})", typeName, mode, sampleStep, startCheckpoint);
+
+        super.apply();
+
+        reindex(drainPendingReindex(0));
+
+        checkpoint = endCheckpoint;
+
+        notifyProgress();
+
+        LOG.info("<== IndexVerificationProcessor.apply(typeName={}): scanned={}, verified={}, drifted={}, reindexed={}, failed={}",
+                 typeName, scannedCount.get(), verifiedCount.get(), driftedCount.get(), reindexedCount.get(), failedCount.get());
+    }
+
+    public String getTypeName() { return typeName; }
+
+    public long getCheckpoint() { return checkpoint; }
+
+    public long getScannedCount() { return scannedCount.get(); }
+
+    public long getVerifiedCount() { return verifiedCount.get(); }
+
+    public long getDriftedCount() { return driftedCount.get(); }
+
+    public long getReindexedCount() { return reindexedCount.get(); }
+
+    public long getFailedCount() { return failedCount.get(); }
+
+    @Override
+    protected void prepareForExecution() throws AtlasBaseException {
+        AtlasEntityType entityType = getTypeRegistry().getEntityTypeByName(typeName);
+
+        if (entityType == null) {
+            throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_NOT_FOUND, typeName);
+        }
+
+        Set<String> vertexIndexKeys = getIndexer().getVertexIndexKeys();
+
+        for (AtlasAttribute attribute : entityType.getAllAttributes().values()) {
+            boolean isStringOrEnum = attribute.getAttributeType() instanceof AtlasStringType || attribute.getAttributeType() instanceof AtlasEnumType;
+
+            if (isStringOrEnum && vertexIndexKeys.contains(attribute.getVertexPropertyName())) {
+                checkedAttributes.add(attribute);
+            }
+        }
+    }
+
+    @Override
+    protected void submitVerticesToUpdate(WorkItemManager manager) {
+        long[] vertexIds = getVertexIdsAfter(startCheckpoint);
+        // items submitted but possibly not yet processed: queued, or taken by a worker
+        int    inFlight  = (BATCH_SIZE + 1) * NUM_WORKERS * sampleStep;
+
+        for (int i = 0; i < vertexIds.length; i++) {
+            if (i % sampleStep == 0) {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire();
+                }
+
+                manager.checkProduce(vertexIds[i]);
+            }
+
+            if ((i + 1) % checkpointInterval == 0) {
+                if (i >= inFlight) {
+                    checkpoint = Math.max(checkpoint, getRepairedUpTo(vertexIds[i - inFlight]));
+                }
+
+                notifyProgress();
+            }
+        }
+
+        if (vertexIds.length > 0) {
+            endCheckpoint = vertexIds[vertexIds.length - 1];
+        }
+    }
+
+    // the checkpoint must not pass drifted vertices not yet reindexed, else a run resuming from it would skip them
+    private long getRepairedUpTo(long processedUpTo) {
+        Long lowestUnrepaired = unrepairedIds.ceiling(Long.MIN_VALUE);
+
+        return lowestUnrepaired != null ? Math.min(processedUpTo, lowestUnrepaired - 1) : processedUpTo;
+    }
+
+    // ids of the vertices of the type greater than the checkpoint, ascending; kept as primitives, as a type can have millions of entities
+    private long[] getVertexIdsAfter(long checkpoint) {
+        long[] ret   = new long[checkpointInterval];
+        int    count = 0;
+
+        for (Object vertexId : getGraph().query().has(Constants.ENTITY_TYPE_PROPERTY_KEY, typeName).vertexIds()) {
+            long id = ((Number) vertexId).longValue();
+
+            if (id <= checkpoint) {
+                continue;
+            }
+
+            if (count == ret.length) {
+                ret = Arrays.copyOf(ret, count * 2);
+            }
+
+            ret[count++] = id;
+        }
+
+        getGraph().commit();
+
+        ret = Arrays.copyOf(ret, count);
+
+        Arrays.sort(ret);
+
+        return ret;
+    }
+
+    @Override
+    protected void processVertexItem(Long vertexId, AtlasVertex vertex, String typeName, AtlasEntityType entityType) {
+        scannedCount.incrementAndGet();
+
+        boolean needsReindex = true;
+
+        if (mode != Mode.REINDEX) {
+            needsReindex = !isIndexed(vertex);
+
+            if (needsReindex) {
+                driftedCount.incrementAndGet();
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("index drift: typeName={}, vertexId={}", typeName, vertexId);
+                }
+            } else {
+                verifiedCount.incrementAndGet();
+            }
+        }
+
+        if (needsReindex && mode != Mode.VERIFY) {
+            Map<Long, AtlasElement> batch;
+
+            synchronized (pendingReindex) {
+                pendingReindex.put(vertexId, vertex);
+                unrepairedIds.add(vertexId);
+
+                batch = drainPendingReindex(BATCH_SIZE);
+            }
+
+            reindex(batch);
+        }
+    }
+
+    private boolean isIndexed(AtlasVertex vertex) {
+        String guid = GraphHelper.getGuid(vertex);
+
+        if (StringUtils.isEmpty(guid)) {
+            return true;
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        appendClause(sb, Constants.GUID_PROPERTY_KEY, guid);
+        appendClause(sb, Constants.TYPE_NAME_PROPERTY_KEY, GraphHelper.getTypeName(vertex));
+        appendClause(sb, Constants.STATE_PROPERTY_KEY, GraphHelper.getStateAsString(vertex));
+
+        for (AtlasAttribute attribute : checkedAttributes) {
+            appendClause(sb, attribute.getVertexPropertyName(), vertex.getProperty(attribute.getVertexPropertyName(), String.class));
+        }
+
+        try {
+            AtlasIndexQuery                  query   = getGraph().indexQuery(Constants.VERTEX_INDEX, sb.toString());
+            Iterator<AtlasIndexQuery.Result> results = query.vertices(0, 1);
+
+            return results.hasNext();
+        } catch (Exception e) {
+            LOG.warn("index query failed for guid={}; treating as drift", guid, e);
+
+            return false;
+        }
+    }
+
+    private static void appendClause(StringBuilder sb, String propertyName, String value) {
+        if (StringUtils.isEmpty(value)) {
+            return;
+        }
+
+        if (sb.length() > 0) {
+            sb.append(" AND ");
+        }
+
+        sb.append(INDEX_SEARCH_PREFIX + "\"").append(propertyName).append("\":").append(AtlasAttribute.escapeIndexQueryValue(value));
+    }
+
+    private Map<Long, AtlasElement> drainPendingReindex(int minSize) {
+        synchronized (pendingReindex) {
+            if (pendingReindex.isEmpty() || pendingReindex.size() < minSize) {
+                return null;
+            }
+
+            Map<Long, AtlasElement> ret = new LinkedHashMap<>(pendingReindex);
+
+            pendingReindex.clear();
+
+            return ret;
+        }
+    }
+
+    private void reindex(Map<Long, AtlasElement> elements) {
+        if (elements == null) {
+            return;
+        }
+
+        List<AtlasElement> vertices = new ArrayList<>(elements.values());
+
+        try {
+            for (String indexName : VERTEX_INDEX_NAMES) {
+                try {
+                    getGraph().getManagementSystem().reindex(indexName, vertices);
+                } catch (Exception e) {
+                    LOG.error("IndexVerificationProcessor: reindex of {} vertices of type {} in {} failed", vertices.size(), typeName, indexName, e);
+
+                    failedCount.addAndGet(vertices.size());
+
+                    return;
+                }
+            }
+
+            reindexedCount.addAndGet(vertices.size());
+        } finally {
+            unrepairedIds.removeAll(elements.keySet());
+        }
+    }
+
+    private void notifyProgress() {
+        if (listener != null) {
+            listener.onProgress(this);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.patches;
+
+import org.apache.compactatlas.common.annotation.GraphTransaction;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.tasks.AtlasTask;
+import org.apache.compactatlas.intg.type.AtlasEntityType;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.repository.repository.graph.GraphBackedSearchIndexer;
+import org.apache.compactatlas.repository.repository.patches.IndexVerificationProcessor.Mode;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityGraphMapper;
+import org.apache.compactatlas.repository.tasks.AbstractTask;
+import org.apache.compactatlas.repository.tasks.TaskFactory;
+import org.apache.compactatlas.repository.tasks.TaskManagement;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.apache.compactatlas.intg.model.tasks.AtlasTask.Status.COMPLETE;
+
+/**
+ * Runs index verification and reindexing of entity types as tasks, one task per type. Tasks are executed one after
+ * another by TaskManagement, on its thread for long running tasks; each task records its checkpoint, the vertex id up
+ * to which the entities of the type have been processed, and counts in its parameters, so progress is reported through
+ * the tasks API and a task left pending by a restart resumes after its checkpoint.
+ */
+@Component
+public class IndexVerificationService implements TaskFactory {
+    private static final Logger LOG = LoggerFactory.getLogger(IndexVerificationService.class);
+
+    public static final String INDEX_VERIFICATION = "INDEX_VERIFICATION";
+
+    public static final String PARAM_TYPE_NAME   = "typeName";
+    public static final String PARAM_MODE        = "mode";
+    public static final String PARAM_SAMPLE_STEP = "sampleStep";
+    public static final String PARAM_CHECKPOINT  = "checkpoint";
+    public static final String PARAM_SCANNED     = "scanned";
+    public static final String PARAM_VERIFIED    = "verified";
+    public static final String PARAM_DRIFTED     = "drifted";
+    public static final String PARAM_REINDEXED   = "reindexed";
+    public static final String PARAM_FAILED      = "failed";
+
+    private static final List<String> supportedTypes = Collections.singletonList(INDEX_VERIFICATION);
+
+    private final AtlasGraph               graph;
+    private final AtlasTypeRegistry        typeRegistry;
+    private final GraphBackedSearchIndexer indexer;
+    private final EntityGraphMapper        entityGraphMapper;
+    private final TaskManagement           taskManagement;
+    private       PatchContext             context;
+
+    @Inject
+    public IndexVerificationService(AtlasGraph graph, AtlasTypeRegistry typeRegistry, GraphBackedSearchIndexer indexer,
+                                    EntityGraphMapper entityGraphMapper, TaskManagement taskManagement) {
+        this.graph             = graph;
+        this.typeRegistry      = typeRegistry;
+        this.indexer           = indexer;
+        this.entityGraphMapper = entityGraphMapper;
+        this.taskManagement    = taskManagement;
+    }
+
+    /**
+     * Queues a verification task for each of the given entity types.
+     *
+     * @param typeNames  entity types to verify; all entity types when empty
+     * @param mode       VERIFY only reports drift, REPAIR also reindexes drifted entities, REINDEX reindexes all entities
+     * @param sampleRate share of the entities of each type to verify, in (0, 1]
+     * @return the queued tasks
+     * @throws AtlasBaseException
+     */
+    @GraphTransaction
+    public List<AtlasTask> submit(List<String> typeNames, Mode mode, double sampleRate) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> IndexVerificationService.submit({}, {}, {})", typeNames, mode, sampleRate);
+        }
+
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "sampleRate must be in (0, 1]: " + sampleRate);
+        }
+
+        if (CollectionUtils.isEmpty(typeNames)) {
+            typeNames = new ArrayList<>(new TreeSet<>(typeRegistry.getAllEntityDefNames()));
+        }
+
+        for (String typeName : typeNames) {
+            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
+
+            if (entityType == null) {
+                throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_NOT_FOUND, typeName);
+            }
+        }
+
+        List<AtlasTask> ret        = new ArrayList<>(typeNames.size());
+        int             sampleStep = (int) Math.round(1 / sampleRate);
+
+        for (String typeName : typeNames) {
+            Map<String, Object> params = new HashMap<>();
+
+            params.put(PARAM_TYPE_NAME, typeName);
+            params.put(PARAM_MODE, mode.name());
+            params.put(PARAM_SAMPLE_STEP, sampleStep);
+            params.put(PARAM_CHECKPOINT, 0L);
+
+            AtlasTask task = taskManagement.createTask(INDEX_VERIFICATION, RequestContext.getCurrentUser(), params);
+
+            RequestContext.get().queueTask(task);
+
+            ret.add(task);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== IndexVerificationService.submit({}, {}, {}): tasks={}", typeNames, mode, sampleRate, ret.size());
+        }
+
+        return ret;
+    }
+
+    @Override
+    public AbstractTask create(AtlasTask task) {
+        return new VerificationTask(task);
+    }
+
+    @Override
+    public List<String> getSupportedTypes() {
+        return supportedTypes;
+    }
+
+    @Override
+    public boolean isLongRunning(String taskType) {
+        return true;
+    }
+
+    private synchronized PatchContext getContext() {
+        if (context == null) {
+            context = new PatchContext(graph, typeRegistry, indexer, entityGraphMapper);
+        }
+
+        return context;
+    }
+
+    private static long getLong(Map<String, Object> params, String name) {
+        Object value = params.get(name);
+
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private class VerificationTask extends AbstractTask {
+        VerificationTask(AtlasTask task) {
+            super(task);
+        }
+
+        @Override
+        public AtlasTask.Status perform() throws Exception {
+            Map<String, Object> params  = getTaskDef().getParameters();
+            Map<String, Long>   initial = new HashMap<>();
+
+            for (String name : new String[] { PARAM_SCANNED, PARAM_VERIFIED, PARAM_DRIFTED, PARAM_REINDEXED, PARAM_FAILED }) {
+                initial.put(name, getLong(params, name));
+            }
+
+            IndexVerificationProcessor processor = new IndexVerificationProcessor(getContext(), (String) params.get(PARAM_TYPE_NAME),
+                                                                                  Mode.valueOf((String) params.get(PARAM_MODE)),
+                                                                                  (int) getLong(params, PARAM_SAMPLE_STEP),
+                                                                                  getLong(params, PARAM_CHECKPOINT),
+                                                                                  AtlasConfiguration.INDEX_VERIFY_CHECKPOINT_INTERVAL.getInt(),
+                                                                                  AtlasConfiguration.INDEX_VERIFY_MAX_VERTICES_PER_SEC.getInt(),
+                                                                                  p -> saveProgress(p, initial));
+
+            processor.apply();
+
+            setStatus(COMPLETE);
+
+            return getStatus();
+        }
+
+        private void saveProgress(IndexVerificationProcessor processor, Map<String, Long> initial) {
+            Map<String, Object> params = getTaskDef().getParameters();
+
+            params.put(PARAM_CHECKPOINT, processor.getCheckpoint());
+            params.put(PARAM_SCANNED, initial.get(PARAM_SCANNED) + processor.getScannedCount());
+            params.put(PARAM_VERIFIED, initial.get(PARAM_VERIFIED) + processor.getVerifiedCount());
+            params.put(PARAM_DRIFTED, initial.get(PARAM_DRIFTED) + processor.getDriftedCount());
+            params.put(PARAM_REINDEXED, initial.get(PARAM_REINDEXED) + processor.getReindexedCount());
+            params.put(PARAM_FAILED, initial.get(PARAM_FAILED) + processor.getFailedCount());
+
+            try {
+                taskManagement.updateParameters(getTaskDef());
+            } catch (Exception e) {
+                LOG.warn("IndexVerificationService: failed to save progress of task {}", getTaskGuid(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.patches;
+
+import org.apache.compactatlas.common.repository.Constants;
+import org.apache.compactatlas.graphdb.api.AtlasGraphManagement;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.type.AtlasRelationshipType;
+import org.apache.compactatlas.repository.repository.graph.GraphBackedSearchIndexer;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.compactatlas.intg.model.patches.AtlasPatch.PatchStatus.APPLIED;
+
+/**
+ * Creates vertex-centric indexes for edge labels of existing relationship types and for classification edge state,
+ * and enables them: indexes of labels that may have edges are populated from the edges already in the graph.
+ */
+public class RelationshipEdgeIndexPatch extends AtlasPatchHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(RelationshipEdgeIndexPatch.class);
+
+    private static final String PATCH_ID          = "JAVA_PATCH_0000_011";
+    private static final String PATCH_DESCRIPTION = "Creates vertex-centric indexes for relationship edge labels and classification edge state.";
+
+    private final PatchContext context;
+
+    public RelationshipEdgeIndexPatch(PatchContext context) {
+        super(context.getPatchRegistry(), PATCH_ID, PATCH_DESCRIPTION);
+
+        this.context = context;
+    }
+
+    @Override
+    public void apply() throws AtlasBaseException {
+        LOG.info("RelationshipEdgeIndexPatch: Starting...");
+
+        Map<String, List<String>> indexesByLabel = createIndexes();
+        int                       failedCount    = context.getIndexer().enableEdgeIndexes(context.getGraph(), indexesByLabel);
+
+        // applied even when some indexes could not be enabled, so that the patch doesn't scan the graph again on every start;
+        // reads on those labels fall back to scanning adjacent edges
+        setStatus(APPLIED);
+
+        if (failedCount > 0) {
+            LOG.error("RelationshipEdgeIndexPatch.apply(): {} vertex-centric indexes could not be enabled; see earlier errors", failedCount);
+        }
+
+        LOG.info("RelationshipEdgeIndexPatch.apply(): patchId={}, status={}, labels={}, failedIndexes={}", getPatchId(), getStatus(), indexesByLabel.size(), failedCount);
+    }
+
+    private Map<String, List<String>> createIndexes() throws AtlasBaseException {
+        Map<String, List<String>> ret        = new LinkedHashMap<>();
+        GraphBackedSearchIndexer  indexer    = context.getIndexer();
+        AtlasGraphManagement      management = context.getGraph().getManagementSystem();
+
+        try {
+            for (AtlasRelationshipType relationshipType : context.getTypeRegistry().getAllRelationshipTypes()) {
+                String relationshipLabel = relationshipType.getRelationshipLabel();
+
+                if (StringUtils.isEmpty(relationshipLabel) || ret.containsKey(relationshipLabel)) {
+                    continue;
+                }
+
+                ret.put(relationshipLabel, indexer.createRelationshipEdgeIndexes(management, relationshipLabel));
+            }
+
+            List<String> classificationIndexes = new ArrayList<>();
+
+            classificationIndexes.add(indexer.createClassificationEdgeStateIndex(management));
+
+            ret.put(Constants.CLASSIFICATION_LABEL, classificationIndexes);
+
+            indexer.commit(management);
+        } catch (Exception e) {
+            LOG.error("RelationshipEdgeIndexPatch: failed to create vertex-centric indexes", e);
+
+            try {
+                indexer.rollback(management);
+            } catch (Exception excp) {
+                LOG.error("RelationshipEdgeIndexPatch: rollback failed", excp);
+            }
+
+            throw new AtlasBaseException(e);
+        }
+
+        return ret;
+    }
+}
@@ -22,6 +22,7 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import org.apache.compactatlas.intg.ApplicationProperties;
+import org.apache.compactatlas.intg.AtlasConfiguration;
 import org.apache.compactatlas.intg.AtlasErrorCode;
 import org.apache.compactatlas.intg.AtlasException;
 import org.apache.compactatlas.serverapi.RequestContext;
@@ -101,6 +102,7 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
     private final Configuration     conf;
     private final AtlasGraph        graph;
     private final AtlasPatchManager patchManager;
+    private       boolean           hasBootstrapErrors = false;
 
     @Inject
     public AtlasTypeDefStoreInitializer(AtlasTypeDefStore typeDefStore, AtlasTypeRegistry typeRegistry,
@@ -135,34 +137,65 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
     private void loadBootstrapTypeDefs() {
         LOG.info("==> AtlasTypeDefStoreInitializer.loadBootstrapTypeDefs()");
 
-        String modelsDirName = conf.getString("init.models.path");
-        if (modelsDirName == null || modelsDirName.length() == 0) {
-            LOG.info("Types directory {} does not exist or not readable or has no typedef files", modelsDirName);
+        List<File> modelsFolders = getModelsFolders();
+
+        if (modelsFolders.isEmpty()) {
+            LOG.info("Types directory {} does not exist or not readable or has no typedef files", conf.getString("init.models.path"));
         } else {
-            // look for folders we need to load models from
-            File               topModeltypesDir  = new File(modelsDirName);
-            File[]             modelsDirContents = topModeltypesDir.exists() ? topModeltypesDir.listFiles() : null;
-            AtlasPatchRegistry patchRegistry     = new AtlasPatchRegistry(graph);
+            AtlasPatchRegistry patchRegistry = new AtlasPatchRegistry(graph);
+
+            for (File folder : modelsFolders) {
+                loadModelsInFolder(folder, patchRegistry);
+            }
+        }
+
+        LOG.info("<== AtlasTypeDefStoreInitializer.loadBootstrapTypeDefs()");
+    }
+
+    /**
+     * Applies the patches of the models folders, in the order loadBootstrapTypeDefs() applies them, without loading the
+     * model files: used when the typedefs are loaded from a snapshot. Patches already applied are skipped; the others
+     * are applied, and register the Java patch handlers they need.
+     */
+    private void applyBootstrapTypePatches() {
+        LOG.info("==> AtlasTypeDefStoreInitializer.applyBootstrapTypePatches()");
+
+        List<File> modelsFolders = getModelsFolders();
+
+        if (!modelsFolders.isEmpty()) {
+            AtlasPatchRegistry patchRegistry = new AtlasPatchRegistry(graph);
+
+            for (File folder : modelsFolders) {
+                applyTypePatches(folder.getPath(), patchRegistry);
+            }
+        }
+
+        LOG.info("<== AtlasTypeDefStoreInitializer.applyBootstrapTypePatches()");
+    }
+
+    // sub-folders of the models directory in alphabetical order, other than patches, followed by the models directory
+    private List<File> getModelsFolders() {
+        String     modelsDirName = conf.getString("init.models.path");
+        List<File> ret           = new ArrayList<>();
+
+        if (StringUtils.isNotEmpty(modelsDirName)) {
+            File   topModelsDir      = new File(modelsDirName);
+            File[] modelsDirContents = topModelsDir.exists() ? topModelsDir.listFiles() : null;
 
             if (modelsDirContents != null && modelsDirContents.length > 0) {
-	            Arrays.sort(modelsDirContents);
-
-	            for (File folder : modelsDirContents) {
-	                    if (folder.isFile()) {
-	                        // ignore files
-	                        continue;
-	                    } else if (!folder.getName().equals(PATCHES_FOLDER_NAME)){
-	                        // load the models alphabetically in the subfolders apart from patches
-	                        loadModelsInFolder(folder, patchRegistry);
-	                    }
-	            }
+                Arrays.sort(modelsDirContents);
+
+                for (File folder : modelsDirContents) {
+                    if (folder.isDirectory() && !folder.getName().equals(PATCHES_FOLDER_NAME)) {
+                        ret.add(folder);
+                    }
+                }
             }
 
-            // load any files in the top models folder and any associated patches.
-            loadModelsInFolder(topModeltypesDir, patchRegistry);
+            ret.add(topModelsDir);
         }
 
-        LOG.info("<== AtlasTypeDefStoreInitializer.loadBootstrapTypeDefs()");
+        return ret;
     }
 
     /**
@@ -206,6 +239,8 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
 
                     } catch (Throwable t) {
                         LOG.error("error while registering types in file {}", typeDefFile.getAbsolutePath(), t);
+
+                        hasBootstrapErrors = true;
                     }
                 }
             }
@@ -378,8 +413,30 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
 
     private void startInternal() {
         try {
-            typeDefStore.init();
-            loadBootstrapTypeDefs();
+            boolean            isSnapshotEnabled = AtlasConfiguration.TYPESYSTEM_SNAPSHOT_ENABLED.getBoolean();
+            File               snapshotFile      = isSnapshotEnabled ? getSnapshotFile() : null;
+            String             modelsChecksum    = isSnapshotEnabled ? getModelsChecksum() : null;
+            TypeSystemSnapshot snapshot          = modelsChecksum != null ? TypeSystemSnapshot.load(snapshotFile) : null;
+
+            if (snapshot != null && snapshot.matches(modelsChecksum, typeDefStore.getTypeDefsSignature())) {
+                LOG.info("Loading type-system from snapshot {}, created at {}", snapshotFile, new Date(snapshot.getCreateTime()));
+
+                // model files and typedefs in the graph are unchanged since the snapshot was taken: skip reading typedefs from the graph and diffing model files
+                typeDefStore.init(snapshot.toTypesDef());
+
+                // patches still run, for the Java patch handlers typedef patches register
+                applyBootstrapTypePatches();
+            } else {
+                hasBootstrapErrors = false;
+
+                typeDefStore.init();
+                loadBootstrapTypeDefs();
+
+                if (modelsChecksum != null && !hasBootstrapErrors) {
+                    saveSnapshot(snapshotFile, modelsChecksum);
+                }
+            }
+
             typeDefStore.notifyLoadCompletion();
             try {
                 AtlasAuthorizerFactory.getAtlasAuthorizer();
@@ -393,6 +450,36 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
         }
     }
 
+    private File getSnapshotFile() {
+        String fileName = AtlasConfiguration.TYPESYSTEM_SNAPSHOT_FILE.getString();
+
+        return StringUtils.isNotEmpty(fileName) ? new File(fileName) : new File(System.getProperty("java.io.tmpdir"), "atlas-typesystem.snapshot");
+    }
+
+    private String getModelsChecksum() {
+        String modelsDirName = conf.getString("init.models.path");
+
+        try {
+            return StringUtils.isNotEmpty(modelsDirName) ? TypeSystemSnapshot.computeChecksum(new File(modelsDirName)) : null;
+        } catch (Exception excp) {
+            LOG.warn("failed to compute checksum of models in {}; type-system snapshot will not be used", modelsDirName, excp);
+
+            return null;
+        }
+    }
+
+    private void saveSnapshot(File snapshotFile, String modelsChecksum) {
+        try {
+            TypeSystemSnapshot snapshot = new TypeSystemSnapshot(modelsChecksum, typeDefStore.getTypeDefsSignature(), TypeSystemSnapshot.getTypesDef(typeRegistry));
+
+            snapshot.save(snapshotFile);
+
+            LOG.info("Saved type-system snapshot to {}", snapshotFile);
+        } catch (Exception excp) {
+            LOG.warn("failed to save type-system snapshot to {}", snapshotFile, excp);
+        }
+    }
+
     @Override
     public void instanceIsPassive() throws AtlasException {
         LOG.info("==> AtlasTypeDefStoreInitializer.instanceIsPassive()");
@@ -501,6 +588,8 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
                                 } catch (AtlasBaseException ex) {
                                     status = FAILED;
 
+                                    hasBootstrapErrors = true;
+
                                     LOG.error("Failed to apply {} (status: {}; action: {}) in file: {}. Ignored.",
                                                patch.getId(), status.toString(), patch.getAction(), patchFile);
                                 }
@@ -513,6 +602,8 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
                         }
                     } catch (Throwable t) {
                         LOG.error("Failed to apply patches in file {}. Ignored", patchFile, t);
+
+                        hasBootstrapErrors = true;
                     }
                 }
             }
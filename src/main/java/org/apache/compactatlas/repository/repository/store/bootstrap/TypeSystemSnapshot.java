@@ -0,0 +1,225 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.bootstrap;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.apache.compactatlas.common.utils.SHA256Utils;
+import org.apache.compactatlas.intg.model.typedef.AtlasTypesDef;
+import org.apache.compactatlas.intg.type.AtlasType;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * Snapshot of the type system, persisted after a successful bootstrap and used by later boots to skip reading typedefs
+ * from the graph and diffing model files. A snapshot is valid only when its checksum matches its content, and it is used
+ * only when the checksum of model files and the signature of typedefs in the graph match those recorded in it.
+ */
+@JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TypeSystemSnapshot {
+    private static final Logger LOG = LoggerFactory.getLogger(TypeSystemSnapshot.class);
+
+    public static final int FORMAT_VERSION = 1;
+
+    private int    formatVersion;
+    private String modelsChecksum;
+    private String typeDefsSignature;
+    private long   createTime;
+    private String typesDefJson;
+    private String checksum;
+
+    public TypeSystemSnapshot() {
+    }
+
+    public TypeSystemSnapshot(String modelsChecksum, String typeDefsSignature, AtlasTypesDef typesDef) {
+        this.formatVersion     = FORMAT_VERSION;
+        this.modelsChecksum    = modelsChecksum;
+        this.typeDefsSignature = typeDefsSignature;
+        this.createTime        = System.currentTimeMillis();
+        this.typesDefJson      = AtlasType.toJson(typesDef);
+        this.checksum          = sha256(typesDefJson);
+    }
+
+    public int getFormatVersion() { return formatVersion; }
+
+    public void setFormatVersion(int formatVersion) { this.formatVersion = formatVersion; }
+
+    public String getModelsChecksum() { return modelsChecksum; }
+
+    public void setModelsChecksum(String modelsChecksum) { this.modelsChecksum = modelsChecksum; }
+
+    public String getTypeDefsSignature() { return typeDefsSignature; }
+
+    public void setTypeDefsSignature(String typeDefsSignature) { this.typeDefsSignature = typeDefsSignature; }
+
+    public long getCreateTime() { return createTime; }
+
+    public void setCreateTime(long createTime) { this.createTime = createTime; }
+
+    public String getTypesDefJson() { return typesDefJson; }
+
+    public void setTypesDefJson(String typesDefJson) { this.typesDefJson = typesDefJson; }
+
+    public String getChecksum() { return checksum; }
+
+    public void setChecksum(String checksum) { this.checksum = checksum; }
+
+    public boolean isValid() {
+        return formatVersion == FORMAT_VERSION && typesDefJson != null && StringUtils.equals(checksum, sha256(typesDefJson));
+    }
+
+    public boolean matches(String modelsChecksum, String typeDefsSignature) {
+        return StringUtils.equals(this.modelsChecksum, modelsChecksum) && StringUtils.equals(this.typeDefsSignature, typeDefsSignature);
+    }
+
+    public AtlasTypesDef toTypesDef() {
+        return AtlasType.fromJson(typesDefJson, AtlasTypesDef.class);
+    }
+
+    public static AtlasTypesDef getTypesDef(AtlasTypeRegistry typeRegistry) {
+        return new AtlasTypesDef(new ArrayList<>(typeRegistry.getAllEnumDefs()),
+                                 new ArrayList<>(typeRegistry.getAllStructDefs()),
+                                 new ArrayList<>(typeRegistry.getAllClassificationDefs()),
+                                 new ArrayList<>(typeRegistry.getAllEntityDefs()),
+                                 new ArrayList<>(typeRegistry.getAllRelationshipDefs()),
+                                 new ArrayList<>(typeRegistry.getAllBusinessMetadataDefs()));
+    }
+
+    /**
+     * @return the snapshot in the given file; null if the file doesn't exist or doesn't have a valid snapshot
+     */
+    public static TypeSystemSnapshot load(File file) {
+        TypeSystemSnapshot ret = null;
+
+        if (file.isFile()) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+                ret = AtlasType.fromJson(IOUtils.toString(in, StandardCharsets.UTF_8), TypeSystemSnapshot.class);
+
+                if (ret != null && !ret.isValid()) {
+                    LOG.warn("ignoring invalid type-system snapshot {}", file);
+
+                    ret = null;
+                }
+            } catch (Exception excp) {
+                LOG.warn("failed to read type-system snapshot {}", file, excp);
+
+                ret = null;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * writes the snapshot to a temporary file and moves it to the given file, so that readers never see a partial snapshot
+     */
+    public void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        Path tmpFile = Files.createTempFile(parent != null ? parent.toPath() : null, file.getName(), ".tmp");
+
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmpFile))) {
+                out.write(AtlasType.toJson(this).getBytes(StandardCharsets.UTF_8));
+            }
+
+            Files.move(tmpFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * @return checksum of names and contents of all files under the given directory; null if the directory doesn't exist
+     */
+    public static String computeChecksum(File dir) throws IOException {
+        if (dir == null || !dir.isDirectory()) {
+            return null;
+        }
+
+        MessageDigest digester = SHA256Utils.getDigester();
+
+        addToDigest(digester, dir, "");
+
+        return SHA256Utils.toString(digester.digest());
+    }
+
+    private static void addToDigest(MessageDigest digester, File dir, String relativePath) throws IOException {
+        File[] files = dir.listFiles();
+
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files);
+
+        for (File file : files) {
+            String filePath = relativePath + "/" + file.getName();
+
+            if (file.isDirectory()) {
+                addToDigest(digester, file, filePath);
+            } else if (file.isFile()) {
+                digester.update(filePath.getBytes(StandardCharsets.UTF_8));
+                digester.update(Files.readAllBytes(file.toPath()));
+            }
+        }
+    }
+
+    public static String computeSignature(List<String> entries) {
+        MessageDigest digester = SHA256Utils.getDigester();
+
+        for (String entry : entries) {
+            digester.update(entry.getBytes(StandardCharsets.UTF_8));
+            digester.update((byte) '\n');
+        }
+
+        return SHA256Utils.toString(digester.digest());
+    }
+
+    private static String sha256(String str) {
+        return str != null ? SHA256Utils.toString(SHA256Utils.getDigester().digest(str.getBytes(StandardCharsets.UTF_8))) : null;
+    }
+}
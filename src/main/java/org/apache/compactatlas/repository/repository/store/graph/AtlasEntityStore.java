@@ -18,6 +18,7 @@
 package org.apache.compactatlas.repository.repository.store.graph;
 
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.PList;
 import org.apache.compactatlas.intg.model.instance.AtlasCheckStateRequest;
 import org.apache.compactatlas.intg.model.instance.AtlasCheckStateResult;
 import org.apache.compactatlas.intg.model.instance.AtlasClassification;
@@ -26,7 +27,9 @@ import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntityWithEx
 import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
 import org.apache.compactatlas.intg.model.instance.AtlasEntityHeaders;
 import org.apache.compactatlas.intg.model.instance.AtlasObjectId;
+import org.apache.compactatlas.intg.model.instance.AtlasRelatedObjectId;
 import org.apache.compactatlas.intg.model.instance.EntityMutationResponse;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityProjection;
 import org.apache.compactatlas.repository.repository.store.graph.v2.EntityStream;
 import org.apache.compactatlas.intg.type.AtlasEntityType;
 import org.apache.compactatlas.intg.bulkimport.BulkImportResponse;
@@ -66,6 +69,26 @@ public interface AtlasEntityStore {
      */
     AtlasEntityWithExtInfo getById(String guid, boolean isMinExtInfo, boolean ignoreRelationships) throws AtlasBaseException;
 
+    /**
+     *
+     * Get entity definition by its guid, reading only the attributes selected by the projection
+     * @param guid
+     * @param projection
+     * @return AtlasEntity
+     */
+    AtlasEntityWithExtInfo getById(String guid, EntityProjection projection) throws AtlasBaseException;
+
+    /**
+     * Get a page of values of a relationship attribute of an entity; used for entities with large number of relationships,
+     * whose relationship attributes are returned truncated by getById()
+     * @param guid
+     * @param relationshipAttributeName
+     * @param offset
+     * @param limit
+     * @return values of the relationship attribute, along with the total count
+     */
+    PList<AtlasRelatedObjectId> getRelationshipAttributeValues(String guid, String relationshipAttributeName, int offset, int limit) throws AtlasBaseException;
+
     /**
      * Get entity header for the given GUID
      * @param guid
@@ -94,6 +117,15 @@ public interface AtlasEntityStore {
      */
     AtlasEntitiesWithExtInfo getByIds(List<String> guid, boolean isMinExtInfo, boolean ignoreRelationships) throws AtlasBaseException;
 
+    /**
+     * Batch GET to retrieve entities by their ID, reading only the attributes selected by the projection
+     * @param guid
+     * @param projection
+     * @return
+     * @throws AtlasBaseException
+     */
+    AtlasEntitiesWithExtInfo getByIds(List<String> guid, EntityProjection projection) throws AtlasBaseException;
+
     /**
      * Batch GET to retrieve entities by their uniqueIds
      * @param entityType
@@ -227,6 +259,13 @@ public interface AtlasEntityStore {
      */
     EntityMutationResponse purgeByIds(Set<String> guids) throws AtlasBaseException;
 
+    /**
+     * Delete, or purge, entity vertices in one transaction, without deleting the entities owned by them; used to
+     * execute deletes planned by DeleteHandlerV1.getOwnedVertexIds(). Vertices that no longer exist are ignored.
+     * @return list of deleted, or purged, entities
+     */
+    EntityMutationResponse deleteByVertexIds(List<String> vertexIds, boolean purge) throws AtlasBaseException;
+
     /**
      * Add classification(s)
      */
@@ -239,6 +278,13 @@ public interface AtlasEntityStore {
 
     void addClassification(List<String> guids, AtlasClassification classification) throws AtlasBaseException;
 
+    /**
+     * Add a classification to entities in one transaction, skipping entities that do not exist or already have it;
+     * the classification is not propagated.
+     * @return guids of entities the classification was added to
+     */
+    List<String> addClassificationWithoutPropagation(List<String> guids, AtlasClassification classification) throws AtlasBaseException;
+
     /**
      * Delete classification
      */
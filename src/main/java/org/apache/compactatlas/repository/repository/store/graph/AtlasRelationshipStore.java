@@ -20,9 +20,12 @@ package org.apache.compactatlas.repository.repository.store.graph;
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
 import org.apache.compactatlas.intg.model.instance.AtlasRelationship;
 import org.apache.compactatlas.intg.model.instance.AtlasRelationship.AtlasRelationshipWithExtInfo;
+import org.apache.compactatlas.intg.model.instance.AtlasRelationshipMutationResult;
 import org.apache.compactatlas.graphdb.api.AtlasEdge;
 import org.apache.compactatlas.graphdb.api.AtlasVertex;
 
+import java.util.List;
+
 
 /**
  * Persistence/Retrieval API for AtlasRelationship
@@ -42,6 +45,15 @@ public interface AtlasRelationshipStore {
      */
     AtlasRelationship update(AtlasRelationship relationship) throws AtlasBaseException;
 
+    /**
+     * Create or update relationship instances, in a single transaction: a relationship whose guid matches an existing
+     * relationship is updated, others are created. A relationship that fails validation or authorization is not
+     * written, and gets a result with the error instead of failing the others.
+     * @param relationships relationship instance definitions
+     * @return one result per relationship, in the given order
+     */
+    List<AtlasRelationshipMutationResult> createOrUpdate(List<AtlasRelationship> relationships) throws AtlasBaseException;
+
     /**
      * Retrieve a relationship instance using guid.
      * @param guid relationship instance guid
@@ -82,4 +94,13 @@ public interface AtlasRelationshipStore {
      * @param forceDelete force delete the relationship edge
      */
     void deleteById(String guid, boolean forceDelete) throws AtlasBaseException;
+
+    /**
+     * Delete relationship instances using guids, in a single transaction. A relationship that is not found, already
+     * deleted or not authorized is not deleted, and gets a result with the error instead of failing the others.
+     * @param guids relationship instance guids
+     * @param forceDelete force delete the relationship edges
+     * @return one result per guid, in the given order
+     */
+    List<AtlasRelationshipMutationResult> deleteByIds(List<String> guids, boolean forceDelete) throws AtlasBaseException;
 }
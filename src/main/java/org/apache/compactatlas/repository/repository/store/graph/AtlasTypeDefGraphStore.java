@@ -117,6 +117,28 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
         }
     }
 
+    @Override
+    public void init(AtlasTypesDef typesDef) throws AtlasBaseException {
+        LOG.info("==> AtlasTypeDefGraphStore.init(typesDef)");
+
+        AtlasTransientTypeRegistry ttr = null;
+        boolean commitUpdates = false;
+
+        try {
+            ttr = typeRegistry.lockTypeRegistryForUpdate(typeUpdateLockMaxWaitTimeSeconds);
+
+            ttr.clear();
+
+            ttr.addTypes(typesDef);
+
+            commitUpdates = true;
+        } finally {
+            typeRegistry.releaseTypeRegistryForUpdate(ttr, commitUpdates);
+
+            LOG.info("<== AtlasTypeDefGraphStore.init(typesDef)");
+        }
+    }
+
     @Override
     public AtlasEnumDef getEnumDefByName(String name) throws AtlasBaseException {
         AtlasEnumDef ret = typeRegistry.getEnumDefByName(name);
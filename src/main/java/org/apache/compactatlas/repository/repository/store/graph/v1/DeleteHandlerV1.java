@@ -70,7 +70,8 @@ import static org.apache.compactatlas.intg.type.Constants.PENDING_TASKS_PROPERTY
 public abstract class DeleteHandlerV1 {
     public static final Logger LOG = LoggerFactory.getLogger(DeleteHandlerV1.class);
 
-    private static final boolean DEFERRED_ACTION_ENABLED = AtlasConfiguration.TASKS_USE_ENABLED.getBoolean();
+    private static final boolean DEFERRED_ACTION_ENABLED     = AtlasConfiguration.TASKS_USE_ENABLED.getBoolean();
+    private static final int     PROPAGATED_EDGES_CHUNK_SIZE = 1000;
 
     protected final GraphHelper          graphHelper;
     private   final AtlasTypeRegistry typeRegistry;
@@ -218,89 +219,180 @@ public abstract class DeleteHandlerV1 {
 
             vertexInfoMap.put(guid, new GraphHelper.VertexInfo(entity, vertex));
 
-            for (AtlasStructType.AtlasAttribute attributeInfo : entityType.getOwnedRefAttributes()) {
-                String       edgeLabel    = attributeInfo.getRelationshipEdgeLabel();
-                AtlasType attrType     = attributeInfo.getAttributeType();
-                TypeCategory typeCategory = attrType.getTypeCategory();
+            pushOwnedVertices(vertex, entityType, vertices, isPurgeRequested);
+        }
 
-                if (typeCategory == OBJECT_ID_TYPE) {
-                    if (attributeInfo.getAttributeDef().isSoftReferenced()) {
-                        String        softRefVal = vertex.getProperty(attributeInfo.getVertexPropertyName(), String.class);
-                        AtlasObjectId refObjId   = AtlasEntityUtil.parseSoftRefValue(softRefVal);
-                        AtlasVertex   refVertex  = refObjId != null ? AtlasGraphUtilsV2.findByGuid(this.graphHelper.getGraph(), refObjId.getGuid()) : null;
+        return vertexInfoMap.values();
+    }
 
-                        if (refVertex != null) {
-                            vertices.push(refVertex);
-                        }
-                    } else {
-                        AtlasEdge edge = graphHelper.getEdgeForLabel(vertex, edgeLabel);
+    /**
+     * Get the ids of the vertices of the specified entities and of all composite entities owned by them, without
+     * reading the entities, so that the deletion of large containment graphs can be planned before it is executed.
+     * Ids are grouped by their distance from the nearest root: deleting the groups from the last to the first removes
+     * owned entities before their owners, so that no delete cascades into entities of another group.
+     *
+     * @param instanceVertices the root entity vertices
+     * @return ids of the vertices to delete, by distance from the roots
+     * @throws AtlasBaseException
+     */
+    public List<List<Object>> getOwnedVertexIds(Collection<AtlasVertex> instanceVertices) throws AtlasBaseException {
+        final List<List<Object>> ret              = new ArrayList<>();
+        final Set<Object>        visited          = new HashSet<>();
+        final boolean            isPurgeRequested = RequestContext.get().isPurgeRequested();
+        List<AtlasVertex>        vertices         = new ArrayList<>();
 
-                        if (edge == null || (AtlasGraphUtilsV2.getState(edge) == (isPurgeRequested ? ACTIVE : DELETED))) {
-                            continue;
-                        }
+        for (AtlasVertex instanceVertex : instanceVertices) {
+            if (!skipVertexForDelete(instanceVertex)) {
+                vertices.add(instanceVertex);
+            }
+        }
 
-                        vertices.push(edge.getInVertex());
-                    }
-                } else if (typeCategory == ARRAY || typeCategory == MAP) {
-                    TypeCategory elementType = null;
+        while (!vertices.isEmpty()) {
+            List<Object>      level         = new ArrayList<>();
+            List<AtlasVertex> ownedVertices = new ArrayList<>();
 
-                    if (typeCategory == ARRAY) {
-                        elementType = ((AtlasArrayType) attrType).getElementType().getTypeCategory();
-                    } else if (typeCategory == MAP) {
-                        elementType = ((AtlasMapType) attrType).getValueType().getTypeCategory();
+            for (AtlasVertex vertex : vertices) {
+                if (AtlasGraphUtilsV2.getState(vertex) == (isPurgeRequested ? ACTIVE : DELETED) || !visited.add(vertex.getId())) {
+                    continue;
+                }
+
+                String          typeName   = GraphHelper.getTypeName(vertex);
+                AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
+
+                if (entityType == null) {
+                    throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_INVALID, TypeCategory.ENTITY.name(), typeName);
+                }
+
+                level.add(vertex.getId());
+
+                pushOwnedVertices(vertex, entityType, ownedVertices, isPurgeRequested);
+            }
+
+            if (!level.isEmpty()) {
+                ret.add(level);
+            }
+
+            vertices = ownedVertices;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Deletes the specified entity vertices, with their traits, without deleting the composite entities owned by them.
+     * Used to delete vertices planned with getOwnedVertexIds(), possibly in several transactions; all planned vertices
+     * should then be set in RequestContext.setVerticesToDelete(), so that their owners aren't recorded as updated.
+     *
+     * @param instanceVertices the entity vertices
+     * @throws AtlasBaseException
+     */
+    public void deleteEntityVertices(Collection<AtlasVertex> instanceVertices) throws AtlasBaseException {
+        final RequestContext    requestContext            = RequestContext.get();
+        final List<AtlasVertex> deletionCandidateVertices = new ArrayList<>(instanceVertices.size());
+
+        for (AtlasVertex instanceVertex : instanceVertices) {
+            if (skipVertexForDelete(instanceVertex)) {
+                continue;
+            }
+
+            AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeader(instanceVertex);
+
+            if (requestContext.isPurgeRequested()) {
+                entityHeader.setClassifications(entityRetriever.getAllClassifications(instanceVertex));
+            }
+
+            requestContext.recordEntityDelete(entityHeader);
+            deletionCandidateVertices.add(instanceVertex);
+        }
+
+        for (AtlasVertex deletionCandidateVertex : deletionCandidateVertices) {
+            deleteAllClassifications(deletionCandidateVertex);
+            deleteTypeVertex(deletionCandidateVertex, isInternalType(deletionCandidateVertex));
+        }
+    }
+
+    private void pushOwnedVertices(AtlasVertex vertex, AtlasEntityType entityType, List<AtlasVertex> vertices, boolean isPurgeRequested) throws AtlasBaseException {
+        for (AtlasStructType.AtlasAttribute attributeInfo : entityType.getOwnedRefAttributes()) {
+            String       edgeLabel    = attributeInfo.getRelationshipEdgeLabel();
+            AtlasType attrType     = attributeInfo.getAttributeType();
+            TypeCategory typeCategory = attrType.getTypeCategory();
+
+            if (typeCategory == OBJECT_ID_TYPE) {
+                if (attributeInfo.getAttributeDef().isSoftReferenced()) {
+                    String        softRefVal = vertex.getProperty(attributeInfo.getVertexPropertyName(), String.class);
+                    AtlasObjectId refObjId   = AtlasEntityUtil.parseSoftRefValue(softRefVal);
+                    AtlasVertex   refVertex  = refObjId != null ? AtlasGraphUtilsV2.findByGuid(this.graphHelper.getGraph(), refObjId.getGuid()) : null;
+
+                    if (refVertex != null) {
+                        vertices.add(refVertex);
                     }
+                } else {
+                    AtlasEdge edge = graphHelper.getEdgeForLabel(vertex, edgeLabel);
 
-                    if (elementType != OBJECT_ID_TYPE) {
+                    if (edge == null || (AtlasGraphUtilsV2.getState(edge) == (isPurgeRequested ? ACTIVE : DELETED))) {
                         continue;
                     }
 
-                    if (attributeInfo.getAttributeDef().isSoftReferenced()) {
-                        if (typeCategory == ARRAY) {
-                            List                softRefVal = vertex.getListProperty(attributeInfo.getVertexPropertyName(), List.class);
-                            List<AtlasObjectId> refObjIds  = AtlasEntityUtil.parseSoftRefValue(softRefVal);
+                    vertices.add(edge.getInVertex());
+                }
+            } else if (typeCategory == ARRAY || typeCategory == MAP) {
+                TypeCategory elementType = null;
+
+                if (typeCategory == ARRAY) {
+                    elementType = ((AtlasArrayType) attrType).getElementType().getTypeCategory();
+                } else if (typeCategory == MAP) {
+                    elementType = ((AtlasMapType) attrType).getValueType().getTypeCategory();
+                }
+
+                if (elementType != OBJECT_ID_TYPE) {
+                    continue;
+                }
+
+                if (attributeInfo.getAttributeDef().isSoftReferenced()) {
+                    if (typeCategory == ARRAY) {
+                        List                softRefVal = vertex.getListProperty(attributeInfo.getVertexPropertyName(), List.class);
+                        List<AtlasObjectId> refObjIds  = AtlasEntityUtil.parseSoftRefValue(softRefVal);
 
-                            if (CollectionUtils.isNotEmpty(refObjIds)) {
-                                for (AtlasObjectId refObjId : refObjIds) {
-                                    AtlasVertex refVertex = AtlasGraphUtilsV2.findByGuid(this.graphHelper.getGraph(), refObjId.getGuid());
+                        if (CollectionUtils.isNotEmpty(refObjIds)) {
+                            for (AtlasObjectId refObjId : refObjIds) {
+                                AtlasVertex refVertex = AtlasGraphUtilsV2.findByGuid(this.graphHelper.getGraph(), refObjId.getGuid());
 
-                                    if (refVertex != null) {
-                                        vertices.push(refVertex);
-                                    }
+                                if (refVertex != null) {
+                                    vertices.add(refVertex);
                                 }
                             }
-                        } else if (typeCategory == MAP) {
-                            Map                        softRefVal = vertex.getProperty(attributeInfo.getVertexPropertyName(), Map.class);
-                            Map<String, AtlasObjectId> refObjIds  = AtlasEntityUtil.parseSoftRefValue(softRefVal);
+                        }
+                    } else if (typeCategory == MAP) {
+                        Map                        softRefVal = vertex.getProperty(attributeInfo.getVertexPropertyName(), Map.class);
+                        Map<String, AtlasObjectId> refObjIds  = AtlasEntityUtil.parseSoftRefValue(softRefVal);
 
-                            if (MapUtils.isNotEmpty(refObjIds)) {
-                                for (AtlasObjectId refObjId : refObjIds.values()) {
-                                    AtlasVertex refVertex = AtlasGraphUtilsV2.findByGuid(this.graphHelper.getGraph(), refObjId.getGuid());
+                        if (MapUtils.isNotEmpty(refObjIds)) {
+                            for (AtlasObjectId refObjId : refObjIds.values()) {
+                                AtlasVertex refVertex = AtlasGraphUtilsV2.findByGuid(this.graphHelper.getGraph(), refObjId.getGuid());
 
-                                    if (refVertex != null) {
-                                        vertices.push(refVertex);
-                                    }
+                                if (refVertex != null) {
+                                    vertices.add(refVertex);
                                 }
                             }
                         }
+                    }
 
-                    } else {
-                        List<AtlasEdge> edges = getCollectionElementsUsingRelationship(vertex, attributeInfo);
+                } else {
+                    // stream the edges instead of collecting them in a list, as owners can have a very large number of owned entities
+                    Iterator<AtlasEdge> edges = getEdgesForLabel(vertex, attributeInfo.getRelationshipEdgeLabel(), attributeInfo.getRelationshipEdgeDirection());
 
-                        if (CollectionUtils.isNotEmpty(edges)) {
-                            for (AtlasEdge edge : edges) {
-                                if (edge == null || (AtlasGraphUtilsV2.getState(edge) == (isPurgeRequested ? ACTIVE : DELETED))) {
-                                    continue;
-                                }
+                    while (edges != null && edges.hasNext()) {
+                        AtlasEdge edge = edges.next();
 
-                                vertices.push(edge.getInVertex());
-                            }
+                        if (edge == null || (AtlasGraphUtilsV2.getState(edge) == (isPurgeRequested ? ACTIVE : DELETED))) {
+                            continue;
                         }
+
+                        vertices.add(edge.getInVertex());
                     }
                 }
             }
         }
-
-        return vertexInfoMap.values();
     }
 
     /**
@@ -355,7 +447,7 @@ public abstract class DeleteHandlerV1 {
 
                 AtlasVertex referencedVertex = entityRetriever.getReferencedEntityVertex(edge, relationshipDirection, entityVertex);
 
-                if (referencedVertex != null) {
+                if (referencedVertex != null && !isVertexToDelete(referencedVertex)) {
                     RequestContext requestContext = RequestContext.get();
 
                     if (!requestContext.isUpdatedEntity(GraphHelper.getGuid(referencedVertex))) {
@@ -539,10 +631,16 @@ public abstract class DeleteHandlerV1 {
         List<AtlasVertex> ret = new ArrayList<>();
 
         if (classificationVertex != null) {
-            List<AtlasEdge> propagatedEdges = getPropagatedEdges(classificationVertex);
-
-            if (CollectionUtils.isNotEmpty(propagatedEdges)) {
-                AtlasClassification classification = entityRetriever.toAtlasClassification(classificationVertex);
+            AtlasClassification classification = null;
+
+            // propagated edges are removed as they are processed, so each query returns the next chunk of edges;
+            // this avoids loading all propagated edges of a classification on a supernode at once
+            for (List<AtlasEdge> propagatedEdges = getPropagatedEdges(classificationVertex, PROPAGATED_EDGES_CHUNK_SIZE);
+                 CollectionUtils.isNotEmpty(propagatedEdges);
+                 propagatedEdges = getPropagatedEdges(classificationVertex, PROPAGATED_EDGES_CHUNK_SIZE)) {
+                if (classification == null) {
+                    classification = entityRetriever.toAtlasClassification(classificationVertex);
+                }
 
                 for (AtlasEdge propagatedEdge : propagatedEdges) {
                     AtlasVertex entityVertex = propagatedEdge.getOutVertex();
@@ -554,6 +652,10 @@ public abstract class DeleteHandlerV1 {
 
                     deletePropagatedEdge(propagatedEdge);
                 }
+
+                if (propagatedEdges.size() < PROPAGATED_EDGES_CHUNK_SIZE) {
+                    break;
+                }
             }
         }
 
@@ -884,7 +986,7 @@ public abstract class DeleteHandlerV1 {
             final RequestContext requestContext = RequestContext.get();
             final String         outId          = GraphHelper.getGuid(outVertex);
 
-            if (! requestContext.isUpdatedEntity(outId)) {
+            if (! requestContext.isUpdatedEntity(outId) && !isVertexToDelete(outVertex)) {
                 AtlasGraphUtilsV2.setEncodedProperty(outVertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY, requestContext.getRequestTime());
                 AtlasGraphUtilsV2.setEncodedProperty(outVertex, MODIFIED_BY_KEY, requestContext.getUser());
 
@@ -931,13 +1033,18 @@ public abstract class DeleteHandlerV1 {
         AtlasEntity.Status outState = GraphHelper.getStatus(entityVertex);
 
         //If the reference vertex is marked for deletion, skip updating the reference
-        if (outState == AtlasEntity.Status.DELETED || (outGuid != null && RequestContext.get().isDeletedEntity(outGuid))) {
+        if (outState == AtlasEntity.Status.DELETED || (outGuid != null && RequestContext.get().isDeletedEntity(outGuid)) || isVertexToDelete(entityVertex)) {
             ret = true;
         }
 
         return ret;
     }
 
+    // vertex to be deleted by another transaction of the same delete - see RequestContext.setVerticesToDelete()
+    private boolean isVertexToDelete(AtlasVertex vertex) {
+        return RequestContext.get().isVertexToDelete(vertex.getIdForDisplay());
+    }
+
     public void deleteClassificationVertex(AtlasVertex classificationVertex, boolean force) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Deleting classification vertex", string(classificationVertex));
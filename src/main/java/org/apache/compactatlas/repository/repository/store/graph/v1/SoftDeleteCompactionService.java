@@ -0,0 +1,483 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.graph.v1;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.compactatlas.common.ha.HAConfiguration;
+import org.apache.compactatlas.common.repository.Constants;
+import org.apache.compactatlas.common.service.Service;
+import org.apache.compactatlas.graphdb.api.AtlasEdge;
+import org.apache.compactatlas.graphdb.api.AtlasEdgeDirection;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasGraphQuery.ComparisionOperator;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.AtlasException;
+import org.apache.compactatlas.intg.DeleteType;
+import org.apache.compactatlas.intg.model.audit.AtlasAuditEntry.AuditOperation;
+import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
+import org.apache.compactatlas.intg.model.instance.EntityMutationResponse;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.repository.repository.audit.AtlasAuditService;
+import org.apache.compactatlas.repository.repository.graph.GraphHelper;
+import org.apache.compactatlas.repository.repository.store.graph.AtlasEntityStore;
+import org.apache.compactatlas.repository.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.apache.compactatlas.serverapi.listener.ActiveStateChangeHandler;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.compactatlas.intg.model.instance.AtlasEntity.Status.ACTIVE;
+import static org.apache.compactatlas.intg.model.instance.AtlasEntity.Status.DELETED;
+
+/**
+ * Purges entities that were soft-deleted longer than the retention period ago, with their deleted edges and their
+ * classification vertices, so that they no longer take space in the graph store and the indexes. Relationships
+ * soft-deleted longer than the retention period ago between entities that are both ACTIVE, which no entity purge
+ * removes, are then purged on their own.
+ *
+ * Runs on the active server, daily at the configured start time or at the configured interval from it. Entities are
+ * purged in batches, each in its own transaction through the hard delete handler, at most the configured number of
+ * entities per second and per run. As for purge requests, each purged entity gets an ENTITY_PURGE audit event, and each
+ * batch a PURGE audit entry listing the purged guids, which remain as tombstones for audit and export. Relationships
+ * are purged in batches of the same size and at the same rate, without audit. Counts of purged entities, relationships,
+ * edges, properties and classification vertices are published through the metrics API.
+ */
+@Component
+@Order(9)
+public class SoftDeleteCompactionService implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(SoftDeleteCompactionService.class);
+
+    private static final String WORKER_NAME_FORMAT = "atlas-soft-delete-compaction-%d";
+    private static final String COMPACTION_USER    = "atlas-compaction";
+
+    public static final String STAT_IS_RUNNING              = "isRunning";
+    public static final String STAT_NEXT_RUN_TIME           = "nextRunTime";
+    public static final String STAT_LAST_RUN_START_TIME     = "lastRunStartTime";
+    public static final String STAT_LAST_RUN_DURATION_MS    = "lastRunDurationMs";
+    public static final String STAT_LAST_RUN_PURGED_COUNT   = "lastRunPurgedCount";
+    public static final String STAT_PURGED_COUNT            = "purgedCount";
+    public static final String STAT_PURGED_RELATIONSHIPS    = "purgedRelationships";
+    public static final String STAT_REMOVED_EDGES           = "removedEdges";
+    public static final String STAT_REMOVED_PROPERTIES      = "removedProperties";
+    public static final String STAT_REMOVED_CLASSIFICATIONS = "removedClassifications";
+    public static final String STAT_FAILED_COUNT            = "failedCount";
+
+    private final AtlasGraph                graph;
+    private final AtlasTypeRegistry         typeRegistry;
+    private final AtlasEntityStore          entityStore;
+    private final AtlasAuditService         auditService;
+    private final DeleteHandlerDelegate     deleteDelegate;
+    private final Configuration             configuration;
+    private final boolean                   isEnabled;
+    private final long                      retentionMs;
+    private final LocalTime                 startTime;
+    private final long                      intervalMins;
+    private final int                       batchSize;
+    private final int                       maxEntitiesPerSec;
+    private final int                       maxEntitiesPerRun;
+    private final AtomicBoolean             isRunning              = new AtomicBoolean(false);
+    private final AtomicLong                purgedCount            = new AtomicLong();
+    private final AtomicLong                purgedRelationships    = new AtomicLong();
+    private final AtomicLong                removedEdges           = new AtomicLong();
+    private final AtomicLong                removedProperties      = new AtomicLong();
+    private final AtomicLong                removedClassifications = new AtomicLong();
+    private final AtomicLong                failedCount            = new AtomicLong();
+    private       ScheduledExecutorService  executorService;
+    private       ScheduledFuture<?>        scheduledRun;
+    private       long                      lastRunStartTime       = 0;
+    private       long                      lastRunDurationMs      = 0;
+    private       long                      lastRunPurgedCount     = 0;
+
+    @Inject
+    public SoftDeleteCompactionService(Configuration configuration, AtlasGraph graph, AtlasTypeRegistry typeRegistry, AtlasEntityStore entityStore,
+                                       AtlasAuditService auditService, DeleteHandlerDelegate deleteDelegate) {
+        this.configuration     = configuration;
+        this.graph             = graph;
+        this.typeRegistry      = typeRegistry;
+        this.entityStore       = entityStore;
+        this.auditService      = auditService;
+        this.deleteDelegate    = deleteDelegate;
+        this.isEnabled         = AtlasConfiguration.COMPACTION_ENABLED.getBoolean();
+        this.retentionMs       = TimeUnit.DAYS.toMillis(AtlasConfiguration.COMPACTION_RETENTION_DAYS.getLong());
+        this.startTime         = LocalTime.parse(AtlasConfiguration.COMPACTION_START_TIME.getString());
+        this.intervalMins      = Math.max(1, AtlasConfiguration.COMPACTION_INTERVAL_MINUTES.getLong());
+        this.batchSize         = Math.max(1, AtlasConfiguration.COMPACTION_BATCH_SIZE.getInt());
+        this.maxEntitiesPerSec = AtlasConfiguration.COMPACTION_MAX_ENTITIES_PER_SEC.getInt();
+        this.maxEntitiesPerRun = AtlasConfiguration.COMPACTION_MAX_ENTITIES_PER_RUN.getInt();
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (configuration == null || !HAConfiguration.isHAEnabled(configuration)) {
+            LOG.info("==> SoftDeleteCompactionService.start()");
+
+            startSchedule();
+
+            LOG.info("<== SoftDeleteCompactionService.start()");
+        }
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        stopSchedule();
+    }
+
+    @Override
+    public void instanceIsActive() throws AtlasException {
+        LOG.info("==> SoftDeleteCompactionService.instanceIsActive()");
+
+        startSchedule();
+
+        LOG.info("<== SoftDeleteCompactionService.instanceIsActive()");
+    }
+
+    @Override
+    public void instanceIsPassive() throws AtlasException {
+        LOG.info("==> SoftDeleteCompactionService.instanceIsPassive()");
+
+        stopSchedule();
+
+        LOG.info("<== SoftDeleteCompactionService.instanceIsPassive()");
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return ActiveStateChangeHandler.HandlerOrder.SOFT_DELETE_COMPACTION.getOrder();
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> ret = new LinkedHashMap<>();
+
+        ret.put(STAT_IS_RUNNING, isRunning.get());
+        ret.put(STAT_NEXT_RUN_TIME, scheduledRun != null ? System.currentTimeMillis() + scheduledRun.getDelay(TimeUnit.MILLISECONDS) : 0);
+        ret.put(STAT_LAST_RUN_START_TIME, lastRunStartTime);
+        ret.put(STAT_LAST_RUN_DURATION_MS, lastRunDurationMs);
+        ret.put(STAT_LAST_RUN_PURGED_COUNT, lastRunPurgedCount);
+        ret.put(STAT_PURGED_COUNT, purgedCount.get());
+        ret.put(STAT_PURGED_RELATIONSHIPS, purgedRelationships.get());
+        ret.put(STAT_REMOVED_EDGES, removedEdges.get());
+        ret.put(STAT_REMOVED_PROPERTIES, removedProperties.get());
+        ret.put(STAT_REMOVED_CLASSIFICATIONS, removedClassifications.get());
+        ret.put(STAT_FAILED_COUNT, failedCount.get());
+
+        return ret;
+    }
+
+    /**
+     * Purges entities, then relationships between ACTIVE entities, soft-deleted before the retention period, unless a
+     * run is already in progress.
+     *
+     * @return number of entities purged
+     */
+    public long compact() {
+        if (!isRunning.compareAndSet(false, true)) {
+            LOG.info("SoftDeleteCompactionService: compaction already in progress");
+
+            return 0;
+        }
+
+        long startMs                = System.currentTimeMillis();
+        long cutoffMs               = startMs - retentionMs;
+        long runPurged              = 0;
+        long runPurgedRelationships = 0;
+
+        LOG.info("==> SoftDeleteCompactionService.compact(deletedBefore={})", cutoffMs);
+
+        try {
+            RateLimiter rateLimiter = maxEntitiesPerSec > 0 ? RateLimiter.create(maxEntitiesPerSec) : null;
+            Set<String> skipped     = new HashSet<>();
+
+            while (maxEntitiesPerRun <= 0 || runPurged < maxEntitiesPerRun) {
+                Map<String, long[]> candidates = findCandidates(cutoffMs, skipped);
+
+                if (candidates.isEmpty()) {
+                    break;
+                }
+
+                if (rateLimiter != null) {
+                    rateLimiter.acquire(candidates.size());
+                }
+
+                runPurged += purge(candidates, skipped);
+            }
+
+            runPurgedRelationships = compactRelationships(cutoffMs, rateLimiter);
+        } catch (Exception e) {
+            LOG.error("SoftDeleteCompactionService: compaction failed", e);
+        } finally {
+            synchronized (this) {
+                lastRunStartTime   = startMs;
+                lastRunDurationMs  = System.currentTimeMillis() - startMs;
+                lastRunPurgedCount = runPurged;
+            }
+
+            isRunning.set(false);
+        }
+
+        LOG.info("<== SoftDeleteCompactionService.compact(deletedBefore={}): purged={}, purgedRelationships={}, durationMs={}", cutoffMs, runPurged, runPurgedRelationships, lastRunDurationMs);
+
+        return runPurged;
+    }
+
+    // vertex id -> { edges, properties, classifications } of the next batch of entities to purge
+    private Map<String, long[]> findCandidates(long cutoffMs, Set<String> skipped) {
+        Map<String, long[]> ret = new LinkedHashMap<>();
+
+        try {
+            Iterable<AtlasVertex> vertices = graph.query().has(Constants.STATE_PROPERTY_KEY, DELETED.name())
+                                                          .has(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, ComparisionOperator.LESS_THAN, cutoffMs)
+                                                          .vertices(skipped.size() + batchSize);
+
+            for (AtlasVertex vertex : vertices) {
+                if (ret.size() >= batchSize) {
+                    break;
+                }
+
+                String vertexId = vertex.getId().toString();
+
+                if (skipped.contains(vertexId)) {
+                    continue;
+                }
+
+                if (GraphHelper.getGuid(vertex) == null || typeRegistry.getEntityTypeByName(GraphHelper.getTypeName(vertex)) == null) {
+                    skipped.add(vertexId);
+
+                    continue;
+                }
+
+                long edgeCount = 0;
+
+                for (AtlasEdge ignored : (Iterable<AtlasEdge>) vertex.getEdges(AtlasEdgeDirection.BOTH)) {
+                    edgeCount++;
+                }
+
+                ret.put(vertexId, new long[] { edgeCount, vertex.getPropertyKeys().size(), GraphHelper.getClassificationEdges(vertex, false).size() });
+            }
+        } finally {
+            graph.commit();
+        }
+
+        return ret;
+    }
+
+    private long purge(Map<String, long[]> candidates, Set<String> skipped) {
+        Map<String, long[]> statsByGuid = new HashMap<>();
+        long                ret         = 0;
+
+        try {
+            RequestContext.clear();
+            RequestContext.get().setUser(COMPACTION_USER, null);
+
+            for (Map.Entry<String, long[]> entry : candidates.entrySet()) {
+                AtlasVertex vertex = graph.getVertex(entry.getKey());
+
+                if (vertex != null) {
+                    statsByGuid.put(GraphHelper.getGuid(vertex), entry.getValue());
+                }
+            }
+
+            EntityMutationResponse  resp   = entityStore.deleteByVertexIds(new ArrayList<>(candidates.keySet()), true);
+            List<AtlasEntityHeader> purged = resp.getPurgedEntities();
+
+            if (CollectionUtils.isNotEmpty(purged)) {
+                for (AtlasEntityHeader entity : purged) {
+                    long[] stats = statsByGuid.get(entity.getGuid());
+
+                    if (stats != null) {
+                        removedEdges.addAndGet(stats[0]);
+                        removedProperties.addAndGet(stats[1]);
+                        removedClassifications.addAndGet(stats[2]);
+                    }
+                }
+
+                ret = purged.size();
+
+                purgedCount.addAndGet(ret);
+
+                try {
+                    auditService.add(AuditOperation.PURGE, "compaction: retention=" + retentionMs + "ms", resp.getPurgedEntitiesIds(), ret);
+                } catch (Exception e) {
+                    LOG.warn("SoftDeleteCompactionService: failed to audit purge of {} entities", ret, e);
+                }
+            }
+
+            // entities not purged, e.g. restored since they were read, are not read again in this run
+            if (ret < candidates.size()) {
+                skipped.addAll(candidates.keySet());
+            }
+        } catch (Exception e) {
+            LOG.warn("SoftDeleteCompactionService: failed to purge {} entities; they will be retried in the next run", candidates.size(), e);
+
+            failedCount.addAndGet(candidates.size());
+
+            skipped.addAll(candidates.keySet());
+        } finally {
+            RequestContext.clear();
+        }
+
+        return ret;
+    }
+
+    private long compactRelationships(long cutoffMs, RateLimiter rateLimiter) {
+        Set<String> skipped = new HashSet<>();
+        long        ret     = 0;
+
+        while (maxEntitiesPerRun <= 0 || ret < maxEntitiesPerRun) {
+            int  skippedCount = skipped.size();
+            long purged       = purgeRelationships(cutoffMs, skipped, rateLimiter);
+
+            // no relationship left that was not purged or skipped
+            if (purged == 0 && skipped.size() == skippedCount) {
+                break;
+            }
+
+            ret += purged;
+        }
+
+        return ret;
+    }
+
+    // finds and purges, in one transaction, the next batch of relationships soft-deleted before the cutoff between ACTIVE entities
+    private long purgeRelationships(long cutoffMs, Set<String> skipped, RateLimiter rateLimiter) {
+        List<AtlasEdge> edges = new ArrayList<>();
+
+        try {
+            RequestContext.clear();
+            RequestContext.get().setUser(COMPACTION_USER, null);
+            RequestContext.get().setDeleteType(DeleteType.HARD);
+            RequestContext.get().setPurgeRequested(true);
+
+            Iterable<AtlasEdge> candidates = graph.query().has(Constants.STATE_PROPERTY_KEY, DELETED.name())
+                                                          .has(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, ComparisionOperator.LESS_THAN, cutoffMs)
+                                                          .edges(skipped.size() + batchSize);
+
+            for (AtlasEdge edge : candidates) {
+                if (edges.size() >= batchSize) {
+                    break;
+                }
+
+                String edgeId = edge.getId().toString();
+
+                if (skipped.contains(edgeId)) {
+                    continue;
+                }
+
+                // edges of deleted entities are purged with the entities
+                if (GraphHelper.getRelationshipGuid(edge) == null || typeRegistry.getRelationshipTypeByName(GraphHelper.getTypeName(edge)) == null ||
+                    AtlasGraphUtilsV2.getState(edge.getOutVertex()) != ACTIVE || AtlasGraphUtilsV2.getState(edge.getInVertex()) != ACTIVE) {
+                    skipped.add(edgeId);
+
+                    continue;
+                }
+
+                edges.add(edge);
+            }
+
+            if (!edges.isEmpty()) {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire(edges.size());
+                }
+
+                deleteDelegate.getHandler(DeleteType.HARD).deleteRelationships(edges, true);
+            }
+
+            graph.commit();
+
+            purgedRelationships.addAndGet(edges.size());
+
+            return edges.size();
+        } catch (Exception e) {
+            LOG.warn("SoftDeleteCompactionService: failed to purge {} relationships; they will be retried in the next run", edges.size(), e);
+
+            graph.rollback();
+
+            failedCount.addAndGet(edges.size());
+
+            for (AtlasEdge edge : edges) {
+                skipped.add(edge.getId().toString());
+            }
+
+            return 0;
+        } finally {
+            RequestContext.clear();
+        }
+    }
+
+    private synchronized void startSchedule() {
+        if (!isEnabled) {
+            LOG.info("SoftDeleteCompactionService: disabled");
+
+            return;
+        }
+
+        if (executorService != null) {
+            return;
+        }
+
+        LocalDateTime now     = LocalDateTime.now();
+        LocalDateTime nextRun = now.with(startTime);
+
+        while (nextRun.isBefore(now)) {
+            nextRun = nextRun.plusMinutes(intervalMins);
+        }
+
+        long initialDelayMs = Duration.between(now, nextRun).toMillis();
+
+        executorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat(WORKER_NAME_FORMAT).build());
+        scheduledRun    = executorService.scheduleAtFixedRate(this::compact, initialDelayMs, TimeUnit.MINUTES.toMillis(intervalMins), TimeUnit.MILLISECONDS);
+
+        LOG.info("SoftDeleteCompactionService: scheduled at {}, every {} minutes; retention={} days", nextRun, intervalMins, TimeUnit.MILLISECONDS.toDays(retentionMs));
+    }
+
+    private synchronized void stopSchedule() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+
+            executorService = null;
+            scheduledRun    = null;
+        }
+    }
+}
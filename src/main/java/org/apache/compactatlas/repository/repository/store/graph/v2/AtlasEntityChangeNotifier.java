@@ -42,6 +42,7 @@ import org.apache.compactatlas.common.utils.AtlasPerfMetrics.MetricRecorder;
 import org.apache.compactatlas.intg.v1.model.instance.Referenceable;
 import org.apache.compactatlas.intg.v1.model.instance.Struct;
 import org.apache.compactatlas.repository.repository.converters.AtlasInstanceConverter;
+import org.apache.compactatlas.repository.repository.graph.FullTextIndexQueue;
 import org.apache.compactatlas.repository.repository.graph.FullTextMapperV2;
 import org.apache.compactatlas.repository.repository.graph.GraphHelper;
 import org.apache.compactatlas.graphdb.api.AtlasVertex;
@@ -56,6 +57,7 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -75,6 +77,7 @@ public class AtlasEntityChangeNotifier implements IAtlasEntityChangeNotifier {
     private final Set<EntityChangeListenerV2> entityChangeListenersV2;
     private final AtlasInstanceConverter instanceConverter;
     private final FullTextMapperV2            fullTextMapperV2;
+    private final FullTextIndexQueue          fullTextIndexQueue;
     private final AtlasTypeRegistry           atlasTypeRegistry;
     private final boolean                     isV2EntityNotificationEnabled;
 
@@ -84,11 +87,13 @@ public class AtlasEntityChangeNotifier implements IAtlasEntityChangeNotifier {
                                      Set<EntityChangeListenerV2> entityChangeListenersV2,
                                      AtlasInstanceConverter instanceConverter,
                                      FullTextMapperV2 fullTextMapperV2,
+                                     FullTextIndexQueue fullTextIndexQueue,
                                      AtlasTypeRegistry atlasTypeRegistry) {
         this.entityChangeListeners         = entityChangeListeners;
         this.entityChangeListenersV2       = entityChangeListenersV2;
         this.instanceConverter             = instanceConverter;
         this.fullTextMapperV2              = fullTextMapperV2;
+        this.fullTextIndexQueue            = fullTextIndexQueue;
         this.atlasTypeRegistry             = atlasTypeRegistry;
         this.isV2EntityNotificationEnabled = AtlasRepositoryConfiguration.isV2EntityNotificationEnabled();
     }
@@ -124,19 +129,24 @@ public class AtlasEntityChangeNotifier implements IAtlasEntityChangeNotifier {
 
     @Override
     public void notifyRelationshipMutation(AtlasRelationship relationship, EntityNotification.EntityNotificationV2.OperationType operationType) throws AtlasBaseException {
+        notifyRelationshipMutations(Collections.singletonList(relationship), operationType);
+    }
+
+    @Override
+    public void notifyRelationshipMutations(List<AtlasRelationship> relationships, EntityNotification.EntityNotificationV2.OperationType operationType) throws AtlasBaseException {
         if (CollectionUtils.isEmpty(entityChangeListeners)) {
             return;
         }
 
         switch (operationType) {
             case RELATIONSHIP_CREATE:
-                notifyRelationshipListeners(Collections.singletonList(relationship), EntityOperation.CREATE, false);
+                notifyRelationshipListeners(relationships, EntityOperation.CREATE, false);
                 break;
             case RELATIONSHIP_UPDATE:
-                notifyRelationshipListeners(Collections.singletonList(relationship), EntityOperation.UPDATE, false);
+                notifyRelationshipListeners(relationships, EntityOperation.UPDATE, false);
                 break;
             case RELATIONSHIP_DELETE:
-                notifyRelationshipListeners(Collections.singletonList(relationship), EntityOperation.DELETE, false);
+                notifyRelationshipListeners(relationships, EntityOperation.DELETE, false);
                 break;
         }
     }
@@ -186,6 +196,15 @@ public class AtlasEntityChangeNotifier implements IAtlasEntityChangeNotifier {
                 List<Struct> traits = toStruct(addedClassifications);
 
                 if (!CollectionUtils.isEmpty(traits)) {
+                    // when classifications added to many entities are notified together, an entity is notified only of its own classification
+                    Set<String> directClassifications = new HashSet<>();
+
+                    for (AtlasClassification classification : addedClassifications) {
+                        if (classification != null) {
+                            directClassifications.add(classification.getTypeName() + ":" + classification.getEntityGuid());
+                        }
+                    }
+
                     for(AtlasEntity entity : entities) {
                         Referenceable entityRef = toReferenceable(entity.getGuid());
 
@@ -194,9 +213,24 @@ public class AtlasEntityChangeNotifier implements IAtlasEntityChangeNotifier {
                             continue;
                         }
 
+                        List<Struct> entityTraits = new ArrayList<>(traits.size());
+                        int          traitIdx     = 0;
+
+                        for (AtlasClassification classification : addedClassifications) {
+                            if (classification == null) {
+                                continue;
+                            }
+
+                            Struct trait = traits.get(traitIdx++);
+
+                            if (entity.getGuid().equals(classification.getEntityGuid()) || !directClassifications.contains(classification.getTypeName() + ":" + entity.getGuid())) {
+                                entityTraits.add(trait);
+                            }
+                        }
+
                         for (EntityChangeListener listener : entityChangeListeners) {
                             try {
-                                listener.onTraitsAdded(entityRef, traits);
+                                listener.onTraitsAdded(entityRef, entityTraits);
                             } catch (AtlasException e) {
                                 throw new AtlasBaseException(AtlasErrorCode.NOTIFICATION_FAILED, e, getListenerName(listener), "TraitAdd");
                             }
@@ -625,25 +659,33 @@ public class AtlasEntityChangeNotifier implements IAtlasEntityChangeNotifier {
         }
 
         MetricRecorder metric = RequestContext.get().startMetricRecord("fullTextMapping");
+        List<String>   guids  = new ArrayList<>(entityHeaders.size());
 
         for (AtlasEntityHeader entityHeader : entityHeaders) {
             if(GraphHelper.isInternalType(entityHeader.getTypeName())) {
                 continue;
             }
 
-            String      guid   = entityHeader.getGuid();
-            AtlasVertex vertex = AtlasGraphUtilsV2.findByGuid(guid);
-
-            if(vertex == null) {
-                continue;
+            if (AtlasGraphUtilsV2.findByGuid(entityHeader.getGuid()) != null) {
+                guids.add(entityHeader.getGuid());
             }
+        }
 
+        if (fullTextIndexQueue.isEnabled() && !fullTextIndexQueue.isBackedUp()) {
+            fullTextIndexQueue.enqueue(guids);
+        } else if (!guids.isEmpty()) {
             try {
-                String fullText = fullTextMapperV2.getIndexTextForEntity(guid);
+                Map<String, String> fullTexts = fullTextMapperV2.getIndexTextForEntities(guids);
+
+                for (Map.Entry<String, String> entry : fullTexts.entrySet()) {
+                    AtlasVertex vertex = AtlasGraphUtilsV2.findByGuid(entry.getKey());
 
-                AtlasGraphUtilsV2.setEncodedProperty(vertex, ENTITY_TEXT_PROPERTY_KEY, fullText);
+                    if (vertex != null) {
+                        AtlasGraphUtilsV2.setEncodedProperty(vertex, ENTITY_TEXT_PROPERTY_KEY, entry.getValue());
+                    }
+                }
             } catch (AtlasBaseException e) {
-                LOG.error("FullText mapping failed for Vertex[ guid = {} ]", guid, e);
+                LOG.error("FullText mapping failed for entities {}", guids, e);
             }
         }
 
@@ -664,6 +706,13 @@ public class AtlasEntityChangeNotifier implements IAtlasEntityChangeNotifier {
             return;
         }
 
+        // the queued mapping rebuilds full text of the entity, including the added classifications
+        if (fullTextIndexQueue.isEnabled() && !fullTextIndexQueue.isBackedUp()) {
+            fullTextIndexQueue.enqueue(Collections.singletonList(entityId));
+
+            return;
+        }
+
         MetricRecorder metric = RequestContext.get().startMetricRecord("fullTextMapping");
 
         try {
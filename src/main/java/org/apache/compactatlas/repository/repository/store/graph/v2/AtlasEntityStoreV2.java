@@ -29,6 +29,8 @@ import org.apache.compactatlas.authorize.AtlasAuthorizationUtils;
 import org.apache.compactatlas.authorize.AtlasEntityAccessRequest;
 import org.apache.compactatlas.authorize.AtlasPrivilege;
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.PList;
+import org.apache.compactatlas.intg.model.SearchFilter.SortType;
 import org.apache.compactatlas.intg.model.TypeCategory;
 import org.apache.compactatlas.intg.model.instance.AtlasCheckStateRequest;
 import org.apache.compactatlas.intg.model.instance.AtlasCheckStateResult;
@@ -40,6 +42,7 @@ import org.apache.compactatlas.intg.model.instance.AtlasEntity.Status;
 import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
 import org.apache.compactatlas.intg.model.instance.AtlasEntityHeaders;
 import org.apache.compactatlas.intg.model.instance.AtlasObjectId;
+import org.apache.compactatlas.intg.model.instance.AtlasRelatedObjectId;
 import org.apache.compactatlas.intg.model.instance.EntityMutationResponse;
 import org.apache.compactatlas.intg.model.typedef.AtlasBaseTypeDef;
 import org.apache.compactatlas.repository.repository.graph.GraphHelper;
@@ -79,6 +82,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -106,6 +110,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
     private final IAtlasEntityChangeNotifier entityChangeNotifier;
     private final EntityGraphMapper          entityGraphMapper;
     private final EntityGraphRetriever       entityRetriever;
+    private final GraphHelper                graphHelper;
     private       boolean                    storeDifferentialAudits;
 
     @Inject
@@ -117,6 +122,7 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
         this.entityChangeNotifier = entityChangeNotifier;
         this.entityGraphMapper    = entityGraphMapper;
         this.entityRetriever      = new EntityGraphRetriever(graph, typeRegistry);
+        this.graphHelper          = new GraphHelper(graph);
         this.storeDifferentialAudits = STORE_DIFFERENTIAL_AUDITS.getBoolean();
     }
 
@@ -175,6 +181,58 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
         return ret;
     }
 
+    @Override
+    @GraphTransaction
+    public AtlasEntityWithExtInfo getById(final String guid, final EntityProjection projection) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> getById({}, {})", guid, projection);
+        }
+
+        EntityGraphRetriever entityRetriever = new EntityGraphRetriever(graph, typeRegistry);
+
+        AtlasEntityWithExtInfo ret = entityRetriever.toAtlasEntityWithExtInfo(guid, projection);
+
+        if (ret == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+        }
+
+        AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(ret.getEntity())), "read entity: guid=", guid);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== getById({}, {}): {}", guid, projection, ret);
+        }
+
+        return ret;
+    }
+
+    @Override
+    @GraphTransaction
+    public PList<AtlasRelatedObjectId> getRelationshipAttributeValues(String guid, String relationshipAttributeName, int offset, int limit) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> getRelationshipAttributeValues({}, {}, {}, {})", guid, relationshipAttributeName, offset, limit);
+        }
+
+        AtlasVertex entityVertex = AtlasGraphUtilsV2.findByGuid(graph, guid);
+
+        if (entityVertex == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+        }
+
+        AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeaderWithClassifications(entityVertex);
+
+        AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, entityHeader), "read entity: guid=", guid);
+
+        List<AtlasRelatedObjectId>  values     = entityRetriever.getRelationshipAttributeValues(entityVertex, relationshipAttributeName, offset, limit);
+        long                        totalCount = entityRetriever.getRelationshipAttributeCount(entityVertex, relationshipAttributeName);
+        PList<AtlasRelatedObjectId> ret        = new PList<>(values, offset, limit, totalCount, SortType.NONE, null);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== getRelationshipAttributeValues({}, {}, {}, {}): count={}, totalCount={}", guid, relationshipAttributeName, offset, limit, values.size(), totalCount);
+        }
+
+        return ret;
+    }
+
     @Override
     @GraphTransaction
     public AtlasEntityHeader getHeaderById(final String guid) throws AtlasBaseException {
@@ -216,37 +274,63 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
 
         AtlasEntitiesWithExtInfo ret = entityRetriever.toAtlasEntitiesWithExtInfo(guids, isMinExtInfo);
 
-        if(ret != null){
-            for(String guid : guids) {
-                AtlasEntity entity = ret.getEntity(guid);
-                try {
-                    AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(entity)), "read entity: guid=", guid);
-                } catch (AtlasBaseException e) {
-                    if (RequestContext.get().isSkipFailedEntities()) {
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug("getByIds(): ignoring failure for entity {}: error code={}, message={}", guid, e.getAtlasErrorCode(), e.getMessage());
-                        }
+        verifyReadAccess(guids, ret);
 
-                        //Remove from referred entities
-                        ret.removeEntity(guid);
-                        //Remove from entities
-                        ret.removeEntity(entity);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== getByIds({}, {}): {}", guids, isMinExtInfo, ret);
+        }
 
-                        continue;
-                    }
+        return ret;
+    }
 
-                    throw e;
-                }
-            }
+    @Override
+    @GraphTransaction
+    public AtlasEntitiesWithExtInfo getByIds(List<String> guids, EntityProjection projection) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> getByIds({}, {})", guids, projection);
         }
 
+        EntityGraphRetriever entityRetriever = new EntityGraphRetriever(graph, typeRegistry);
+
+        AtlasEntitiesWithExtInfo ret = entityRetriever.toAtlasEntitiesWithExtInfo(guids, projection);
+
+        verifyReadAccess(guids, ret);
+
         if (LOG.isDebugEnabled()) {
-            LOG.debug("<== getByIds({}, {}): {}", guids, isMinExtInfo, ret);
+            LOG.debug("<== getByIds({}, {}): {}", guids, projection, ret);
         }
 
         return ret;
     }
 
+    private void verifyReadAccess(List<String> guids, AtlasEntitiesWithExtInfo entities) throws AtlasBaseException {
+        if (entities == null) {
+            return;
+        }
+
+        for (String guid : guids) {
+            AtlasEntity entity = entities.getEntity(guid);
+            try {
+                AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(entity)), "read entity: guid=", guid);
+            } catch (AtlasBaseException e) {
+                if (RequestContext.get().isSkipFailedEntities()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("getByIds(): ignoring failure for entity {}: error code={}, message={}", guid, e.getAtlasErrorCode(), e.getMessage());
+                    }
+
+                    //Remove from referred entities
+                    entities.removeEntity(guid);
+                    //Remove from entities
+                    entities.removeEntity(entity);
+
+                    continue;
+                }
+
+                throw e;
+            }
+        }
+    }
+
     @Override
     @GraphTransaction
     public AtlasEntitiesWithExtInfo getEntitiesByUniqueAttributes(AtlasEntityType entityType, List<Map<String, Object>> uniqueAttributes , boolean isMinExtInfo, boolean ignoreRelationships) throws AtlasBaseException {
@@ -587,6 +671,46 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
         return ret;
     }
 
+    @Override
+    @GraphTransaction
+    public EntityMutationResponse deleteByVertexIds(List<String> vertexIds, boolean purge) throws AtlasBaseException {
+        if (CollectionUtils.isEmpty(vertexIds)) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "vertex id(s) not specified");
+        }
+
+        EntityMutationResponse ret      = new EntityMutationResponse();
+        RequestContext         req      = RequestContext.get();
+        List<AtlasVertex>      vertices = new ArrayList<>(vertexIds.size());
+
+        for (String vertexId : vertexIds) {
+            AtlasVertex vertex = graph.getVertex(vertexId);
+
+            if (vertex != null) {
+                vertices.add(vertex);
+            }
+        }
+
+        if (purge) {
+            req.setDeleteType(DeleteType.HARD);
+            req.setPurgeRequested(true);
+        }
+
+        deleteDelegate.getHandler().deleteEntityVertices(vertices);
+
+        for (AtlasEntityHeader entity : req.getDeletedEntities()) {
+            ret.addEntity(purge ? PURGE : DELETE, entity);
+        }
+
+        for (AtlasEntityHeader entity : req.getUpdatedEntities()) {
+            ret.addEntity(UPDATE, entity);
+        }
+
+        // Notify the change listeners
+        entityChangeNotifier.onEntitiesMutated(ret, false);
+
+        return ret;
+    }
+
     @Override
     @GraphTransaction
     public EntityMutationResponse deleteByUniqueAttributes(AtlasEntityType entityType, Map<String, Object> uniqAttributes) throws AtlasBaseException {
@@ -738,43 +862,36 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
 
         EntityMutationContext     context         = new EntityMutationContext();
         List<AtlasClassification> classifications = Collections.singletonList(classification);
-        List<String>              validGuids      =  new ArrayList<>();
+        List<String>              validGuids      = getEntitiesToClassify(context, guids, classification, RequestContext.get().isSkipFailedEntities());
 
-        GraphTransactionInterceptor.lockObjectAndReleasePostCommit(guids);
+        for (String guid : validGuids) {
+            entityGraphMapper.addClassifications(context, guid, classifications);
+        }
+    }
 
-        for (String guid : guids) {
-            try {
-                AtlasVertex entityVertex = AtlasGraphUtilsV2.findByGuid(graph, guid);
+    @Override
+    @GraphTransaction
+    public List<String> addClassificationWithoutPropagation(final List<String> guids, final AtlasClassification classification) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Adding classification={} to {} entities without propagation", classification, CollectionUtils.size(guids));
+        }
 
-                if (entityVertex == null) {
-                    throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
-                }
+        if (classification == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "classification not specified");
+        }
 
-                AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeaderWithClassifications(entityVertex);
+        if (CollectionUtils.isEmpty(guids)) {
+            return Collections.emptyList();
+        }
 
-                AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_ADD_CLASSIFICATION, entityHeader, classification),
-                        "add classification: guid=", guid, ", classification=", classification.getTypeName());
+        validateAndNormalize(classification);
 
-                validateEntityAssociations(guid, classifications);
+        EntityMutationContext context    = new EntityMutationContext();
+        List<String>          validGuids = getEntitiesToClassify(context, guids, classification, true);
 
-                validGuids.add(guid);
-                context.cacheEntity(guid, entityVertex, typeRegistry.getEntityTypeByName(entityHeader.getTypeName()));
-            } catch (AtlasBaseException abe) {
-                if (RequestContext.get().isSkipFailedEntities()) {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("addClassification(): ignoring failure for entity {}: error code={}, message={}", guid, abe.getAtlasErrorCode(), abe.getMessage());
-                    }
+        entityGraphMapper.addClassificationToEntities(context, validGuids, classification);
 
-                    continue;
-                }
-
-                throw abe;
-            }
-        }
-
-        for (String guid : validGuids) {
-            entityGraphMapper.addClassifications(context, guid, classifications);
-        }
+        return validGuids;
     }
 
     @Override
@@ -1426,6 +1543,60 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
         }
     }
 
+    /**
+     * Looks up the vertices of the given entities in one query, and returns guids of those the classification can be
+     * added to, after caching their vertices in the context.
+     */
+    private List<String> getEntitiesToClassify(EntityMutationContext context, List<String> guids, AtlasClassification classification, boolean skipFailedEntities) throws AtlasBaseException {
+        List<String>            ret                = new ArrayList<>(guids.size());
+        List<String>            uniqueGuids        = new ArrayList<>(new LinkedHashSet<>(guids));
+        String                  classificationName = classification.getTypeName();
+        AtlasClassificationType classificationType = typeRegistry.getClassificationTypeByName(classificationName);
+
+        GraphTransactionInterceptor.lockObjectAndReleasePostCommit(uniqueGuids);
+
+        Map<String, AtlasVertex> vertices = graphHelper.getVerticesForGUIDs(uniqueGuids);
+
+        for (String guid : uniqueGuids) {
+            try {
+                AtlasVertex entityVertex = vertices.get(guid);
+
+                if (entityVertex == null) {
+                    throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+                }
+
+                AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeaderWithClassifications(entityVertex);
+                AtlasEntityType   entityType   = typeRegistry.getEntityTypeByName(entityHeader.getTypeName());
+
+                AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_ADD_CLASSIFICATION, entityHeader, classification),
+                        "add classification: guid=", guid, ", classification=", classificationName);
+
+                if (GraphHelper.getTraitNames(entityVertex).contains(classificationName)) {
+                    throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "entity: " + guid + ", already associated with classification: " + classificationName);
+                }
+
+                if (!classificationType.canApplyToEntityType(entityType)) {
+                    throw new AtlasBaseException(AtlasErrorCode.INVALID_ENTITY_FOR_CLASSIFICATION, guid, entityHeader.getTypeName(), classificationName);
+                }
+
+                ret.add(guid);
+                context.cacheEntity(guid, entityVertex, entityType);
+            } catch (AtlasBaseException abe) {
+                if (skipFailedEntities) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("addClassification(): ignoring failure for entity {}: error code={}, message={}", guid, abe.getAtlasErrorCode(), abe.getMessage());
+                    }
+
+                    continue;
+                }
+
+                throw abe;
+            }
+        }
+
+        return ret;
+    }
+
     private List<String> getClassificationNames(String guid) throws AtlasBaseException {
         List<String>              ret             = null;
         List<AtlasClassification> classifications = retrieveClassifications(guid);
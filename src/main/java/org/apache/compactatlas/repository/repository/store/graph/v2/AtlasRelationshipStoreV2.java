@@ -31,6 +31,7 @@ import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
 import org.apache.compactatlas.intg.model.instance.AtlasObjectId;
 import org.apache.compactatlas.intg.model.instance.AtlasRelationship;
 import org.apache.compactatlas.intg.model.instance.AtlasRelationship.AtlasRelationshipWithExtInfo;
+import org.apache.compactatlas.intg.model.instance.AtlasRelationshipMutationResult;
 import org.apache.compactatlas.intg.model.notification.EntityNotification.EntityNotificationV2.OperationType;
 import org.apache.compactatlas.intg.model.typedef.AtlasRelationshipDef;
 import org.apache.compactatlas.intg.model.typedef.AtlasRelationshipDef.PropagateTags;
@@ -59,9 +60,12 @@ import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -140,60 +144,10 @@ public class AtlasRelationshipStoreV2 implements AtlasRelationshipStore {
             throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_GUID_NOT_FOUND, guid);
         }
 
-        AtlasEdge   edge       = graphHelper.getEdgeForGUID(guid);
-        String      edgeType   = AtlasGraphUtilsV2.getTypeName(edge);
-        AtlasVertex end1Vertex = edge.getOutVertex();
-        AtlasVertex end2Vertex = edge.getInVertex();
-
-        // update shouldn't change endType
-        if (StringUtils.isNotEmpty(relationship.getTypeName()) && !StringUtils.equalsIgnoreCase(edgeType, relationship.getTypeName())) {
-            throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_UPDATE_TYPE_CHANGE_NOT_ALLOWED, guid, edgeType, relationship.getTypeName());
-        }
-
-        // update shouldn't change ends
-        if (relationship.getEnd1() != null) {
-            String updatedEnd1Guid = relationship.getEnd1().getGuid();
-
-            if (updatedEnd1Guid == null) {
-                AtlasVertex updatedEnd1Vertex = getVertexFromEndPoint(relationship.getEnd1());
-
-                updatedEnd1Guid = updatedEnd1Vertex == null ? null : AtlasGraphUtilsV2.getIdFromVertex(updatedEnd1Vertex);
-            }
-
-            if (updatedEnd1Guid != null) {
-                String end1Guid = AtlasGraphUtilsV2.getIdFromVertex(end1Vertex);
-
-                if (!StringUtils.equalsIgnoreCase(relationship.getEnd1().getGuid(), end1Guid)) {
-                    throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_UPDATE_END_CHANGE_NOT_ALLOWED, edgeType, guid, end1Guid, relationship.getEnd1().getGuid());
-                }
-            }
-        }
-
-        // update shouldn't change ends
-        if (relationship.getEnd2() != null) {
-            String updatedEnd2Guid = relationship.getEnd2().getGuid();
-
-            if (updatedEnd2Guid == null) {
-                AtlasVertex updatedEnd2Vertex = getVertexFromEndPoint(relationship.getEnd2());
+        AtlasEdge edge                      = graphHelper.getEdgeForGUID(guid);
+        boolean   relationshipTypeNotExists = StringUtils.isEmpty(relationship.getTypeName());
 
-                updatedEnd2Guid = updatedEnd2Vertex == null ? null : AtlasGraphUtilsV2.getIdFromVertex(updatedEnd2Vertex);
-            }
-
-            if (updatedEnd2Guid != null) {
-                String end2Guid = AtlasGraphUtilsV2.getIdFromVertex(end2Vertex);
-
-                if (!StringUtils.equalsIgnoreCase(relationship.getEnd2().getGuid(), end2Guid)) {
-                    throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_UPDATE_END_CHANGE_NOT_ALLOWED, AtlasGraphUtilsV2.getTypeName(edge), guid, end2Guid, relationship.getEnd2().getGuid());
-                }
-            }
-        }
-
-        boolean relationshipTypeNotExists = false;
-        if (StringUtils.isEmpty(relationship.getTypeName())) {
-            relationship.setTypeName(edgeType);
-            relationshipTypeNotExists = true;
-        }
-        validateRelationship(end1Vertex, end2Vertex, relationship);
+        validateUpdate(edge, relationship);
 
         if (relationshipTypeNotExists) {
             relationship.setTypeName(null);
@@ -287,6 +241,154 @@ public class AtlasRelationshipStoreV2 implements AtlasRelationshipStore {
         }
     }
 
+    @Override
+    @GraphTransaction
+    public List<AtlasRelationshipMutationResult> createOrUpdate(List<AtlasRelationship> relationships) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> createOrUpdate(relationships={})", relationships.size());
+        }
+
+        AtlasRelationshipMutationResult[] results       = new AtlasRelationshipMutationResult[relationships.size()];
+        Map<String, AtlasVertex>          endVertices   = graphHelper.getVerticesForGUIDs(getEndGuids(relationships));
+        Map<String, AtlasEdge>            existingEdges = graphHelper.getEdgesForGUIDs(getAssignedGuids(relationships));
+        Map<Object, AtlasEntityHeader>    endHeaders    = new HashMap<>();
+        Map<Integer, AtlasEdge>           toUpdate      = new LinkedHashMap<>();
+        List<RelationshipToCreate>        toCreate      = new ArrayList<>();
+
+        // validate every relationship before writing any, so that a relationship that fails leaves nothing to undo
+        for (int i = 0; i < relationships.size(); i++) {
+            AtlasRelationship relationship = relationships.get(i);
+
+            try {
+                if (relationship == null) {
+                    throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "AtlasRelationship is null");
+                }
+
+                AtlasEdge edge = relationship.getGuid() != null ? existingEdges.get(relationship.getGuid()) : null;
+
+                if (edge != null) {
+                    validateUpdate(edge, relationship);
+
+                    verifyAccess(AtlasPrivilege.RELATIONSHIP_UPDATE, relationship.getTypeName(), edge.getOutVertex(), edge.getInVertex(), endHeaders);
+
+                    toUpdate.put(i, edge);
+                } else {
+                    toCreate.add(validateCreate(i, relationship, endVertices));
+                }
+            } catch (AtlasBaseException e) {
+                results[i] = toErrorResult(relationship != null ? relationship.getGuid() : null, e);
+            }
+        }
+
+        removeExistingRelationships(toCreate, results);
+
+        for (Iterator<RelationshipToCreate> iter = toCreate.iterator(); iter.hasNext(); ) {
+            RelationshipToCreate item = iter.next();
+
+            try {
+                if (!item.relationshipType.hasLegacyAttributeEnd()) { // skip authorization for legacy attributes, as these would be covered as entity-update
+                    verifyAccess(AtlasPrivilege.RELATIONSHIP_ADD, item.relationship.getTypeName(), item.end1Vertex, item.end2Vertex, endHeaders);
+                }
+            } catch (AtlasBaseException e) {
+                results[item.index] = toErrorResult(item.relationship.getGuid(), e);
+
+                iter.remove();
+            }
+        }
+
+        List<AtlasRelationship> updated = new ArrayList<>(toUpdate.size());
+        List<AtlasRelationship> created = new ArrayList<>(toCreate.size());
+
+        for (Map.Entry<Integer, AtlasEdge> entry : toUpdate.entrySet()) {
+            AtlasRelationship ret = writeRelationshipUpdate(entry.getValue(), relationships.get(entry.getKey()));
+
+            results[entry.getKey()] = new AtlasRelationshipMutationResult(ret);
+
+            updated.add(ret);
+        }
+
+        for (RelationshipToCreate item : toCreate) {
+            AtlasEdge edge = graphHelper.addEdge(item.end1Vertex, item.end2Vertex, item.edgeLabel);
+
+            mapRelationshipProperties(edge, item.end1Vertex, item.end2Vertex, item.relationship, item.relationshipType);
+
+            AtlasRelationship ret = entityRetriever.mapEdgeToAtlasRelationship(edge);
+
+            results[item.index] = new AtlasRelationshipMutationResult(ret);
+
+            created.add(ret);
+        }
+
+        sendNotifications(created, OperationType.RELATIONSHIP_CREATE);
+        sendNotifications(updated, OperationType.RELATIONSHIP_UPDATE);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== createOrUpdate(relationships={}): created={}, updated={}", relationships.size(), created.size(), updated.size());
+        }
+
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @GraphTransaction
+    public List<AtlasRelationshipMutationResult> deleteByIds(List<String> guids, boolean forceDelete) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> deleteByIds(guids={}, {})", guids.size(), forceDelete);
+        }
+
+        AtlasRelationshipMutationResult[] results    = new AtlasRelationshipMutationResult[guids.size()];
+        Map<String, AtlasEdge>            edges      = graphHelper.getEdgesForGUIDs(guids);
+        Map<Object, AtlasEntityHeader>    endHeaders = new HashMap<>();
+        Map<Integer, AtlasEdge>           toDelete   = new LinkedHashMap<>();
+        Set<String>                       seenGuids  = new HashSet<>();
+
+        for (int i = 0; i < guids.size(); i++) {
+            String guid = guids.get(i);
+
+            try {
+                if (StringUtils.isEmpty(guid)) {
+                    throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_CRUD_INVALID_PARAMS, " empty/null guid");
+                }
+
+                AtlasEdge edge = edges.get(guid);
+
+                if (edge == null) {
+                    throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_GUID_NOT_FOUND, guid);
+                }
+
+                if (AtlasGraphUtilsV2.getState(edge) == DELETED || !seenGuids.add(guid)) {
+                    throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_ALREADY_DELETED, guid);
+                }
+
+                verifyAccess(AtlasPrivilege.RELATIONSHIP_REMOVE, graphHelper.getTypeName(edge), edge.getOutVertex(), edge.getInVertex(), endHeaders);
+
+                toDelete.put(i, edge);
+            } catch (AtlasBaseException e) {
+                results[i] = toErrorResult(guid, e);
+            }
+        }
+
+        deleteDelegate.getHandler().deleteRelationships(toDelete.values(), forceDelete);
+
+        List<AtlasRelationship> deleted = new ArrayList<>(toDelete.size());
+
+        for (Map.Entry<Integer, AtlasEdge> entry : toDelete.entrySet()) {
+            AtlasRelationship ret = entityRetriever.mapEdgeToAtlasRelationship(entry.getValue());
+
+            results[entry.getKey()] = new AtlasRelationshipMutationResult(ret);
+
+            deleted.add(ret);
+        }
+
+        sendNotifications(deleted, OperationType.RELATIONSHIP_DELETE);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== deleteByIds(guids={}, {}): deleted={}", guids.size(), forceDelete, deleted.size());
+        }
+
+        return Arrays.asList(results);
+    }
+
     @Override
     public AtlasEdge getOrCreate(AtlasVertex end1Vertex, AtlasVertex end2Vertex, AtlasRelationship relationship) throws AtlasBaseException {
         AtlasEdge ret = getRelationship(end1Vertex, end2Vertex, relationship);
@@ -378,33 +480,7 @@ public class AtlasRelationshipStoreV2 implements AtlasRelationshipStore {
 
             // map additional properties to relationship edge
             if (ret != null) {
-                // Accept a valid (assigned) guid from the supplied relationship, or generate one.
-                String        relationshipGuid = relationship.getGuid();
-                PropagateTags tagPropagation   = getRelationshipTagPropagation(end1Vertex, end2Vertex, relationship);
-                final String  guid             = AtlasTypeUtil.isAssignedGuid(relationshipGuid) ? relationshipGuid : UUID.randomUUID().toString();
-
-                AtlasGraphUtilsV2.setEncodedProperty(ret, ENTITY_TYPE_PROPERTY_KEY, relationship.getTypeName());
-                AtlasGraphUtilsV2.setEncodedProperty(ret, RELATIONSHIP_GUID_PROPERTY_KEY, guid);
-                AtlasGraphUtilsV2.setEncodedProperty(ret, HOME_ID_KEY, relationship.getHomeId());
-                AtlasGraphUtilsV2.setEncodedProperty(ret, VERSION_PROPERTY_KEY, getRelationshipVersion(relationship));
-                AtlasGraphUtilsV2.setEncodedProperty(ret, PROVENANCE_TYPE_KEY, relationship.getProvenanceType());
-                AtlasGraphUtilsV2.setEncodedProperty(ret, RELATIONSHIPTYPE_TAG_PROPAGATION_KEY, tagPropagation.name());
-
-                // blocked propagated classifications
-                deleteDelegate.getHandler().handleBlockedClassifications(ret, relationship.getBlockedPropagatedClassifications());
-
-                // propagate tags
-                deleteDelegate.getHandler().addTagPropagation(ret, tagPropagation);
-            }
-
-            if (MapUtils.isNotEmpty(relationType.getAllAttributes())) {
-                for (AtlasAttribute attr : relationType.getAllAttributes().values()) {
-                    String attrName           = attr.getName();
-                    String attrVertexProperty = attr.getVertexPropertyName();
-                    Object attrValue          = relationship.getAttribute(attrName);
-
-                    AtlasGraphUtilsV2.setEncodedProperty(ret, attrVertexProperty, attrValue);
-                }
+                mapRelationshipProperties(ret, end1Vertex, end2Vertex, relationship, relationType);
             }
         } catch (RepositoryException e) {
             throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, e);
@@ -414,14 +490,45 @@ public class AtlasRelationshipStoreV2 implements AtlasRelationshipStore {
         return ret;
     }
 
+    private void mapRelationshipProperties(AtlasEdge ret, AtlasVertex end1Vertex, AtlasVertex end2Vertex, AtlasRelationship relationship,
+                                           AtlasRelationshipType relationType) throws AtlasBaseException {
+        // Accept a valid (assigned) guid from the supplied relationship, or generate one.
+        String        relationshipGuid = relationship.getGuid();
+        PropagateTags tagPropagation   = getRelationshipTagPropagation(end1Vertex, end2Vertex, relationship);
+        final String  guid             = AtlasTypeUtil.isAssignedGuid(relationshipGuid) ? relationshipGuid : UUID.randomUUID().toString();
+
+        AtlasGraphUtilsV2.setEncodedProperty(ret, ENTITY_TYPE_PROPERTY_KEY, relationship.getTypeName());
+        AtlasGraphUtilsV2.setEncodedProperty(ret, RELATIONSHIP_GUID_PROPERTY_KEY, guid);
+        AtlasGraphUtilsV2.setEncodedProperty(ret, HOME_ID_KEY, relationship.getHomeId());
+        AtlasGraphUtilsV2.setEncodedProperty(ret, VERSION_PROPERTY_KEY, getRelationshipVersion(relationship));
+        AtlasGraphUtilsV2.setEncodedProperty(ret, PROVENANCE_TYPE_KEY, relationship.getProvenanceType());
+        AtlasGraphUtilsV2.setEncodedProperty(ret, RELATIONSHIPTYPE_TAG_PROPAGATION_KEY, tagPropagation.name());
+
+        // blocked propagated classifications
+        deleteDelegate.getHandler().handleBlockedClassifications(ret, relationship.getBlockedPropagatedClassifications());
+
+        // propagate tags
+        deleteDelegate.getHandler().addTagPropagation(ret, tagPropagation);
+
+        if (MapUtils.isNotEmpty(relationType.getAllAttributes())) {
+            for (AtlasAttribute attr : relationType.getAllAttributes().values()) {
+                String attrName           = attr.getName();
+                String attrVertexProperty = attr.getVertexPropertyName();
+                Object attrValue          = relationship.getAttribute(attrName);
+
+                AtlasGraphUtilsV2.setEncodedProperty(ret, attrVertexProperty, attrValue);
+            }
+        }
+    }
+
     private AtlasRelationship updateRelationship(AtlasEdge relationshipEdge, AtlasRelationship relationship) throws AtlasBaseException {
-        AtlasRelationshipType relationType = typeRegistry.getRelationshipTypeByName(relationship.getTypeName());
-        AtlasVertex           end1Vertex   = relationshipEdge.getOutVertex();
-        AtlasVertex           end2Vertex   = relationshipEdge.getInVertex();
-        AtlasEntityHeader     end1Entity   = entityRetriever.toAtlasEntityHeaderWithClassifications(end1Vertex);
-        AtlasEntityHeader     end2Entity   = entityRetriever.toAtlasEntityHeaderWithClassifications(end2Vertex);
+        verifyAccess(AtlasPrivilege.RELATIONSHIP_UPDATE, relationship.getTypeName(), relationshipEdge.getOutVertex(), relationshipEdge.getInVertex(), new HashMap<>());
 
-        AtlasAuthorizationUtils.verifyAccess(new AtlasRelationshipAccessRequest(typeRegistry, AtlasPrivilege.RELATIONSHIP_UPDATE, relationship.getTypeName(), end1Entity, end2Entity));
+        return writeRelationshipUpdate(relationshipEdge, relationship);
+    }
+
+    private AtlasRelationship writeRelationshipUpdate(AtlasEdge relationshipEdge, AtlasRelationship relationship) throws AtlasBaseException {
+        AtlasRelationshipType relationType = typeRegistry.getRelationshipTypeByName(relationship.getTypeName());
 
         updateTagPropagations(relationshipEdge, relationship);
 
@@ -449,6 +556,66 @@ public class AtlasRelationshipStoreV2 implements AtlasRelationshipStore {
         return entityRetriever.mapEdgeToAtlasRelationship(relationshipEdge);
     }
 
+    /**
+     * Validate an update of the relationship of the given edge: type and ends can't be changed. Sets the type of the
+     * relationship to that of the edge, when not given.
+     */
+    private void validateUpdate(AtlasEdge edge, AtlasRelationship relationship) throws AtlasBaseException {
+        String      guid       = relationship.getGuid();
+        String      edgeType   = AtlasGraphUtilsV2.getTypeName(edge);
+        AtlasVertex end1Vertex = edge.getOutVertex();
+        AtlasVertex end2Vertex = edge.getInVertex();
+
+        // update shouldn't change endType
+        if (StringUtils.isNotEmpty(relationship.getTypeName()) && !StringUtils.equalsIgnoreCase(edgeType, relationship.getTypeName())) {
+            throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_UPDATE_TYPE_CHANGE_NOT_ALLOWED, guid, edgeType, relationship.getTypeName());
+        }
+
+        // update shouldn't change ends
+        if (relationship.getEnd1() != null) {
+            String updatedEnd1Guid = relationship.getEnd1().getGuid();
+
+            if (updatedEnd1Guid == null) {
+                AtlasVertex updatedEnd1Vertex = getVertexFromEndPoint(relationship.getEnd1());
+
+                updatedEnd1Guid = updatedEnd1Vertex == null ? null : AtlasGraphUtilsV2.getIdFromVertex(updatedEnd1Vertex);
+            }
+
+            if (updatedEnd1Guid != null) {
+                String end1Guid = AtlasGraphUtilsV2.getIdFromVertex(end1Vertex);
+
+                if (!StringUtils.equalsIgnoreCase(relationship.getEnd1().getGuid(), end1Guid)) {
+                    throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_UPDATE_END_CHANGE_NOT_ALLOWED, edgeType, guid, end1Guid, relationship.getEnd1().getGuid());
+                }
+            }
+        }
+
+        // update shouldn't change ends
+        if (relationship.getEnd2() != null) {
+            String updatedEnd2Guid = relationship.getEnd2().getGuid();
+
+            if (updatedEnd2Guid == null) {
+                AtlasVertex updatedEnd2Vertex = getVertexFromEndPoint(relationship.getEnd2());
+
+                updatedEnd2Guid = updatedEnd2Vertex == null ? null : AtlasGraphUtilsV2.getIdFromVertex(updatedEnd2Vertex);
+            }
+
+            if (updatedEnd2Guid != null) {
+                String end2Guid = AtlasGraphUtilsV2.getIdFromVertex(end2Vertex);
+
+                if (!StringUtils.equalsIgnoreCase(relationship.getEnd2().getGuid(), end2Guid)) {
+                    throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_UPDATE_END_CHANGE_NOT_ALLOWED, AtlasGraphUtilsV2.getTypeName(edge), guid, end2Guid, relationship.getEnd2().getGuid());
+                }
+            }
+        }
+
+        if (StringUtils.isEmpty(relationship.getTypeName())) {
+            relationship.setTypeName(edgeType);
+        }
+
+        validateRelationship(end1Vertex, end2Vertex, relationship);
+    }
+
     private void updateTagPropagations(AtlasEdge relationshipEdge, AtlasRelationship relationship) throws AtlasBaseException {
         if (DEFERRED_ACTION_ENABLED) {
             createAndQueueTask(ClassificationPropagateTaskFactory.CLASSIFICATION_PROPAGATION_RELATIONSHIP_UPDATE, relationshipEdge, relationship);
@@ -672,6 +839,129 @@ public class AtlasRelationshipStoreV2 implements AtlasRelationshipStore {
         return ret;
     }
 
+    private RelationshipToCreate validateCreate(int index, AtlasRelationship relationship, Map<String, AtlasVertex> endVertices) throws AtlasBaseException {
+        AtlasVertex end1Vertex = getEndVertex(relationship.getEnd1(), endVertices);
+        AtlasVertex end2Vertex = getEndVertex(relationship.getEnd2(), endVertices);
+
+        validateRelationship(end1Vertex, end2Vertex, relationship);
+
+        String edgeLabel = getRelationshipEdgeLabel(end1Vertex, end2Vertex, relationship.getTypeName());
+
+        return new RelationshipToCreate(index, relationship, typeRegistry.getRelationshipTypeByName(relationship.getTypeName()), end1Vertex, end2Vertex, edgeLabel);
+    }
+
+    // end given by guid is taken from the vertices looked up for the whole batch; by unique attributes, looked up here
+    private AtlasVertex getEndVertex(AtlasObjectId endPoint, Map<String, AtlasVertex> endVertices) throws AtlasBaseException {
+        if (endPoint == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "end1/end2 is null");
+        }
+
+        if (StringUtils.isEmpty(endPoint.getGuid())) {
+            return getVertexFromEndPoint(endPoint);
+        }
+
+        AtlasVertex ret = endVertices.get(endPoint.getGuid());
+
+        if (ret == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, endPoint.getGuid());
+        }
+
+        return ret;
+    }
+
+    /**
+     * Removes relationships that already exist, in the graph or earlier in the batch, from those to create. Existing
+     * edges are read with one traversal per end1 vertex and edge label, for all end2 vertices of the batch.
+     */
+    private void removeExistingRelationships(List<RelationshipToCreate> toCreate, AtlasRelationshipMutationResult[] results) {
+        Map<String, List<RelationshipToCreate>> byEnd1AndLabel = new LinkedHashMap<>();
+        Set<RelationshipToCreate>               existing       = new HashSet<>();
+
+        for (RelationshipToCreate item : toCreate) {
+            byEnd1AndLabel.computeIfAbsent(item.end1Vertex.getId() + ":" + item.edgeLabel, k -> new ArrayList<>()).add(item);
+        }
+
+        for (List<RelationshipToCreate> items : byEnd1AndLabel.values()) {
+            RelationshipToCreate first        = items.get(0);
+            List<AtlasVertex>    end2Vertices = new ArrayList<>(items.size());
+
+            for (RelationshipToCreate item : items) {
+                end2Vertices.add(item.end2Vertex);
+            }
+
+            Map<Object, AtlasEdge> edges        = graph.getEdgesBetweenVertices(first.end1Vertex, end2Vertices, first.edgeLabel);
+            Set<Object>            end2WithEdge = new HashSet<>(edges.keySet());
+
+            for (RelationshipToCreate item : items) {
+                if (!end2WithEdge.add(item.end2Vertex.getId())) {
+                    AtlasBaseException e = new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_ALREADY_EXISTS, item.relationship.getTypeName(),
+                                                                  AtlasGraphUtilsV2.getIdFromVertex(item.end1Vertex), AtlasGraphUtilsV2.getIdFromVertex(item.end2Vertex));
+
+                    results[item.index] = toErrorResult(item.relationship.getGuid(), e);
+
+                    existing.add(item);
+                }
+            }
+        }
+
+        if (!existing.isEmpty()) {
+            toCreate.removeAll(existing);
+        }
+    }
+
+    private void verifyAccess(AtlasPrivilege privilege, String relationshipType, AtlasVertex end1Vertex, AtlasVertex end2Vertex,
+                              Map<Object, AtlasEntityHeader> endHeaders) throws AtlasBaseException {
+        AtlasEntityHeader end1Entity = getEntityHeader(end1Vertex, endHeaders);
+        AtlasEntityHeader end2Entity = getEntityHeader(end2Vertex, endHeaders);
+
+        AtlasAuthorizationUtils.verifyAccess(new AtlasRelationshipAccessRequest(typeRegistry, privilege, relationshipType, end1Entity, end2Entity));
+    }
+
+    // headers of the ends are read once per batch: relationships of a batch often share an end, like a process in lineage
+    private AtlasEntityHeader getEntityHeader(AtlasVertex vertex, Map<Object, AtlasEntityHeader> endHeaders) throws AtlasBaseException {
+        AtlasEntityHeader ret = endHeaders.get(vertex.getId());
+
+        if (ret == null) {
+            ret = entityRetriever.toAtlasEntityHeaderWithClassifications(vertex);
+
+            endHeaders.put(vertex.getId(), ret);
+        }
+
+        return ret;
+    }
+
+    private List<String> getEndGuids(List<AtlasRelationship> relationships) {
+        Set<String> ret = new HashSet<>();
+
+        for (AtlasRelationship relationship : relationships) {
+            if (relationship != null) {
+                for (AtlasObjectId endPoint : Arrays.asList(relationship.getEnd1(), relationship.getEnd2())) {
+                    if (endPoint != null && StringUtils.isNotEmpty(endPoint.getGuid())) {
+                        ret.add(endPoint.getGuid());
+                    }
+                }
+            }
+        }
+
+        return new ArrayList<>(ret);
+    }
+
+    private List<String> getAssignedGuids(List<AtlasRelationship> relationships) {
+        List<String> ret = new ArrayList<>();
+
+        for (AtlasRelationship relationship : relationships) {
+            if (relationship != null && AtlasTypeUtil.isAssignedGuid(relationship.getGuid())) {
+                ret.add(relationship.getGuid());
+            }
+        }
+
+        return ret;
+    }
+
+    private static AtlasRelationshipMutationResult toErrorResult(String guid, AtlasBaseException e) {
+        return new AtlasRelationshipMutationResult(guid, e.getAtlasErrorCode().getErrorCode(), e.getMessage());
+    }
+
     private PropagateTags getRelationshipTagPropagation(AtlasVertex fromVertex, AtlasVertex toVertex, AtlasRelationship relationship) {
         AtlasRelationshipType   relationshipType = typeRegistry.getRelationshipTypeByName(relationship.getTypeName());
         AtlasRelationshipEndDef endDef1          = relationshipType.getRelationshipDef().getEndDef1();
@@ -796,7 +1086,33 @@ public class AtlasRelationshipStoreV2 implements AtlasRelationshipStore {
         }
     }
 
+    private void sendNotifications(List<AtlasRelationship> relationships, OperationType operationType) throws AtlasBaseException {
+        entityChangeNotifier.notifyPropagatedEntities();
+
+        if (notificationsEnabled && !relationships.isEmpty()) {
+            entityChangeNotifier.notifyRelationshipMutations(relationships, operationType);
+        }
+    }
+
     private void createAndQueueTask(String taskType, AtlasEdge relationshipEdge, AtlasRelationship relationship) {
         deleteDelegate.getHandler().createAndQueueTask(taskType, relationshipEdge, relationship);
     }
+
+    private static class RelationshipToCreate {
+        final int                   index;
+        final AtlasRelationship     relationship;
+        final AtlasRelationshipType relationshipType;
+        final AtlasVertex           end1Vertex;
+        final AtlasVertex           end2Vertex;
+        final String                edgeLabel;
+
+        RelationshipToCreate(int index, AtlasRelationship relationship, AtlasRelationshipType relationshipType, AtlasVertex end1Vertex, AtlasVertex end2Vertex, String edgeLabel) {
+            this.index            = index;
+            this.relationship     = relationship;
+            this.relationshipType = relationshipType;
+            this.end1Vertex       = end1Vertex;
+            this.end2Vertex       = end2Vertex;
+            this.edgeLabel        = edgeLabel;
+        }
+    }
 }
@@ -33,6 +33,7 @@ import org.apache.compactatlas.graphdb.api.AtlasGraph;
 import org.apache.compactatlas.graphdb.api.AtlasVertex;
 import org.apache.compactatlas.repository.repository.store.graph.AtlasDefStore;
 import org.apache.compactatlas.repository.repository.store.graph.AtlasTypeDefGraphStore;
+import org.apache.compactatlas.repository.repository.store.bootstrap.TypeSystemSnapshot;
 import org.apache.compactatlas.intg.type.AtlasType;
 import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
 import org.apache.compactatlas.intg.typesystem.types.BaseDataTypes.TypeCategory;
@@ -44,9 +45,12 @@ import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -119,6 +123,25 @@ public class AtlasTypeDefGraphStoreV2 extends AtlasTypeDefGraphStore {
         LOG.info("<== AtlasTypeDefGraphStoreV1.init()");
     }
 
+    @Override
+    @GraphTransaction
+    public String getTypeDefsSignature() {
+        List<String>          entries  = new ArrayList<>();
+        Iterator<AtlasVertex> vertices = atlasGraph.query().has(VERTEX_TYPE_PROPERTY_KEY, AtlasGraphUtilsV2.VERTEX_TYPE).vertices().iterator();
+
+        while (vertices.hasNext()) {
+            AtlasVertex vertex = vertices.next();
+
+            entries.add(vertex.getProperty(Constants.GUID_PROPERTY_KEY, String.class) + ":" +
+                        vertex.getProperty(Constants.VERSION_PROPERTY_KEY, Number.class) + ":" +
+                        vertex.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Number.class));
+        }
+
+        Collections.sort(entries);
+
+        return TypeSystemSnapshot.computeSignature(entries);
+    }
+
     AtlasGraph getAtlasGraph() { return atlasGraph; }
 
     @VisibleForTesting
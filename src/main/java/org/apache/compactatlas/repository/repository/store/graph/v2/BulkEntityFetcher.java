@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.graph.v2;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.compactatlas.authorize.AtlasAuthorizationUtils;
+import org.apache.compactatlas.authorize.AtlasEntityAccessRequest;
+import org.apache.compactatlas.authorize.AtlasPrivilege;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.compactatlas.intg.model.instance.AtlasEntityFetchResult;
+import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.repository.repository.graph.GraphHelper;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Fetches entities for a list of guids, in the order of the list, for clients that read thousands of entities at once.
+ *
+ * Guids are resolved to vertex ids with one graph query per batch. Batches are then mapped to entities in parallel by
+ * a pool of worker threads shared by all requests, each batch in its own read-only transaction, and handed to the
+ * consumer in request order as each batch completes; at most two batches per worker are in flight for a request, so
+ * a slow consumer does not cause results to pile up. A guid that is not found, or that the user may not read, gets
+ * a result with the error instead of failing the fetch.
+ */
+@Component
+public class BulkEntityFetcher {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkEntityFetcher.class);
+
+    private static final String WORKER_NAME_FORMAT = "atlas-entity-fetch-%d";
+
+    private final AtlasGraph        graph;
+    private final AtlasTypeRegistry typeRegistry;
+    private final GraphHelper       graphHelper;
+    private final int               batchSize;
+    private final int               maxBatchesInFlight;
+    private final ExecutorService   executorService;
+
+    @Inject
+    public BulkEntityFetcher(AtlasGraph graph, AtlasTypeRegistry typeRegistry) {
+        int numThreads = Math.max(1, AtlasConfiguration.ENTITY_BULK_FETCH_THREADS.getInt());
+
+        this.graph              = graph;
+        this.typeRegistry       = typeRegistry;
+        this.graphHelper        = new GraphHelper(graph);
+        this.batchSize          = Math.max(1, AtlasConfiguration.ENTITY_BULK_FETCH_BATCH_SIZE.getInt());
+        this.maxBatchesInFlight = numThreads * 2;
+        this.executorService    = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder().setDaemon(true).setNameFormat(WORKER_NAME_FORMAT).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Fetches the entities with the given guids and hands a result for each guid to the consumer, in the order of
+     * the guids. Runs in the calling thread; must not be called within a graph transaction that has pending changes.
+     *
+     * @param guids        guids of the entities to fetch
+     * @param isMinExtInfo true to include only minimal details of referred entities
+     * @param ignoreRelationships true to not read relationship attributes
+     * @param consumer     receives the results
+     * @throws AtlasBaseException if a batch could not be fetched
+     */
+    public void fetch(List<String> guids, boolean isMinExtInfo, boolean ignoreRelationships, Consumer<AtlasEntityFetchResult> consumer) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> BulkEntityFetcher.fetch(guids={}, isMinExtInfo={}, ignoreRelationships={})", guids.size(), isMinExtInfo, ignoreRelationships);
+        }
+
+        Map<String, String>                         vertexIds  = resolveVertexIds(guids);
+        SecurityContext                             secContext = SecurityContextHolder.getContext();
+        String                                      user       = RequestContext.getCurrentUser();
+        Set<String>                                 userGroups = AtlasAuthorizationUtils.getCurrentUserGroups();
+        Deque<Future<List<AtlasEntityFetchResult>>> inFlight   = new ArrayDeque<>();
+        int                                         nextIdx    = 0;
+
+        try {
+            while (nextIdx < guids.size() || !inFlight.isEmpty()) {
+                while (nextIdx < guids.size() && inFlight.size() < maxBatchesInFlight) {
+                    List<String> batch = guids.subList(nextIdx, Math.min(nextIdx + batchSize, guids.size()));
+
+                    Callable<List<AtlasEntityFetchResult>> task = () -> fetchBatch(batch, vertexIds, user, userGroups, isMinExtInfo, ignoreRelationships);
+
+                    inFlight.add(executorService.submit(new DelegatingSecurityContextCallable<>(task, secContext)));
+
+                    nextIdx += batch.size();
+                }
+
+                for (AtlasEntityFetchResult result : inFlight.poll().get()) {
+                    consumer.accept(result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, e, "interrupted while fetching entities");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            throw cause instanceof AtlasBaseException ? (AtlasBaseException) cause : new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, cause, cause.getMessage());
+        } finally {
+            for (Future<List<AtlasEntityFetchResult>> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== BulkEntityFetcher.fetch(guids={}, isMinExtInfo={}, ignoreRelationships={})", guids.size(), isMinExtInfo, ignoreRelationships);
+        }
+    }
+
+    // guid -> vertex id, for guids found
+    private Map<String, String> resolveVertexIds(List<String> guids) {
+        Map<String, String> ret = new HashMap<>(guids.size());
+
+        try {
+            for (int i = 0; i < guids.size(); i += batchSize) {
+                Map<String, AtlasVertex> vertices = graphHelper.getVerticesForGUIDs(guids.subList(i, Math.min(i + batchSize, guids.size())));
+
+                for (Map.Entry<String, AtlasVertex> entry : vertices.entrySet()) {
+                    ret.put(entry.getKey(), entry.getValue().getId().toString());
+                }
+            }
+        } finally {
+            graph.rollback();
+        }
+
+        return ret;
+    }
+
+    private List<AtlasEntityFetchResult> fetchBatch(List<String> guids, Map<String, String> vertexIds, String user, Set<String> userGroups,
+                                                    boolean isMinExtInfo, boolean ignoreRelationships) {
+        List<AtlasEntityFetchResult> ret             = new ArrayList<>(guids.size());
+        EntityGraphRetriever         entityRetriever = new EntityGraphRetriever(graph, typeRegistry, ignoreRelationships);
+
+        try {
+            RequestContext.clear();
+            RequestContext.get().setUser(user, userGroups);
+
+            for (String guid : guids) {
+                try {
+                    String      vertexId = vertexIds.get(guid);
+                    AtlasVertex vertex   = vertexId != null ? graph.getVertex(vertexId) : null;
+
+                    if (vertex == null || typeRegistry.getEntityTypeByName(GraphHelper.getTypeName(vertex)) == null) {
+                        throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+                    }
+
+                    AtlasEntityWithExtInfo entity = entityRetriever.toAtlasEntityWithExtInfo(vertex, isMinExtInfo);
+
+                    AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(entity.getEntity())), "read entity: guid=", guid);
+
+                    ret.add(new AtlasEntityFetchResult(guid, entity));
+                } catch (AtlasBaseException e) {
+                    ret.add(new AtlasEntityFetchResult(guid, e.getAtlasErrorCode().getErrorCode(), e.getMessage()));
+                }
+            }
+        } finally {
+            graph.rollback();
+
+            RequestContext.clear();
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.graph.v2;
+
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.instance.AtlasRelationship;
+import org.apache.compactatlas.intg.model.instance.AtlasRelationshipMutationResult;
+import org.apache.compactatlas.repository.repository.store.graph.AtlasRelationshipStore;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Creates, updates and deletes relationships in bulk, for clients like lineage loaders that write many thousands of
+ * relationships at once.
+ *
+ * Relationships are written in chunks of atlas.relationship.bulk.chunk.size, each chunk in its own transaction by a
+ * single call to the relationship store, which looks up the ends and existing edges of the chunk in batches and sends
+ * the notifications of the chunk together. A relationship that fails validation or authorization gets a result with
+ * the error without failing its chunk; should a chunk fail while writing, its relationships are retried one at a time,
+ * so that only the failing relationship is reported as failed.
+ */
+@Component
+public class BulkRelationshipWriter {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkRelationshipWriter.class);
+
+    private final AtlasRelationshipStore relationshipStore;
+    private final int                    chunkSize;
+
+    @Inject
+    public BulkRelationshipWriter(AtlasRelationshipStore relationshipStore) {
+        this.relationshipStore = relationshipStore;
+        this.chunkSize         = Math.max(1, AtlasConfiguration.RELATIONSHIP_BULK_CHUNK_SIZE.getInt());
+    }
+
+    /**
+     * Creates the given relationships, or updates those whose guid matches an existing relationship.
+     *
+     * @param relationships relationships to create or update
+     * @return one result per relationship, in the given order
+     */
+    public List<AtlasRelationshipMutationResult> createOrUpdate(List<AtlasRelationship> relationships) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> BulkRelationshipWriter.createOrUpdate(relationships={})", relationships.size());
+        }
+
+        List<AtlasRelationshipMutationResult> ret = new ArrayList<>(relationships.size());
+
+        for (int offset = 0; offset < relationships.size(); offset += chunkSize) {
+            List<AtlasRelationship> chunk = relationships.subList(offset, Math.min(offset + chunkSize, relationships.size()));
+
+            try {
+                ret.addAll(relationshipStore.createOrUpdate(chunk));
+            } catch (Exception e) {
+                LOG.warn("BulkRelationshipWriter: chunk at offset {} failed; retrying its {} relationships one at a time", offset, chunk.size(), e);
+
+                for (AtlasRelationship relationship : chunk) {
+                    try {
+                        ret.addAll(relationshipStore.createOrUpdate(Collections.singletonList(relationship)));
+                    } catch (Exception excp) {
+                        ret.add(toErrorResult(relationship != null ? relationship.getGuid() : null, excp));
+                    } finally {
+                        RequestContext.get().clearCache();
+                    }
+                }
+            } finally {
+                RequestContext.get().clearCache();
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== BulkRelationshipWriter.createOrUpdate(relationships={})", relationships.size());
+        }
+
+        return ret;
+    }
+
+    /**
+     * Deletes the relationships with the given guids.
+     *
+     * @param guids       guids of the relationships to delete
+     * @param forceDelete true to remove the relationship edges, instead of marking them as deleted
+     * @return one result per guid, in the given order
+     */
+    public List<AtlasRelationshipMutationResult> deleteByIds(List<String> guids, boolean forceDelete) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> BulkRelationshipWriter.deleteByIds(guids={}, forceDelete={})", guids.size(), forceDelete);
+        }
+
+        List<AtlasRelationshipMutationResult> ret = new ArrayList<>(guids.size());
+
+        for (int offset = 0; offset < guids.size(); offset += chunkSize) {
+            List<String> chunk = guids.subList(offset, Math.min(offset + chunkSize, guids.size()));
+
+            try {
+                ret.addAll(relationshipStore.deleteByIds(chunk, forceDelete));
+            } catch (Exception e) {
+                LOG.warn("BulkRelationshipWriter: chunk at offset {} failed; retrying its {} deletes one at a time", offset, chunk.size(), e);
+
+                for (String guid : chunk) {
+                    try {
+                        ret.addAll(relationshipStore.deleteByIds(Collections.singletonList(guid), forceDelete));
+                    } catch (Exception excp) {
+                        ret.add(toErrorResult(guid, excp));
+                    } finally {
+                        RequestContext.get().clearCache();
+                    }
+                }
+            } finally {
+                RequestContext.get().clearCache();
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== BulkRelationshipWriter.deleteByIds(guids={}, forceDelete={})", guids.size(), forceDelete);
+        }
+
+        return ret;
+    }
+
+    private static AtlasRelationshipMutationResult toErrorResult(String guid, Exception e) {
+        AtlasErrorCode errorCode = e instanceof AtlasBaseException ? ((AtlasBaseException) e).getAtlasErrorCode() : AtlasErrorCode.INTERNAL_ERROR;
+
+        return new AtlasRelationshipMutationResult(guid, errorCode.getErrorCode(), e.getMessage());
+    }
+}
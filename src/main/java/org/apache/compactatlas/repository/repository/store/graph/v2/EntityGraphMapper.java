@@ -142,6 +142,7 @@ public class EntityGraphMapper {
     private static final Pattern LABEL_REGEX                       = Pattern.compile("^[a-zA-Z0-9_-]*$");
     private static final int     CUSTOM_ATTRIBUTE_KEY_MAX_LENGTH   = AtlasConfiguration.CUSTOM_ATTRIBUTE_KEY_MAX_LENGTH.getInt();
     private static final int     CUSTOM_ATTRIBUTE_VALUE_MAX_LENGTH = AtlasConfiguration.CUSTOM_ATTRIBUTE_VALUE_MAX_LENGTH.getInt();
+    private static final int     PROPAGATION_CHUNK_SIZE            = 1000;
 
     private static final boolean ENTITY_CHANGE_NOTIFY_IGNORE_RELATIONSHIP_ATTRIBUTES = AtlasConfiguration.ENTITY_CHANGE_NOTIFY_IGNORE_RELATIONSHIP_ATTRIBUTES.getBoolean();
     private static final boolean CLASSIFICATION_PROPAGATION_DEFAULT                  = AtlasConfiguration.CLASSIFICATION_PROPAGATION_DEFAULT.getBoolean();
@@ -652,7 +653,7 @@ public class EntityGraphMapper {
             MetricRecorder metric = RequestContext.get().startMetricRecord("mapAttributes");
 
             if (op.equals(CREATE)) {
-                for (AtlasAttribute attribute : structType.getAllAttributes().values()) {
+                for (AtlasAttribute attribute : structType.getAttributePlan()) {
                     Object attrValue = struct.getAttribute(attribute.getName());
 
                     mapAttribute(attribute, attrValue, vertex, op, context);
@@ -2067,6 +2068,127 @@ public class EntityGraphMapper {
         }
     }
 
+    /**
+     * Adds a classification to each of the given entities, without propagating it. Classification text is updated and
+     * listeners are notified once for all the entities, rather than once per entity.
+     */
+    public void addClassificationToEntities(final EntityMutationContext context, List<String> guids, AtlasClassification classification) throws AtlasBaseException {
+        if (CollectionUtils.isEmpty(guids)) {
+            return;
+        }
+
+        MetricRecorder            metric          = RequestContext.get().startMetricRecord("addClassificationToEntities");
+        List<AtlasVertex>         entityVertices  = new ArrayList<>(guids.size());
+        List<AtlasClassification> classifications = new ArrayList<>(guids.size());
+
+        for (String guid : guids) {
+            AtlasVertex         entityVertex         = context.getVertex(guid);
+            AtlasEntityType     entityType           = context.getType(guid);
+            AtlasClassification entityClassification = new AtlasClassification(classification);
+
+            if (entityClassification.isPropagate() == null) {
+                entityClassification.setPropagate(CLASSIFICATION_PROPAGATION_DEFAULT);
+            }
+
+            if (entityClassification.getRemovePropagationsOnEntityDelete() == null) {
+                entityClassification.setRemovePropagationsOnEntityDelete(graphHelper.getDefaultRemovePropagations());
+            }
+
+            entityClassification.setEntityGuid(guid);
+            entityClassification.setEntityStatus(ACTIVE);
+
+            addToClassificationNames(entityVertex, entityClassification.getTypeName());
+
+            AtlasVertex classificationVertex = createClassificationVertex(entityClassification);
+
+            mapClassification(EntityOperation.CREATE, context, entityClassification, entityType, entityVertex, classificationVertex);
+            updateModificationMetadata(entityVertex);
+
+            entityVertices.add(entityVertex);
+            classifications.add(entityClassification);
+        }
+
+        List<AtlasEntity> entities = updateClassificationText(classification, entityVertices);
+
+        entityChangeNotifier.onClassificationsAddedToEntities(entities, classifications);
+
+        RequestContext.get().endMetricRecord(metric);
+    }
+
+    /**
+     * Propagates the classification of each given entity to the entities impacted by it. An entity receives the
+     * classification from at most one of the given entities: excludedVertexIds holds ids of entities that already have
+     * it, and is updated with the ids of entities it is propagated to.
+     *
+     * @return number of entities the classification was propagated to
+     */
+    @GraphTransaction
+    public int propagateClassificationFromEntities(List<String> guids, String classificationName, Set<Object> excludedVertexIds) throws AtlasBaseException {
+        int                      ret      = 0;
+        Map<String, AtlasVertex> vertices = graphHelper.getVerticesForGUIDs(guids);
+
+        for (String guid : guids) {
+            AtlasVertex entityVertex         = vertices.get(guid);
+            AtlasVertex classificationVertex = entityVertex != null ? getClassificationVertex(entityVertex, classificationName) : null;
+
+            if (classificationVertex == null || !isPropagationEnabled(classificationVertex)) {
+                continue;
+            }
+
+            List<AtlasVertex> impactedVertices = new ArrayList<>();
+
+            for (AtlasVertex impactedVertex : entityRetriever.getImpactedVerticesV2(entityVertex)) {
+                if (excludedVertexIds.add(impactedVertex.getId())) {
+                    impactedVertices.add(impactedVertex);
+                }
+            }
+
+            if (impactedVertices.isEmpty()) {
+                continue;
+            }
+
+            GraphTransactionInterceptor.lockObjectAndReleasePostCommit(impactedVertices.stream().map(GraphHelper::getGuid).collect(Collectors.toList()));
+
+            List<AtlasVertex> entitiesPropagatedTo = deleteDelegate.getHandler().addTagPropagation(classificationVertex, impactedVertices);
+
+            if (CollectionUtils.isEmpty(entitiesPropagatedTo)) {
+                continue;
+            }
+
+            AtlasClassification classification     = entityRetriever.toAtlasClassification(classificationVertex);
+            List<AtlasEntity>   propagatedEntities = updateClassificationText(classification, entitiesPropagatedTo);
+
+            entityChangeNotifier.onClassificationsAddedToEntities(propagatedEntities, Collections.singletonList(classification));
+
+            ret += entitiesPropagatedTo.size();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Adds to excludedVertexIds the ids of the entities that propagateClassificationFromEntities() propagates the
+     * classification of the given entities to, without propagating it; used to resume a propagation that was
+     * interrupted after these entities.
+     */
+    @GraphTransaction
+    public void addPropagationTargets(List<String> guids, String classificationName, Set<Object> excludedVertexIds) throws AtlasBaseException {
+        Map<String, AtlasVertex> vertices = graphHelper.getVerticesForGUIDs(guids);
+
+        for (String guid : guids) {
+            AtlasVertex entityVertex         = vertices.get(guid);
+            AtlasVertex classificationVertex = entityVertex != null ? getClassificationVertex(entityVertex, classificationName) : null;
+
+            if (classificationVertex == null || !isPropagationEnabled(classificationVertex)) {
+                continue;
+            }
+
+            for (AtlasVertex impactedVertex : entityRetriever.getImpactedVerticesV2(entityVertex)) {
+                excludedVertexIds.add(impactedVertex.getId());
+            }
+        }
+    }
+
     @GraphTransaction
     public List<String> propagateClassification(String entityGuid, String classificationVertexId, String relationshipGuid) throws AtlasBaseException {
         try {
@@ -2100,18 +2222,29 @@ public class EntityGraphMapper {
             List<String> impactedVerticesGuidsToLock = impactedVertices.stream().map(x -> GraphHelper.getGuid(x)).collect(Collectors.toList());
             GraphTransactionInterceptor.lockObjectAndReleasePostCommit(impactedVerticesGuidsToLock);
 
-            AtlasClassification classification       = entityRetriever.toAtlasClassification(classificationVertex);
-            List<AtlasVertex>   entitiesPropagatedTo = deleteDelegate.getHandler().addTagPropagation(classificationVertex, impactedVertices);
+            AtlasClassification classification = entityRetriever.toAtlasClassification(classificationVertex);
+            List<String>        ret            = new ArrayList<>();
 
-            if (CollectionUtils.isEmpty(entitiesPropagatedTo)) {
-                return null;
-            }
+            // add propagated edges in chunks, so that entities and notifications for a classification propagated
+            // to the lineage of a supernode are not built all at once
+            for (int i = 0; i < impactedVertices.size(); i += PROPAGATION_CHUNK_SIZE) {
+                List<AtlasVertex> chunk                = impactedVertices.subList(i, Math.min(i + PROPAGATION_CHUNK_SIZE, impactedVertices.size()));
+                List<AtlasVertex> entitiesPropagatedTo = deleteDelegate.getHandler().addTagPropagation(classificationVertex, chunk);
 
-            List<AtlasEntity> propagatedEntities = updateClassificationText(classification, entitiesPropagatedTo);
+                if (CollectionUtils.isEmpty(entitiesPropagatedTo)) {
+                    continue;
+                }
 
-            entityChangeNotifier.onClassificationsAddedToEntities(propagatedEntities, Collections.singletonList(classification));
+                List<AtlasEntity> propagatedEntities = updateClassificationText(classification, entitiesPropagatedTo);
 
-            return propagatedEntities.stream().map(x -> x.getGuid()).collect(Collectors.toList());
+                entityChangeNotifier.onClassificationsAddedToEntities(propagatedEntities, Collections.singletonList(classification));
+
+                for (AtlasEntity propagatedEntity : propagatedEntities) {
+                    ret.add(propagatedEntity.getGuid());
+                }
+            }
+
+            return ret.isEmpty() ? null : ret;
         } catch (Exception e) {
             LOG.error("propagateClassification(entityGuid={}, classificationVertexId={}): error while propagating classification", entityGuid, classificationVertexId, e);
 
@@ -18,6 +18,7 @@
 package org.apache.compactatlas.repository.repository.store.graph.v2;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import org.apache.compactatlas.intg.AtlasConfiguration;
 import org.apache.compactatlas.intg.AtlasErrorCode;
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
 import org.apache.compactatlas.intg.model.TimeBoundary;
@@ -45,6 +46,7 @@ import org.apache.compactatlas.graphdb.api.AtlasEdgeDirection;
 import org.apache.compactatlas.graphdb.api.AtlasElement;
 import org.apache.compactatlas.graphdb.api.AtlasGraph;
 import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.serverapi.RequestContext;
 import org.apache.compactatlas.intg.type.AtlasArrayType;
 import org.apache.compactatlas.intg.type.AtlasBuiltInTypes.AtlasObjectIdType;
 import org.apache.compactatlas.intg.type.AtlasEntityType;
@@ -134,6 +136,10 @@ public class EntityGraphRetriever {
     public static final String QUALIFIED_NAME = "qualifiedName";
 
     private static final TypeReference<List<TimeBoundary>> TIME_BOUNDARIES_LIST_TYPE = new TypeReference<List<TimeBoundary>>() {};
+
+    // relationship attributes with more edges than this are returned truncated, along with their count; 0 or less disables the limit
+    private static final int SUPERNODE_EDGE_THRESHOLD = AtlasConfiguration.RELATIONSHIP_SUPERNODE_EDGE_THRESHOLD.getInt();
+
     private final GraphHelper graphHelper;
 
     private final AtlasTypeRegistry typeRegistry;
@@ -169,6 +175,10 @@ public class EntityGraphRetriever {
         return mapVertexToAtlasEntity(entityVertex, null);
     }
 
+    public AtlasEntity toAtlasEntity(AtlasVertex entityVertex, EntityProjection projection) throws AtlasBaseException {
+        return mapVertexToAtlasEntity(entityVertex, null, projection, true);
+    }
+
     public AtlasEntityWithExtInfo toAtlasEntityWithExtInfo(String guid) throws AtlasBaseException {
         return toAtlasEntityWithExtInfo(getEntityVertex(guid));
     }
@@ -186,8 +196,19 @@ public class EntityGraphRetriever {
     }
 
     public AtlasEntityWithExtInfo toAtlasEntityWithExtInfo(AtlasVertex entityVertex, boolean isMinExtInfo) throws AtlasBaseException {
+        return toAtlasEntityWithExtInfo(entityVertex, isMinExtInfo ? EntityProjection.ALL_MIN_EXT_INFO : EntityProjection.ALL);
+    }
+
+    public AtlasEntityWithExtInfo toAtlasEntityWithExtInfo(String guid, EntityProjection projection) throws AtlasBaseException {
+        return toAtlasEntityWithExtInfo(getEntityVertex(guid), projection);
+    }
+
+    /**
+     * Maps the entity vertex to AtlasEntityWithExtInfo, reading only the parts of the entity selected by the projection.
+     */
+    public AtlasEntityWithExtInfo toAtlasEntityWithExtInfo(AtlasVertex entityVertex, EntityProjection projection) throws AtlasBaseException {
         AtlasEntityExtInfo     entityExtInfo = new AtlasEntityExtInfo();
-        AtlasEntity            entity        = mapVertexToAtlasEntity(entityVertex, entityExtInfo, isMinExtInfo);
+        AtlasEntity            entity        = mapVertexToAtlasEntity(entityVertex, entityExtInfo, projection, true);
         AtlasEntityWithExtInfo ret           = new AtlasEntityWithExtInfo(entity, entityExtInfo);
 
         ret.compact();
@@ -389,12 +410,16 @@ public class EntityGraphRetriever {
     }
 
     public AtlasEntitiesWithExtInfo toAtlasEntitiesWithExtInfo(List<String> guids, boolean isMinExtInfo) throws AtlasBaseException {
+        return toAtlasEntitiesWithExtInfo(guids, isMinExtInfo ? EntityProjection.ALL_MIN_EXT_INFO : EntityProjection.ALL);
+    }
+
+    public AtlasEntitiesWithExtInfo toAtlasEntitiesWithExtInfo(List<String> guids, EntityProjection projection) throws AtlasBaseException {
         AtlasEntitiesWithExtInfo ret = new AtlasEntitiesWithExtInfo();
 
         for (String guid : guids) {
             AtlasVertex vertex = getEntityVertex(guid);
 
-            AtlasEntity entity = mapVertexToAtlasEntity(vertex, ret, isMinExtInfo);
+            AtlasEntity entity = mapVertexToAtlasEntity(vertex, ret, projection, true);
 
             ret.addEntity(entity);
         }
@@ -645,6 +670,10 @@ public class EntityGraphRetriever {
     }
 
     private AtlasEntity mapVertexToAtlasEntity(AtlasVertex entityVertex, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo, boolean includeReferences) throws AtlasBaseException {
+        return mapVertexToAtlasEntity(entityVertex, entityExtInfo, isMinExtInfo ? EntityProjection.ALL_MIN_EXT_INFO : EntityProjection.ALL, includeReferences);
+    }
+
+    private AtlasEntity mapVertexToAtlasEntity(AtlasVertex entityVertex, AtlasEntityExtInfo entityExtInfo, EntityProjection projection, boolean includeReferences) throws AtlasBaseException {
         String      guid   = GraphHelper.getGuid(entityVertex);
         AtlasEntity entity = entityExtInfo != null ? entityExtInfo.getEntity(guid) : null;
 
@@ -661,15 +690,19 @@ public class EntityGraphRetriever {
 
             mapSystemAttributes(entityVertex, entity);
 
-            mapBusinessAttributes(entityVertex, entity);
+            if (projection.isIncludeBusinessAttributes()) {
+                mapBusinessAttributes(entityVertex, entity);
+            }
 
-            mapAttributes(entityVertex, entity, entityExtInfo, isMinExtInfo, includeReferences);
+            mapAttributes(entityVertex, entity, entityExtInfo, projection, includeReferences);
 
-            if (!ignoreRelationshipAttr) { // only map when really needed
-                mapRelationshipAttributes(entityVertex, entity, entityExtInfo, isMinExtInfo);
+            if (!ignoreRelationshipAttr && projection.hasRelationshipAttributes()) { // only map when really needed
+                mapRelationshipAttributes(entityVertex, entity, entityExtInfo, projection);
             }
 
-            mapClassifications(entityVertex, entity);
+            if (projection.isIncludeClassifications()) {
+                mapClassifications(entityVertex, entity);
+            }
         }
 
         return entity;
@@ -834,6 +867,10 @@ public class EntityGraphRetriever {
     }
 
     private void mapAttributes(AtlasVertex entityVertex, AtlasStruct struct, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo, boolean includeReferences) throws AtlasBaseException {
+        mapAttributes(entityVertex, struct, entityExtInfo, isMinExtInfo ? EntityProjection.ALL_MIN_EXT_INFO : EntityProjection.ALL, includeReferences);
+    }
+
+    private void mapAttributes(AtlasVertex entityVertex, AtlasStruct struct, AtlasEntityExtInfo entityExtInfo, EntityProjection projection, boolean includeReferences) throws AtlasBaseException {
         AtlasType objType = typeRegistry.getType(struct.getTypeName());
 
         if (!(objType instanceof AtlasStructType)) {
@@ -842,8 +879,12 @@ public class EntityGraphRetriever {
 
         AtlasStructType structType = (AtlasStructType) objType;
 
-        for (AtlasAttribute attribute : structType.getAllAttributes().values()) {
-            Object attrValue = mapVertexToAttribute(entityVertex, attribute, entityExtInfo, isMinExtInfo, includeReferences);
+        for (AtlasAttribute attribute : structType.getAttributePlan()) {
+            if (!projection.includesAttribute(attribute.getName())) {
+                continue;
+            }
+
+            Object attrValue = mapVertexToAttribute(entityVertex, attribute, entityExtInfo, projection.isMinExtInfo(), includeReferences);
 
             struct.setAttribute(attribute.getName(), attrValue);
         }
@@ -1353,19 +1394,47 @@ public class EntityGraphRetriever {
         return vertex != null && attribute != null ? mapVertexToAttribute(vertex, attribute, null, false, true, true) : null;
     }
 
-    private void mapRelationshipAttributes(AtlasVertex entityVertex, AtlasEntity entity, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo) throws AtlasBaseException {
+    private void mapRelationshipAttributes(AtlasVertex entityVertex, AtlasEntity entity, AtlasEntityExtInfo entityExtInfo, EntityProjection projection) throws AtlasBaseException {
         AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
 
         if (entityType == null) {
             throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_INVALID, entity.getTypeName());
         }
 
-        for (String attributeName : entityType.getRelationshipAttributes().keySet()) {
-            mapVertexToRelationshipAttribute(entityVertex, entityType, attributeName, entity, entityExtInfo, isMinExtInfo);
+        Map<String, Map<String, AtlasAttribute>> relationshipAttributes = entityType.getRelationshipAttributes();
+        List<String>                             attributeNames         = new ArrayList<>(relationshipAttributes.size());
+        Set<String>                              edgeLabels             = new HashSet<>();
+
+        for (Map.Entry<String, Map<String, AtlasAttribute>> entry : relationshipAttributes.entrySet()) {
+            if (projection.includesRelationshipAttribute(entry.getKey())) {
+                attributeNames.add(entry.getKey());
+
+                for (AtlasAttribute attribute : entry.getValue().values()) {
+                    if (attribute.getRelationshipEdgeLabel() != null) {
+                        edgeLabels.add(attribute.getRelationshipEdgeLabel());
+                    }
+                }
+            }
+        }
+
+        // read all relationship edges of the vertex with a single query, instead of one query per relationship attribute;
+        // for supernodes, fall back to per-attribute queries that read a bounded number of edges
+        RelationshipEdges relationshipEdges = attributeNames.size() > 1 ? new RelationshipEdges(entityVertex, edgeLabels, SUPERNODE_EDGE_THRESHOLD) : null;
+
+        if (relationshipEdges != null && relationshipEdges.isTruncated()) {
+            relationshipEdges = null;
+        }
+
+        for (String attributeName : attributeNames) {
+            mapVertexToRelationshipAttribute(entityVertex, entityType, attributeName, entity, entityExtInfo, projection.isMinExtInfo(), relationshipEdges);
         }
     }
 
     private Object mapVertexToRelationshipAttribute(AtlasVertex entityVertex, AtlasEntityType entityType, String attributeName, AtlasEntity entity, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo) throws AtlasBaseException {
+        return mapVertexToRelationshipAttribute(entityVertex, entityType, attributeName, entity, entityExtInfo, isMinExtInfo, null);
+    }
+
+    private Object mapVertexToRelationshipAttribute(AtlasVertex entityVertex, AtlasEntityType entityType, String attributeName, AtlasEntity entity, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo, RelationshipEdges relationshipEdges) throws AtlasBaseException {
         Object                ret                  = null;
         String                relationshipTypeName = graphHelper.getRelationshipTypeName(entityVertex, entityType, attributeName);
         AtlasRelationshipType relationshipType     = relationshipTypeName != null ? typeRegistry.getRelationshipTypeByName(relationshipTypeName) : null;
@@ -1394,12 +1463,12 @@ public class EntityGraphRetriever {
 
         switch (attributeEndDef.getCardinality()) {
             case SINGLE:
-                ret = mapRelatedVertexToObjectId(entityVertex, attribute, entityExtInfo, isMinExtInfo);
+                ret = mapRelatedVertexToObjectId(entityVertex, attribute, entityExtInfo, isMinExtInfo, relationshipEdges);
                 break;
 
             case LIST:
             case SET:
-                ret = mapRelationshipArrayAttribute(entityVertex, attribute, entityExtInfo, isMinExtInfo);
+                ret = mapRelationshipArrayAttribute(entityVertex, attribute, entity, entityExtInfo, isMinExtInfo, relationshipEdges);
                 break;
         }
 
@@ -1469,17 +1538,30 @@ public class EntityGraphRetriever {
         return ret;
     }
 
-    private AtlasObjectId mapRelatedVertexToObjectId(AtlasVertex entityVertex, AtlasAttribute attribute, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo) throws AtlasBaseException {
-        AtlasEdge edge = graphHelper.getEdgeForLabel(entityVertex, attribute.getRelationshipEdgeLabel(), attribute.getRelationshipEdgeDirection());
+    private AtlasObjectId mapRelatedVertexToObjectId(AtlasVertex entityVertex, AtlasAttribute attribute, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo, RelationshipEdges relationshipEdges) throws AtlasBaseException {
+        final AtlasEdge edge;
+
+        if (relationshipEdges != null) {
+            edge = GraphHelper.getActiveOrLatestDeletedEdge(relationshipEdges.getEdges(attribute.getRelationshipEdgeLabel(), attribute.getRelationshipEdgeDirection()));
+        } else {
+            edge = graphHelper.getEdgeForLabel(entityVertex, attribute.getRelationshipEdgeLabel(), attribute.getRelationshipEdgeDirection());
+        }
 
         return mapVertexToRelatedObjectId(entityVertex, edge, attribute.isOwnedRef(), entityExtInfo, isMinExtInfo);
     }
 
-    private List<AtlasRelatedObjectId> mapRelationshipArrayAttribute(AtlasVertex entityVertex, AtlasAttribute attribute, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo) throws AtlasBaseException {
-        List<AtlasRelatedObjectId> ret   = new ArrayList<>();
-        Iterator<AtlasEdge>        edges = null;
+    private List<AtlasRelatedObjectId> mapRelationshipArrayAttribute(AtlasVertex entityVertex, AtlasAttribute attribute, AtlasEntity entity, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo, RelationshipEdges relationshipEdges) throws AtlasBaseException {
+        List<AtlasRelatedObjectId> ret        = new ArrayList<>();
+        Iterator<AtlasEdge>        edges      = null;
+        boolean                    isTruncate = false;
 
-        if (attribute.getRelationshipEdgeDirection() == IN) {
+        if (relationshipEdges != null) {
+            edges = relationshipEdges.getEdges(attribute.getRelationshipEdgeLabel(), attribute.getRelationshipEdgeDirection());
+        } else if (SUPERNODE_EDGE_THRESHOLD > 0 && RequestContext.get().isTruncateRelationshipAttributes()) {
+            // read ACTIVE edges only, as getRelationshipAttributeValues() does, so that the values returned here are its first page
+            edges      = getActiveEdgesForLabel(entityVertex, attribute.getRelationshipEdgeLabel(), attribute.getRelationshipEdgeDirection());
+            isTruncate = true;
+        } else if (attribute.getRelationshipEdgeDirection() == IN) {
             edges = getIncomingEdgesByLabel(entityVertex, attribute.getRelationshipEdgeLabel());
         } else if (attribute.getRelationshipEdgeDirection() == OUT) {
             edges = getOutGoingEdgesByLabel(entityVertex, attribute.getRelationshipEdgeLabel());
@@ -1488,13 +1570,79 @@ public class EntityGraphRetriever {
         }
 
         if (edges != null) {
+            long count = 0;
+
             while (edges.hasNext()) {
                 AtlasEdge relationshipEdge = edges.next();
 
+                // past the threshold, only count the edges: the total is returned along with the truncated value
+                if (isTruncate && count++ >= SUPERNODE_EDGE_THRESHOLD) {
+                    continue;
+                }
+
                 AtlasRelatedObjectId relatedObjectId = mapVertexToRelatedObjectId(entityVertex, relationshipEdge, attribute.isOwnedRef(), entityExtInfo, isMinExtInfo);
 
                 ret.add(relatedObjectId);
             }
+
+            if (isTruncate && count > SUPERNODE_EDGE_THRESHOLD) {
+                LOG.warn("relationship attribute {} of entity {} has {} active edges; returning only the first {}", attribute.getName(), getGuid(entityVertex), count, ret.size());
+
+                if (entity != null) {
+                    entity.setRelationshipAttributeCount(attribute.getName(), count);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns a page of ACTIVE values of the given relationship attribute, reading only the edges up to the end of the page.
+     * Used to page through relationship attributes of supernodes, which are returned truncated with the entity.
+     */
+    public List<AtlasRelatedObjectId> getRelationshipAttributeValues(AtlasVertex entityVertex, String attributeName, int offset, int limit) throws AtlasBaseException {
+        AtlasAttribute             attribute = getRelationshipAttribute(entityVertex, attributeName);
+        List<AtlasRelatedObjectId> ret       = new ArrayList<>();
+        int                        pageEnd   = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        Iterator<AtlasEdge>        edges     = getActiveEdgesForLabel(entityVertex, attribute.getRelationshipEdgeLabel(), attribute.getRelationshipEdgeDirection(), pageEnd);
+
+        for (int idx = 0; edges.hasNext(); idx++) {
+            AtlasEdge edge = edges.next();
+
+            if (idx < offset) {
+                continue;
+            }
+
+            AtlasRelatedObjectId relatedObjectId = mapVertexToRelatedObjectId(entityVertex, edge, false, null, true);
+
+            if (relatedObjectId != null) {
+                ret.add(relatedObjectId);
+            }
+        }
+
+        return ret;
+    }
+
+    public long getRelationshipAttributeCount(AtlasVertex entityVertex, String attributeName) throws AtlasBaseException {
+        AtlasAttribute attribute = getRelationshipAttribute(entityVertex, attributeName);
+
+        return getActiveEdgesCountForLabel(entityVertex, attribute.getRelationshipEdgeLabel(), attribute.getRelationshipEdgeDirection());
+    }
+
+    private AtlasAttribute getRelationshipAttribute(AtlasVertex entityVertex, String attributeName) throws AtlasBaseException {
+        String          typeName   = getTypeName(entityVertex);
+        AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
+
+        if (entityType == null) {
+            throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_INVALID, typeName);
+        }
+
+        String         relationshipTypeName = graphHelper.getRelationshipTypeName(entityVertex, entityType, attributeName);
+        AtlasAttribute ret                  = relationshipTypeName != null ? entityType.getRelationshipAttribute(attributeName, relationshipTypeName) : null;
+
+        if (ret == null) {
+            throw new AtlasBaseException(AtlasErrorCode.UNKNOWN_ATTRIBUTE, attributeName, typeName);
         }
 
         return ret;
@@ -1700,7 +1848,7 @@ public class EntityGraphRetriever {
 
         AtlasRelationshipType relationshipType = (AtlasRelationshipType) objType;
 
-        for (AtlasAttribute attribute : relationshipType.getAllAttributes().values()) {
+        for (AtlasAttribute attribute : relationshipType.getAttributePlan()) {
             // mapping only primitive attributes
             Object attrValue = mapVertexToPrimitive(edge, attribute.getVertexPropertyName(), attribute.getAttributeDef());
 
@@ -1721,4 +1869,62 @@ public class EntityGraphRetriever {
     private boolean isInactiveEdge(Object element, boolean ignoreInactive) {
         return ignoreInactive && element instanceof AtlasEdge && getStatus((AtlasEdge) element) != AtlasEntity.Status.ACTIVE;
     }
+
+    /**
+     * Relationship edges of a vertex, read with one query and grouped by edge label
+     */
+    private static class RelationshipEdges {
+        private final Object                       vertexId;
+        private final Map<String, List<AtlasEdge>> edgesByLabel = new HashMap<>();
+        private       boolean                      isTruncated  = false;
+
+        RelationshipEdges(AtlasVertex vertex, Set<String> edgeLabels, int maxEdges) {
+            this.vertexId = vertex.getId();
+
+            if (CollectionUtils.isNotEmpty(edgeLabels)) {
+                Set<Object>         edgeIds = new HashSet<>();
+                Iterator<AtlasEdge> iter    = vertex.getEdges(AtlasEdgeDirection.BOTH, edgeLabels.toArray(new String[0])).iterator();
+
+                while (iter.hasNext()) {
+                    AtlasEdge edge = iter.next();
+
+                    if (edgeIds.add(edge.getId())) { // self-referencing edges are returned twice for direction BOTH
+                        if (maxEdges > 0 && edgeIds.size() > maxEdges) {
+                            isTruncated = true;
+
+                            edgesByLabel.clear();
+
+                            break;
+                        }
+
+                        edgesByLabel.computeIfAbsent(edge.getLabel(), k -> new ArrayList<>()).add(edge);
+                    }
+                }
+            }
+        }
+
+        boolean isTruncated() { return isTruncated; }
+
+        Iterator<AtlasEdge> getEdges(String edgeLabel, AtlasRelationshipEdgeDirection direction) {
+            List<AtlasEdge> edges = edgesByLabel.get(edgeLabel);
+
+            if (edges == null) {
+                return Collections.emptyIterator();
+            } else if (direction == BOTH) {
+                return edges.iterator();
+            }
+
+            List<AtlasEdge> ret = new ArrayList<>(edges.size());
+
+            for (AtlasEdge edge : edges) {
+                AtlasVertex endVertex = direction == IN ? edge.getInVertex() : edge.getOutVertex();
+
+                if (endVertex != null && Objects.equals(vertexId, endVertex.getId())) {
+                    ret.add(edge);
+                }
+            }
+
+            return ret.iterator();
+        }
+    }
 }
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.graph.v2;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Describes which parts of an entity EntityGraphRetriever should read from the graph.
+ *
+ * A null attribute (or relationship-attribute) set means all attributes; an empty set means none. The projection
+ * applies only to the requested entity; referred entities added to AtlasEntityExtInfo are mapped as before.
+ */
+public class EntityProjection {
+    public static final EntityProjection ALL              = new EntityProjection(null, null, true, true, false);
+    public static final EntityProjection ALL_MIN_EXT_INFO = new EntityProjection(null, null, true, true, true);
+
+    private final Set<String> attributes;
+    private final Set<String> relationshipAttributes;
+    private final boolean     includeClassifications;
+    private final boolean     includeBusinessAttributes;
+    private final boolean     isMinExtInfo;
+
+    public EntityProjection(Collection<String> attributes, Collection<String> relationshipAttributes,
+                            boolean includeClassifications, boolean includeBusinessAttributes, boolean isMinExtInfo) {
+        this.attributes                = attributes != null ? Collections.unmodifiableSet(new HashSet<>(attributes)) : null;
+        this.relationshipAttributes    = relationshipAttributes != null ? Collections.unmodifiableSet(new HashSet<>(relationshipAttributes)) : null;
+        this.includeClassifications    = includeClassifications;
+        this.includeBusinessAttributes = includeBusinessAttributes;
+        this.isMinExtInfo              = isMinExtInfo;
+    }
+
+    /**
+     * @param attributes             names of attributes to read; null to read all
+     * @param relationshipAttributes names of relationship attributes to read; null to read all
+     * @return projection that reads the given attributes, along with classifications
+     */
+    public static EntityProjection of(Collection<String> attributes, Collection<String> relationshipAttributes) {
+        return new EntityProjection(attributes, relationshipAttributes, true, false, false);
+    }
+
+    public Set<String> getAttributes() { return attributes; }
+
+    public Set<String> getRelationshipAttributes() { return relationshipAttributes; }
+
+    public boolean isIncludeClassifications() { return includeClassifications; }
+
+    public boolean isIncludeBusinessAttributes() { return includeBusinessAttributes; }
+
+    public boolean isMinExtInfo() { return isMinExtInfo; }
+
+    public boolean includesAttribute(String attrName) {
+        return attributes == null || attributes.contains(attrName);
+    }
+
+    public boolean includesRelationshipAttribute(String attrName) {
+        return relationshipAttributes == null || relationshipAttributes.contains(attrName);
+    }
+
+    public boolean hasRelationshipAttributes() {
+        return relationshipAttributes == null || !relationshipAttributes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "EntityProjection{attributes=" + attributes +
+                ", relationshipAttributes=" + relationshipAttributes +
+                ", includeClassifications=" + includeClassifications +
+                ", includeBusinessAttributes=" + includeBusinessAttributes +
+                ", isMinExtInfo=" + isMinExtInfo + "}";
+    }
+}
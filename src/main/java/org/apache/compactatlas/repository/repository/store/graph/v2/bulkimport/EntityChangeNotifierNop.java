@@ -42,6 +42,11 @@ public class EntityChangeNotifierNop implements IAtlasEntityChangeNotifier {
 
     }
 
+    @Override
+    public void notifyRelationshipMutations(List<AtlasRelationship> relationships, EntityNotification.EntityNotificationV2.OperationType operationType) throws AtlasBaseException {
+
+    }
+
     @Override
     public void onClassificationAddedToEntity(AtlasEntity entity, List<AtlasClassification> addedClassifications) throws AtlasBaseException {
 
@@ -0,0 +1,364 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.graph.v2.tasks;
+
+import org.apache.compactatlas.authorize.AtlasAuthorizationUtils;
+import org.apache.compactatlas.authorize.AtlasEntityAccessRequest;
+import org.apache.compactatlas.authorize.AtlasPrivilege;
+import org.apache.compactatlas.common.annotation.GraphTransaction;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.discovery.AtlasSearchResult;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters;
+import org.apache.compactatlas.intg.model.instance.AtlasClassification;
+import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
+import org.apache.compactatlas.intg.model.tasks.AtlasTask;
+import org.apache.compactatlas.intg.type.AtlasType;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.repository.discovery.AtlasDiscoveryService;
+import org.apache.compactatlas.repository.repository.graph.GraphHelper;
+import org.apache.compactatlas.repository.repository.store.graph.AtlasEntityStore;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityGraphMapper;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.compactatlas.repository.tasks.AbstractTask;
+import org.apache.compactatlas.repository.tasks.TaskFactory;
+import org.apache.compactatlas.repository.tasks.TaskManagement;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.compactatlas.intg.model.tasks.AtlasTask.Status.COMPLETE;
+
+/**
+ * Associates a classification with a large set of entities, given as GUIDs or as a search, in a task.
+ *
+ * The search is resolved, and the submitter's access to classify each entity verified, when the task is submitted: the
+ * task runs on a worker thread, without the submitter's security context.
+ * The task first adds the classification to the entities in chunks, each in its own transaction, with entity lookups,
+ * classification text, full-text and audit updates written once per chunk; propagation is deferred to a second phase
+ * that propagates from every entity of the set, so that an entity reachable from many of them receives the
+ * classification once and entities of the set receive no propagated copy. The GUIDs of the entities are stored once
+ * with the task, apart from its parameters; phase, offset and counts are recorded in the parameters after each chunk,
+ * which reports progress through the tasks API and lets a restarted task resume.
+ */
+@Component
+public class BulkClassificationService implements TaskFactory {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkClassificationService.class);
+
+    public static final String CLASSIFICATION_BULK_ADD = "CLASSIFICATION_BULK_ADD";
+
+    public static final String PARAM_CLASSIFICATION    = "classification";
+    public static final String PARAM_ENTITY_GUIDS      = "entityGuids";
+    public static final String PARAM_PHASE             = "phase";
+    public static final String PARAM_OFFSET            = "offset";
+    public static final String PARAM_TOTAL             = "total";
+    public static final String PARAM_CLASSIFIED        = "classified";
+    public static final String PARAM_SKIPPED           = "skipped";
+    public static final String PARAM_PROPAGATED        = "propagated";
+    public static final String PARAM_ELAPSED_MS        = "elapsedMs";
+    public static final String PARAM_ENTITIES_PER_SEC  = "entitiesPerSec";
+
+    public static final String PHASE_CLASSIFY  = "CLASSIFY";
+    public static final String PHASE_PROPAGATE = "PROPAGATE";
+
+    private static final List<String> supportedTypes = Collections.singletonList(CLASSIFICATION_BULK_ADD);
+
+    private final AtlasGraph            graph;
+    private final AtlasTypeRegistry     typeRegistry;
+    private final AtlasEntityStore      entityStore;
+    private final EntityGraphMapper     entityGraphMapper;
+    private final AtlasDiscoveryService discoveryService;
+    private final TaskManagement        taskManagement;
+    private final GraphHelper           graphHelper;
+    private final EntityGraphRetriever  entityRetriever;
+
+    @Inject
+    public BulkClassificationService(AtlasGraph graph, AtlasTypeRegistry typeRegistry, AtlasEntityStore entityStore, EntityGraphMapper entityGraphMapper,
+                                     AtlasDiscoveryService discoveryService, TaskManagement taskManagement) {
+        this.graph             = graph;
+        this.typeRegistry      = typeRegistry;
+        this.entityStore       = entityStore;
+        this.entityGraphMapper = entityGraphMapper;
+        this.discoveryService  = discoveryService;
+        this.taskManagement    = taskManagement;
+        this.graphHelper       = new GraphHelper(graph);
+        this.entityRetriever   = new EntityGraphRetriever(graph, typeRegistry);
+    }
+
+    /**
+     * Queues a task to associate the classification with the given entities and with the results of the search. The
+     * user must be allowed to add the classification to each of the entities; entities that do not exist are ignored.
+     *
+     * @param classification   classification to associate
+     * @param entityGuids      entities to classify; optional when searchParameters is given
+     * @param searchParameters search whose results are to be classified; optional when entityGuids is given
+     * @return the queued task
+     * @throws AtlasBaseException
+     */
+    @GraphTransaction
+    public AtlasTask submit(AtlasClassification classification, List<String> entityGuids, SearchParameters searchParameters) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> BulkClassificationService.submit({}, guids={}, {})", classification, CollectionUtils.size(entityGuids), searchParameters);
+        }
+
+        if (classification == null || StringUtils.isEmpty(classification.getTypeName())) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "no classification");
+        }
+
+        if (typeRegistry.getClassificationTypeByName(classification.getTypeName()) == null) {
+            throw new AtlasBaseException(AtlasErrorCode.TYPE_NAME_NOT_FOUND, classification.getTypeName());
+        }
+
+        if (CollectionUtils.isEmpty(entityGuids) && searchParameters == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "Need either list of GUIDs or search parameters");
+        }
+
+        if (classification.isPropagate() == null) {
+            classification.setPropagate(AtlasConfiguration.CLASSIFICATION_PROPAGATION_DEFAULT.getBoolean());
+        }
+
+        int         chunkSize = Math.max(1, AtlasConfiguration.CLASSIFICATION_BULK_CHUNK_SIZE.getInt());
+        Set<String> guids     = new LinkedHashSet<>();
+
+        if (entityGuids != null) {
+            guids.addAll(entityGuids);
+        }
+
+        // resolved once, with the submitter's access to the results, so that a resumed task works on the same entities
+        List<String> guidList = searchParameters != null ? searchEntityGuids(searchParameters, guids, chunkSize) : new ArrayList<>(guids);
+
+        verifyAddClassificationAccess(guidList, classification, chunkSize);
+
+        Map<String, Object> params = new HashMap<>();
+
+        params.put(PARAM_CLASSIFICATION, AtlasType.toJson(classification));
+        params.put(PARAM_PHASE, PHASE_CLASSIFY);
+        params.put(PARAM_OFFSET, 0);
+        params.put(PARAM_TOTAL, guidList.size());
+
+        AtlasTask ret = taskManagement.createTask(CLASSIFICATION_BULK_ADD, RequestContext.getCurrentUser(), params);
+
+        // the list can hold millions of GUIDs: it is stored once, while the parameters are saved after every chunk
+        taskManagement.savePayload(ret, PARAM_ENTITY_GUIDS, guidList);
+
+        RequestContext.get().queueTask(ret);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== BulkClassificationService.submit({}): task={}", classification.getTypeName(), ret.getGuid());
+        }
+
+        return ret;
+    }
+
+    @Override
+    public AbstractTask create(AtlasTask task) {
+        return new BulkClassificationTask(task);
+    }
+
+    @Override
+    public List<String> getSupportedTypes() {
+        return supportedTypes;
+    }
+
+    @Override
+    public boolean isLongRunning(String taskType) {
+        return true;
+    }
+
+    private void verifyAddClassificationAccess(List<String> guids, AtlasClassification classification, int chunkSize) throws AtlasBaseException {
+        for (int offset = 0; offset < guids.size(); offset += chunkSize) {
+            Map<String, AtlasVertex> vertices = graphHelper.getVerticesForGUIDs(guids.subList(offset, Math.min(offset + chunkSize, guids.size())));
+
+            for (Map.Entry<String, AtlasVertex> entry : vertices.entrySet()) {
+                AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeaderWithClassifications(entry.getValue());
+
+                AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_ADD_CLASSIFICATION, entityHeader, classification),
+                                                     "add classification: guid=", entry.getKey(), ", classification=", classification.getTypeName());
+            }
+        }
+    }
+
+    private List<String> searchEntityGuids(SearchParameters searchParameters, Set<String> guids, int pageSize) throws AtlasBaseException {
+        searchParameters.setLimit(pageSize);
+
+        for (int offset = 0; ; offset += pageSize) {
+            searchParameters.setOffset(offset);
+
+            AtlasSearchResult       result   = discoveryService.searchWithParameters(searchParameters);
+            List<AtlasEntityHeader> entities = result != null ? result.getEntities() : null;
+
+            if (CollectionUtils.isEmpty(entities)) {
+                break;
+            }
+
+            for (AtlasEntityHeader entity : entities) {
+                guids.add(entity.getGuid());
+            }
+
+            if (entities.size() < pageSize) {
+                break;
+            }
+        }
+
+        return new ArrayList<>(guids);
+    }
+
+    private static boolean isPropagate(AtlasClassification classification) {
+        return classification.isPropagate() != null ? classification.isPropagate() : AtlasConfiguration.CLASSIFICATION_PROPAGATION_DEFAULT.getBoolean();
+    }
+
+    private static long getLong(Map<String, Object> params, String name) {
+        Object value = params.get(name);
+
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static void newRequestContext(String user) {
+        RequestContext.clear();
+        RequestContext.get().setUser(user, null);
+    }
+
+    private class BulkClassificationTask extends AbstractTask {
+        private long startTime;
+        private long previousElapsedMs;
+
+        BulkClassificationTask(AtlasTask task) {
+            super(task);
+        }
+
+        @Override
+        public AtlasTask.Status perform() throws Exception {
+            Map<String, Object> params         = getTaskDef().getParameters();
+            String              user           = getTaskDef().getCreatedBy();
+            AtlasClassification classification = AtlasType.fromJson((String) params.get(PARAM_CLASSIFICATION), AtlasClassification.class);
+            int                 chunkSize      = Math.max(1, AtlasConfiguration.CLASSIFICATION_BULK_CHUNK_SIZE.getInt());
+
+            startTime         = System.currentTimeMillis();
+            previousElapsedMs = getLong(params, PARAM_ELAPSED_MS);
+
+            newRequestContext(user);
+
+            List<String> guids = getEntityGuids();
+
+            LOG.info("==> BulkClassificationTask.perform(task={}, classification={}, entities={}, phase={}, offset={})",
+                     getTaskGuid(), classification.getTypeName(), guids.size(), params.get(PARAM_PHASE), params.get(PARAM_OFFSET));
+
+            if (PHASE_CLASSIFY.equals(params.get(PARAM_PHASE))) {
+                for (int offset = (int) getLong(params, PARAM_OFFSET); offset < guids.size(); offset += chunkSize) {
+                    List<String> chunk = guids.subList(offset, Math.min(offset + chunkSize, guids.size()));
+
+                    newRequestContext(user);
+
+                    List<String> classified = entityStore.addClassificationWithoutPropagation(chunk, classification);
+
+                    params.put(PARAM_OFFSET, offset + chunk.size());
+                    params.put(PARAM_CLASSIFIED, getLong(params, PARAM_CLASSIFIED) + classified.size());
+                    params.put(PARAM_SKIPPED, getLong(params, PARAM_SKIPPED) + chunk.size() - classified.size());
+
+                    saveProgress();
+                }
+
+                params.put(PARAM_PHASE, PHASE_PROPAGATE);
+                params.put(PARAM_OFFSET, 0);
+
+                saveProgress();
+            }
+
+            if (PHASE_PROPAGATE.equals(params.get(PARAM_PHASE)) && isPropagate(classification)) {
+                Set<Object> excludedVertexIds = new HashSet<>();
+                int         startOffset       = (int) Math.min(getLong(params, PARAM_OFFSET), guids.size());
+
+                for (int offset = 0; offset < guids.size(); offset += chunkSize) {
+                    List<String> chunk = guids.subList(offset, Math.min(offset + chunkSize, guids.size()));
+
+                    for (AtlasVertex vertex : graphHelper.getVerticesForGUIDs(chunk).values()) {
+                        excludedVertexIds.add(vertex.getId());
+                    }
+                }
+
+                graph.commit();
+
+                // on resume, exclude the entities the classification was already propagated to before the checkpoint
+                for (int offset = 0; offset < startOffset; offset += chunkSize) {
+                    newRequestContext(user);
+
+                    entityGraphMapper.addPropagationTargets(guids.subList(offset, Math.min(offset + chunkSize, startOffset)), classification.getTypeName(), excludedVertexIds);
+                }
+
+                for (int offset = startOffset; offset < guids.size(); offset += chunkSize) {
+                    List<String> chunk = guids.subList(offset, Math.min(offset + chunkSize, guids.size()));
+
+                    newRequestContext(user);
+
+                    int propagated = entityGraphMapper.propagateClassificationFromEntities(chunk, classification.getTypeName(), excludedVertexIds);
+
+                    params.put(PARAM_OFFSET, offset + chunk.size());
+                    params.put(PARAM_PROPAGATED, getLong(params, PARAM_PROPAGATED) + propagated);
+
+                    saveProgress();
+                }
+            }
+
+            LOG.info("<== BulkClassificationTask.perform(task={}): classified={}, skipped={}, propagated={}, entitiesPerSec={}", getTaskGuid(),
+                     params.get(PARAM_CLASSIFIED), params.get(PARAM_SKIPPED), params.get(PARAM_PROPAGATED), params.get(PARAM_ENTITIES_PER_SEC));
+
+            setStatus(COMPLETE);
+
+            return getStatus();
+        }
+
+        private List<String> getEntityGuids() throws AtlasBaseException {
+            List<String> ret = taskManagement.getPayload(getTaskDef(), PARAM_ENTITY_GUIDS, List.class);
+
+            return ret != null ? ret : Collections.emptyList();
+        }
+
+        private void saveProgress() {
+            Map<String, Object> params    = getTaskDef().getParameters();
+            long                elapsedMs = previousElapsedMs + System.currentTimeMillis() - startTime;
+            long                processed = getLong(params, PARAM_CLASSIFIED) + getLong(params, PARAM_SKIPPED);
+
+            params.put(PARAM_ELAPSED_MS, elapsedMs);
+            params.put(PARAM_ENTITIES_PER_SEC, elapsedMs > 0 ? processed * 1000 / elapsedMs : 0);
+
+            try {
+                newRequestContext(getTaskDef().getCreatedBy());
+
+                taskManagement.updateParameters(getTaskDef());
+            } catch (Exception e) {
+                LOG.warn("BulkClassificationService: failed to save progress of task {}", getTaskGuid(), e);
+            }
+        }
+    }
+}
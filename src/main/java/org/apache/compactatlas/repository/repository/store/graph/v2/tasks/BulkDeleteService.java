@@ -0,0 +1,395 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.graph.v2.tasks;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.compactatlas.authorize.AtlasAdminAccessRequest;
+import org.apache.compactatlas.authorize.AtlasAuthorizationUtils;
+import org.apache.compactatlas.authorize.AtlasEntityAccessRequest;
+import org.apache.compactatlas.authorize.AtlasPrivilege;
+import org.apache.compactatlas.common.annotation.GraphTransaction;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.DeleteType;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
+import org.apache.compactatlas.intg.model.instance.EntityMutationResponse;
+import org.apache.compactatlas.intg.model.tasks.AtlasTask;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.repository.repository.store.graph.AtlasEntityStore;
+import org.apache.compactatlas.repository.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.compactatlas.repository.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.compactatlas.repository.tasks.AbstractTask;
+import org.apache.compactatlas.repository.tasks.TaskFactory;
+import org.apache.compactatlas.repository.tasks.TaskManagement;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.compactatlas.intg.model.tasks.AtlasTask.Status.COMPLETE;
+
+/**
+ * Deletes, or purges, entities together with the composite entities they own, in a task.
+ *
+ * The task first plans the delete: the ids of the vertices to delete are collected and grouped by their distance from
+ * the given entities, and stored once with the task, apart from its parameters. The groups are then deleted from the
+ * farthest to the nearest, so that owned entities are deleted before their owners; each group is split into chunks that
+ * are deleted in parallel, each in its own transaction with one notification, hence one batch of audits, per chunk.
+ * Owners of the deleted entities that are themselves planned for delete are not updated, so no update is notified for
+ * them and parallel chunks don't write to the same owner vertex. A chunk that fails, for example on a concurrent
+ * modification by another chunk, is retried after the others of its group. The group and the offset in it before which
+ * all chunks are done are recorded in the task parameters, so that a task interrupted by a restart resumes from there;
+ * chunks deleted again on resume find their vertices gone or deleted and skip them.
+ */
+@Component
+public class BulkDeleteService implements TaskFactory {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkDeleteService.class);
+
+    public static final String ENTITY_BULK_DELETE = "ENTITY_BULK_DELETE";
+
+    public static final String PARAM_ENTITY_GUIDS     = "entityGuids";
+    public static final String PARAM_PURGE            = "purge";
+    public static final String PARAM_DELETE_TYPE      = "deleteType";
+    public static final String PARAM_PLAN             = "plan";
+    public static final String PARAM_LEVEL            = "level";
+    public static final String PARAM_OFFSET           = "offset";
+    public static final String PARAM_TOTAL            = "total";
+    public static final String PARAM_DELETED          = "deleted";
+    public static final String PARAM_RETRIED_CHUNKS   = "retriedChunks";
+    public static final String PARAM_ELAPSED_MS       = "elapsedMs";
+    public static final String PARAM_ENTITIES_PER_SEC = "entitiesPerSec";
+
+    private static final String WORKER_NAME_FORMAT = "atlas-bulk-delete-%d";
+
+    private static final List<String> supportedTypes = Collections.singletonList(ENTITY_BULK_DELETE);
+
+    private final AtlasGraph            graph;
+    private final AtlasTypeRegistry     typeRegistry;
+    private final AtlasEntityStore      entityStore;
+    private final DeleteHandlerDelegate deleteDelegate;
+    private final TaskManagement        taskManagement;
+    private final EntityGraphRetriever  entityRetriever;
+
+    @Inject
+    public BulkDeleteService(AtlasGraph graph, AtlasTypeRegistry typeRegistry, AtlasEntityStore entityStore, DeleteHandlerDelegate deleteDelegate,
+                             TaskManagement taskManagement) {
+        this.graph           = graph;
+        this.typeRegistry    = typeRegistry;
+        this.entityStore     = entityStore;
+        this.deleteDelegate  = deleteDelegate;
+        this.taskManagement  = taskManagement;
+        this.entityRetriever = new EntityGraphRetriever(graph, typeRegistry);
+    }
+
+    /**
+     * Queues a task to delete, or purge, the given entities and the entities owned by them. Entities that do not exist,
+     * or are already deleted (not deleted, for purge), are ignored.
+     *
+     * @param guids entities to delete
+     * @param purge true to purge deleted entities, false to delete active entities
+     * @return the queued task
+     * @throws AtlasBaseException
+     */
+    @GraphTransaction
+    public AtlasTask submit(List<String> guids, boolean purge) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> BulkDeleteService.submit(guids={}, purge={})", CollectionUtils.size(guids), purge);
+        }
+
+        if (CollectionUtils.isEmpty(guids)) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "Guid(s) not specified");
+        }
+
+        if (purge) {
+            AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_PURGE), "purge entity: guids=", guids);
+        } else {
+            for (String guid : guids) {
+                AtlasVertex vertex = AtlasGraphUtilsV2.findByGuid(graph, guid);
+
+                if (vertex != null) {
+                    AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeaderWithClassifications(vertex);
+
+                    AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_DELETE, entityHeader), "delete entity: guid=", guid);
+                }
+            }
+        }
+
+        Map<String, Object> params = new HashMap<>();
+
+        params.put(PARAM_ENTITY_GUIDS, new ArrayList<>(new LinkedHashSet<>(guids)));
+        params.put(PARAM_PURGE, purge);
+        params.put(PARAM_DELETE_TYPE, purge ? DeleteType.HARD.name() : RequestContext.get().getDeleteType().name());
+
+        AtlasTask ret = taskManagement.createTask(ENTITY_BULK_DELETE, RequestContext.getCurrentUser(), params);
+
+        RequestContext.get().queueTask(ret);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== BulkDeleteService.submit(guids={}, purge={}): task={}", guids.size(), purge, ret.getGuid());
+        }
+
+        return ret;
+    }
+
+    @Override
+    public AbstractTask create(AtlasTask task) {
+        return new BulkDeleteTask(task);
+    }
+
+    @Override
+    public List<String> getSupportedTypes() {
+        return supportedTypes;
+    }
+
+    @Override
+    public boolean isLongRunning(String taskType) {
+        return true;
+    }
+
+    private static long getLong(Map<String, Object> params, String name) {
+        Object value = params.get(name);
+
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private class BulkDeleteTask extends AbstractTask {
+        private final AtomicLong deletedCount = new AtomicLong();
+        private String           user;
+        private boolean          purge;
+        private DeleteType       deleteType;
+        private Set<String>      verticesToDelete;
+        private long             startTime;
+        private long             previousElapsedMs;
+
+        BulkDeleteTask(AtlasTask task) {
+            super(task);
+        }
+
+        @Override
+        public AtlasTask.Status perform() throws Exception {
+            Map<String, Object> params = getTaskDef().getParameters();
+
+            user              = getTaskDef().getCreatedBy();
+            purge             = Boolean.TRUE.equals(params.get(PARAM_PURGE));
+            deleteType        = DeleteType.from((String) params.get(PARAM_DELETE_TYPE));
+            startTime         = System.currentTimeMillis();
+            previousElapsedMs = getLong(params, PARAM_ELAPSED_MS);
+
+            deletedCount.set(getLong(params, PARAM_DELETED));
+
+            List<List<String>> plan = getPlan(params);
+
+            verticesToDelete = new HashSet<>();
+
+            for (List<String> level : plan) {
+                verticesToDelete.addAll(level);
+            }
+
+            LOG.info("==> BulkDeleteTask.perform(task={}, purge={}, entities={}, levels={}, level={}, offset={})",
+                     getTaskGuid(), purge, params.get(PARAM_TOTAL), plan.size(), params.get(PARAM_LEVEL), params.get(PARAM_OFFSET));
+
+            int chunkSize  = Math.max(1, AtlasConfiguration.DELETE_BULK_CHUNK_SIZE.getInt());
+            int numWorkers = Math.max(1, AtlasConfiguration.DELETE_BULK_WORKERS.getInt());
+
+            for (int level = (int) Math.min(getLong(params, PARAM_LEVEL), plan.size() - 1); level >= 0; level--) {
+                deleteLevel(level, plan.get(level), (int) getLong(params, PARAM_OFFSET), chunkSize, numWorkers);
+
+                params.put(PARAM_LEVEL, level - 1);
+                params.put(PARAM_OFFSET, 0);
+
+                saveProgress();
+            }
+
+            LOG.info("<== BulkDeleteTask.perform(task={}): deleted={}, retriedChunks={}, entitiesPerSec={}", getTaskGuid(),
+                     params.get(PARAM_DELETED), params.get(PARAM_RETRIED_CHUNKS), params.get(PARAM_ENTITIES_PER_SEC));
+
+            setStatus(COMPLETE);
+
+            return getStatus();
+        }
+
+        private List<List<String>> getPlan(Map<String, Object> params) throws AtlasBaseException {
+            if (params.containsKey(PARAM_TOTAL)) {
+                List<List<String>> ret = taskManagement.getPayload(getTaskDef(), PARAM_PLAN, List.class);
+
+                return ret != null ? ret : Collections.emptyList();
+            }
+
+            newRequestContext();
+
+            List<AtlasVertex> vertices = new ArrayList<>();
+
+            for (String guid : (List<String>) params.get(PARAM_ENTITY_GUIDS)) {
+                AtlasVertex vertex = purge ? AtlasGraphUtilsV2.findDeletedByGuid(graph, guid) : AtlasGraphUtilsV2.findByGuid(graph, guid);
+
+                if (vertex != null) {
+                    vertices.add(vertex);
+                }
+            }
+
+            List<List<String>> ret   = new ArrayList<>();
+            int                total = 0;
+
+            for (List<Object> level : deleteDelegate.getHandler().getOwnedVertexIds(vertices)) {
+                List<String> vertexIds = new ArrayList<>(level.size());
+
+                for (Object vertexId : level) {
+                    vertexIds.add(String.valueOf(vertexId));
+                }
+
+                ret.add(vertexIds);
+
+                total += vertexIds.size();
+            }
+
+            graph.commit();
+
+            // the plan can hold millions of ids: it is stored once, while the parameters are saved after every chunk
+            taskManagement.savePayload(getTaskDef(), PARAM_PLAN, ret);
+
+            params.put(PARAM_TOTAL, total);
+            params.put(PARAM_LEVEL, ret.size() - 1);
+            params.put(PARAM_OFFSET, 0);
+
+            saveProgress();
+
+            return ret;
+        }
+
+        private void deleteLevel(int level, List<String> vertexIds, int startOffset, int chunkSize, int numWorkers) throws Exception {
+            int             numChunks     = (vertexIds.size() - startOffset + chunkSize - 1) / chunkSize;
+            boolean[]       isChunkDone   = new boolean[Math.max(0, numChunks)];
+            int[]           doneChunks    = new int[] { 0 };
+            List<Integer>   failedChunks  = Collections.synchronizedList(new ArrayList<>());
+            ExecutorService executor      = Executors.newFixedThreadPool(numWorkers, new ThreadFactoryBuilder().setNameFormat(WORKER_NAME_FORMAT).build());
+
+            try {
+                for (int i = 0; i < numChunks; i++) {
+                    final int chunkIdx = i;
+
+                    executor.submit(() -> {
+                        try {
+                            deleteChunk(getChunk(vertexIds, startOffset, chunkIdx, chunkSize));
+
+                            onChunkDone(level, startOffset, chunkIdx, chunkSize, isChunkDone, doneChunks);
+                        } catch (Exception e) {
+                            LOG.warn("BulkDeleteTask: chunk {} of level {} of task {} failed; will be retried", chunkIdx, level, getTaskGuid(), e);
+
+                            failedChunks.add(chunkIdx);
+                        }
+                    });
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.info("BulkDeleteTask: task={}, level={}, deleted={}", getTaskGuid(), level, deletedCount.get());
+            }
+
+            Collections.sort(failedChunks);
+
+            for (Integer chunkIdx : failedChunks) {
+                deleteChunk(getChunk(vertexIds, startOffset, chunkIdx, chunkSize));
+
+                getTaskDef().getParameters().put(PARAM_RETRIED_CHUNKS, getLong(getTaskDef().getParameters(), PARAM_RETRIED_CHUNKS) + 1);
+
+                onChunkDone(level, startOffset, chunkIdx, chunkSize, isChunkDone, doneChunks);
+            }
+        }
+
+        private void deleteChunk(List<String> vertexIds) throws AtlasBaseException {
+            try {
+                newRequestContext();
+
+                EntityMutationResponse resp = entityStore.deleteByVertexIds(vertexIds, purge);
+
+                deletedCount.addAndGet(CollectionUtils.size(purge ? resp.getPurgedEntities() : resp.getDeletedEntities()));
+            } finally {
+                RequestContext.clear();
+            }
+        }
+
+        private List<String> getChunk(List<String> vertexIds, int startOffset, int chunkIdx, int chunkSize) {
+            int fromIdx = startOffset + chunkIdx * chunkSize;
+
+            return vertexIds.subList(fromIdx, Math.min(fromIdx + chunkSize, vertexIds.size()));
+        }
+
+        // records the offset before which all chunks of the level are done
+        private synchronized void onChunkDone(int level, int startOffset, int chunkIdx, int chunkSize, boolean[] isChunkDone, int[] doneChunks) {
+            isChunkDone[chunkIdx] = true;
+
+            while (doneChunks[0] < isChunkDone.length && isChunkDone[doneChunks[0]]) {
+                doneChunks[0]++;
+            }
+
+            Map<String, Object> params = getTaskDef().getParameters();
+
+            params.put(PARAM_LEVEL, level);
+            params.put(PARAM_OFFSET, startOffset + doneChunks[0] * chunkSize);
+
+            saveProgress();
+        }
+
+        private void newRequestContext() {
+            RequestContext.clear();
+
+            RequestContext requestContext = RequestContext.get();
+
+            requestContext.setUser(user, null);
+            requestContext.setDeleteType(deleteType);
+            requestContext.setPurgeRequested(purge);
+            requestContext.setVerticesToDelete(verticesToDelete);
+        }
+
+        private synchronized void saveProgress() {
+            Map<String, Object> params    = getTaskDef().getParameters();
+            long                elapsedMs = previousElapsedMs + System.currentTimeMillis() - startTime;
+
+            params.put(PARAM_DELETED, deletedCount.get());
+            params.put(PARAM_ELAPSED_MS, elapsedMs);
+            params.put(PARAM_ENTITIES_PER_SEC, elapsedMs > 0 ? deletedCount.get() * 1000 / elapsedMs : 0);
+
+            try {
+                taskManagement.updateParameters(getTaskDef());
+            } catch (Exception e) {
+                LOG.warn("BulkDeleteService: failed to save progress of task {}", getTaskGuid(), e);
+            }
+        }
+    }
+}
@@ -34,6 +34,8 @@ import org.apache.compactatlas.intg.model.typedef.AtlasTypesDef;
 import org.apache.compactatlas.common.repository.Constants;
 import org.apache.compactatlas.graphdb.api.AtlasGraph;
 import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.repository.repository.graph.FullTextIndexQueue;
+import org.apache.compactatlas.repository.repository.store.graph.v1.SoftDeleteCompactionService;
 import org.apache.compactatlas.repository.repository.ogm.DataAccess;
 import org.apache.compactatlas.repository.repository.store.graph.v2.AtlasGraphUtilsV2;
 import org.apache.compactatlas.intg.type.AtlasEntityType;
@@ -83,6 +85,8 @@ public class MetricsService {
     // Query names
     protected static final String METRIC_COLLECTION_TIME            = "collectionTime";
     protected static final String METRIC_STATS                      = "stats";
+    protected static final String METRIC_FULLTEXT_INDEX_QUEUE       = "fullTextIndexQueue";
+    protected static final String METRIC_SOFT_DELETE_COMPACTION     = "softDeleteCompaction";
     protected static final String METRIC_TYPE_COUNT                 = TYPE + "Count";
     protected static final String METRIC_TYPE_UNUSED_COUNT          = TYPE + "UnusedCount";
     protected static final String METRIC_ENTITY_COUNT               = ENTITY + "Count";
@@ -99,18 +103,22 @@ public class MetricsService {
     protected static final String METRIC_ENTITY_SHELL_INCL_SUBTYPES = ENTITY + "Shell"+"-"+TYPE_SUBTYPES;
     protected static final String[] STATUS_CATEGORY                 = {"Active", "Deleted", "Shell"};
 
-    private final AtlasGraph        atlasGraph;
-    private final AtlasTypeRegistry typeRegistry;
-    private final AtlasMetricsUtil  metricsUtil;
-    private final String            indexSearchPrefix = AtlasGraphUtilsV2.getIndexSearchPrefix();
+    private final AtlasGraph                  atlasGraph;
+    private final AtlasTypeRegistry           typeRegistry;
+    private final AtlasMetricsUtil            metricsUtil;
+    private final FullTextIndexQueue          fullTextIndexQueue;
+    private final SoftDeleteCompactionService compactionService;
+    private final String                      indexSearchPrefix = AtlasGraphUtilsV2.getIndexSearchPrefix();
 
     @Inject
     public MetricsService(final AtlasGraph graph, final AtlasTypeRegistry typeRegistry, AtlasMetricsUtil metricsUtil,
-                          DataAccess dataAccess) {
-        this.atlasGraph   = graph;
-        this.typeRegistry = typeRegistry;
-        this.metricsUtil  = metricsUtil;
-        this.dataAccess   = dataAccess;
+                          DataAccess dataAccess, FullTextIndexQueue fullTextIndexQueue, SoftDeleteCompactionService compactionService) {
+        this.atlasGraph         = graph;
+        this.typeRegistry       = typeRegistry;
+        this.metricsUtil        = metricsUtil;
+        this.dataAccess         = dataAccess;
+        this.fullTextIndexQueue = fullTextIndexQueue;
+        this.compactionService  = compactionService;
     }
 
     @SuppressWarnings("unchecked")
@@ -198,6 +206,14 @@ public class MetricsService {
 
         metrics.addMetric(GENERAL, METRIC_COLLECTION_TIME, System.currentTimeMillis());
         metrics.addMetric(GENERAL, METRIC_STATS, metricsUtil.getStats()); //add atlas server stats
+
+        if (fullTextIndexQueue.isEnabled()) {
+            metrics.addMetric(GENERAL, METRIC_FULLTEXT_INDEX_QUEUE, fullTextIndexQueue.getStats());
+        }
+
+        if (compactionService.isEnabled()) {
+            metrics.addMetric(GENERAL, METRIC_SOFT_DELETE_COMPACTION, compactionService.getStats());
+        }
         metrics.addMetric(GENERAL, METRIC_TYPE_COUNT, getAllTypesCount());
         metrics.addMetric(GENERAL, METRIC_TAG_COUNT, getAllTagsCount());
         metrics.addMetric(GENERAL, METRIC_TYPE_UNUSED_COUNT, unusedTypeCount);
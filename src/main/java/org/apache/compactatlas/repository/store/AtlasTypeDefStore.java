@@ -35,6 +35,17 @@ import org.apache.compactatlas.intg.model.typedef.AtlasTypesDef;
 public interface AtlasTypeDefStore {
     void init() throws AtlasBaseException;
 
+    /**
+     * Initialize the type registry with the given typedefs, instead of reading them from the store
+     * @param typesDef typedefs read earlier from this store, for example from a type-system snapshot
+     */
+    void init(AtlasTypesDef typesDef) throws AtlasBaseException;
+
+    /**
+     * @return signature of the typedefs in the store, which changes when a typedef is created, updated or deleted
+     */
+    String getTypeDefsSignature() throws AtlasBaseException;
+
     /* EnumDef operations */
 
     AtlasEnumDef getEnumDefByName(String name) throws AtlasBaseException;
@@ -31,14 +31,16 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class TaskExecutor {
-    private static final Logger     LOG              = LoggerFactory.getLogger(TaskExecutor.class);
-    private static final TaskLogger TASK_LOG         = TaskLogger.getLogger();
-    private static final String     TASK_NAME_FORMAT = "atlas-task-%d-";
+    private static final Logger     LOG                   = LoggerFactory.getLogger(TaskExecutor.class);
+    private static final TaskLogger TASK_LOG              = TaskLogger.getLogger();
+    private static final String     TASK_NAME_FORMAT      = "atlas-task-%d-";
+    private static final String     LONG_TASK_NAME_FORMAT = "atlas-long-task-%d-";
 
     private final TaskRegistry              registry;
     private final Map<String, TaskFactory>  taskTypeFactoryMap;
     private final TaskManagement.Statistics statistics;
     private final ExecutorService           executorService;
+    private final ExecutorService           longTaskExecutorService;
 
     public TaskExecutor(TaskRegistry registry, Map<String, TaskFactory> taskTypeFactoryMap, TaskManagement.Statistics statistics) {
         this.registry           = registry;
@@ -48,6 +50,10 @@ public class TaskExecutor {
                                                                     .setDaemon(true)
                                                                     .setNameFormat(TASK_NAME_FORMAT + Thread.currentThread().getName())
                                                                     .build());
+        this.longTaskExecutorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                                                                    .setDaemon(true)
+                                                                    .setNameFormat(LONG_TASK_NAME_FORMAT + Thread.currentThread().getName())
+                                                                    .build());
     }
 
     public void addAll(List<AtlasTask> tasks) {
@@ -58,7 +64,10 @@ public class TaskExecutor {
 
             TASK_LOG.log(task);
 
-            this.executorService.submit(new TaskConsumer(task, this.registry, this.taskTypeFactoryMap, this.statistics));
+            TaskFactory     factory  = taskTypeFactoryMap.get(task.getType());
+            ExecutorService executor = factory != null && factory.isLongRunning(task.getType()) ? this.longTaskExecutorService : this.executorService;
+
+            executor.submit(new TaskConsumer(task, this.registry, this.taskTypeFactoryMap, this.statistics));
         }
     }
 
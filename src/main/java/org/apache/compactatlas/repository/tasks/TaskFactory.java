@@ -29,4 +29,14 @@ public interface TaskFactory {
     AbstractTask create(AtlasTask atlasTask);
 
     List<String> getSupportedTypes();
+
+    /**
+     * Tasks that can run for long, like tasks that process a large number of entities, are executed on a thread of
+     * their own, so that they don't hold up other tasks, like tag propagation.
+     * @param taskType
+     * @return true if tasks of the type can run for long
+     */
+    default boolean isLongRunning(String taskType) {
+        return false;
+    }
 }
\ No newline at end of file
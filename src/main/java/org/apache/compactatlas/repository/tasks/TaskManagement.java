@@ -116,6 +116,25 @@ public class TaskManagement implements Service, ActiveStateChangeHandler {
         return this.registry.createVertex(taskType, createdBy, parameters);
     }
 
+    /**
+     * Persists the parameters of a running task, for tasks that record their progress or a checkpoint in them.
+     */
+    public void updateParameters(AtlasTask task) {
+        this.registry.updateParameters(task);
+    }
+
+    /**
+     * Stores a large input of a task once, apart from its parameters, for tasks that checkpoint their progress in the
+     * parameters; see getPayload().
+     */
+    public void savePayload(AtlasTask task, String name, Object payload) {
+        this.registry.savePayload(task.getGuid(), name, payload);
+    }
+
+    public <T> T getPayload(AtlasTask task, String name, Class<T> payloadClass) {
+        return this.registry.getPayload(task.getGuid(), name, payloadClass);
+    }
+
     public List<AtlasTask> getAll() {
         return this.registry.getAll();
     }
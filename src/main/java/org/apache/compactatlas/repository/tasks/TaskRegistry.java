@@ -21,6 +21,8 @@ import org.apache.compactatlas.common.annotation.GraphTransaction;
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
 import org.apache.compactatlas.intg.model.tasks.AtlasTask;
 import org.apache.compactatlas.common.repository.Constants;
+import org.apache.compactatlas.graphdb.api.AtlasEdge;
+import org.apache.compactatlas.graphdb.api.AtlasEdgeDirection;
 import org.apache.compactatlas.graphdb.api.AtlasGraph;
 import org.apache.compactatlas.graphdb.api.AtlasGraphQuery;
 import org.apache.compactatlas.graphdb.api.AtlasVertex;
@@ -96,6 +98,52 @@ public class TaskRegistry {
         AtlasGraphUtilsV2.setEncodedProperty(taskVertex, Constants.TASK_ERROR_MESSAGE, task.getErrorMessage());
     }
 
+    @GraphTransaction
+    public void updateParameters(AtlasTask task) {
+        AtlasVertex taskVertex = getVertex(task.getGuid());
+
+        if (taskVertex == null) {
+            return;
+        }
+
+        AtlasGraphUtilsV2.setEncodedProperty(taskVertex, Constants.TASK_PARAMETERS, AtlasJson.toJson(task.getParameters()));
+        AtlasGraphUtilsV2.setEncodedProperty(taskVertex, Constants.TASK_UPDATED_TIME, System.currentTimeMillis());
+    }
+
+    /**
+     * Stores a large, immutable, input of a task - like the list of entities to process - in a vertex of its own, linked
+     * to the task vertex, so that it is written once and not rewritten each time the task parameters are updated.
+     */
+    @GraphTransaction
+    public void savePayload(String taskGuid, String name, Object payload) {
+        AtlasVertex taskVertex = getVertex(taskGuid);
+
+        if (taskVertex == null) {
+            return;
+        }
+
+        AtlasVertex payloadVertex = getPayloadVertex(taskVertex, name);
+
+        if (payloadVertex == null) {
+            payloadVertex = graph.addVertex();
+
+            AtlasGraphUtilsV2.setEncodedProperty(payloadVertex, Constants.TASK_PAYLOAD_NAME, name);
+
+            graph.addEdge(taskVertex, payloadVertex, Constants.TASK_PAYLOAD_LABEL);
+        }
+
+        AtlasGraphUtilsV2.setEncodedProperty(payloadVertex, Constants.TASK_PAYLOAD, AtlasJson.toJson(payload));
+    }
+
+    @GraphTransaction
+    public <T> T getPayload(String taskGuid, String name, Class<T> payloadClass) {
+        AtlasVertex taskVertex    = getVertex(taskGuid);
+        AtlasVertex payloadVertex = taskVertex != null ? getPayloadVertex(taskVertex, name) : null;
+        String      payloadJson   = payloadVertex != null ? payloadVertex.getProperty(Constants.TASK_PAYLOAD, String.class) : null;
+
+        return payloadJson != null ? AtlasType.fromJson(payloadJson, payloadClass) : null;
+    }
+
     @GraphTransaction
     public void deleteByGuid(String guid) throws AtlasBaseException {
         try {
@@ -106,7 +154,7 @@ public class TaskRegistry {
             Iterator<AtlasVertex> results = query.vertices().iterator();
 
             if (results.hasNext()) {
-                graph.removeVertex(results.next());
+                deleteVertex(results.next());
             }
         } catch (Exception exception) {
             LOG.error("Error: deletingByGuid: {}", guid);
@@ -175,9 +223,25 @@ public class TaskRegistry {
             return;
         }
 
+        for (AtlasEdge edge : (Iterable<AtlasEdge>) taskVertex.getEdges(AtlasEdgeDirection.OUT, Constants.TASK_PAYLOAD_LABEL)) {
+            graph.removeVertex(edge.getInVertex());
+        }
+
         graph.removeVertex(taskVertex);
     }
 
+    private AtlasVertex getPayloadVertex(AtlasVertex taskVertex, String name) {
+        for (AtlasEdge edge : (Iterable<AtlasEdge>) taskVertex.getEdges(AtlasEdgeDirection.OUT, Constants.TASK_PAYLOAD_LABEL)) {
+            AtlasVertex payloadVertex = edge.getInVertex();
+
+            if (name.equals(payloadVertex.getProperty(Constants.TASK_PAYLOAD_NAME, String.class))) {
+                return payloadVertex;
+            }
+        }
+
+        return null;
+    }
+
     private AtlasTask toAtlasTask(AtlasVertex v) {
         AtlasTask ret = new AtlasTask();
 
@@ -403,7 +403,7 @@ public class SearchPredicateUtil {
                     ret = new ElementAttributePredicate(attrName, attrClass) {
                         @Override
                         public boolean compareValue(final Object vertexAttrVal) {
-                            return ((Collection) attrVal).containsAll((Collection) vertexAttrVal);
+                            return ((Collection) vertexAttrVal).containsAll((Collection) attrVal);
                         }
                     };
                 }
@@ -19,14 +19,18 @@ package org.apache.compactatlas.repository.util;
 
 import org.apache.compactatlas.common.annotation.AtlasService;
 import org.apache.compactatlas.repository.discovery.SearchContext;
+import org.apache.compactatlas.repository.query.executors.DSLQueryCursor;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @AtlasService
 public class SearchTracker {
-    private Map<String, SearchContext> activeSearches = new HashMap<>();
+    private Map<String, SearchContext>  activeSearches = new HashMap<>();
+    private Map<String, DSLQueryCursor> activeCursors  = new ConcurrentHashMap<>();
 
     /**
      *
@@ -63,11 +67,27 @@ public class SearchTracker {
         return activeSearches.remove(id);
     }
 
+    /**
+     * Tracks an open DSL cursor, which holds a traversal and its transaction across requests. Cursors are opened and
+     * closed by DSLQueryCursorManager, which also terminates them.
+     */
+    public void addCursor(DSLQueryCursor cursor) {
+        activeCursors.put(cursor.getId(), cursor);
+    }
+
+    public DSLQueryCursor removeCursor(String cursorId) {
+        return activeCursors.remove(cursorId);
+    }
+
     /**
      *
-     * @return
+     * @return ids of active searches and open DSL cursors
      */
     public Set<String> getActiveSearches() {
-        return activeSearches.keySet();
+        Set<String> ret = new HashSet<>(activeSearches.keySet());
+
+        ret.addAll(activeCursors.keySet());
+
+        return ret;
     }
 }
@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -78,7 +79,9 @@ public class RequestContext {
     private boolean     isInTypePatching           = false;
     private boolean     createShellEntityForNonExistingReference = false;
     private boolean     skipFailedEntities = false;
+    private boolean     truncateRelationshipAttributes = false;
     private String      currentTypePatchAction = "";
+    private Set<String> verticesToDelete       = Collections.emptySet();
 
     private RequestContext() {
     }
@@ -242,6 +245,19 @@ public class RequestContext {
         this.skipFailedEntities = skipFailedEntities;
     }
 
+    /**
+     * Whether relationship array attributes of entities read in this request are truncated at
+     * atlas.relationship.supernode.edge.threshold values, with their total count returned in the entity. Requests
+     * that need complete entities, such as export, leave this off.
+     */
+    public boolean isTruncateRelationshipAttributes() {
+        return truncateRelationshipAttributes;
+    }
+
+    public void setTruncateRelationshipAttributes(boolean truncateRelationshipAttributes) {
+        this.truncateRelationshipAttributes = truncateRelationshipAttributes;
+    }
+
     public String getCurrentTypePatchAction() {
         return currentTypePatchAction;
     }
@@ -414,6 +430,18 @@ public class RequestContext {
         return deletedEntities.containsKey(guid);
     }
 
+    /**
+     * Ids of all vertices being deleted by a delete that runs in several transactions; these vertices are not updated,
+     * for example when references to them are removed, as they are deleted by the other transactions.
+     */
+    public void setVerticesToDelete(Set<String> vertexIds) {
+        this.verticesToDelete = vertexIds == null ? Collections.emptySet() : vertexIds;
+    }
+
+    public boolean isVertexToDelete(String vertexId) {
+        return vertexId != null && verticesToDelete.contains(vertexId);
+    }
+
     public MetricRecorder startMetricRecord(String name) { return metrics != null ? metrics.getMetricRecorder(name) : null; }
 
     public void endMetricRecord(MetricRecorder recorder) {
@@ -28,7 +28,15 @@ import org.apache.compactatlas.client.AtlasClient;
 import org.apache.compactatlas.intg.AtlasConfiguration;
 import org.apache.compactatlas.intg.AtlasErrorCode;
 import org.apache.compactatlas.authorize.AtlasAuthorizationUtils;
+import org.apache.compactatlas.common.annotation.Timed;
+import org.apache.compactatlas.quickstart.hive.BulkCatalogLoader;
+import org.apache.compactatlas.quickstart.hive.ImportHiveTable;
+import org.apache.compactatlas.quickstart.hive.SetLineage;
+import org.apache.compactatlas.quickstart.synthetic.SyntheticCatalogConfig;
+import org.apache.compactatlas.quickstart.synthetic.SyntheticCatalogGenerator;
+import org.apache.compactatlas.repository.discovery.DSLQueryCursorManager;
 import org.apache.compactatlas.repository.discovery.SearchContext;
+import org.apache.compactatlas.repository.discovery.SearchResultCache;
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
 import org.apache.compactatlas.intg.model.audit.AtlasAuditEntry;
 import org.apache.compactatlas.intg.model.audit.AtlasAuditEntry.AuditOperation;
@@ -60,6 +68,8 @@ import org.apache.compactatlas.repository.repository.impexp.ImportService;
 import org.apache.compactatlas.repository.repository.impexp.MigrationProgressService;
 import org.apache.compactatlas.repository.repository.impexp.ZipSink;
 import org.apache.compactatlas.repository.repository.patches.AtlasPatchManager;
+import org.apache.compactatlas.repository.repository.patches.IndexVerificationProcessor;
+import org.apache.compactatlas.repository.repository.patches.IndexVerificationService;
 import org.apache.compactatlas.repository.repository.store.graph.AtlasEntityStore;
 import org.apache.compactatlas.repository.services.MetricsService;
 import org.apache.compactatlas.repository.tasks.TaskManagement;
@@ -94,6 +104,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.SecureRandom;
@@ -158,6 +169,11 @@ public class AdminResource {
     private final String uiDateFormat;
     private final boolean isDebugMetricsEnabled;
     private final boolean isTasksEnabled;
+    private final BulkCatalogLoader catalogLoader;
+    private final SyntheticCatalogGenerator catalogGenerator;
+    private final IndexVerificationService indexVerificationService;
+    private final SearchResultCache searchResultCache;
+    private final DSLQueryCursorManager cursorManager;
 
     private Response version;
 
@@ -176,7 +192,9 @@ public class AdminResource {
                          AtlasServerService serverService,
                          ExportImportAuditService exportImportAuditService, AtlasEntityStore entityStore,
                          AtlasPatchManager patchManager, AtlasAuditService auditService, InMemoryEntityAuditRepository auditRepository,
-                         TaskManagement taskManagement) {
+                         TaskManagement taskManagement, BulkCatalogLoader catalogLoader,
+                         SyntheticCatalogGenerator catalogGenerator, IndexVerificationService indexVerificationService,
+                         SearchResultCache searchResultCache, DSLQueryCursorManager cursorManager) {
         this.serviceState = serviceState;
         this.metricsService = metricsService;
         this.exportService = exportService;
@@ -192,6 +210,11 @@ public class AdminResource {
         this.auditService = auditService;
         this.auditRepository = auditRepository;
         this.taskManagement = taskManagement;
+        this.catalogLoader = catalogLoader;
+        this.catalogGenerator = catalogGenerator;
+        this.indexVerificationService = indexVerificationService;
+        this.searchResultCache = searchResultCache;
+        this.cursorManager = cursorManager;
 
         if (atlasProperties != null) {
             this.defaultUIVersion = atlasProperties.getString(DEFAULT_UI_VERSION, UI_VERSION_V2);
@@ -343,6 +366,20 @@ public class AdminResource {
         return metrics;
     }
 
+    /**
+     * Statistics of the basic search result cache: entries, hits, misses, entries dropped as stale by entity changes
+     * and entries evicted to stay within the memory budget.
+     *
+     * @return cache statistics
+     */
+    @GetMapping("/search/cache/stats")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Map<String, Object> getSearchCacheStats() throws AtlasBaseException {
+        AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_AUDITS), "getSearchCacheStats");
+
+        return searchResultCache.getStats();
+    }
+
     /** Auto-scheduling API for both creating a Metrics entity and saving it to the database at in preset time interval,
      *  and sweeping through entities that are outside of the valid ttl hours.
      *  @throws AtlasBaseException when the MetricsStat entity has already existed.
@@ -799,7 +836,7 @@ public class AdminResource {
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public boolean terminateActiveSearch(@PathVariable String searchId) {
         SearchContext terminate = activeSearches.terminate(searchId);
-        return null != terminate;
+        return null != terminate || cursorManager.terminate(searchId);
     }
 
     @PostMapping("checkstate")
@@ -852,6 +889,107 @@ public class AdminResource {
         }
     }
 
+    /**
+     * Bulk load a hive database from table definition files and an airflow dependency file on the server. Both paths
+     * must be under the directory set by atlas.bulk.load.import.directory.
+     *
+     * @param dbName        name of the database to create
+     * @param nameSpace     metadata namespace of the database
+     * @param tableInfoPath directory with one table definition file per table
+     * @param depInfoPath   airflow dag config used to create lineage; optional
+     * @return summary of the load
+     * @throws AtlasBaseException
+     */
+    @PostMapping("/catalog/load")
+    @Timed
+    public BulkCatalogLoader.LoadResult loadCatalog(@RequestParam(defaultValue = BulkCatalogLoader.DEFAULT_DB_NAME) String dbName,
+                                                    @RequestParam(defaultValue = BulkCatalogLoader.DEFAULT_NAMESPACE) String nameSpace,
+                                                    @RequestParam(defaultValue = ImportHiveTable.TableInfoPath) String tableInfoPath,
+                                                    @RequestParam(defaultValue = SetLineage.DepInfoPath) String depInfoPath) throws AtlasBaseException {
+        Servlets.validateQueryParamLength("dbName", dbName);
+        Servlets.validateQueryParamLength("nameSpace", nameSpace);
+
+        AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_IMPORT), "loadCatalog");
+
+        String tableInfoDir = getImportPath("tableInfoPath", tableInfoPath);
+        String depInfoFile  = StringUtils.isNotEmpty(depInfoPath) ? getImportPath("depInfoPath", depInfoPath) : null;
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "AdminResource.loadCatalog(" + dbName + ", " + nameSpace + ", " + tableInfoDir + ")");
+            }
+
+            BulkCatalogLoader.LoadResult ret = catalogLoader.loadFromFiles(dbName, nameSpace, tableInfoDir, depInfoFile);
+
+            LOG.info("AdminResource.loadCatalog({}): {}", dbName, ret);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Generate and load a synthetic catalogue of the given shape.
+     *
+     * @param config shape of the catalogue; defaults are used for missing fields
+     * @return summary of the load of each database
+     * @throws AtlasBaseException
+     */
+    @PostMapping("/catalog/generate")
+    @Timed
+    public List<BulkCatalogLoader.LoadResult> generateCatalog(@RequestBody(required = false) SyntheticCatalogConfig config) throws AtlasBaseException {
+        AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_IMPORT), "generateCatalog");
+
+        if (config == null) {
+            config = new SyntheticCatalogConfig();
+        }
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "AdminResource.generateCatalog(" + config + ")");
+            }
+
+            return catalogGenerator.generate(config);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Verify that index documents of entities match their graph properties, and optionally reindex them. A task is
+     * queued for each type; progress and drift counts are reported in the parameters of the tasks by GET /admin/tasks.
+     *
+     * @param typeNames  entity types to verify; all entity types when not given
+     * @param mode       VERIFY, REPAIR (reindex drifted entities) or REINDEX (reindex all entities)
+     * @param sampleRate share of the entities of each type to verify, in (0, 1]
+     * @return the queued tasks
+     * @throws AtlasBaseException
+     */
+    @PostMapping("/index/verify")
+    @Timed
+    public List<AtlasTask> verifyIndex(@RequestParam(value = "typeName", required = false) List<String> typeNames,
+                                       @RequestParam(defaultValue = "VERIFY") IndexVerificationProcessor.Mode mode,
+                                       @RequestParam(defaultValue = "1.0") double sampleRate) throws AtlasBaseException {
+        AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_IMPORT), "verifyIndex");
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "AdminResource.verifyIndex(" + typeNames + ", " + mode + ", " + sampleRate + ")");
+            }
+
+            return indexVerificationService.submit(typeNames, mode, sampleRate);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
     private String getEditableEntityTypes(Configuration config) {
         String ret = DEFAULT_EDITABLE_ENTITY_TYPES;
 
@@ -878,6 +1016,22 @@ public class AdminResource {
         return ret;
     }
 
+    // canonical form of the path, which must be under the bulk load import directory
+    static String getImportPath(String paramName, String path) throws AtlasBaseException {
+        try {
+            File importDir = new File(AtlasConfiguration.BULK_LOAD_IMPORT_DIRECTORY.getString()).getCanonicalFile();
+            File file      = new File(path).getCanonicalFile();
+
+            if (!file.toPath().startsWith(importDir.toPath())) {
+                throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, paramName + ": " + path + " is not under the import directory");
+            }
+
+            return file.getPath();
+        } catch (IOException e) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, e, paramName + ": " + path);
+        }
+    }
+
     private void acquireExportImportLock(String activity) throws AtlasBaseException {
         boolean alreadyLocked = importExportOperationLock.isLocked();
         if (alreadyLocked) {
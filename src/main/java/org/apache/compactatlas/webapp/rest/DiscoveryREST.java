@@ -121,6 +121,101 @@ public class DiscoveryREST {
         }
     }
 
+    /**
+     * Open a cursor to read all entities matching the specified DSL in chunks, instead of paging with offsets
+     *
+     * @param query          DSL query; select and groupby clauses are not supported
+     * @param typeName       limit the result to only entities of specified type or its sub-types
+     * @param classification limit the result to only entities tagged with the given classification or or its sub-types
+     * @return Search result with the cursor id as nextMarker
+     * @throws AtlasBaseException
+     * @HTTP 200 On successful creation of the cursor
+     * @HTTP 400 Invalid DSL or query parameters, or too many open cursors
+     */
+    @PostMapping("/dsl/cursor")
+    @Timed
+    public AtlasSearchResult openDSLCursor(@RequestParam("query") String query,
+                                           @RequestParam(value = "typeName", required = false) String typeName,
+                                           @RequestParam(value = "classification", required = false) String classification) throws AtlasBaseException {
+        Servlets.validateQueryParamLength("typeName", typeName);
+        Servlets.validateQueryParamLength("classification", classification);
+
+        if (StringUtils.isNotEmpty(query)) {
+            if (query.length() > maxDslQueryLength) {
+                throw new AtlasBaseException(AtlasErrorCode.INVALID_QUERY_LENGTH, Constants.MAX_DSL_QUERY_STR_LENGTH);
+            }
+            query = Servlets.decodeQueryString(query);
+        }
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "DiscoveryREST.openDSLCursor(" + query + "," + typeName + "," + classification + ")");
+            }
+
+            String queryStr = discoveryService.getDslQueryUsingTypeNameClassification(query, typeName, classification);
+
+            return discoveryService.openDslCursor(queryStr);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Read the next entities of a DSL cursor
+     *
+     * @param cursorId id of the cursor, from the nextMarker of the previous response
+     * @param limit    maximum number of entities to return
+     * @return Search result with the entities; nextMarker is null once all entities have been read, and the cursor closed
+     * @throws AtlasBaseException
+     * @HTTP 200 On successful read
+     * @HTTP 404 Cursor does not exist, has expired or has been closed
+     */
+    @GetMapping("/dsl/cursor/{cursorId}")
+    @Timed
+    public AtlasSearchResult fetchDSLCursor(@PathVariable String cursorId,
+                                            @RequestParam("limit") int limit) throws AtlasBaseException {
+        Servlets.validateQueryParamLength("cursorId", cursorId);
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "DiscoveryREST.fetchDSLCursor(" + cursorId + "," + limit + ")");
+            }
+
+            return discoveryService.fetchDslCursor(cursorId, limit);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Close a DSL cursor before all its entities have been read
+     *
+     * @param cursorId id of the cursor
+     * @HTTP 204 On successful close
+     * @HTTP 404 Cursor does not exist, has expired or has been closed
+     */
+    @DeleteMapping("/dsl/cursor/{cursorId}")
+    @ResponseStatus(value = HttpStatus.NO_CONTENT)
+    public void closeDSLCursor(@PathVariable String cursorId) throws AtlasBaseException {
+        Servlets.validateQueryParamLength("cursorId", cursorId);
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "DiscoveryREST.closeDSLCursor(" + cursorId + ")");
+            }
+
+            discoveryService.closeDslCursor(cursorId);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
 
     /**
      * Retrieve data for the specified fulltext query
@@ -311,31 +406,62 @@ public class DiscoveryREST {
                 perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "DiscoveryREST.searchWithParameters(" + parameters + ")");
             }
 
-            if (parameters.getLimit() < 0 || parameters.getOffset() < 0) {
-                throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "Limit/offset should be non-negative");
-            }
+            validateBasicSearchParameters(parameters);
 
-            if (StringUtils.isEmpty(parameters.getTypeName()) && !isEmpty(parameters.getEntityFilters())) {
-                throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "EntityFilters specified without Type name");
-            }
+            return discoveryService.searchWithParameters(parameters);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
 
-            if (StringUtils.isEmpty(parameters.getClassification()) && !isEmpty(parameters.getTagFilters())) {
-                throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "TagFilters specified without tag name");
-            }
+    /**
+     * Describes how an attribute based search would be executed, without executing it: for each search stage, the
+     * index query and which filters are evaluated by the index and which in-memory
+     *
+     * @param parameters Search parameters
+     * @return Search plan
+     * @throws AtlasBaseException
+     * @HTTP 200 On successful explain
+     * @HTTP 400 Tag/Entity doesn't exist or Tag/entity filter is present without tag/type name
+     */
+    @PostMapping("/basic/explain")
+    public AtlasSearchPlan explainSearchWithParameters(@RequestBody SearchParameters parameters) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
 
-            if (StringUtils.isEmpty(parameters.getTypeName()) && StringUtils.isEmpty(parameters.getClassification()) &&
-                    StringUtils.isEmpty(parameters.getQuery()) && StringUtils.isEmpty(parameters.getTermName())) {
-                throw new AtlasBaseException(AtlasErrorCode.INVALID_SEARCH_PARAMS);
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "DiscoveryREST.explainSearchWithParameters(" + parameters + ")");
             }
 
-            validateSearchParameters(parameters);
+            validateBasicSearchParameters(parameters);
 
-            return discoveryService.searchWithParameters(parameters);
+            return discoveryService.explainSearchWithParameters(parameters);
         } finally {
             AtlasPerfTracer.log(perf);
         }
     }
 
+    private void validateBasicSearchParameters(SearchParameters parameters) throws AtlasBaseException {
+        if (parameters.getLimit() < 0 || parameters.getOffset() < 0) {
+            throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "Limit/offset should be non-negative");
+        }
+
+        if (StringUtils.isEmpty(parameters.getTypeName()) && !isEmpty(parameters.getEntityFilters())) {
+            throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "EntityFilters specified without Type name");
+        }
+
+        if (StringUtils.isEmpty(parameters.getClassification()) && !isEmpty(parameters.getTagFilters())) {
+            throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "TagFilters specified without tag name");
+        }
+
+        if (StringUtils.isEmpty(parameters.getTypeName()) && StringUtils.isEmpty(parameters.getClassification()) &&
+                StringUtils.isEmpty(parameters.getQuery()) && StringUtils.isEmpty(parameters.getTermName())) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_SEARCH_PARAMS);
+        }
+
+        validateSearchParameters(parameters);
+    }
+
     /**
      * Relationship search to search for related entities satisfying the search parameters
      *
@@ -344,6 +470,7 @@ public class DiscoveryREST {
      * @param attributes      set of attributes in search result.
      * @param sortByAttribute sort the result using this attribute name, default value is 'name'
      * @param sortOrder       sorting order
+     * @param exactCount      count all related entities, instead of estimating the count of active ones from a sample
      * @param limit           limit the result set to only include the specified number of entries
      * @param offset          start offset of the result set (useful for pagination)
      * @return Atlas search result
@@ -360,6 +487,7 @@ public class DiscoveryREST {
                                                    @RequestParam("excludeDeletedEntities") boolean excludeDeletedEntities,
                                                    @RequestParam(name = "includeClassificationAttributes", required = false) boolean includeClassificationAttributes,
                                                    @RequestParam(name = "getApproximateCount", required = false) boolean getApproximateCount,
+                                                   @RequestParam(name = "exactCount", required = false) boolean exactCount,
                                                    @RequestParam("limit") int limit,
                                                    @RequestParam("offset") int offset) throws AtlasBaseException {
         Servlets.validateQueryParamLength("guid", guid);
@@ -382,6 +510,7 @@ public class DiscoveryREST {
             parameters.setLimit(limit);
             parameters.setOffset(offset);
             parameters.setIncludeClassificationAttributes(includeClassificationAttributes);
+            parameters.setExactCount(exactCount);
             return discoveryService.searchRelatedEntities(guid, relation, getApproximateCount, parameters);
 
         } catch (Exception e) {
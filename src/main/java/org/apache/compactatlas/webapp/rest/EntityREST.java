@@ -19,24 +19,32 @@ package org.apache.compactatlas.webapp.rest;
 
 import com.sun.jersey.core.header.FormDataContentDisposition;
 import com.sun.jersey.multipart.FormDataParam;
+import org.apache.compactatlas.intg.AtlasConfiguration;
 import org.apache.compactatlas.intg.AtlasErrorCode;
 import org.apache.compactatlas.serverapi.RequestContext;
 import org.apache.compactatlas.common.annotation.Timed;
 import org.apache.compactatlas.intg.bulkimport.BulkImportResponse;
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.PList;
 import org.apache.compactatlas.intg.model.TypeCategory;
 import org.apache.compactatlas.intg.model.audit.EntityAuditEventV2;
 import org.apache.compactatlas.intg.model.instance.*;
 import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
 import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.compactatlas.intg.model.tasks.AtlasTask;
 import org.apache.compactatlas.intg.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.compactatlas.repository.repository.converters.AtlasInstanceConverter;
 import org.apache.compactatlas.repository.repository.store.graph.AtlasEntityStore;
 import org.apache.compactatlas.repository.repository.store.graph.v2.AtlasEntityStream;
+import org.apache.compactatlas.repository.repository.store.graph.v2.BulkEntityFetcher;
 import org.apache.compactatlas.repository.repository.store.graph.v2.ClassificationAssociator;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityProjection;
 import org.apache.compactatlas.repository.repository.store.graph.v2.EntityStream;
+import org.apache.compactatlas.repository.repository.store.graph.v2.tasks.BulkClassificationService;
+import org.apache.compactatlas.repository.repository.store.graph.v2.tasks.BulkDeleteService;
 import org.apache.compactatlas.intg.type.AtlasClassificationType;
 import org.apache.compactatlas.intg.type.AtlasEntityType;
+import org.apache.compactatlas.intg.type.AtlasType;
 import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
 import org.apache.compactatlas.repository.util.FileUtils;
 import org.apache.compactatlas.webapp.util.Servlets;
@@ -48,7 +56,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.*;
@@ -59,6 +71,8 @@ import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 
@@ -74,34 +88,50 @@ public class EntityREST {
     public static final String PREFIX_ATTR = "attr:";
     public static final String PREFIX_ATTR_ = "attr_";
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
 
     private final AtlasTypeRegistry typeRegistry;
     private final AtlasEntityStore entitiesStore;
     //private final EntityAuditRepository  auditRepository;
     private final AtlasInstanceConverter instanceConverter;
+    private final BulkClassificationService bulkClassificationService;
+    private final BulkDeleteService bulkDeleteService;
+    private final BulkEntityFetcher bulkEntityFetcher;
 
     @Autowired
     public EntityREST(AtlasTypeRegistry typeRegistry, AtlasEntityStore entitiesStore,
-                      AtlasInstanceConverter instanceConverter) {
+                      AtlasInstanceConverter instanceConverter, BulkClassificationService bulkClassificationService,
+                      BulkDeleteService bulkDeleteService, BulkEntityFetcher bulkEntityFetcher) {
         //EntityAuditRepository auditRepository,
         this.typeRegistry = typeRegistry;
         this.entitiesStore = entitiesStore;
         //this.auditRepository   = auditRepository;
         this.instanceConverter = instanceConverter;
+        this.bulkClassificationService = bulkClassificationService;
+        this.bulkDeleteService = bulkDeleteService;
+        this.bulkEntityFetcher = bulkEntityFetcher;
     }
 
     /**
      * Fetch complete definition of an entity given its GUID.
      *
      * @param guid GUID for the entity
+     * @param truncateRelationships true to return at most atlas.relationship.supernode.edge.threshold ACTIVE values of
+     *                              each relationship array attribute, along with the total count of truncated ones
      * @return AtlasEntity
      * @throws AtlasBaseException
      */
     @GetMapping("/guid/{guid}")
     @Timed
-    public AtlasEntityWithExtInfo getById(@PathVariable String guid, @RequestParam(defaultValue = "false") boolean minExtInfo, @RequestParam(defaultValue = "false") boolean ignoreRelationships) throws AtlasBaseException {
+    public AtlasEntityWithExtInfo getById(@PathVariable String guid, @RequestParam(defaultValue = "false") boolean minExtInfo, @RequestParam(defaultValue = "false") boolean ignoreRelationships,
+                                          @RequestParam(value = "attr", required = false) List<String> attributes,
+                                          @RequestParam(value = "relationshipAttr", required = false) List<String> relationshipAttributes,
+                                          @RequestParam(defaultValue = "false") boolean truncateRelationships) throws AtlasBaseException {
         Servlets.validateQueryParamLength("guid", guid);
 
+        RequestContext.get().setTruncateRelationshipAttributes(truncateRelationships);
+
         AtlasPerfTracer perf = null;
 
         try {
@@ -109,6 +139,13 @@ public class EntityREST {
                 perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.getById(" + guid + ", " + minExtInfo + " )");
             }
 
+            if (attributes != null || relationshipAttributes != null) {
+                List<String>     relAttrs   = ignoreRelationships ? Collections.emptyList() : relationshipAttributes;
+                EntityProjection projection = new EntityProjection(attributes, relAttrs, true, true, minExtInfo);
+
+                return entitiesStore.getById(guid, projection);
+            }
+
             return entitiesStore.getById(guid, minExtInfo, ignoreRelationships);
         } finally {
             AtlasPerfTracer.log(perf);
@@ -140,6 +177,43 @@ public class EntityREST {
         }
     }
 
+    /**
+     * Get a page of ACTIVE values of a relationship attribute of an entity. Entities with a large number of relationships
+     * are returned by getById(), with truncateRelationships, with truncated relationship attributes; this API pages
+     * through the rest.
+     *
+     * @param guid GUID for the entity
+     * @param name name of the relationship attribute
+     * @param offset index of the first value to return
+     * @param limit maximum number of values to return
+     * @return values of the relationship attribute, along with the total count
+     * @throws AtlasBaseException
+     */
+    @GetMapping("/guid/{guid}/relationship/{name}")
+    @Timed
+    public PList<AtlasRelatedObjectId> getRelationshipAttributeValues(@PathVariable String guid, @PathVariable String name,
+                                                                      @RequestParam(defaultValue = "0") int offset,
+                                                                      @RequestParam(defaultValue = "100") int limit) throws AtlasBaseException {
+        Servlets.validateQueryParamLength("guid", guid);
+        Servlets.validateQueryParamLength("name", name);
+
+        if (offset < 0 || limit <= 0 || limit > AtlasConfiguration.SEARCH_MAX_LIMIT.getInt()) {
+            throw new AtlasBaseException(AtlasErrorCode.BAD_REQUEST, "invalid offset/limit: " + offset + "/" + limit);
+        }
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.getRelationshipAttributeValues(" + guid + ", " + name + ", " + offset + ", " + limit + ")");
+            }
+
+            return entitiesStore.getRelationshipAttributeValues(guid, name, offset, limit);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
     /**
      * Fetch AtlasEntityHeader given its type and unique attribute.
      * <p>
@@ -203,9 +277,12 @@ public class EntityREST {
     @GetMapping("/uniqueAttribute/type/{typeName}")
     @Timed
     public AtlasEntityWithExtInfo getByUniqueAttributes(@PathVariable String typeName, @RequestParam(defaultValue = "false") boolean minExtInfo,
-                                                        @RequestParam(defaultValue = "false") boolean ignoreRelationships, @Context HttpServletRequest servletRequest) throws AtlasBaseException {
+                                                        @RequestParam(defaultValue = "false") boolean ignoreRelationships, @Context HttpServletRequest servletRequest,
+                                                        @RequestParam(defaultValue = "false") boolean truncateRelationships) throws AtlasBaseException {
         Servlets.validateQueryParamLength("typeName", typeName);
 
+        RequestContext.get().setTruncateRelationshipAttributes(truncateRelationships);
+
         AtlasPerfTracer perf = null;
 
         try {
@@ -716,13 +793,18 @@ public class EntityREST {
      * Bulk API to retrieve list of entities identified by its GUIDs.
      */
     @GetMapping("/bulk")
-    public AtlasEntitiesWithExtInfo getByGuids(@RequestParam("guid") List<String> guids, @RequestParam(defaultValue = "false") boolean minExtInfo, @RequestParam(defaultValue = "false") boolean ignoreRelationships) throws AtlasBaseException {
+    public AtlasEntitiesWithExtInfo getByGuids(@RequestParam("guid") List<String> guids, @RequestParam(defaultValue = "false") boolean minExtInfo, @RequestParam(defaultValue = "false") boolean ignoreRelationships,
+                                               @RequestParam(value = "attr", required = false) List<String> attributes,
+                                               @RequestParam(value = "relationshipAttr", required = false) List<String> relationshipAttributes,
+                                               @RequestParam(defaultValue = "false") boolean truncateRelationships) throws AtlasBaseException {
         if (CollectionUtils.isNotEmpty(guids)) {
             for (String guid : guids) {
                 Servlets.validateQueryParamLength("guid", guid);
             }
         }
 
+        RequestContext.get().setTruncateRelationshipAttributes(truncateRelationships);
+
         AtlasPerfTracer perf = null;
 
         try {
@@ -734,12 +816,73 @@ public class EntityREST {
                 throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guids);
             }
 
+            if (attributes != null || relationshipAttributes != null) {
+                List<String>     relAttrs   = ignoreRelationships ? Collections.emptyList() : relationshipAttributes;
+                EntityProjection projection = new EntityProjection(attributes, relAttrs, true, true, minExtInfo);
+
+                return entitiesStore.getByIds(guids, projection);
+            }
+
             return entitiesStore.getByIds(guids, minExtInfo, ignoreRelationships);
         } finally {
             AtlasPerfTracer.log(perf);
         }
     }
 
+    /**
+     * Bulk API to retrieve a large list of entities identified by their GUIDs. Entities are streamed back as
+     * newline-delimited JSON, one AtlasEntityFetchResult per line in the order of the given GUIDs; a GUID that is
+     * not found, or that the user may not read, is returned with its error instead of failing the request.
+     */
+    @PostMapping(value = "/bulk/fetch", produces = APPLICATION_NDJSON)
+    @Timed
+    public ResponseEntity<StreamingResponseBody> fetchByGuids(@RequestBody List<String> guids, @RequestParam(defaultValue = "false") boolean minExtInfo, @RequestParam(defaultValue = "false") boolean ignoreRelationships) throws AtlasBaseException {
+        if (CollectionUtils.isEmpty(guids)) {
+            throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guids);
+        }
+
+        for (String guid : guids) {
+            Servlets.validateQueryParamLength("guid", guid);
+        }
+
+        final String          user       = RequestContext.getCurrentUser();
+        final Set<String>     userGroups = RequestContext.get().getUserGroups();
+        final SecurityContext secContext = SecurityContextHolder.getContext();
+
+        StreamingResponseBody body = outputStream -> {
+            AtlasPerfTracer perf = null;
+
+            try {
+                SecurityContextHolder.setContext(secContext);
+                RequestContext.get().setUser(user, userGroups);
+
+                if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                    perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.fetchByGuids(" + guids.size() + ", " + minExtInfo + ")");
+                }
+
+                bulkEntityFetcher.fetch(guids, minExtInfo, ignoreRelationships, result -> {
+                    try {
+                        outputStream.write(AtlasType.toJson(result).getBytes(StandardCharsets.UTF_8));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (AtlasBaseException e) {
+                throw new IOException(e);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                AtlasPerfTracer.log(perf);
+
+                RequestContext.clear();
+                SecurityContextHolder.clearContext();
+            }
+        };
+
+        return ResponseEntity.ok().header("Content-Type", APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Bulk API to create new entities or updates existing entities in Atlas.
      * Existing entity is matched using its unique guid if supplied or by its unique attributes eg: qualifiedName
@@ -787,6 +930,39 @@ public class EntityREST {
         }
     }
 
+    /**
+     * Bulk API to delete, or purge, entities identified by their GUIDs, with the entities they own, in a task. Use for
+     * large containment graphs, like a database with all its tables; progress is reported in the parameters of the
+     * task by GET /admin/tasks.
+     *
+     * @param guids entities to delete
+     * @param purge true to purge deleted entities instead of deleting active entities
+     * @return the queued task
+     * @throws AtlasBaseException
+     */
+    @DeleteMapping("/bulk/task")
+    @Timed
+    public AtlasTask deleteByGuidsAsync(@RequestParam("guid") final List<String> guids,
+                                        @RequestParam(value = "purge", defaultValue = "false") boolean purge) throws AtlasBaseException {
+        if (CollectionUtils.isNotEmpty(guids)) {
+            for (String guid : guids) {
+                Servlets.validateQueryParamLength("guid", guid);
+            }
+        }
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.deleteByGuidsAsync(" + guids + ", " + purge + ")");
+            }
+
+            return bulkDeleteService.submit(guids, purge);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
     /**
      * Bulk API to associate a tag to multiple entities.
      * Option 1: List of GUIDs to associate a tag
@@ -811,39 +987,49 @@ public class EntityREST {
             }
 
             if (CollectionUtils.isNotEmpty(entitiesUniqueAttributes) && entityTypeName != null) {
-                AtlasEntityType entityType = ensureEntityType(entityTypeName);
+                entityGuids = addGuidsByUniqueAttributes(entityGuids, entityTypeName, entitiesUniqueAttributes);
+            }
+            entitiesStore.addClassification(entityGuids, classification);
+        } catch (Exception e) {
+            LOG.warn(e.getMessage());
+        }
+    }
 
-                if (CollectionUtils.isEmpty(entityGuids)) {
-                    entityGuids = new ArrayList<>();
-                }
+    /**
+     * Bulk API to associate a tag to a large number of entities in a task, for the entities given as in /bulk/classification
+     * and/or the results of a search. Entities are classified in chunks before the tag is propagated; progress and
+     * throughput are reported in the parameters of the task by GET /admin/tasks.
+     *
+     * @return the queued task
+     * @throws AtlasBaseException
+     */
+    @PostMapping("/bulk/classification/task")
+    @Timed
+    public AtlasTask addClassificationAsync(@RequestBody ClassificationAssociateRequest request) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
 
-                for (Map<String, Object> eachEntityAttributes : entitiesUniqueAttributes) {
-                    try {
-                        String guid = entitiesStore.getGuidByUniqueAttributes(entityType, eachEntityAttributes);
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.addClassificationAsync(" + request + ")");
+            }
 
-                        if (guid != null) {
-                            entityGuids.add(guid);
-                        }
-                    } catch (AtlasBaseException e) {
-                        if (RequestContext.get().isSkipFailedEntities()) {
-                            if (LOG.isDebugEnabled()) {
-                                LOG.debug("getByIds(): ignoring failure for entity with unique attributes {} and typeName {}: error code={}, message={}", eachEntityAttributes, entityTypeName, e.getAtlasErrorCode(), e.getMessage());
-                            }
+            if (request == null) {
+                throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "no request");
+            }
 
-                            continue;
-                        }
+            if (hasNoGUIDAndTypeNameAttributes(request) && request.getSearchParameters() == null) {
+                throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "Need either list of GUIDs, entity type and list of qualified Names, or search parameters");
+            }
 
-                        throw e;
-                    }
-                }
+            List<String> entityGuids = request.getEntityGuids();
 
-                if (CollectionUtils.isEmpty(entityGuids)) {
-                    throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "No guid found for given entity Type Name and list of attributes");
-                }
+            if (CollectionUtils.isNotEmpty(request.getEntitiesUniqueAttributes()) && request.getEntityTypeName() != null) {
+                entityGuids = addGuidsByUniqueAttributes(entityGuids, request.getEntityTypeName(), request.getEntitiesUniqueAttributes());
             }
-            entitiesStore.addClassification(entityGuids, classification);
-        } catch (Exception e) {
-            LOG.warn(e.getMessage());
+
+            return bulkClassificationService.submit(request.getClassification(), entityGuids, request.getSearchParameters());
+        } finally {
+            AtlasPerfTracer.log(perf);
         }
     }
 
@@ -1301,6 +1487,40 @@ public class EntityREST {
 //        return ret;
 //    }
 
+    private List<String> addGuidsByUniqueAttributes(List<String> entityGuids, String entityTypeName, List<Map<String, Object>> entitiesUniqueAttributes) throws AtlasBaseException {
+        AtlasEntityType entityType = ensureEntityType(entityTypeName);
+
+        if (CollectionUtils.isEmpty(entityGuids)) {
+            entityGuids = new ArrayList<>();
+        }
+
+        for (Map<String, Object> eachEntityAttributes : entitiesUniqueAttributes) {
+            try {
+                String guid = entitiesStore.getGuidByUniqueAttributes(entityType, eachEntityAttributes);
+
+                if (guid != null) {
+                    entityGuids.add(guid);
+                }
+            } catch (AtlasBaseException e) {
+                if (RequestContext.get().isSkipFailedEntities()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("getByIds(): ignoring failure for entity with unique attributes {} and typeName {}: error code={}, message={}", eachEntityAttributes, entityTypeName, e.getAtlasErrorCode(), e.getMessage());
+                    }
+
+                    continue;
+                }
+
+                throw e;
+            }
+        }
+
+        if (CollectionUtils.isEmpty(entityGuids)) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "No guid found for given entity Type Name and list of attributes");
+        }
+
+        return entityGuids;
+    }
+
     private boolean hasNoGUIDAndTypeNameAttributes(ClassificationAssociateRequest request) {
         return (request == null || (CollectionUtils.isEmpty(request.getEntityGuids()) &&
                 (CollectionUtils.isEmpty(request.getEntitiesUniqueAttributes()) || request.getEntityTypeName() == null)));
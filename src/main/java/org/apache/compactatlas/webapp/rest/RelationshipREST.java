@@ -19,18 +19,24 @@
 package org.apache.compactatlas.webapp.rest;
 
 import org.apache.compactatlas.common.annotation.Timed;
+import org.apache.compactatlas.intg.AtlasErrorCode;
 import org.apache.compactatlas.intg.exception.AtlasBaseException;
 import org.apache.compactatlas.intg.model.instance.AtlasRelationship;
 import org.apache.compactatlas.intg.model.instance.AtlasRelationship.AtlasRelationshipWithExtInfo;
+import org.apache.compactatlas.intg.model.instance.AtlasRelationshipMutationResult;
 import org.apache.compactatlas.repository.repository.store.graph.AtlasRelationshipStore;
+import org.apache.compactatlas.repository.repository.store.graph.v2.BulkRelationshipWriter;
 import org.apache.compactatlas.webapp.util.Servlets;
 import org.apache.compactatlas.common.utils.AtlasPerfTracer;
+import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST interface for entity relationships.
  */
@@ -41,10 +47,12 @@ public class RelationshipREST {
     private static final Logger PERF_LOG = AtlasPerfTracer.getPerfLogger("rest.RelationshipREST");
 
     private final AtlasRelationshipStore relationshipStore;
+    private final BulkRelationshipWriter bulkRelationshipWriter;
 
     @Autowired
-    public RelationshipREST(AtlasRelationshipStore relationshipStore) {
-        this.relationshipStore = relationshipStore;
+    public RelationshipREST(AtlasRelationshipStore relationshipStore, BulkRelationshipWriter bulkRelationshipWriter) {
+        this.relationshipStore      = relationshipStore;
+        this.bulkRelationshipWriter = bulkRelationshipWriter;
     }
 
     /**
@@ -143,4 +151,61 @@ public class RelationshipREST {
             AtlasPerfTracer.log(perf);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Bulk API to create new relationships, or update existing relationships identified by their guids. Relationships
+     * are written in chunks, each in its own transaction; a relationship that can't be written, for example because
+     * an end entity does not exist, is returned with its error instead of failing the request.
+     *
+     * @return one result per relationship, in the order of the request
+     */
+    @PostMapping("/bulk")
+    @Timed
+    public List<AtlasRelationshipMutationResult> createOrUpdate(@RequestBody List<AtlasRelationship> relationships) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "RelationshipREST.createOrUpdate(relationshipCount=" + CollectionUtils.size(relationships) + ")");
+            }
+
+            if (CollectionUtils.isEmpty(relationships)) {
+                throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "no relationships given");
+            }
+
+            return bulkRelationshipWriter.createOrUpdate(relationships);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Bulk API to delete relationships using their guids, given in the request body. A relationship that can't be
+     * deleted is returned with its error instead of failing the request.
+     *
+     * @return one result per guid, in the order of the request
+     */
+    @DeleteMapping("/bulk")
+    @Timed
+    public List<AtlasRelationshipMutationResult> deleteByGuids(@RequestBody List<String> guids) throws AtlasBaseException {
+        if (CollectionUtils.isEmpty(guids)) {
+            throw new AtlasBaseException(AtlasErrorCode.RELATIONSHIP_GUID_NOT_FOUND, guids);
+        }
+
+        for (String guid : guids) {
+            Servlets.validateQueryParamLength("guid", guid);
+        }
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "RelationshipREST.deleteByGuids(" + guids.size() + ")");
+            }
+
+            return bulkRelationshipWriter.deleteByIds(guids, false);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+}
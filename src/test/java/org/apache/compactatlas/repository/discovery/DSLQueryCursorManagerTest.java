@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.discovery;
+
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.typedef.AtlasEntityDef;
+import org.apache.compactatlas.intg.model.typedef.AtlasTypesDef;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.apache.compactatlas.repository.query.executors.DSLQueryCursor;
+import org.apache.compactatlas.repository.util.SearchTracker;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class DSLQueryCursorManagerTest {
+    private static final String TABLE_TYPE = "test_table";
+    private static final int    MAX_OPEN   = AtlasConfiguration.DSL_CURSOR_MAX_OPEN.getInt();
+
+    private SearchTracker         searchTracker;
+    private DSLQueryCursorManager cursorManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        searchTracker = mock(SearchTracker.class);
+        cursorManager = new DSLQueryCursorManager(newTypeRegistry(), mock(AtlasGraph.class), searchTracker);
+
+        RequestContext.get().setUser("alice", Collections.emptySet());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cursorManager.shutdown();
+
+        RequestContext.clear();
+    }
+
+    @Test
+    void returnsCursorToItsOwnerOnly() throws Exception {
+        DSLQueryCursor cursor = cursorManager.open(TABLE_TYPE);
+
+        assertSame(cursor, cursorManager.get(cursor.getId()));
+
+        RequestContext.get().setUser("bob", Collections.emptySet());
+
+        assertErrorCode(AtlasErrorCode.DSL_CURSOR_NOT_FOUND, () -> cursorManager.get(cursor.getId()));
+    }
+
+    @Test
+    void terminatesCursorOfAnyUser() throws Exception {
+        DSLQueryCursor cursor = cursorManager.open(TABLE_TYPE);
+
+        RequestContext.get().setUser("admin", Collections.emptySet());
+
+        assertTrue(cursorManager.terminate(cursor.getId()));
+        assertTrue(cursor.isClosed());
+
+        verify(searchTracker).removeCursor(cursor.getId());
+
+        RequestContext.get().setUser("alice", Collections.emptySet());
+
+        assertErrorCode(AtlasErrorCode.DSL_CURSOR_NOT_FOUND, () -> cursorManager.get(cursor.getId()));
+    }
+
+    @Test
+    void limitsOpenCursors() throws Exception {
+        List<DSLQueryCursor> cursors = new ArrayList<>();
+
+        for (int i = 0; i < MAX_OPEN; i++) {
+            cursors.add(cursorManager.open(TABLE_TYPE));
+        }
+
+        assertErrorCode(AtlasErrorCode.DSL_CURSOR_LIMIT_REACHED, () -> cursorManager.open(TABLE_TYPE));
+
+        // a cursor closed by its client frees its slot once noticed
+        cursors.get(0).close();
+
+        assertErrorCode(AtlasErrorCode.DSL_CURSOR_NOT_FOUND, () -> cursorManager.get(cursors.get(0).getId()));
+
+        cursorManager.open(TABLE_TYPE);
+    }
+
+    @Test
+    void limitsConcurrentlyOpenedCursors() throws Exception {
+        int             openers  = MAX_OPEN * 2;
+        ExecutorService executor = Executors.newFixedThreadPool(openers);
+        CountDownLatch  start    = new CountDownLatch(1);
+        List<Future<?>> results  = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < openers; i++) {
+                results.add(executor.submit((Callable<DSLQueryCursor>) () -> {
+                    start.await();
+
+                    return cursorManager.open(TABLE_TYPE);
+                }));
+            }
+
+            start.countDown();
+
+            int opened = 0;
+
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+
+                    opened++;
+                } catch (ExecutionException e) {
+                    assertEquals(AtlasErrorCode.DSL_CURSOR_LIMIT_REACHED, ((AtlasBaseException) e.getCause()).getAtlasErrorCode());
+                }
+            }
+
+            assertEquals(MAX_OPEN, opened);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertErrorCode(AtlasErrorCode expected, Callable<?> call) {
+        AtlasBaseException excp = assertThrows(AtlasBaseException.class, call::call);
+
+        assertEquals(expected, excp.getAtlasErrorCode());
+    }
+
+    private static AtlasTypeRegistry newTypeRegistry() throws Exception {
+        AtlasTypeRegistry ret      = new AtlasTypeRegistry();
+        AtlasTypesDef     typesDef = new AtlasTypesDef();
+
+        typesDef.setEntityDefs(Collections.singletonList(new AtlasEntityDef(TABLE_TYPE)));
+
+        AtlasTransientTypeRegistry ttr = ret.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        ret.releaseTypeRegistryForUpdate(ttr, true);
+
+        return ret;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.discovery;
+
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.compactatlas.intg.model.instance.AtlasObjectId;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.intg.v1.model.lineage.SchemaResponse.SchemaDetails;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityProjection;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EntityLineageServiceTest {
+    private static final String TABLE_GUID = "table-1";
+
+    @Test
+    void readsTableSchemaThroughProjection() throws Exception {
+        EntityGraphRetriever entityRetriever = mock(EntityGraphRetriever.class);
+        EntityLineageService lineageService  = new EntityLineageService(mock(AtlasTypeRegistry.class), mock(AtlasGraph.class), null, entityRetriever);
+
+        // maps the table as the retriever does: the legacy columns attribute is set only when the relationship attribute is read
+        when(entityRetriever.toAtlasEntityWithExtInfo(eq(TABLE_GUID), any(EntityProjection.class))).thenAnswer(invocation -> {
+            EntityProjection       projection = invocation.getArgument(1);
+            AtlasEntityWithExtInfo ret        = new AtlasEntityWithExtInfo(newEntity("hive_table", TABLE_GUID));
+
+            ret.addReferredEntity(newEntity("hive_column", "column-1"));
+            ret.addReferredEntity(newEntity("hive_column", "column-2"));
+            ret.addReferredEntity(newEntity("hive_db", "db-1"));
+
+            if (projection.includesRelationshipAttribute("columns")) {
+                ret.getEntity().setAttribute("columns", Arrays.asList(new AtlasObjectId("column-1", "hive_column"), new AtlasObjectId("column-2", "hive_column")));
+            }
+
+            assertFalse(projection.includesRelationshipAttribute("outputFromProcesses"));
+
+            return ret;
+        });
+
+        SchemaDetails schema = lineageService.getSchemaForHiveTableByGuid(TABLE_GUID);
+
+        assertEquals(2, schema.getRows().size());
+
+        for (Map<String, Object> row : schema.getRows()) {
+            assertEquals("hive_column", row.get("$typeName$"));
+        }
+    }
+
+    private static AtlasEntity newEntity(String typeName, String guid) {
+        AtlasEntity ret = new AtlasEntity(typeName, new HashMap<>());
+
+        ret.setGuid(guid);
+        ret.setStatus(AtlasEntity.Status.ACTIVE);
+        ret.setVersion(0L);
+        ret.setCreateTime(new Date());
+        ret.setUpdateTime(new Date());
+
+        return ret;
+    }
+}
@@ -0,0 +1,279 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.discovery;
+
+import org.apache.compactatlas.common.repository.Constants;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasGraphQuery;
+import org.apache.compactatlas.graphdb.api.AtlasIndexQuery;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters.FilterCriteria;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters.FilterCriteria.Condition;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters.Operator;
+import org.apache.compactatlas.intg.model.typedef.AtlasEntityDef;
+import org.apache.compactatlas.intg.model.typedef.AtlasStructDef.AtlasAttributeDef;
+import org.apache.compactatlas.intg.model.typedef.AtlasTypesDef;
+import org.apache.compactatlas.intg.type.AtlasEntityType;
+import org.apache.compactatlas.intg.type.AtlasStructType.AtlasAttribute;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class EntitySearchProcessorTest {
+    private static final String TABLE_TYPE = "test_table";
+
+    private AtlasTypeRegistry typeRegistry;
+    private AtlasEntityType   tableType;
+    private SearchParameters  searchParameters;
+    private SearchContext     context;
+    private AtlasGraphQuery   graphQuery;
+    private AtlasIndexQuery   indexQuery;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        typeRegistry     = newTypeRegistry();
+        tableType        = typeRegistry.getEntityTypeByName(TABLE_TYPE);
+        searchParameters = new SearchParameters();
+        context          = mock(SearchContext.class);
+        graphQuery       = mock(AtlasGraphQuery.class, RETURNS_SELF);
+        indexQuery       = mock(AtlasIndexQuery.class);
+
+        AtlasGraph graph = mock(AtlasGraph.class);
+
+        when(graph.query()).thenReturn(graphQuery);
+        when(graph.indexQuery(eq(Constants.VERTEX_INDEX), anyString())).thenReturn(indexQuery);
+
+        searchParameters.setExcludeDeletedEntities(false);
+
+        when(context.getSearchParameters()).thenReturn(searchParameters);
+        when(context.getGraph()).thenReturn(graph);
+        when(context.getTypeRegistry()).thenReturn(typeRegistry);
+        when(context.getEntityAttributes()).thenReturn(new HashSet<>());
+        // owner is the only attribute with an index
+        when(context.getIndexedKeys()).thenReturn(Collections.singleton(tableType.getVertexPropertyName("owner")));
+    }
+
+    @Test
+    void returnsIndexHitTotalWhenIndexQueryCoversAllFilters() {
+        searchTable(newCriteria("owner", Operator.EQ, "alice"));
+
+        when(indexQuery.vertexTotals()).thenReturn(42L);
+
+        EntitySearchProcessor processor = new EntitySearchProcessor(context);
+
+        assertEquals(42L, processor.getResultCount());
+        assertFalse(processor.isResultCountApproximate());
+    }
+
+    @Test
+    void flagsIndexHitTotalApproximateWhenFiltersRemain() {
+        searchTable(newCriteria(Condition.AND, newCriteria("owner", Operator.EQ, "alice"), newCriteria("comment", Operator.EQ, "x")));
+
+        when(indexQuery.vertexTotals()).thenReturn(42L);
+
+        EntitySearchProcessor processor = new EntitySearchProcessor(context);
+
+        assertEquals(42L, processor.getResultCount());
+        assertTrue(processor.isResultCountApproximate());
+    }
+
+    @Test
+    void countsIndexHitsPassingRemainingFiltersForExactCount() {
+        searchTable(newCriteria(Condition.AND, newCriteria("owner", Operator.EQ, "alice"), newCriteria("comment", Operator.EQ, "x")));
+
+        searchParameters.setExactCount(true);
+
+        int               pageSize  = SearchProcessor.MAX_RESULT_SIZE;
+        AtlasVertex       match     = newTableVertex("alice", "x");
+        AtlasVertex       noMatch   = newTableVertex("alice", "y");
+        List<AtlasVertex> firstPage = new ArrayList<>(Collections.nCopies(pageSize - 1, noMatch));
+
+        firstPage.add(match);
+
+        // a full page then a partial page: both are read, and only hits passing the comment filter are counted
+        doReturn(toResults(firstPage)).when(indexQuery).vertices(0, pageSize);
+        doReturn(toResults(Arrays.asList(match, noMatch, match))).when(indexQuery).vertices(pageSize, pageSize);
+
+        EntitySearchProcessor processor = new EntitySearchProcessor(context);
+
+        assertEquals(3L, processor.getResultCount());
+        assertFalse(processor.isResultCountApproximate());
+    }
+
+    @Test
+    void estimatesGraphQueryCountFromSample() {
+        searchAllEntities(newCriteria(Constants.MODIFIED_BY_KEY, Operator.EQ, "alice"));
+
+        int               sampleSize = SearchProcessor.COUNT_SAMPLE_SIZE;
+        List<AtlasVertex> sample     = new ArrayList<>(Collections.nCopies(sampleSize - sampleSize / 4, newEntityVertex("bob")));
+
+        sample.addAll(Collections.nCopies(sampleSize / 4, newEntityVertex("alice")));
+
+        doReturn(sample).when(graphQuery).vertices(0, sampleSize);
+        when(indexQuery.vertexTotals()).thenReturn(4L * sampleSize);
+
+        EntitySearchProcessor processor = new EntitySearchProcessor(context);
+
+        // a quarter of the sample matches: a quarter of the vertices of the searched types
+        assertEquals(4L * (sampleSize / 4), processor.getResultCount());
+        assertTrue(processor.isResultCountApproximate());
+    }
+
+    @Test
+    void countsGraphQueryMatchesWhenSampleHoldsAllVertices() {
+        searchAllEntities(newCriteria(Constants.MODIFIED_BY_KEY, Operator.EQ, "alice"));
+
+        doReturn(Arrays.asList(newEntityVertex("alice"), newEntityVertex("bob"), newEntityVertex("alice"))).when(graphQuery).vertices(anyInt(), anyInt());
+
+        EntitySearchProcessor processor = new EntitySearchProcessor(context);
+
+        assertEquals(2L, processor.getResultCount());
+        assertFalse(processor.isResultCountApproximate());
+    }
+
+    @Test
+    void countsAllGraphQueryMatchesForExactCount() {
+        searchAllEntities(newCriteria(Constants.MODIFIED_BY_KEY, Operator.EQ, "alice"));
+
+        searchParameters.setExactCount(true);
+
+        doReturn(Arrays.asList(1L, 2L, 3L)).when(graphQuery).vertexIds();
+
+        EntitySearchProcessor processor = new EntitySearchProcessor(context);
+
+        assertEquals(3L, processor.getResultCount());
+        assertFalse(processor.isResultCountApproximate());
+    }
+
+    private void searchTable(FilterCriteria entityFilters) {
+        searchParameters.setEntityFilters(entityFilters);
+
+        when(context.getEntityTypes()).thenReturn(Collections.singleton(tableType));
+        when(context.getEntityTypeNames()).thenReturn(Collections.singleton(TABLE_TYPE));
+        when(context.getEntityTypesQryStr()).thenReturn(AtlasAttribute.escapeIndexQueryValue(Collections.singleton(TABLE_TYPE), true));
+    }
+
+    // searches of all entity types have no index query on type: filters on non-indexed attributes run a graph query
+    private void searchAllEntities(FilterCriteria entityFilters) {
+        searchParameters.setEntityFilters(entityFilters);
+
+        when(context.getEntityTypes()).thenReturn(Collections.singleton(SearchContext.MATCH_ALL_ENTITY_TYPES));
+        when(context.getEntityTypeNames()).thenReturn(Collections.emptySet());
+        when(context.getEntityTypesQryStr()).thenReturn("");
+    }
+
+    private AtlasVertex newTableVertex(String owner, String comment) {
+        Map<String, Object> properties = new HashMap<>();
+
+        properties.put(tableType.getAttribute("owner").getVertexPropertyName(), owner);
+        properties.put(tableType.getAttribute("comment").getVertexPropertyName(), comment);
+
+        return newVertex(properties);
+    }
+
+    private static AtlasVertex newEntityVertex(String modifiedBy) {
+        return newVertex(Collections.singletonMap(Constants.MODIFIED_BY_KEY, modifiedBy));
+    }
+
+    private static AtlasVertex newVertex(Map<String, Object> attributes) {
+        AtlasVertex         ret        = mock(AtlasVertex.class, withSettings().stubOnly());
+        Map<String, Object> properties = new HashMap<>();
+
+        attributes.forEach((name, value) -> properties.put(AtlasAttribute.encodePropertyKey(name), value));
+
+        properties.put(Constants.TYPE_NAME_PROPERTY_KEY, TABLE_TYPE);
+        properties.put(Constants.ENTITY_TYPE_PROPERTY_KEY, TABLE_TYPE);
+
+        when(ret.getProperty(anyString(), any())).thenAnswer(invocation -> properties.get(invocation.<String>getArgument(0)));
+
+        return ret;
+    }
+
+    private static Iterator<AtlasIndexQuery.Result> toResults(List<AtlasVertex> vertices) {
+        List<AtlasIndexQuery.Result> ret = new ArrayList<>(vertices.size());
+
+        for (AtlasVertex vertex : vertices) {
+            AtlasIndexQuery.Result result = mock(AtlasIndexQuery.Result.class, withSettings().stubOnly());
+
+            when(result.getVertex()).thenReturn(vertex);
+
+            ret.add(result);
+        }
+
+        return ret.iterator();
+    }
+
+    private static FilterCriteria newCriteria(String attributeName, Operator operator, String attributeValue) {
+        FilterCriteria ret = new FilterCriteria();
+
+        ret.setAttributeName(attributeName);
+        ret.setOperator(operator);
+        ret.setAttributeValue(attributeValue);
+
+        return ret;
+    }
+
+    private static FilterCriteria newCriteria(Condition condition, FilterCriteria... criterion) {
+        FilterCriteria ret = new FilterCriteria();
+
+        ret.setCondition(condition);
+        ret.setCriterion(Arrays.asList(criterion));
+
+        return ret;
+    }
+
+    private static AtlasTypeRegistry newTypeRegistry() throws Exception {
+        AtlasTypeRegistry ret      = new AtlasTypeRegistry();
+        AtlasTypesDef     typesDef = new AtlasTypesDef();
+
+        typesDef.setEntityDefs(Collections.singletonList(new AtlasEntityDef(TABLE_TYPE, null, "1.0",
+                Arrays.asList(new AtlasAttributeDef("owner", "string"), new AtlasAttributeDef("comment", "string")))));
+
+        AtlasTransientTypeRegistry ttr = ret.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        ret.releaseTypeRegistryForUpdate(ttr, true);
+
+        return ret;
+    }
+}
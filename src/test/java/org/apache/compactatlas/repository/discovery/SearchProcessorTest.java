@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.discovery;
+
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters.FilterCriteria;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters.FilterCriteria.Condition;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters.Operator;
+import org.apache.compactatlas.intg.model.typedef.AtlasEntityDef;
+import org.apache.compactatlas.intg.model.typedef.AtlasStructDef.AtlasAttributeDef;
+import org.apache.compactatlas.intg.model.typedef.AtlasStructDef.AtlasAttributeDef.IndexType;
+import org.apache.compactatlas.intg.model.typedef.AtlasTypesDef;
+import org.apache.compactatlas.intg.type.AtlasEntityType;
+import org.apache.compactatlas.intg.type.AtlasStructType.AtlasAttribute;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchProcessorTest {
+    private static final String TABLE_TYPE = "test_table";
+    private static final String PREFIX     = SearchProcessor.INDEX_SEARCH_PREFIX;
+
+    private Set<AtlasEntityType> entityTypes;
+    private String               ownerKey;
+    private String               descriptionKey;
+    private String               tagsKey;
+    private String               commentKey;
+    private SearchContext        context;
+    private SearchProcessor      processor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AtlasEntityType tableType = newTableType();
+
+        entityTypes    = Collections.singleton(tableType);
+        ownerKey       = tableType.getVertexPropertyName("owner");
+        descriptionKey = tableType.getVertexPropertyName("description");
+        tagsKey        = tableType.getVertexPropertyName("tags");
+        commentKey     = tableType.getVertexPropertyName("comment");
+        context        = mock(SearchContext.class);
+        processor      = new TestSearchProcessor(context);
+
+        // comment is the only attribute without an index
+        when(context.getIndexedKeys()).thenReturn(new HashSet<>(Arrays.asList(ownerKey, descriptionKey, tagsKey)));
+        when(context.getEntityAttributes()).thenReturn(new HashSet<>());
+    }
+
+    @Test
+    void pushesNeqOnUntokenizedStringIntoIndexQuery() {
+        FilterCriteria criteria = newCriteria("owner", Operator.NEQ, "alice");
+
+        assertEquals(String.format("(*:* -" + PREFIX + "\"%s\": %s)", ownerKey, AtlasAttribute.escapeIndexQueryValue("alice")), toIndexQuery(criteria));
+    }
+
+    @Test
+    void keepsNeqOnTokenizedStringInMemory() {
+        Set<String> indexFiltered = new HashSet<>();
+        Set<String> graphFiltered = new HashSet<>();
+
+        processor.processSearchAttributes(entityTypes, newCriteria("description", Operator.NEQ, "sales"), indexFiltered, graphFiltered, new HashSet<>());
+
+        assertFalse(indexFiltered.contains(descriptionKey));
+        assertTrue(graphFiltered.contains(descriptionKey));
+    }
+
+    @Test
+    void joinsContainsAnyAndContainsAllValues() {
+        String a = AtlasAttribute.escapeIndexQueryValue("a");
+        String b = AtlasAttribute.escapeIndexQueryValue("b");
+
+        assertEquals(String.format(PREFIX + "\"%s\": (%s OR %s)", tagsKey, a, b), toIndexQuery(newCriteria("tags", Operator.CONTAINS_ANY, "a, b")));
+        assertEquals(String.format(PREFIX + "\"%s\": (%s AND %s)", tagsKey, a, b), toIndexQuery(newCriteria("tags", Operator.CONTAINS_ALL, "a,b")));
+    }
+
+    @Test
+    void leavesOrWithNonIndexedAttributeOutOfIndexQuery() {
+        FilterCriteria or  = newCriteria(Condition.OR, newCriteria("tags", Operator.CONTAINS_ANY, "a"), newCriteria("comment", Operator.EQ, "x"));
+        FilterCriteria and = newCriteria(Condition.AND, newCriteria("owner", Operator.EQ, "alice"), or);
+
+        // the OR is evaluated in-memory; the owner filter still narrows the index query
+        assertEquals(String.format(PREFIX + "\"%s\": %s", ownerKey, AtlasAttribute.escapeIndexQueryValue("alice")), toIndexQuery(and));
+    }
+
+    private String toIndexQuery(FilterCriteria criteria) {
+        Set<String>   indexFiltered = new HashSet<>();
+        StringBuilder ret           = new StringBuilder();
+
+        processor.processSearchAttributes(entityTypes, criteria, indexFiltered, new HashSet<>(), new HashSet<>());
+        processor.constructFilterQuery(ret, entityTypes, criteria, indexFiltered);
+
+        return ret.toString();
+    }
+
+    private static FilterCriteria newCriteria(String attributeName, Operator operator, String attributeValue) {
+        FilterCriteria ret = new FilterCriteria();
+
+        ret.setAttributeName(attributeName);
+        ret.setOperator(operator);
+        ret.setAttributeValue(attributeValue);
+
+        return ret;
+    }
+
+    private static FilterCriteria newCriteria(Condition condition, FilterCriteria... criterion) {
+        FilterCriteria ret = new FilterCriteria();
+
+        ret.setCondition(condition);
+        ret.setCriterion(Arrays.asList(criterion));
+
+        return ret;
+    }
+
+    private static AtlasEntityType newTableType() throws Exception {
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+        AtlasTypesDef     typesDef     = new AtlasTypesDef();
+        AtlasAttributeDef owner        = new AtlasAttributeDef("owner", "string");
+
+        owner.setIndexType(IndexType.STRING);
+
+        typesDef.setEntityDefs(Collections.singletonList(new AtlasEntityDef(TABLE_TYPE, null, "1.0",
+                Arrays.asList(owner, new AtlasAttributeDef("description", "string"), new AtlasAttributeDef("tags", "array<string>"), new AtlasAttributeDef("comment", "string")))));
+
+        AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+
+        return typeRegistry.getEntityTypeByName(TABLE_TYPE);
+    }
+
+    private static class TestSearchProcessor extends SearchProcessor {
+        TestSearchProcessor(SearchContext context) {
+            super(context);
+        }
+
+        @Override
+        public List<AtlasVertex> execute() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public long getResultCount() {
+            return 0;
+        }
+    }
+}
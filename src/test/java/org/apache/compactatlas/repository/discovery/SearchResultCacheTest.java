@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.discovery;
+
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters;
+import org.apache.compactatlas.intg.model.instance.AtlasClassification;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity;
+import org.apache.compactatlas.intg.model.instance.AtlasObjectId;
+import org.apache.compactatlas.intg.model.instance.AtlasRelationship;
+import org.apache.compactatlas.repository.discovery.SearchResultCache.CachedPage;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchResultCacheTest {
+    private static final String TABLE_TYPE = "test_table";
+    private static final String DB_TYPE    = "test_db";
+    private static final String PII        = "test_pii";
+
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache();
+
+        RequestContext.get().setUser("alice", Collections.emptySet());
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    void returnsCachedPageUntilSearchedTypeChanges() {
+        SearchContext context = newSearch(TABLE_TYPE, Collections.singleton(TABLE_TYPE), null);
+        AtlasGraph    graph   = mock(AtlasGraph.class);
+        AtlasVertex   vertex  = mock(AtlasVertex.class);
+
+        when(vertex.getId()).thenReturn("v1");
+        when(graph.getVertex("v1")).thenReturn(vertex);
+
+        cache.put(context, cache.getWriteEpoch(), Collections.singletonList(vertex), 1, false, null);
+
+        CachedPage page = cache.get(context);
+
+        assertNotNull(page);
+        assertEquals(Collections.singletonList(vertex), page.getVertices(graph));
+
+        cache.onEntitiesUpdated(Collections.singletonList(new AtlasEntity(TABLE_TYPE)), false);
+
+        assertNull(cache.get(context));
+        assertEquals(1L, cache.getStats().get("staleCount"));
+    }
+
+    @Test
+    void keepsCachedPageWhenOtherTypeChanges() {
+        SearchContext context = newSearch(TABLE_TYPE, Collections.singleton(TABLE_TYPE), null);
+
+        cache.put(context, cache.getWriteEpoch(), Collections.emptyList(), 0, false, null);
+
+        cache.onEntitiesAdded(Collections.singletonList(new AtlasEntity(DB_TYPE)), false);
+
+        assertNotNull(cache.get(context));
+    }
+
+    @Test
+    void dropsCachedPageWhenSearchedClassificationChanges() {
+        SearchContext context = newSearch(TABLE_TYPE, Collections.singleton(TABLE_TYPE), Collections.singleton(PII));
+
+        cache.put(context, cache.getWriteEpoch(), Collections.emptyList(), 0, false, null);
+
+        // the entity is of another type: only the classification is searched on
+        cache.onClassificationsAdded(new AtlasEntity(DB_TYPE), Collections.singletonList(new AtlasClassification(PII)));
+
+        assertNull(cache.get(context));
+    }
+
+    @Test
+    void dropsCachedPageWhenRelationshipEndChanges() {
+        SearchContext     context      = newSearch(TABLE_TYPE, Collections.singleton(TABLE_TYPE), null);
+        AtlasRelationship relationship = new AtlasRelationship("test_table_db");
+
+        relationship.setEnd1(new AtlasObjectId("t1", TABLE_TYPE));
+        relationship.setEnd2(new AtlasObjectId("d1", DB_TYPE));
+
+        cache.put(context, cache.getWriteEpoch(), Collections.emptyList(), 0, false, null);
+
+        cache.onRelationshipsAdded(Collections.singletonList(relationship), false);
+
+        assertNull(cache.get(context));
+    }
+
+    @Test
+    void dropsCachedPageOfSearchOnAnyTypeOnAnyChange() {
+        SearchContext context = newSearch("any", Collections.emptySet(), null);
+
+        cache.put(context, cache.getWriteEpoch(), Collections.emptyList(), 0, false, null);
+
+        cache.onEntitiesDeleted(Collections.singletonList(new AtlasEntity(DB_TYPE)), false);
+
+        assertNull(cache.get(context));
+    }
+
+    @Test
+    void doesNotCachePageOfSearchOverlappingChange() {
+        SearchContext context    = newSearch(TABLE_TYPE, Collections.singleton(TABLE_TYPE), null);
+        long          startEpoch = cache.getWriteEpoch();
+
+        cache.onEntitiesUpdated(Collections.singletonList(new AtlasEntity(TABLE_TYPE)), false);
+
+        cache.put(context, startEpoch, Collections.emptyList(), 0, false, null);
+
+        assertNull(cache.get(context));
+    }
+
+    @Test
+    void keysCachedPagesByUser() {
+        SearchContext context = newSearch(TABLE_TYPE, Collections.singleton(TABLE_TYPE), null);
+
+        cache.put(context, cache.getWriteEpoch(), Collections.emptyList(), 0, false, null);
+
+        RequestContext.get().setUser("bob", Collections.emptySet());
+
+        assertNull(cache.get(context));
+    }
+
+    private static SearchContext newSearch(String typeName, Set<String> entityTypeNames, Set<String> classificationTypeNames) {
+        SearchContext    ret              = mock(SearchContext.class);
+        SearchParameters searchParameters = new SearchParameters();
+
+        searchParameters.setTypeName(typeName);
+
+        if (classificationTypeNames != null) {
+            searchParameters.setClassification(classificationTypeNames.iterator().next());
+        }
+
+        when(ret.getSearchParameters()).thenReturn(searchParameters);
+        when(ret.getEntityTypeNames()).thenReturn(entityTypeNames);
+        when(ret.getClassificationTypeNames()).thenReturn(classificationTypeNames);
+
+        return ret;
+    }
+}
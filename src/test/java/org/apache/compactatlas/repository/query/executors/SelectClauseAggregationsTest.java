@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.query.executors;
+
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasGraphTraversal;
+import org.apache.compactatlas.graphdb.janus.AtlasJanusGraphTraversal;
+import org.apache.compactatlas.repository.query.SelectClauseComposer;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class SelectClauseAggregationsTest {
+    // count(), sum(size), min(size), max(size)
+    private static final SelectClauseComposer SCC = new SelectClauseComposer(new String[] { "count()", "sum(size)", "min(size)", "max(size)" },
+                                                                             new String[] { "count", "size", "size", "size" },
+                                                                             new String[] { "count()", "sum(size)", "min(size)", "max(size)" },
+                                                                             0, 1, 2, 3);
+
+    private TinkerGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = TinkerGraph.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        graph.close();
+    }
+
+    @Test
+    void aggregatesEachGroup() {
+        addVertex("hive_table", 1);
+        addVertex("hive_table", 2);
+        addVertex("hive_table", null);
+        addVertex("hive_db", 5);
+
+        Map<Object, Object[]> groups = SelectClauseAggregations.aggregateGroups(newTraversal(), "type", SCC);
+
+        assertEquals(2, groups.size());
+        assertValues(groups.get("hive_table"), 3, 3, 1, 2);
+        assertValues(groups.get("hive_db"), 1, 5, 5, 5);
+    }
+
+    @Test
+    void aggregatesAllVerticesWithoutGroupBy() {
+        addVertex("hive_table", 1);
+        addVertex("hive_table", 2);
+        addVertex("hive_db", 5);
+
+        Map<Object, Object[]> groups = SelectClauseAggregations.aggregateGroups(newTraversal(), null, SCC);
+
+        assertEquals(1, groups.size());
+        assertValues(groups.values().iterator().next(), 3, 8, 1, 5);
+    }
+
+    @Test
+    void returnsNoGroupsWhenNothingMatches() {
+        addVertex("hive_db", 5);
+
+        AtlasGraphTraversal traversal = newTraversal();
+
+        traversal.has("type", "hive_table");
+
+        assertTrue(SelectClauseAggregations.aggregateGroups(traversal, "type", SCC).isEmpty());
+    }
+
+    private void addVertex(String typeName, Integer size) {
+        Vertex vertex = graph.addVertex(T.label, "vertex", "type", typeName);
+
+        if (size != null) {
+            vertex.property("size", size);
+        }
+    }
+
+    // g.V(), as AtlasJanusGraph.V() builds it
+    private AtlasGraphTraversal newTraversal() {
+        AtlasGraphTraversal ret = new AtlasJanusGraphTraversal(mock(AtlasGraph.class), graph.traversal());
+
+        ret.getBytecode().addStep(GraphTraversal.Symbols.V);
+        ret.addStep(new GraphStep<>(ret, Vertex.class, true));
+
+        return ret;
+    }
+
+    private static void assertValues(Object[] values, long count, double sum, int min, int max) {
+        assertEquals(count, ((Number) values[0]).longValue());
+        assertEquals(sum, ((Number) values[1]).doubleValue());
+        assertEquals(min, ((Number) values[2]).intValue());
+        assertEquals(max, ((Number) values[3]).intValue());
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.graph.v2;
+
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.apache.compactatlas.intg.model.instance.AtlasRelationship;
+import org.apache.compactatlas.intg.model.instance.AtlasRelationshipMutationResult;
+import org.apache.compactatlas.repository.repository.store.graph.AtlasRelationshipStore;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkRelationshipWriterTest {
+    @AfterEach
+    void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    void failedChunkIsRetriedOneRelationshipAtATime() throws Exception {
+        AtlasRelationshipStore  store         = mock(AtlasRelationshipStore.class);
+        AtlasRelationship       good1         = newRelationship("rel-1");
+        AtlasRelationship       bad           = newRelationship("rel-2");
+        AtlasRelationship       good2         = newRelationship("rel-3");
+        List<AtlasRelationship> relationships = Arrays.asList(good1, bad, good2);
+
+        when(store.createOrUpdate(anyList())).thenAnswer(invocation -> {
+            List<AtlasRelationship> chunk = invocation.getArgument(0);
+
+            if (chunk.contains(bad)) {
+                throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, "end1");
+            }
+
+            return Collections.singletonList(new AtlasRelationshipMutationResult(chunk.get(0)));
+        });
+
+        List<AtlasRelationshipMutationResult> results = new BulkRelationshipWriter(store).createOrUpdate(relationships);
+
+        assertEquals(3, results.size());
+        assertNull(results.get(0).getErrorCode());
+        assertEquals("rel-2", results.get(1).getGuid());
+        assertEquals(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND.getErrorCode(), results.get(1).getErrorCode());
+        assertNull(results.get(2).getErrorCode());
+    }
+
+    @Test
+    void deletesInOneCallPerChunk() throws Exception {
+        AtlasRelationshipStore store = mock(AtlasRelationshipStore.class);
+        List<String>           guids = Arrays.asList("rel-1", "rel-2");
+
+        when(store.deleteByIds(anyList(), anyBoolean())).thenReturn(Arrays.asList(new AtlasRelationshipMutationResult("rel-1", null, null),
+                                                                                  new AtlasRelationshipMutationResult("rel-2", null, null)));
+
+        List<AtlasRelationshipMutationResult> results = new BulkRelationshipWriter(store).deleteByIds(guids, false);
+
+        assertEquals(2, results.size());
+
+        verify(store).deleteByIds(eq(guids), eq(false));
+    }
+
+    private static AtlasRelationship newRelationship(String guid) {
+        AtlasRelationship ret = new AtlasRelationship("test_relationship");
+
+        ret.setGuid(guid);
+
+        return ret;
+    }
+}
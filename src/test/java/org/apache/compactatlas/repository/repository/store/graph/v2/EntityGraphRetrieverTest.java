@@ -0,0 +1,204 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.graph.v2;
+
+import org.apache.compactatlas.common.repository.Constants;
+import org.apache.compactatlas.graphdb.api.AtlasEdge;
+import org.apache.compactatlas.graphdb.api.AtlasEdgeDirection;
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.graphdb.api.AtlasVertexQuery;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.model.instance.AtlasEntity;
+import org.apache.compactatlas.intg.model.instance.AtlasRelatedObjectId;
+import org.apache.compactatlas.intg.model.typedef.AtlasEntityDef;
+import org.apache.compactatlas.intg.model.typedef.AtlasRelationshipDef;
+import org.apache.compactatlas.intg.model.typedef.AtlasRelationshipDef.PropagateTags;
+import org.apache.compactatlas.intg.model.typedef.AtlasRelationshipDef.RelationshipCategory;
+import org.apache.compactatlas.intg.model.typedef.AtlasRelationshipEndDef;
+import org.apache.compactatlas.intg.model.typedef.AtlasStructDef.AtlasAttributeDef.Cardinality;
+import org.apache.compactatlas.intg.model.typedef.AtlasTypesDef;
+import org.apache.compactatlas.intg.type.AtlasStructType.AtlasAttribute;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class EntityGraphRetrieverTest {
+    private static final String DB_TYPE           = "test_db";
+    private static final String TABLE_TYPE        = "test_table";
+    private static final String RELATIONSHIP_TYPE = "test_table_db";
+    private static final String TABLES            = "tables";
+    private static final int    THRESHOLD         = AtlasConfiguration.RELATIONSHIP_SUPERNODE_EDGE_THRESHOLD.getInt();
+
+    private AtlasTypeRegistry    typeRegistry;
+    private EntityGraphRetriever entityRetriever;
+    private String               edgeLabel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        typeRegistry    = newTypeRegistry();
+        entityRetriever = new EntityGraphRetriever(mock(AtlasGraph.class), typeRegistry);
+
+        AtlasAttribute tables = typeRegistry.getEntityTypeByName(DB_TYPE).getRelationshipAttribute(TABLES, RELATIONSHIP_TYPE);
+
+        edgeLabel = tables.getRelationshipEdgeLabel();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    void pagesActiveEdgesOnly() throws Exception {
+        AtlasVertex      db    = newVertex(DB_TYPE, "page-db");
+        AtlasVertexQuery query = mock(AtlasVertexQuery.class, RETURNS_SELF);
+        List<AtlasEdge>  edges = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            edges.add(newEdge(db, newVertex(TABLE_TYPE, "page-table-" + i), "page-rel-" + i));
+        }
+
+        doReturn(query).when(db).query();
+        doReturn(edges).when(query).edges(3);
+
+        List<AtlasRelatedObjectId> page = entityRetriever.getRelationshipAttributeValues(db, TABLES, 1, 2);
+
+        assertEquals(Arrays.asList("page-table-1", "page-table-2"), Arrays.asList(page.get(0).getGuid(), page.get(1).getGuid()));
+
+        verify(query).label(edgeLabel);
+        verify(query).has(Constants.STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.name());
+    }
+
+    @Test
+    void truncatesActiveEdgesWhenRequested() throws Exception {
+        AtlasVertex      db    = newVertex(DB_TYPE, "truncate-db");
+        AtlasVertexQuery query = mock(AtlasVertexQuery.class, RETURNS_SELF);
+        AtlasEdge        edge  = newEdge(db, newVertex(TABLE_TYPE, "truncate-table"), "truncate-rel");
+
+        doReturn(query).when(db).query();
+        doReturn(Collections.nCopies(THRESHOLD + 1, edge)).when(query).edges();
+
+        RequestContext.get().setTruncateRelationshipAttributes(true);
+
+        AtlasEntity entity = entityRetriever.toAtlasEntity(db, newTablesProjection());
+
+        assertEquals(THRESHOLD, ((List<?>) entity.getRelationshipAttribute(TABLES)).size());
+        assertEquals(Long.valueOf(THRESHOLD + 1), entity.getRelationshipAttributeCounts().get(TABLES));
+
+        verify(query).has(Constants.STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.name());
+    }
+
+    @Test
+    void returnsAllEdgesByDefault() throws Exception {
+        AtlasVertex db   = newVertex(DB_TYPE, "all-db");
+        AtlasEdge   edge = newEdge(db, newVertex(TABLE_TYPE, "all-table"), "all-rel");
+
+        doReturn(Collections.nCopies(THRESHOLD + 1, edge)).when(db).getEdges(AtlasEdgeDirection.IN, edgeLabel);
+
+        AtlasEntity entity = entityRetriever.toAtlasEntity(db, newTablesProjection());
+
+        assertEquals(THRESHOLD + 1, ((List<?>) entity.getRelationshipAttribute(TABLES)).size());
+        assertNull(entity.getRelationshipAttributeCounts());
+    }
+
+    private static EntityProjection newTablesProjection() {
+        return new EntityProjection(Collections.emptyList(), Collections.singletonList(TABLES), false, false, false);
+    }
+
+    private static AtlasTypeRegistry newTypeRegistry() throws Exception {
+        AtlasTypeRegistry    ret      = new AtlasTypeRegistry();
+        AtlasTypesDef        typesDef = new AtlasTypesDef();
+        AtlasRelationshipDef tableDb  = new AtlasRelationshipDef(RELATIONSHIP_TYPE, null, "1.0", RelationshipCategory.ASSOCIATION, PropagateTags.NONE,
+                                                                 new AtlasRelationshipEndDef(TABLE_TYPE, "db", Cardinality.SINGLE),
+                                                                 new AtlasRelationshipEndDef(DB_TYPE, TABLES, Cardinality.SET));
+
+        typesDef.setEntityDefs(Arrays.asList(new AtlasEntityDef(DB_TYPE), new AtlasEntityDef(TABLE_TYPE)));
+        typesDef.setRelationshipDefs(Collections.singletonList(tableDb));
+
+        AtlasTransientTypeRegistry ttr = ret.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        ret.releaseTypeRegistryForUpdate(ttr, true);
+
+        return ret;
+    }
+
+    private static AtlasVertex newVertex(String typeName, String guid) {
+        AtlasVertex         ret        = mock(AtlasVertex.class, withSettings().stubOnly());
+        Map<String, Object> properties = newProperties(typeName);
+
+        properties.put(Constants.GUID_PROPERTY_KEY, guid);
+
+        // ids are unique per test, as vertex guid and state are cached by id
+        when(ret.getId()).thenReturn(guid);
+        when(ret.exists()).thenReturn(true);
+        when(ret.getProperty(anyString(), any())).thenAnswer(invocation -> properties.get(invocation.<String>getArgument(0)));
+
+        return ret;
+    }
+
+    private AtlasEdge newEdge(AtlasVertex db, AtlasVertex table, String relationshipGuid) {
+        AtlasEdge           ret        = mock(AtlasEdge.class, withSettings().stubOnly());
+        Map<String, Object> properties = newProperties(RELATIONSHIP_TYPE);
+
+        properties.put(Constants.RELATIONSHIP_GUID_PROPERTY_KEY, relationshipGuid);
+
+        when(ret.getId()).thenReturn(relationshipGuid);
+        when(ret.exists()).thenReturn(true);
+        when(ret.getLabel()).thenReturn(edgeLabel);
+        when(ret.getOutVertex()).thenReturn(table);
+        when(ret.getInVertex()).thenReturn(db);
+        when(ret.getProperty(anyString(), any())).thenAnswer(invocation -> properties.get(invocation.<String>getArgument(0)));
+
+        return ret;
+    }
+
+    private static Map<String, Object> newProperties(String typeName) {
+        Map<String, Object> ret = new HashMap<>();
+
+        ret.put(Constants.ENTITY_TYPE_PROPERTY_KEY, typeName);
+        ret.put(Constants.STATE_PROPERTY_KEY, AtlasEntity.Status.ACTIVE.name());
+        ret.put(Constants.TIMESTAMP_PROPERTY_KEY, 0L);
+        ret.put(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, 0L);
+
+        return ret;
+    }
+}
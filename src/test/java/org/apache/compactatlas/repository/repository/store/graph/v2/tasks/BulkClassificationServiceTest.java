@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.graph.v2.tasks;
+
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.graphdb.api.AtlasGraphQuery;
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.model.discovery.AtlasSearchResult;
+import org.apache.compactatlas.intg.model.discovery.SearchParameters;
+import org.apache.compactatlas.intg.model.instance.AtlasClassification;
+import org.apache.compactatlas.intg.model.instance.AtlasEntityHeader;
+import org.apache.compactatlas.intg.model.tasks.AtlasTask;
+import org.apache.compactatlas.intg.type.AtlasClassificationType;
+import org.apache.compactatlas.intg.type.AtlasType;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.repository.discovery.AtlasDiscoveryService;
+import org.apache.compactatlas.repository.repository.store.graph.AtlasEntityStore;
+import org.apache.compactatlas.repository.repository.store.graph.v2.EntityGraphMapper;
+import org.apache.compactatlas.repository.tasks.TaskManagement;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.compactatlas.repository.repository.store.graph.v2.tasks.BulkClassificationService.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkClassificationServiceTest {
+    private static final List<String> GUIDS = Arrays.asList("guid-1", "guid-2", "guid-3");
+
+    private AtlasTypeRegistry         typeRegistry;
+    private AtlasDiscoveryService     discoveryService;
+    private TaskManagement            taskManagement;
+    private AtlasEntityStore          entityStore;
+    private EntityGraphMapper         entityGraphMapper;
+    private BulkClassificationService service;
+
+    @BeforeEach
+    void setUp() {
+        AtlasGraph      graph = mock(AtlasGraph.class);
+        AtlasGraphQuery query = mock(AtlasGraphQuery.class);
+
+        typeRegistry      = mock(AtlasTypeRegistry.class);
+        discoveryService  = mock(AtlasDiscoveryService.class);
+        taskManagement    = mock(TaskManagement.class);
+        entityStore       = mock(AtlasEntityStore.class);
+        entityGraphMapper = mock(EntityGraphMapper.class);
+        service           = new BulkClassificationService(graph, typeRegistry, entityStore, entityGraphMapper, discoveryService, taskManagement);
+
+        when(graph.query()).thenReturn(query);
+        when(query.vertices()).thenReturn(Collections.emptyList());
+        when(taskManagement.getPayload(any(AtlasTask.class), eq(PARAM_ENTITY_GUIDS), eq(List.class))).thenReturn(GUIDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    void submitResolvesSearchAndStoresGuidsOnce() throws Exception {
+        AtlasSearchResult searchResult = new AtlasSearchResult();
+        AtlasTask         task         = new AtlasTask(CLASSIFICATION_BULK_ADD, "admin", new HashMap<>());
+
+        searchResult.setEntities(Arrays.asList(new AtlasEntityHeader("hive_table", "guid-2", null), new AtlasEntityHeader("hive_table", "guid-3", null)));
+
+        when(typeRegistry.getClassificationTypeByName("PII")).thenReturn(mock(AtlasClassificationType.class));
+        when(discoveryService.searchWithParameters(any(SearchParameters.class))).thenReturn(searchResult);
+        when(taskManagement.createTask(eq(CLASSIFICATION_BULK_ADD), any(), any())).thenAnswer(invocation -> {
+            task.setParameters(invocation.getArgument(2));
+
+            return task;
+        });
+
+        service.submit(new AtlasClassification("PII"), Arrays.asList("guid-1", "guid-2"), new SearchParameters());
+
+        AtlasClassification classification = AtlasType.fromJson((String) task.getParameters().get(PARAM_CLASSIFICATION), AtlasClassification.class);
+
+        verify(taskManagement).savePayload(task, PARAM_ENTITY_GUIDS, GUIDS);
+
+        assertEquals(3, ((Number) task.getParameters().get(PARAM_TOTAL)).intValue());
+        assertEquals(AtlasConfiguration.CLASSIFICATION_PROPAGATION_DEFAULT.getBoolean(), classification.isPropagate());
+    }
+
+    @Test
+    void classifiesAndPropagatesWithoutRewritingGuids() throws Exception {
+        AtlasTask task = new AtlasTask(CLASSIFICATION_BULK_ADD, "admin", newParams(PHASE_CLASSIFY, 0));
+
+        when(entityStore.addClassificationWithoutPropagation(anyList(), any(AtlasClassification.class))).thenReturn(GUIDS);
+
+        service.create(task).run();
+
+        verify(entityStore).addClassificationWithoutPropagation(eq(GUIDS), any(AtlasClassification.class));
+        verify(entityGraphMapper).propagateClassificationFromEntities(eq(GUIDS), eq("PII"), anySet());
+        verify(taskManagement, never()).savePayload(any(), anyString(), any());
+        verify(taskManagement, atLeastOnce()).updateParameters(task);
+
+        assertFalse(task.getParameters().containsKey(PARAM_ENTITY_GUIDS));
+        assertEquals(3L, ((Number) task.getParameters().get(PARAM_CLASSIFIED)).longValue());
+        assertEquals(AtlasTask.Status.COMPLETE, task.getStatus());
+    }
+
+    @Test
+    void resumedPropagationExcludesEntitiesPropagatedToBeforeCheckpoint() throws Exception {
+        AtlasTask task = new AtlasTask(CLASSIFICATION_BULK_ADD, "admin", newParams(PHASE_PROPAGATE, 2));
+
+        service.create(task).run();
+
+        verify(entityStore, never()).addClassificationWithoutPropagation(anyList(), any(AtlasClassification.class));
+        verify(entityGraphMapper).addPropagationTargets(eq(Arrays.asList("guid-1", "guid-2")), eq("PII"), anySet());
+        verify(entityGraphMapper).propagateClassificationFromEntities(eq(Collections.singletonList("guid-3")), eq("PII"), anySet());
+        verify(entityGraphMapper, never()).propagateClassificationFromEntities(eq(Arrays.asList("guid-1", "guid-2")), any(), anySet());
+    }
+
+    private static Map<String, Object> newParams(String phase, int offset) {
+        Map<String, Object> ret = new HashMap<>();
+
+        ret.put(PARAM_CLASSIFICATION, AtlasType.toJson(new AtlasClassification("PII")));
+        ret.put(PARAM_PHASE, phase);
+        ret.put(PARAM_OFFSET, offset);
+        ret.put(PARAM_TOTAL, GUIDS.size());
+
+        return ret;
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.repository.store.graph.v2.tasks;
+
+import org.apache.compactatlas.graphdb.api.AtlasGraph;
+import org.apache.compactatlas.intg.DeleteType;
+import org.apache.compactatlas.intg.model.instance.EntityMutationResponse;
+import org.apache.compactatlas.intg.model.tasks.AtlasTask;
+import org.apache.compactatlas.intg.type.AtlasTypeRegistry;
+import org.apache.compactatlas.repository.repository.store.graph.AtlasEntityStore;
+import org.apache.compactatlas.repository.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.compactatlas.repository.repository.store.graph.v1.DeleteHandlerV1;
+import org.apache.compactatlas.repository.tasks.TaskManagement;
+import org.apache.compactatlas.serverapi.RequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.compactatlas.repository.repository.store.graph.v2.tasks.BulkDeleteService.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkDeleteServiceTest {
+    private TaskManagement     taskManagement;
+    private AtlasEntityStore   entityStore;
+    private DeleteHandlerV1    deleteHandler;
+    private BulkDeleteService  service;
+    private List<List<String>> deletedChunks;
+    private List<Boolean>      ownerMarkedForDelete;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DeleteHandlerDelegate deleteDelegate = mock(DeleteHandlerDelegate.class);
+
+        taskManagement       = mock(TaskManagement.class);
+        entityStore          = mock(AtlasEntityStore.class);
+        deleteHandler        = mock(DeleteHandlerV1.class);
+        service              = new BulkDeleteService(mock(AtlasGraph.class), mock(AtlasTypeRegistry.class), entityStore, deleteDelegate, taskManagement);
+        deletedChunks        = Collections.synchronizedList(new ArrayList<>());
+        ownerMarkedForDelete = Collections.synchronizedList(new ArrayList<>());
+
+        when(deleteDelegate.getHandler()).thenReturn(deleteHandler);
+        when(entityStore.deleteByVertexIds(anyList(), anyBoolean())).thenAnswer(invocation -> {
+            deletedChunks.add(new ArrayList<>(invocation.getArgument(0)));
+            ownerMarkedForDelete.add(RequestContext.get().isVertexToDelete("1"));
+
+            return new EntityMutationResponse();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    void plansOnceAndDeletesOwnedEntitiesBeforeOwners() throws Exception {
+        AtlasTask task = newTask(new HashMap<>());
+
+        when(deleteHandler.getOwnedVertexIds(anyList())).thenReturn(Arrays.asList(Arrays.asList((Object) 1L), Arrays.asList((Object) 2L, 3L)));
+
+        service.create(task).run();
+
+        assertEquals(Arrays.asList(Arrays.asList("2", "3"), Arrays.asList("1")), deletedChunks);
+        assertEquals(AtlasTask.Status.COMPLETE, task.getStatus());
+
+        ArgumentCaptor<Object> plan = ArgumentCaptor.forClass(Object.class);
+
+        verify(taskManagement).savePayload(same(task), eq(PARAM_PLAN), plan.capture());
+        verify(taskManagement, atLeastOnce()).updateParameters(task);
+
+        assertEquals(Arrays.asList(Arrays.asList("1"), Arrays.asList("2", "3")), plan.getValue());
+        assertFalse(task.getParameters().containsKey(PARAM_PLAN));
+        assertEquals(3, ((Number) task.getParameters().get(PARAM_TOTAL)).intValue());
+    }
+
+    @Test
+    void doesNotUpdateOwnersThatArePlannedForDelete() throws Exception {
+        AtlasTask task = newTask(new HashMap<>());
+
+        when(deleteHandler.getOwnedVertexIds(anyList())).thenReturn(Arrays.asList(Arrays.asList((Object) 1L), Arrays.asList((Object) 2L)));
+
+        service.create(task).run();
+
+        assertEquals(Arrays.asList(true, true), ownerMarkedForDelete);
+    }
+
+    @Test
+    void resumesFromCheckpointWithStoredPlan() throws Exception {
+        Map<String, Object> params = new HashMap<>();
+
+        params.put(PARAM_TOTAL, 3);
+        params.put(PARAM_LEVEL, 0);
+        params.put(PARAM_OFFSET, 0);
+
+        AtlasTask task = newTask(params);
+
+        when(taskManagement.getPayload(any(AtlasTask.class), eq(PARAM_PLAN), eq(List.class))).thenReturn(Arrays.asList(Arrays.asList("1"), Arrays.asList("2", "3")));
+
+        service.create(task).run();
+
+        assertEquals(Collections.singletonList(Collections.singletonList("1")), deletedChunks);
+        assertTrue(ownerMarkedForDelete.get(0));
+
+        verify(deleteHandler, never()).getOwnedVertexIds(anyList());
+        verify(taskManagement, never()).savePayload(any(), any(), any());
+    }
+
+    private static AtlasTask newTask(Map<String, Object> params) {
+        params.put(PARAM_ENTITY_GUIDS, new ArrayList<>());
+        params.put(PARAM_PURGE, false);
+        params.put(PARAM_DELETE_TYPE, DeleteType.SOFT.name());
+
+        return new AtlasTask(ENTITY_BULK_DELETE, "admin", params);
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.repository.tasks;
+
+import org.apache.compactatlas.graphdb.api.AtlasVertex;
+import org.apache.compactatlas.intg.model.tasks.AtlasTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskExecutorTest {
+    private static final String LONG_TASK  = "LONG_TASK";
+    private static final String SHORT_TASK = "SHORT_TASK";
+
+    @Test
+    void longRunningTaskDoesNotHoldUpOtherTasks() throws Exception {
+        CountDownLatch           releaseLongTask = new CountDownLatch(1);
+        CountDownLatch           shortTaskDone   = new CountDownLatch(1);
+        TaskRegistry             registry        = mock(TaskRegistry.class);
+        Map<String, TaskFactory> factories       = new HashMap<>();
+
+        when(registry.getVertex(anyString())).thenReturn(mock(AtlasVertex.class));
+
+        factories.put(LONG_TASK, new TestTaskFactory(LONG_TASK, true, releaseLongTask::await));
+        factories.put(SHORT_TASK, new TestTaskFactory(SHORT_TASK, false, shortTaskDone::countDown));
+
+        try {
+            new TaskExecutor(registry, factories, new TaskManagement.Statistics()).addAll(Arrays.asList(newTask(LONG_TASK), newTask(SHORT_TASK)));
+
+            assertTrue(shortTaskDone.await(10, TimeUnit.SECONDS), "task queued after a long running task did not run");
+        } finally {
+            releaseLongTask.countDown();
+        }
+    }
+
+    private static AtlasTask newTask(String type) {
+        return new AtlasTask(type, "admin", new HashMap<>());
+    }
+
+    private interface TaskBody {
+        void run() throws Exception;
+    }
+
+    private static class TestTaskFactory implements TaskFactory {
+        private final String   type;
+        private final boolean  isLongRunning;
+        private final TaskBody body;
+
+        TestTaskFactory(String type, boolean isLongRunning, TaskBody body) {
+            this.type          = type;
+            this.isLongRunning = isLongRunning;
+            this.body          = body;
+        }
+
+        @Override
+        public AbstractTask create(AtlasTask atlasTask) {
+            return new AbstractTask(atlasTask) {
+                @Override
+                public AtlasTask.Status perform() throws Exception {
+                    body.run();
+
+                    setStatus(AtlasTask.Status.COMPLETE);
+
+                    return getStatus();
+                }
+            };
+        }
+
+        @Override
+        public List<String> getSupportedTypes() {
+            return Collections.singletonList(type);
+        }
+
+        @Override
+        public boolean isLongRunning(String taskType) {
+            return isLongRunning;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.compactatlas.webapp.resources;
+
+import org.apache.compactatlas.intg.AtlasConfiguration;
+import org.apache.compactatlas.intg.AtlasErrorCode;
+import org.apache.compactatlas.intg.exception.AtlasBaseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdminResourceTest {
+    private static final File IMPORT_DIR = new File(AtlasConfiguration.BULK_LOAD_IMPORT_DIRECTORY.getString());
+
+    @Test
+    void acceptsPathUnderImportDirectory() throws Exception {
+        File file = new File(IMPORT_DIR, "tables/table_info.csv");
+
+        assertEquals(file.getCanonicalPath(), AdminResource.getImportPath("tableInfoPath", file.getPath()));
+    }
+
+    @Test
+    void rejectsPathOutsideImportDirectory() {
+        AtlasBaseException excp = assertThrows(AtlasBaseException.class, () -> AdminResource.getImportPath("tableInfoPath", "/etc/passwd"));
+
+        assertEquals(AtlasErrorCode.INVALID_PARAMETERS, excp.getAtlasErrorCode());
+    }
+
+    @Test
+    void rejectsPathEscapingImportDirectory() {
+        String path = new File(IMPORT_DIR, "../../../etc/passwd").getPath();
+
+        assertThrows(AtlasBaseException.class, () -> AdminResource.getImportPath("depInfoPath", path));
+    }
+}